@@ -0,0 +1,50 @@
+package org.crazymages.bankingspringproject.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The configuration of the exchange rate providers, bound from the {@code currency.providers} properties.
+ */
+@Data
+@ConfigurationProperties(prefix = "currency.providers")
+public class RateProviderProperties {
+
+    /**
+     * How the rates of several providers are combined into one rate per currency.
+     */
+    public enum Strategy {
+        /**
+         * The median of the rates returned by all providers that answered in time.
+         */
+        MEDIAN,
+        /**
+         * The rate of the first provider, in configuration order, that returned one.
+         */
+        FIRST_VALID
+    }
+
+    /**
+     * The kind of source a provider reads from.
+     */
+    public enum SourceType {
+        HTTP,
+        FILE
+    }
+
+    private List<Source> sources = new ArrayList<>();
+    private Duration deadline = Duration.ofSeconds(10);
+    private Strategy strategy = Strategy.FIRST_VALID;
+
+    @Data
+    public static class Source {
+        private String name;
+        private SourceType type = SourceType.HTTP;
+        private String url;
+        private String memberName = "conversion_rates";
+    }
+}
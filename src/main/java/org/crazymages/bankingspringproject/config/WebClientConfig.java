@@ -0,0 +1,41 @@
+package org.crazymages.bankingspringproject.config;
+
+import io.netty.channel.ChannelOption;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.time.Duration;
+
+/**
+ * Configures the shared HTTP client used to call the currency exchange rate provider.
+ * Connections are pooled and reused across calls, and every call is bounded by connect and read timeouts.
+ * It also enables the {@link RateProviderProperties} describing the exchange rate providers.
+ */
+@Configuration
+@EnableConfigurationProperties(RateProviderProperties.class)
+public class WebClientConfig {
+
+    @Bean
+    public WebClient currencyApiWebClient(@Value("${currency.api.max-connections:10}") int maxConnections,
+                                          @Value("${currency.api.connect-timeout-ms:2000}") int connectTimeoutMs,
+                                          @Value("${currency.api.read-timeout-ms:5000}") long readTimeoutMs) {
+        ConnectionProvider connectionProvider = ConnectionProvider.builder("currency-api")
+                .maxConnections(maxConnections)
+                .pendingAcquireTimeout(Duration.ofMillis(readTimeoutMs))
+                .maxIdleTime(Duration.ofSeconds(30))
+                .build();
+        HttpClient httpClient = HttpClient.create(connectionProvider)
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, connectTimeoutMs)
+                .responseTimeout(Duration.ofMillis(readTimeoutMs));
+        return WebClient.builder()
+                .clientConnector(new ReactorClientHttpConnector(httpClient))
+                .codecs(codecs -> codecs.defaultCodecs().maxInMemorySize(1024 * 1024))
+                .build();
+    }
+}
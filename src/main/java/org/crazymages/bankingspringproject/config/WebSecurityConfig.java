@@ -35,6 +35,7 @@ public class WebSecurityConfig {
                     auth.requestMatchers("/v3/api-docs/**").permitAll();
                     auth.requestMatchers("/swagger-ui/**").permitAll();
                     auth.requestMatchers("/swagger-ui.html").permitAll();
+                    auth.requestMatchers("/actuator/health/**").permitAll();
 
                     auth.requestMatchers("/exchange/get-rates").permitAll();
                     auth.requestMatchers("/registration/new-client").permitAll();
@@ -51,6 +52,9 @@ public class WebSecurityConfig {
                     auth.requestMatchers("/transaction/create").hasRole(Roles.USER.name());
                     auth.requestMatchers("/transaction/find/**").hasRole(Roles.USER.name());
                     auth.requestMatchers("/transaction/transfer/").hasRole(Roles.USER.name());
+                    auth.requestMatchers("/transaction/transfer/async").hasRole(Roles.USER.name());
+                    auth.requestMatchers("/exchange/quote").hasRole(Roles.USER.name());
+                    auth.requestMatchers("/transaction/status/{id}").hasRole(Roles.USER.name());
                     auth.requestMatchers("/manager/find/{uuid}").hasRole(Roles.MANAGER.name());
 
                     auth.requestMatchers("/account/**").hasRole(Roles.MANAGER.name());
@@ -3,7 +3,9 @@ package org.crazymages.bankingspringproject.controller;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.crazymages.bankingspringproject.dto.AccountDto;
+import org.crazymages.bankingspringproject.service.bank.BankLedgerService;
 import org.crazymages.bankingspringproject.service.database.AccountDatabaseService;
+import org.crazymages.bankingspringproject.service.ledger.LedgerService;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
@@ -15,7 +17,9 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.math.BigDecimal;
 import java.util.List;
+import java.util.UUID;
 
 /**
  * Controller class for managing accounts.
@@ -27,6 +31,8 @@ import java.util.List;
 public class AccountController {
 
     private final AccountDatabaseService accountDatabaseService;
+    private final BankLedgerService bankLedgerService;
+    private final LedgerService ledgerService;
 
     /**
      * Create a new account.
@@ -161,4 +167,27 @@ public class AccountController {
         List<AccountDto> accountDtoList = accountDatabaseService.findAllDtoByClientId(uuid);
         return accountDtoList.isEmpty() ? ResponseEntity.noContent().build() : ResponseEntity.ok(accountDtoList);
     }
+
+    /**
+     * Get the logical balance of the bank, summed over the main bank account and all of its shards.
+     *
+     * @return the logical bank balance
+     */
+    @GetMapping(value = "/bank/balance")
+    public ResponseEntity<BigDecimal> getBankBalance() {
+        log.info("endpoint request: get logical bank balance");
+        return ResponseEntity.ok(bankLedgerService.getLogicalBalance());
+    }
+
+    /**
+     * Get the balance of an account derived from the ledger.
+     *
+     * @param uuid the UUID of the account
+     * @return the account balance derived from its balance snapshot and ledger entries
+     */
+    @GetMapping(value = "/ledger-balance/{uuid}")
+    public ResponseEntity<BigDecimal> getLedgerBalance(@PathVariable String uuid) {
+        log.info("endpoint request: get ledger balance of account {}", uuid);
+        return ResponseEntity.ok(ledgerService.getBalance(UUID.fromString(uuid)));
+    }
 }
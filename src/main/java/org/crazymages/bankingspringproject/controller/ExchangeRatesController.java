@@ -3,12 +3,21 @@ package org.crazymages.bankingspringproject.controller;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.crazymages.bankingspringproject.dto.CurrencyExchangeRateDto;
+import org.crazymages.bankingspringproject.dto.ExchangeQuoteDto;
+import org.crazymages.bankingspringproject.dto.ExchangeQuoteRequestDto;
 import org.crazymages.bankingspringproject.service.database.CurrencyExchangeRateDatabaseService;
+import org.crazymages.bankingspringproject.service.exchange.ExchangeQuoteService;
+import org.crazymages.bankingspringproject.service.exchange.ExchangeRateHistoryService;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.time.Instant;
 import java.util.List;
 
 /**
@@ -21,6 +30,8 @@ import java.util.List;
 public class ExchangeRatesController {
 
     private final CurrencyExchangeRateDatabaseService currencyExchangeRateDatabaseService;
+    private final ExchangeRateHistoryService exchangeRateHistoryService;
+    private final ExchangeQuoteService exchangeQuoteService;
 
     /**
      * Retrieves the exchange rates from the database.
@@ -33,4 +44,32 @@ public class ExchangeRatesController {
         log.info("endpoint request: get exchange rates");
         return exchangeRates.isEmpty() ? ResponseEntity.noContent().build() : ResponseEntity.ok(exchangeRates);
     }
+
+    /**
+     * Retrieves the exchange rates that were in effect at the specified point in time.
+     *
+     * @param at The point in time as an ISO-8601 timestamp.
+     * @return The ResponseEntity containing the list of exchange rates.
+     */
+    @GetMapping(value = "/get-rates", params = "at")
+    public ResponseEntity<List<CurrencyExchangeRateDto>> getExchangeRatesAt(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant at) {
+        List<CurrencyExchangeRateDto> exchangeRates = exchangeRateHistoryService.findRatesAt(at);
+        log.info("endpoint request: get exchange rates at {}", at);
+        return exchangeRates.isEmpty() ? ResponseEntity.noContent().build() : ResponseEntity.ok(exchangeRates);
+    }
+
+    /**
+     * Creates a quote locking the current exchange rate of a currency pair for a limited time.
+     * The returned quote id can be referenced by a transfer to be converted at the quoted rate.
+     *
+     * @param quoteRequest The requested currency pair.
+     * @return The ResponseEntity containing the created quote.
+     */
+    @PostMapping(value = "/quote")
+    public ResponseEntity<ExchangeQuoteDto> createQuote(@RequestBody ExchangeQuoteRequestDto quoteRequest) {
+        ExchangeQuoteDto quote = exchangeQuoteService.createQuote(quoteRequest);
+        log.info("endpoint request: create exchange quote");
+        return ResponseEntity.ok(quote);
+    }
 }
@@ -3,14 +3,20 @@ package org.crazymages.bankingspringproject.controller;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.crazymages.bankingspringproject.dto.TransactionDto;
+import org.crazymages.bankingspringproject.dto.TransferResultDto;
+import org.crazymages.bankingspringproject.dto.TransferStatusDto;
 import org.crazymages.bankingspringproject.entity.Transaction;
 import org.crazymages.bankingspringproject.service.database.TransactionDatabaseService;
+import org.crazymages.bankingspringproject.service.idempotency.IdempotencyService;
+import org.crazymages.bankingspringproject.service.transfer.AsyncTransferService;
+import org.crazymages.bankingspringproject.service.transfer.TransferExecutor;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
@@ -26,19 +32,30 @@ import java.util.List;
 @Slf4j
 public class TransactionController {
 
+    private static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+
     private final TransactionDatabaseService transactionDatabaseService;
+    private final TransferExecutor transferExecutor;
+    private final IdempotencyService idempotencyService;
+    private final AsyncTransferService asyncTransferService;
 
     /**
      * Creates a new transaction.
      *
      * @param transactionDto The transaction to create.
+     * @param idempotencyKey The optional key identifying retries of the same request.
      * @return The created transaction.
      */
     @PostMapping(value = "/create")
-    public ResponseEntity<TransactionDto> createTransaction(@RequestBody TransactionDto transactionDto) {
+    public ResponseEntity<TransactionDto> createTransaction(
+            @RequestBody TransactionDto transactionDto,
+            @RequestHeader(value = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey) {
         log.info("endpoint request: create transaction");
-        transactionDatabaseService.create(transactionDto);
-        return ResponseEntity.status(HttpStatus.CREATED).body(transactionDto);
+        return idempotencyService.execute(idempotencyKey, "transaction/create", transactionDto, TransactionDto.class,
+                () -> {
+                    transactionDatabaseService.create(transactionDto);
+                    return ResponseEntity.status(HttpStatus.CREATED).body(transactionDto);
+                });
     }
 
     /**
@@ -95,14 +112,66 @@ public class TransactionController {
     /**
      * Transfers funds between accounts.
      *
-     * @param transaction The transaction containing the transfer details.
+     * @param transaction    The transaction containing the transfer details.
+     * @param idempotencyKey The optional key identifying retries of the same request.
      * @return A response indicating the success of the operation.
      */
     @PostMapping(value = "/transfer/")
-    public ResponseEntity<String> transferFunds(@RequestBody Transaction transaction) {
+    public ResponseEntity<String> transferFunds(
+            @RequestBody Transaction transaction,
+            @RequestHeader(value = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey) {
         log.info("endpoint request: execute money transfer");
-        transactionDatabaseService.transferFunds(transaction);
-        return ResponseEntity.ok().build();
+        return idempotencyService.execute(idempotencyKey, "transaction/transfer", transaction, String.class,
+                () -> {
+                    transferExecutor.execute(transaction);
+                    return ResponseEntity.ok().build();
+                });
+    }
+
+    /**
+     * Accepts a fund transfer for asynchronous execution.
+     *
+     * @param transaction    The transaction containing the transfer details.
+     * @param idempotencyKey The optional key identifying retries of the same request.
+     * @return The status of the accepted transfer, including the transfer ID to query it by.
+     */
+    @PostMapping(value = "/transfer/async")
+    public ResponseEntity<TransferStatusDto> transferFundsAsync(
+            @RequestBody Transaction transaction,
+            @RequestHeader(value = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey) {
+        log.info("endpoint request: accept asynchronous money transfer");
+        return idempotencyService.execute(idempotencyKey, "transaction/transfer/async", transaction,
+                TransferStatusDto.class,
+                () -> ResponseEntity.status(HttpStatus.ACCEPTED).body(asyncTransferService.submit(transaction)));
+    }
+
+    /**
+     * Retrieves the status of an asynchronously executed transfer.
+     *
+     * @param id The ID of the transfer.
+     * @return The status of the transfer.
+     */
+    @GetMapping(value = "/status/{id}")
+    public ResponseEntity<TransferStatusDto> getTransferStatus(@PathVariable String id) {
+        log.info("endpoint request: get status of transfer {}", id);
+        return ResponseEntity.ok(asyncTransferService.getStatus(id));
+    }
+
+    /**
+     * Transfers funds for a batch of transactions in one request.
+     *
+     * @param transactions   The transactions containing the transfer details.
+     * @param idempotencyKey The optional key identifying retries of the same request.
+     * @return The result of each transfer, in request order.
+     */
+    @PostMapping(value = "/transfer/batch")
+    public ResponseEntity<TransferResultDto[]> transferFundsBatch(
+            @RequestBody List<Transaction> transactions,
+            @RequestHeader(value = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey) {
+        log.info("endpoint request: execute batch money transfer");
+        return idempotencyService.execute(idempotencyKey, "transaction/transfer/batch", transactions,
+                TransferResultDto[].class,
+                () -> ResponseEntity.ok(transferExecutor.executeBatch(transactions).toArray(TransferResultDto[]::new)));
     }
 
     /**
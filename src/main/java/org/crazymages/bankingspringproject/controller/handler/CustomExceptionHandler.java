@@ -3,15 +3,19 @@ package org.crazymages.bankingspringproject.controller.handler;
 import lombok.extern.slf4j.Slf4j;
 import org.crazymages.bankingspringproject.exception.TransactionNotAllowedException;
 import org.crazymages.bankingspringproject.exception.DataNotFoundException;
+import org.crazymages.bankingspringproject.exception.IdempotencyKeyConflictException;
 import org.crazymages.bankingspringproject.exception.InsufficientFundsException;
+import org.crazymages.bankingspringproject.exception.SpendingLimitExceededException;
 import org.crazymages.bankingspringproject.exception.UserAlreadyExistsException;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.ConcurrencyFailureException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 
 import java.time.format.DateTimeParseException;
+import java.util.concurrent.RejectedExecutionException;
 
 /**
  * Global exception handler for handling custom exceptions.
@@ -24,6 +28,8 @@ public class CustomExceptionHandler {
     private String dataNotFoundLogMessage;
     @Value("${log.insufficient.funds}")
     private String insufficientFundsLogMessage;
+    @Value("${log.spending.limit.exceeded}")
+    private String spendingLimitExceededLogMessage;
     @Value("${log.transaction.not.allowed}")
     private String transactionNotAllowedLogMessage;
     @Value("${log.illegal.argument}")
@@ -32,6 +38,12 @@ public class CustomExceptionHandler {
     private String dateTimeParseLogMessage;
     @Value("${log.username.already.taken}")
     private String registrationWithExistingUsernameLogMessage;
+    @Value("${log.idempotency.conflict}")
+    private String idempotencyConflictLogMessage;
+    @Value("${log.transfer.rejected}")
+    private String transferRejectedLogMessage;
+    @Value("${log.transfer.conflict}")
+    private String transferConflictLogMessage;
 
     /**
      * Handles the {@link DataNotFoundException} exception.
@@ -57,6 +69,18 @@ public class CustomExceptionHandler {
         return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
     }
 
+    /**
+     * Handles the {@link SpendingLimitExceededException} exception.
+     *
+     * @param e the exception
+     * @return the ResponseEntity with HTTP status 400
+     */
+    @ExceptionHandler(SpendingLimitExceededException.class)
+    public ResponseEntity<String> handleSpendingLimitExceededException(Exception e) {
+        log.error(spendingLimitExceededLogMessage, e.getMessage());
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
+    }
+
     /**
      * Handles the {@link TransactionNotAllowedException} exception.
      *
@@ -95,4 +119,40 @@ public class CustomExceptionHandler {
         log.error(registrationWithExistingUsernameLogMessage);
         return ResponseEntity.status(HttpStatus.CONFLICT).build();
     }
+
+    /**
+     * Handles the {@link IdempotencyKeyConflictException} exception.
+     *
+     * @param e the exception
+     * @return the ResponseEntity with HTTP status 409
+     */
+    @ExceptionHandler(IdempotencyKeyConflictException.class)
+    public ResponseEntity<String> handleIdempotencyKeyConflictException(Exception e) {
+        log.error(idempotencyConflictLogMessage, e.getMessage());
+        return ResponseEntity.status(HttpStatus.CONFLICT).build();
+    }
+
+    /**
+     * Handles the {@link RejectedExecutionException} exception.
+     *
+     * @param e the exception
+     * @return the ResponseEntity with HTTP status 503
+     */
+    @ExceptionHandler(RejectedExecutionException.class)
+    public ResponseEntity<String> handleRejectedExecutionException(Exception e) {
+        log.error(transferRejectedLogMessage, e.getMessage());
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+    }
+
+    /**
+     * Handles the {@link ConcurrencyFailureException} exception left to the client to retry.
+     *
+     * @param e the exception
+     * @return the ResponseEntity with HTTP status 409
+     */
+    @ExceptionHandler(ConcurrencyFailureException.class)
+    public ResponseEntity<String> handleConcurrencyFailureException(Exception e) {
+        log.error(transferConflictLogMessage, e.getMessage());
+        return ResponseEntity.status(HttpStatus.CONFLICT).build();
+    }
 }
@@ -0,0 +1,23 @@
+package org.crazymages.bankingspringproject.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+/**
+ * Data transfer object (DTO) class representing an exchange rate quote.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ExchangeQuoteDto {
+    private String quoteId;
+    private String fromCurrency;
+    private String toCurrency;
+    private BigDecimal rate;
+    private String expiresAt;
+}
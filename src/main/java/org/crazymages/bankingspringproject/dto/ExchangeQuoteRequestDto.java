@@ -0,0 +1,18 @@
+package org.crazymages.bankingspringproject.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Data transfer object (DTO) class representing a request for an exchange rate quote.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ExchangeQuoteRequestDto {
+    private String fromCurrency;
+    private String toCurrency;
+}
@@ -1,7 +1,9 @@
 package org.crazymages.bankingspringproject.dto;
 
+import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
+import lombok.NoArgsConstructor;
 
 import java.math.BigDecimal;
 
@@ -10,6 +12,8 @@ import java.math.BigDecimal;
  */
 @Data
 @Builder
+@NoArgsConstructor
+@AllArgsConstructor
 public class TransactionDto {
     private String debitAccountUuid;
     private String creditAccountUuid;
@@ -0,0 +1,20 @@
+package org.crazymages.bankingspringproject.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Data transfer object (DTO) class representing the result of a single transfer within a batch.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TransferResultDto {
+    private int index;
+    private String transactionUuid;
+    private String status;
+    private String message;
+}
@@ -0,0 +1,20 @@
+package org.crazymages.bankingspringproject.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Data transfer object (DTO) class representing the status of an asynchronously executed transfer.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TransferStatusDto {
+    private String transferId;
+    private String status;
+    private String transactionUuid;
+    private String message;
+}
@@ -0,0 +1,71 @@
+package org.crazymages.bankingspringproject.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.crazymages.bankingspringproject.entity.enums.TransactionType;
+import org.crazymages.bankingspringproject.entity.enums.TransferStatus;
+import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.UpdateTimestamp;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.util.UUID;
+
+/**
+ * A class representing a fund transfer accepted for asynchronous execution.
+ * It is stored before the transfer is acknowledged, so that an accepted transfer survives a restart,
+ * and its status is updated in the same database transaction that applies the transfer.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "async_transfers",
+        indexes = @Index(name = "idx_async_transfers_status", columnList = "status, created_at"))
+public class AsyncTransfer {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    @Column(name = "uuid")
+    private UUID uuid;
+
+    @CreationTimestamp
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private Timestamp createdAt;
+
+    @UpdateTimestamp
+    @Column(name = "updated_at")
+    private Timestamp updatedAt;
+
+    @Column(name = "debit_account_uuid", nullable = false, updatable = false)
+    private UUID debitAccountUuid;
+
+    @Column(name = "credit_account_uuid", updatable = false)
+    private UUID creditAccountUuid;
+
+    @Column(name = "type", updatable = false)
+    private TransactionType type;
+
+    @Column(name = "amount", precision = 12, scale = 2, updatable = false)
+    private BigDecimal amount;
+
+    @Column(name = "description", updatable = false)
+    private String description;
+
+    @Column(name = "quote_id", updatable = false)
+    private String quoteId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false)
+    private TransferStatus status;
+
+    @Column(name = "transaction_uuid")
+    private UUID transactionUuid;
+
+    @Column(name = "message")
+    private String message;
+}
@@ -0,0 +1,61 @@
+package org.crazymages.bankingspringproject.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.UpdateTimestamp;
+import org.springframework.data.domain.Persistable;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.util.UUID;
+
+/**
+ * A class representing a balance snapshot.
+ * It stores the balance of an account including all ledger entries up to and including the last entry ID.
+ * Snapshots are keyed by their account, so a snapshot that was not loaded is known to be new and is inserted directly.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "balance_snapshots")
+public class BalanceSnapshot implements Persistable<UUID> {
+
+    @Id
+    @Column(name = "account_uuid")
+    private UUID accountUuid;
+
+    @UpdateTimestamp
+    @Column(name = "updated_at", nullable = false)
+    private Timestamp updatedAt;
+
+    @Column(name = "balance", precision = 15, scale = 2, nullable = false)
+    private BigDecimal balance;
+
+    @Column(name = "last_entry_id", nullable = false)
+    private Long lastEntryId;
+
+    @Transient
+    @Builder.Default
+    private boolean newSnapshot = true;
+
+    @Override
+    public UUID getId() {
+        return accountUuid;
+    }
+
+    @Override
+    public boolean isNew() {
+        return newSnapshot;
+    }
+
+    @PostLoad
+    @PostPersist
+    void markNotNew() {
+        newSnapshot = false;
+    }
+}
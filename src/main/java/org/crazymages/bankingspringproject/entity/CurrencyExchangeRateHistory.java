@@ -0,0 +1,38 @@
+package org.crazymages.bankingspringproject.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+
+/**
+ * A class representing one currency rate of a versioned exchange rate set.
+ * All rates recorded by one refresh share the same effective timestamp; rows are never updated.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "currency_exchange_rate_history",
+        indexes = @Index(name = "idx_currency_exchange_rate_history_effective_at", columnList = "effective_at"))
+public class CurrencyExchangeRateHistory {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "id")
+    private Long id;
+
+    @Column(name = "effective_at", nullable = false, updatable = false)
+    private Timestamp effectiveAt;
+
+    @Column(name = "currency_code", nullable = false, updatable = false)
+    private String currencyCode;
+
+    @Column(name = "exchange_rate", nullable = false, updatable = false)
+    private BigDecimal exchangeRate;
+}
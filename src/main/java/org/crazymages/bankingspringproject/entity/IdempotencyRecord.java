@@ -0,0 +1,76 @@
+package org.crazymages.bankingspringproject.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.CreationTimestamp;
+import org.springframework.data.domain.Persistable;
+
+import java.sql.Timestamp;
+import java.util.UUID;
+
+/**
+ * A class representing an idempotency record.
+ * It stores the outcome of a request made with an idempotency key, so that retries
+ * of the same request can be answered without executing it again.
+ * A record without a response status belongs to a request that is still in progress;
+ * its reservation is identified by the lease token and may be taken over once the lease has expired.
+ * Keys are scoped to the principal that sent them, so the stored key combines both.
+ */
+@Data
+@NoArgsConstructor
+@Entity
+@Table(name = "idempotency_keys")
+public class IdempotencyRecord implements Persistable<String> {
+
+    @Id
+    @Column(name = "idempotency_key", length = 512)
+    private String idempotencyKey;
+
+    @CreationTimestamp
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private Timestamp createdAt;
+
+    @Column(name = "endpoint", length = 100, nullable = false)
+    private String endpoint;
+
+    @Column(name = "request_hash", length = 64, nullable = false)
+    private String requestHash;
+
+    @Column(name = "reserved_at")
+    private Timestamp reservedAt;
+
+    @Column(name = "lease_token")
+    private UUID leaseToken;
+
+    @Column(name = "response_status")
+    private Integer responseStatus;
+
+    @Column(name = "response_body", columnDefinition = "text")
+    private String responseBody;
+
+    @Transient
+    private boolean newRecord = true;
+
+    public IdempotencyRecord(String idempotencyKey, String endpoint, String requestHash) {
+        this.idempotencyKey = idempotencyKey;
+        this.endpoint = endpoint;
+        this.requestHash = requestHash;
+    }
+
+    @Override
+    public String getId() {
+        return idempotencyKey;
+    }
+
+    @Override
+    public boolean isNew() {
+        return newRecord;
+    }
+
+    @PostLoad
+    @PostPersist
+    void markNotNew() {
+        newRecord = false;
+    }
+}
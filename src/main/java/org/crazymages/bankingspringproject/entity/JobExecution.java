@@ -0,0 +1,74 @@
+package org.crazymages.bankingspringproject.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.crazymages.bankingspringproject.entity.enums.JobStatus;
+import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.UpdateTimestamp;
+
+import java.sql.Timestamp;
+
+/**
+ * A class representing one run of a chunk-oriented batch job.
+ * The checkpoint of the last committed chunk is updated in the same transaction as the work of the chunk,
+ * so a run interrupted by a crash or a redeploy resumes right after the last committed chunk.
+ * A partitioned run is recorded as one execution per partition.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "job_execution",
+        uniqueConstraints = @UniqueConstraint(name = "uk_job_execution_run",
+                columnNames = {"job_name", "run_key", "partition_index"}))
+public class JobExecution {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "id")
+    private Long id;
+
+    @Column(name = "job_name", nullable = false, updatable = false, length = 100)
+    private String jobName;
+
+    @Column(name = "run_key", nullable = false, updatable = false, length = 100)
+    private String runKey;
+
+    @Column(name = "partition_index", nullable = false, updatable = false)
+    private int partitionIndex;
+
+    @Builder.Default
+    @Column(name = "partition_count", nullable = false, updatable = false)
+    private int partitionCount = 1;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false)
+    private JobStatus status;
+
+    @Column(name = "checkpoint")
+    private String checkpoint;
+
+    @Column(name = "chunk_count", nullable = false)
+    private int chunkCount;
+
+    @Column(name = "processed_count", nullable = false)
+    private long processedCount;
+
+    @Column(name = "last_error", length = 1000)
+    private String lastError;
+
+    @CreationTimestamp
+    @Column(name = "started_at", nullable = false, updatable = false)
+    private Timestamp startedAt;
+
+    @UpdateTimestamp
+    @Column(name = "updated_at", nullable = false)
+    private Timestamp updatedAt;
+
+    @Column(name = "finished_at")
+    private Timestamp finishedAt;
+}
@@ -0,0 +1,56 @@
+package org.crazymages.bankingspringproject.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.crazymages.bankingspringproject.entity.enums.CurrencyCode;
+import org.crazymages.bankingspringproject.entity.enums.LedgerEntryType;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.util.UUID;
+
+/**
+ * A class representing a ledger entry.
+ * Every movement of funds is recorded as one debit and one credit entry; entries are never updated.
+ * Identifiers are drawn from the sequence by the insert statement itself,
+ * so they grow in the order entries are written.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "ledger_entries", indexes = @Index(name = "idx_ledger_entries_account", columnList = "account_uuid, id"))
+public class LedgerEntry {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "ledger_entries_seq")
+    @SequenceGenerator(name = "ledger_entries_seq", sequenceName = "ledger_entries_seq", allocationSize = 1)
+    @Column(name = "id")
+    private Long id;
+
+    @CreationTimestamp
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private Timestamp createdAt;
+
+    @Column(name = "transaction_uuid", updatable = false)
+    private UUID transactionUuid;
+
+    @Column(name = "account_uuid", nullable = false, updatable = false)
+    private UUID accountUuid;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "entry_type", nullable = false, updatable = false)
+    private LedgerEntryType entryType;
+
+    @Column(name = "amount", precision = 15, scale = 2, nullable = false, updatable = false)
+    private BigDecimal amount;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "currency_code", updatable = false)
+    private CurrencyCode currencyCode;
+}
@@ -22,7 +22,8 @@ import java.util.UUID;
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
-@Table(name = "transactions")
+@Table(name = "transactions",
+        indexes = @Index(name = "idx_transactions_debit_account", columnList = "debit_account_uuid, created_at"))
 public class Transaction {
 
     @Id
@@ -47,9 +48,12 @@ public class Transaction {
     @Column(name = "currency_code")
     private CurrencyCode currencyCode;
 
-    @Column(name = "amount", precision = 12, scale = 2, columnDefinition = "default 0.00")
+    @Column(name = "amount", precision = 12, scale = 2, columnDefinition = "numeric(12, 2) default 0.00")
     private BigDecimal amount;
 
     @Column(name = "description")
     private String description;
+
+    @Column(name = "quote_id")
+    private String quoteId;
 }
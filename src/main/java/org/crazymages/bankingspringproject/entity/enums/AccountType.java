@@ -10,5 +10,6 @@ public enum AccountType {
     DEPOSIT,
     CREDIT_CARD,
     LOAN,
-    INVESTMENT
+    INVESTMENT,
+    BANK_SHARD
 }
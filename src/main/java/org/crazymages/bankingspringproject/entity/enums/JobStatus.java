@@ -0,0 +1,11 @@
+package org.crazymages.bankingspringproject.entity.enums;
+
+/**
+ * Enum representing the status of a batch job execution.
+ */
+public enum JobStatus {
+
+    STARTED,
+    COMPLETED,
+    FAILED
+}
@@ -0,0 +1,10 @@
+package org.crazymages.bankingspringproject.entity.enums;
+
+/**
+ * Enum representing the side of a Ledger Entry.
+ */
+public enum LedgerEntryType {
+
+    DEBIT,
+    CREDIT
+}
@@ -0,0 +1,12 @@
+package org.crazymages.bankingspringproject.entity.enums;
+
+/**
+ * Enum representing the outcome of a requested fund transfer.
+ */
+public enum TransferStatus {
+
+    ACCEPTED,
+    COMPLETED,
+    REJECTED,
+    FAILED
+}
@@ -0,0 +1,16 @@
+package org.crazymages.bankingspringproject.exception;
+
+/**
+ * Exception thrown when a call to an external service is rejected because its circuit breaker is open.
+ */
+public class CircuitBreakerOpenException extends RuntimeException {
+
+    /**
+     * Constructs a new {@code CircuitBreakerOpenException} with the specified detail message.
+     *
+     * @param message the detail message
+     */
+    public CircuitBreakerOpenException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,17 @@
+package org.crazymages.bankingspringproject.exception;
+
+/**
+ * Exception thrown when an idempotency key is reused for a different request
+ * or while the original request is still being processed.
+ */
+public class IdempotencyKeyConflictException extends RuntimeException {
+
+    /**
+     * Constructs a new {@code IdempotencyKeyConflictException} with the specified detail message.
+     *
+     * @param message the detail message
+     */
+    public IdempotencyKeyConflictException(String message) {
+        super(message);
+    }
+}
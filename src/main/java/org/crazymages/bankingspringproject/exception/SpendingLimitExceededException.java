@@ -0,0 +1,16 @@
+package org.crazymages.bankingspringproject.exception;
+
+/**
+ * Exception thrown when a debit would take an account over its daily or monthly spending limit.
+ */
+public class SpendingLimitExceededException extends RuntimeException {
+
+    /**
+     * Constructs a new {@code SpendingLimitExceededException} with the specified detail message.
+     *
+     * @param message the detail message
+     */
+    public SpendingLimitExceededException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,54 @@
+package org.crazymages.bankingspringproject.health;
+
+import org.crazymages.bankingspringproject.scheduler.CurrencyExchangeRateUpdater;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+
+/**
+ * A health indicator that reports DOWN until the currency exchange rates have been refreshed
+ * within the configured maximum age. It is part of the readiness group, so traffic is only
+ * routed to an instance once it can convert currencies with fresh rates.
+ */
+@Component
+public class ExchangeRatesHealthIndicator implements HealthIndicator {
+
+    private final CurrencyExchangeRateUpdater currencyExchangeRateUpdater;
+    private final Duration maxAge;
+    private final Clock clock;
+
+    @Autowired
+    public ExchangeRatesHealthIndicator(CurrencyExchangeRateUpdater currencyExchangeRateUpdater,
+                                        @Value("${currency.rates.max-age-minutes:1560}") long maxAgeMinutes) {
+        this(currencyExchangeRateUpdater, Duration.ofMinutes(maxAgeMinutes), Clock.systemUTC());
+    }
+
+    ExchangeRatesHealthIndicator(CurrencyExchangeRateUpdater currencyExchangeRateUpdater,
+                                 Duration maxAge,
+                                 Clock clock) {
+        this.currencyExchangeRateUpdater = currencyExchangeRateUpdater;
+        this.maxAge = maxAge;
+        this.clock = clock;
+    }
+
+    @Override
+    public Health health() {
+        Optional<Instant> lastRefreshedAt = currencyExchangeRateUpdater.getLastRefreshedAt();
+        if (lastRefreshedAt.isEmpty()) {
+            return Health.down().withDetail("reason", "no exchange rates loaded").build();
+        }
+        Duration age = Duration.between(lastRefreshedAt.get(), clock.instant());
+        Health.Builder builder = age.compareTo(maxAge) <= 0 ? Health.up() : Health.down();
+        return builder
+                .withDetail("lastRefreshedAt", lastRefreshedAt.get().toString())
+                .withDetail("maxAge", maxAge.toString())
+                .build();
+    }
+}
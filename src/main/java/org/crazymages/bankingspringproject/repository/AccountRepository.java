@@ -1,16 +1,23 @@
 package org.crazymages.bankingspringproject.repository;
 
+import jakarta.persistence.LockModeType;
 import org.crazymages.bankingspringproject.entity.Account;
 import org.crazymages.bankingspringproject.entity.enums.AccountStatus;
 import org.crazymages.bankingspringproject.entity.enums.AccountType;
+import org.crazymages.bankingspringproject.entity.enums.AgreementStatus;
+import org.crazymages.bankingspringproject.entity.enums.CurrencyCode;
 import org.crazymages.bankingspringproject.entity.enums.ProductStatus;
 import org.crazymages.bankingspringproject.entity.enums.ProductType;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.math.BigDecimal;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -29,6 +36,46 @@ public interface AccountRepository extends JpaRepository<Account, UUID> {
      */
     List<Account> findAccountsByStatus(AccountStatus status);
 
+    /**
+     * Finds an account by UUID and acquires a pessimistic write lock on its row.
+     * The lock is held until the surrounding transaction completes.
+     *
+     * @param uuid The account UUID
+     * @return The optional locked account
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT ac FROM Account ac WHERE ac.uuid = :uuid")
+    Optional<Account> findAccountByUuidForUpdate(@Param("uuid") UUID uuid);
+
+    /**
+     * Finds accounts by their UUIDs and acquires pessimistic write locks on their rows in UUID order.
+     *
+     * @param uuids The account UUIDs
+     * @return The list of locked accounts, ordered by UUID
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT ac FROM Account ac WHERE ac.uuid IN :uuids ORDER BY ac.uuid")
+    List<Account> findAccountsByUuidInForUpdate(@Param("uuids") Collection<UUID> uuids);
+
+    /**
+     * Reads the current balances of accounts by their UUIDs without locking their rows.
+     *
+     * @param uuids The account UUIDs
+     * @return The list of account and balance pairs
+     */
+    @Query("SELECT ac.uuid AS accountUuid, ac.balance AS balance FROM Account ac WHERE ac.uuid IN :uuids")
+    List<AccountBalance> findBalancesByUuidIn(@Param("uuids") Collection<UUID> uuids);
+
+    /**
+     * Finds the UUIDs of accounts that sort after the given UUID, in UUID order.
+     *
+     * @param uuid     The UUID after which account UUIDs are returned
+     * @param pageable The page size
+     * @return The list of account UUIDs
+     */
+    @Query("SELECT ac.uuid FROM Account ac WHERE ac.uuid > :uuid ORDER BY ac.uuid")
+    List<UUID> findUuidsAfter(@Param("uuid") UUID uuid, Pageable pageable);
+
     /**
      * Blocks accounts by client UUID.
      *
@@ -62,6 +109,15 @@ public interface AccountRepository extends JpaRepository<Account, UUID> {
      */
     List<Account> findAccountsByClientUuid(UUID uuid);
 
+    /**
+     * Finds accounts by client UUID and account type.
+     *
+     * @param uuid The client UUID
+     * @param type The account type
+     * @return The list of accounts matching the given client UUID and account type
+     */
+    List<Account> findAccountsByClientUuidAndType(UUID uuid, AccountType type);
+
     /**
      * Finds an account by client UUID and account type.
      *
@@ -101,4 +157,62 @@ public interface AccountRepository extends JpaRepository<Account, UUID> {
             "AND pr.status = :productStatus")
     List<Account> findAccountsWhereProductTypeIsAndProductStatusIs(
             @Param("productType") ProductType productType, @Param("productStatus") ProductStatus productStatus);
+
+    /**
+     * Finds, in UUID order, the accounts after the given UUID and up to the given bound that hold the given kind
+     * of product, together with their balance, currency and the interest rate of their agreement.
+     *
+     * @param after           The UUID after which accounts are returned
+     * @param upTo            The UUID of the last account that may be returned
+     * @param productType     The product type
+     * @param productStatus   The product status
+     * @param accountStatus   The account status
+     * @param agreementStatus The agreement status
+     * @param pageable        The page size
+     * @return The list of account and interest rate tuples, ordered by account UUID
+     */
+    @Query("SELECT ac.uuid AS accountUuid, ac.balance AS balance, ac.currencyCode AS currencyCode, " +
+            "ag.interestRate AS interestRate " +
+            "FROM Account ac " +
+            "JOIN Agreement ag ON ag.accountUuid = ac.uuid " +
+            "JOIN Product pr ON pr.uuid = ag.productUuid " +
+            "WHERE ac.uuid > :after " +
+            "AND ac.uuid <= :upTo " +
+            "AND pr.type = :productType " +
+            "AND pr.status = :productStatus " +
+            "AND ac.status = :accountStatus " +
+            "AND ag.status = :agreementStatus " +
+            "ORDER BY ac.uuid")
+    List<AccountInterest> findAccountInterestBetween(
+            @Param("after") UUID after,
+            @Param("upTo") UUID upTo,
+            @Param("productType") ProductType productType,
+            @Param("productStatus") ProductStatus productStatus,
+            @Param("accountStatus") AccountStatus accountStatus,
+            @Param("agreementStatus") AgreementStatus agreementStatus,
+            Pageable pageable);
+
+    /**
+     * A projection of an account balance.
+     */
+    interface AccountBalance {
+
+        UUID getAccountUuid();
+
+        BigDecimal getBalance();
+    }
+
+    /**
+     * A projection of an account balance together with the interest rate of its agreement.
+     */
+    interface AccountInterest {
+
+        UUID getAccountUuid();
+
+        BigDecimal getBalance();
+
+        CurrencyCode getCurrencyCode();
+
+        BigDecimal getInterestRate();
+    }
 }
@@ -0,0 +1,64 @@
+package org.crazymages.bankingspringproject.repository;
+
+import jakarta.persistence.LockModeType;
+import org.crazymages.bankingspringproject.entity.AsyncTransfer;
+import org.crazymages.bankingspringproject.entity.enums.TransferStatus;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * The repository interface for managing transfers accepted for asynchronous execution.
+ */
+@Repository
+public interface AsyncTransferRepository extends JpaRepository<AsyncTransfer, UUID> {
+
+    /**
+     * Finds the transfers with the given UUIDs that are still in the given status and locks them for update.
+     *
+     * @param uuids  The transfer UUIDs
+     * @param status The status of the transfers
+     * @return The list of locked transfers, ordered by UUID
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT at FROM AsyncTransfer at WHERE at.uuid IN :uuids AND at.status = :status ORDER BY at.uuid")
+    List<AsyncTransfer> findAllByUuidInAndStatusForUpdate(@Param("uuids") Collection<UUID> uuids,
+                                                         @Param("status") TransferStatus status);
+
+    /**
+     * Finds the transfers in the given status that were accepted before the given time.
+     *
+     * @param status    The status of the transfers
+     * @param threshold The acceptance time before which transfers are returned
+     * @param pageable  The page size
+     * @return The list of transfers, oldest first
+     */
+    @Query("SELECT at FROM AsyncTransfer at WHERE at.status = :status AND at.createdAt < :threshold " +
+            "ORDER BY at.createdAt")
+    List<AsyncTransfer> findAllByStatusCreatedBefore(@Param("status") TransferStatus status,
+                                                     @Param("threshold") Timestamp threshold, Pageable pageable);
+
+    /**
+     * Marks the transfers with the given UUIDs as failed, unless they have already been executed.
+     *
+     * @param uuids   The transfer UUIDs
+     * @param message The failure message
+     * @return The number of updated transfers
+     */
+    @Modifying
+    @Query("UPDATE AsyncTransfer at " +
+            "SET at.status = org.crazymages.bankingspringproject.entity.enums.TransferStatus.FAILED, " +
+            "at.message = :message " +
+            "WHERE at.uuid IN :uuids " +
+            "AND at.status = org.crazymages.bankingspringproject.entity.enums.TransferStatus.ACCEPTED")
+    int markFailed(@Param("uuids") Collection<UUID> uuids, @Param("message") String message);
+}
@@ -0,0 +1,14 @@
+package org.crazymages.bankingspringproject.repository;
+
+import org.crazymages.bankingspringproject.entity.BalanceSnapshot;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.UUID;
+
+/**
+ * The repository interface for managing balance snapshots.
+ */
+@Repository
+public interface BalanceSnapshotRepository extends JpaRepository<BalanceSnapshot, UUID> {
+}
@@ -1,16 +1,25 @@
 package org.crazymages.bankingspringproject.repository;
 
+import jakarta.persistence.QueryHint;
 import org.crazymages.bankingspringproject.entity.Client;
 import org.crazymages.bankingspringproject.entity.enums.AccountType;
+import org.crazymages.bankingspringproject.entity.enums.AgreementStatus;
 import org.crazymages.bankingspringproject.entity.enums.ClientStatus;
+import org.crazymages.bankingspringproject.entity.enums.CurrencyCode;
+import org.crazymages.bankingspringproject.entity.enums.ProductType;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.math.BigDecimal;
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 /**
  * The repository interface for managing clients.
@@ -72,6 +81,17 @@ public interface ClientRepository extends JpaRepository<Client, UUID> {
             "WHERE cl.uuid = :uuid")
     Boolean isClientStatusBlocked(@Param("uuid") UUID uuid);
 
+    /**
+     * Finds the UUIDs of the given clients whose status is not blocked.
+     *
+     * @param uuids The client UUIDs
+     * @return The list of UUIDs of existing clients that are not blocked
+     */
+    @Query("SELECT cl.uuid FROM Client cl " +
+            "WHERE cl.uuid IN :uuids " +
+            "AND cl.status <> 'BLOCKED'")
+    List<UUID> findNotBlockedClientUuids(@Param("uuids") Collection<UUID> uuids);
+
     /**
      * Finds all active clients with two different account types.
      *
@@ -87,6 +107,49 @@ public interface ClientRepository extends JpaRepository<Client, UUID> {
             @Param("firstType") AccountType firstType,
             @Param("secondType") AccountType secondType);
 
+    /**
+     * Streams, in client UUID order, the clients after the given UUID and up to the given bound that have
+     * a current account, a savings account and an agreement of the given status for the given product,
+     * together with the UUIDs of both accounts, the currency of the current account and the agreed amount.
+     * The rows are fetched from the database in batches as the stream is consumed; the stream must be consumed
+     * within a transaction and closed afterwards.
+     *
+     * @param after           The UUID after which clients are returned
+     * @param upTo            The UUID of the last client that may be returned
+     * @param clientStatus    The client status
+     * @param currentType     The type of the account paying
+     * @param savingsType     The type of the account paid
+     * @param productType     The product type of the agreement
+     * @param agreementStatus The agreement status
+     * @param pageable        The maximum number of rows
+     * @return The stream of recurring transfer tuples, ordered by client UUID
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT cl.uuid AS clientUuid, cur.uuid AS currentAccountUuid, cur.currencyCode AS currencyCode, " +
+            "sav.uuid AS savingsAccountUuid, ag.amount AS amount " +
+            "FROM Client cl " +
+            "JOIN Account cur ON cur.clientUuid = cl.uuid " +
+            "JOIN Account sav ON sav.clientUuid = cl.uuid " +
+            "JOIN Agreement ag ON ag.accountUuid = sav.uuid " +
+            "JOIN Product pr ON pr.uuid = ag.productUuid " +
+            "WHERE cl.uuid > :after " +
+            "AND cl.uuid <= :upTo " +
+            "AND cl.status = :clientStatus " +
+            "AND cur.type = :currentType " +
+            "AND sav.type = :savingsType " +
+            "AND pr.type = :productType " +
+            "AND ag.status = :agreementStatus " +
+            "ORDER BY cl.uuid")
+    Stream<RecurringTransfer> streamRecurringTransfersBetween(
+            @Param("after") UUID after,
+            @Param("upTo") UUID upTo,
+            @Param("clientStatus") ClientStatus clientStatus,
+            @Param("currentType") AccountType currentType,
+            @Param("savingsType") AccountType savingsType,
+            @Param("productType") ProductType productType,
+            @Param("agreementStatus") AgreementStatus agreementStatus,
+            Pageable pageable);
+
     /**
      * Finds all clients that are not deleted.
      *
@@ -110,4 +173,20 @@ public interface ClientRepository extends JpaRepository<Client, UUID> {
      */
     @Query("UPDATE Client cl SET cl.status = 'BLOCKED' WHERE cl.uuid = :uuid")
     void blockClientById(@Param("uuid") UUID uuid);
+
+    /**
+     * A projection of a recurring transfer from the current to the savings account of a client.
+     */
+    interface RecurringTransfer {
+
+        UUID getClientUuid();
+
+        UUID getCurrentAccountUuid();
+
+        CurrencyCode getCurrencyCode();
+
+        UUID getSavingsAccountUuid();
+
+        BigDecimal getAmount();
+    }
 }
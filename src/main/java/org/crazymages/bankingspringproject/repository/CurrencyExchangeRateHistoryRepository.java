@@ -0,0 +1,36 @@
+package org.crazymages.bankingspringproject.repository;
+
+import org.crazymages.bankingspringproject.entity.CurrencyExchangeRateHistory;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.util.List;
+
+/**
+ * The repository interface for managing versioned currency exchange rates.
+ */
+@Repository
+public interface CurrencyExchangeRateHistoryRepository extends JpaRepository<CurrencyExchangeRateHistory, Long> {
+
+    /**
+     * Finds all rates of the versions that became effective after the given timestamp.
+     *
+     * @param after The timestamp after which versions became effective
+     * @return The rates ordered by their effective timestamp
+     */
+    @Query("SELECT h FROM CurrencyExchangeRateHistory h WHERE h.effectiveAt > :after ORDER BY h.effectiveAt")
+    List<CurrencyExchangeRateHistory> findAllEffectiveAfter(@Param("after") Timestamp after);
+
+    /**
+     * Finds all rates of the latest version that became effective at or before the given timestamp.
+     *
+     * @param at The point in time
+     * @return The rates of the version in effect at that time, or an empty list if there is none
+     */
+    @Query("SELECT h FROM CurrencyExchangeRateHistory h WHERE h.effectiveAt = " +
+            "(SELECT MAX(v.effectiveAt) FROM CurrencyExchangeRateHistory v WHERE v.effectiveAt <= :at)")
+    List<CurrencyExchangeRateHistory> findAllEffectiveAt(@Param("at") Timestamp at);
+}
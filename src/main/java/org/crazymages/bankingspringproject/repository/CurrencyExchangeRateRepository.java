@@ -5,6 +5,7 @@ import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.sql.Timestamp;
 import java.util.List;
 import java.util.Optional;
 
@@ -23,4 +24,12 @@ public interface CurrencyExchangeRateRepository extends JpaRepository <CurrencyE
     List<CurrencyExchangeRate> findAllNotDeleted();
 
     Optional<CurrencyExchangeRate> findByCurrencyCode(String currencyCode);
+
+    /**
+     * Finds the time the most recently updated currency exchange rate that is not deleted was written.
+     *
+     * @return The last update time, or an empty optional if there are no rates
+     */
+    @Query("SELECT MAX(cer.updatedAt) FROM CurrencyExchangeRate cer WHERE cer.isDeleted = false ")
+    Optional<Timestamp> findLastUpdatedAt();
 }
@@ -0,0 +1,72 @@
+package org.crazymages.bankingspringproject.repository;
+
+import org.crazymages.bankingspringproject.entity.IdempotencyRecord;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.util.UUID;
+
+/**
+ * The repository interface for managing idempotency records.
+ */
+@Repository
+public interface IdempotencyRecordRepository extends JpaRepository<IdempotencyRecord, String> {
+
+    /**
+     * Deletes idempotency records created before the given time.
+     *
+     * @param threshold The creation time before which records are deleted
+     * @return The number of deleted records
+     */
+    @Modifying
+    @Query("DELETE FROM IdempotencyRecord ir WHERE ir.createdAt < :threshold")
+    int deleteCreatedBefore(@Param("threshold") Timestamp threshold);
+
+    /**
+     * Takes over the reservation of a request that is still in progress once its lease has expired.
+     *
+     * @param idempotencyKey The stored idempotency key
+     * @param leaseToken     The lease token of the new reservation
+     * @param reservedAt     The time of the new reservation
+     * @param expiredBefore  The reservation time before which a lease has expired
+     * @return The number of taken over records, either 0 or 1
+     */
+    @Modifying
+    @Query("UPDATE IdempotencyRecord ir SET ir.leaseToken = :leaseToken, ir.reservedAt = :reservedAt " +
+            "WHERE ir.idempotencyKey = :idempotencyKey " +
+            "AND ir.responseStatus IS NULL " +
+            "AND (ir.reservedAt IS NULL OR ir.reservedAt < :expiredBefore)")
+    int takeOver(@Param("idempotencyKey") String idempotencyKey, @Param("leaseToken") UUID leaseToken,
+                 @Param("reservedAt") Timestamp reservedAt, @Param("expiredBefore") Timestamp expiredBefore);
+
+    /**
+     * Records the response of a request, provided its reservation has not been taken over.
+     *
+     * @param idempotencyKey The stored idempotency key
+     * @param leaseToken     The lease token of the reservation
+     * @param responseStatus The response status
+     * @param responseBody   The serialized response body
+     * @return The number of completed records, either 0 or 1
+     */
+    @Modifying
+    @Query("UPDATE IdempotencyRecord ir SET ir.responseStatus = :responseStatus, ir.responseBody = :responseBody " +
+            "WHERE ir.idempotencyKey = :idempotencyKey AND ir.leaseToken = :leaseToken")
+    int complete(@Param("idempotencyKey") String idempotencyKey, @Param("leaseToken") UUID leaseToken,
+                 @Param("responseStatus") Integer responseStatus, @Param("responseBody") String responseBody);
+
+    /**
+     * Releases the reservation of a request that failed, provided it has not been taken over.
+     *
+     * @param idempotencyKey The stored idempotency key
+     * @param leaseToken     The lease token of the reservation
+     * @return The number of released records, either 0 or 1
+     */
+    @Modifying
+    @Query("DELETE FROM IdempotencyRecord ir " +
+            "WHERE ir.idempotencyKey = :idempotencyKey AND ir.leaseToken = :leaseToken AND ir.responseStatus IS NULL")
+    int release(@Param("idempotencyKey") String idempotencyKey, @Param("leaseToken") UUID leaseToken);
+}
@@ -0,0 +1,60 @@
+package org.crazymages.bankingspringproject.repository;
+
+import jakarta.persistence.LockModeType;
+import org.crazymages.bankingspringproject.entity.JobExecution;
+import org.crazymages.bankingspringproject.entity.enums.JobStatus;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * The repository interface for managing batch job executions.
+ */
+@Repository
+public interface JobExecutionRepository extends JpaRepository<JobExecution, Long> {
+
+    /**
+     * Finds the execution of a partition of a job for the given run.
+     *
+     * @param jobName        The job name
+     * @param runKey         The key identifying the run
+     * @param partitionIndex The partition index, zero for an unpartitioned run
+     * @return The optional job execution
+     */
+    Optional<JobExecution> findByJobNameAndRunKeyAndPartitionIndex(String jobName, String runKey,
+                                                                   int partitionIndex);
+
+    /**
+     * Finds the executions of all partitions of a job for the given run.
+     *
+     * @param jobName The job name
+     * @param runKey  The key identifying the run
+     * @return The list of job executions, in partition order
+     */
+    List<JobExecution> findByJobNameAndRunKeyOrderByPartitionIndexAsc(String jobName, String runKey);
+
+    /**
+     * Finds a job execution by ID and acquires a pessimistic write lock on its row.
+     * The lock is held until the surrounding transaction completes.
+     *
+     * @param id The job execution ID
+     * @return The optional locked job execution
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT je FROM JobExecution je WHERE je.id = :id")
+    Optional<JobExecution> findByIdForUpdate(@Param("id") Long id);
+
+    /**
+     * Finds job executions by status, oldest first.
+     *
+     * @param statuses The job statuses
+     * @return The list of job executions matching one of the given statuses
+     */
+    List<JobExecution> findByStatusInOrderByIdAsc(Collection<JobStatus> statuses);
+}
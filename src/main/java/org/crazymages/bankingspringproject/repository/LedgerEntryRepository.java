@@ -0,0 +1,61 @@
+package org.crazymages.bankingspringproject.repository;
+
+import org.crazymages.bankingspringproject.entity.LedgerEntry;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * The repository interface for managing ledger entries.
+ */
+@Repository
+public interface LedgerEntryRepository extends JpaRepository<LedgerEntry, Long> {
+
+    /**
+     * Calculates the net change of an account balance from the ledger entries written after the given entry ID.
+     *
+     * @param accountUuid The account UUID
+     * @param afterId     The entry ID after which entries are summed
+     * @return The sum of credits minus the sum of debits
+     */
+    @Query("SELECT COALESCE(SUM(CASE WHEN le.entryType = 'CREDIT' THEN le.amount ELSE -le.amount END), 0) " +
+            "FROM LedgerEntry le " +
+            "WHERE le.accountUuid = :accountUuid " +
+            "AND le.id > :afterId")
+    BigDecimal sumDeltaAfter(@Param("accountUuid") UUID accountUuid, @Param("afterId") Long afterId);
+
+    /**
+     * Calculates, for each of the given accounts, the net change of the balance from the ledger entries
+     * not yet included in its balance snapshot, together with the last of those entry IDs.
+     *
+     * @param accountUuids The account UUIDs
+     * @return The deltas of the accounts that have entries since their snapshot
+     */
+    @Query("SELECT le.accountUuid AS accountUuid, " +
+            "SUM(CASE WHEN le.entryType = 'CREDIT' THEN le.amount ELSE -le.amount END) AS delta, " +
+            "MAX(le.id) AS lastEntryId " +
+            "FROM LedgerEntry le " +
+            "WHERE le.accountUuid IN :accountUuids " +
+            "AND le.id > COALESCE((SELECT bs.lastEntryId FROM BalanceSnapshot bs " +
+            "WHERE bs.accountUuid = le.accountUuid), 0) " +
+            "GROUP BY le.accountUuid")
+    List<LedgerDelta> findDeltasSinceSnapshot(@Param("accountUuids") Collection<UUID> accountUuids);
+
+    /**
+     * A projection of the ledger entries of one account written since its balance snapshot.
+     */
+    interface LedgerDelta {
+
+        UUID getAccountUuid();
+
+        BigDecimal getDelta();
+
+        Long getLastEntryId();
+    }
+}
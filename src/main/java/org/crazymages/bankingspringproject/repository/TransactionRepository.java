@@ -2,12 +2,16 @@ package org.crazymages.bankingspringproject.repository;
 
 import org.crazymages.bankingspringproject.entity.Transaction;
 import org.crazymages.bankingspringproject.entity.enums.CurrencyCode;
+import org.crazymages.bankingspringproject.entity.enums.TransactionType;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.math.BigDecimal;
 import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
 
@@ -88,4 +92,54 @@ public interface TransactionRepository extends JpaRepository<Transaction, UUID>
             "WHERE tr.createdAt >= :from " +
             "AND tr.createdAt <= :to")
     List<Transaction> findTransactionsBetweenDates(@Param("from") Timestamp from, @Param("to") Timestamp to);
+
+    /**
+     * Sums the amounts debited from each account per day between the specified instants.
+     *
+     * @param from        The start instant, inclusive
+     * @param to          The end instant, exclusive
+     * @param exemptTypes The transaction types that do not count as spending
+     * @return The daily debited amounts per account
+     */
+    @Query("SELECT tr.debitAccountUuid AS accountUuid, CAST(tr.createdAt AS LocalDate) AS day, " +
+            "SUM(tr.amount) AS amount " +
+            "FROM Transaction tr " +
+            "WHERE tr.createdAt >= :from " +
+            "AND tr.createdAt < :to " +
+            "AND (tr.type IS NULL OR tr.type NOT IN :exemptTypes) " +
+            "GROUP BY tr.debitAccountUuid, CAST(tr.createdAt AS LocalDate)")
+    List<DailySpending> sumDailySpendingBetween(@Param("from") Timestamp from, @Param("to") Timestamp to,
+                                                @Param("exemptTypes") Collection<TransactionType> exemptTypes);
+
+    /**
+     * Sums the amounts debited from one account per day since the given instant,
+     * skipping the exempt transaction types.
+     *
+     * @param accountUuid The UUID of the debited account
+     * @param from        The start instant, inclusive
+     * @param exemptTypes The transaction types that do not count as spending
+     * @return The daily debited amounts of the account
+     */
+    @Query("SELECT tr.debitAccountUuid AS accountUuid, CAST(tr.createdAt AS LocalDate) AS day, " +
+            "SUM(tr.amount) AS amount " +
+            "FROM Transaction tr " +
+            "WHERE tr.debitAccountUuid = :accountUuid " +
+            "AND tr.createdAt >= :from " +
+            "AND (tr.type IS NULL OR tr.type NOT IN :exemptTypes) " +
+            "GROUP BY tr.debitAccountUuid, CAST(tr.createdAt AS LocalDate)")
+    List<DailySpending> sumDailySpendingOfAccountSince(@Param("accountUuid") UUID accountUuid,
+                                                       @Param("from") Timestamp from,
+                                                       @Param("exemptTypes") Collection<TransactionType> exemptTypes);
+
+    /**
+     * Projection of the amount debited from an account on one day.
+     */
+    interface DailySpending {
+
+        UUID getAccountUuid();
+
+        LocalDate getDay();
+
+        BigDecimal getAmount();
+    }
 }
@@ -0,0 +1,27 @@
+package org.crazymages.bankingspringproject.scheduler;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.crazymages.bankingspringproject.service.transfer.AsyncTransferService;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * A scheduler component for queueing again accepted asynchronous transfers that have not been executed.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class AsyncTransferRecoveryScheduler {
+
+    private final AsyncTransferService asyncTransferService;
+
+    /**
+     * Recovers accepted asynchronous transfers based on a scheduled cron expression.
+     */
+    @Scheduled(cron = "${transfer.async.recovery}")
+    public void recoverAcceptedTransfers() {
+        log.info("Recovering accepted async transfers");
+        asyncTransferService.recoverAccepted();
+    }
+}
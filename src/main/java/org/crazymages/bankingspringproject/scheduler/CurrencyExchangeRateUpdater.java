@@ -1,74 +1,157 @@
 package org.crazymages.bankingspringproject.scheduler;
 
-import com.fasterxml.jackson.databind.JsonNode;
-import jakarta.annotation.PostConstruct;
-import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.crazymages.bankingspringproject.entity.CurrencyExchangeRate;
+import org.crazymages.bankingspringproject.entity.enums.CurrencyCode;
 import org.crazymages.bankingspringproject.service.database.CurrencyExchangeRateDatabaseService;
 import org.crazymages.bankingspringproject.service.api.CurrencyApiService;
+import org.crazymages.bankingspringproject.service.api.CurrencyRates;
+import org.crazymages.bankingspringproject.service.exchange.ExchangeRateHistoryService;
+import org.crazymages.bankingspringproject.service.exchange.ExchangeRateSnapshotService;
+import org.crazymages.bankingspringproject.service.job.ChunkJob;
+import org.crazymages.bankingspringproject.service.job.ChunkResult;
+import org.crazymages.bankingspringproject.service.job.JobRunner;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
-import java.math.BigDecimal;
-import java.util.HashMap;
-import java.util.Iterator;
-import java.util.Map;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
 
 
 /**
  * A component responsible for updating currency exchange rates.
  * It retrieves currency rates from a currency API and stores them in the database.
+ * The scheduled update runs as a single-chunk job, so an update interrupted by a restart is retried on startup.
+ * The rates are fetched before the chunk transaction is opened; only storing them, refreshing the snapshot and
+ * the checkpoint run in it, so a slow provider holds neither a connection nor the lock of the job execution.
  */
 @Component
-@RequiredArgsConstructor
 @Slf4j
-public class CurrencyExchangeRateUpdater {
+public class CurrencyExchangeRateUpdater implements ChunkJob {
+
+    static final String JOB_NAME = "exchange-rate-update";
+
+    private static final Set<String> SUPPORTED_CODES = Arrays.stream(CurrencyCode.values())
+            .map(CurrencyCode::name)
+            .collect(Collectors.toUnmodifiableSet());
 
     private final CurrencyApiService currencyApiService;
     private final CurrencyExchangeRateDatabaseService currencyExchangeRateDatabaseService;
+    private final ExchangeRateSnapshotService exchangeRateSnapshotService;
+    private final ExchangeRateHistoryService exchangeRateHistoryService;
+    private final JobRunner jobRunner;
+    private final boolean supportedOnly;
+
+    private volatile Instant lastRefreshedAt;
+
+    public CurrencyExchangeRateUpdater(CurrencyApiService currencyApiService,
+                                       CurrencyExchangeRateDatabaseService currencyExchangeRateDatabaseService,
+                                       ExchangeRateSnapshotService exchangeRateSnapshotService,
+                                       ExchangeRateHistoryService exchangeRateHistoryService,
+                                       JobRunner jobRunner,
+                                       @Value("${currency.rates.supported-only:true}") boolean supportedOnly) {
+        this.currencyApiService = currencyApiService;
+        this.currencyExchangeRateDatabaseService = currencyExchangeRateDatabaseService;
+        this.exchangeRateSnapshotService = exchangeRateSnapshotService;
+        this.exchangeRateHistoryService = exchangeRateHistoryService;
+        this.jobRunner = jobRunner;
+        this.supportedOnly = supportedOnly;
+    }
+
+    /**
+     * Starts the first refresh of the currency exchange rates in the background once the application is ready.
+     * Until it completes, the last persisted rates are served, and their update time is taken
+     * as the last refresh so that readiness reflects how old they are.
+     *
+     * @return The background thread running the refresh.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public Thread warmUp() {
+        currencyExchangeRateDatabaseService.findLastUpdatedAt().ifPresent(updatedAt -> {
+            if (lastRefreshedAt == null) {
+                lastRefreshedAt = updatedAt;
+            }
+        });
+        Thread warmUp = new Thread(this::refreshInBackground, "exchange-rate-warm-up");
+        warmUp.setDaemon(true);
+        warmUp.start();
+        return warmUp;
+    }
 
     /**
-     * Initializes the currency exchange rate updater.
-     * It should be executed after the bean is constructed.
+     * Retrieves the time the currency exchange rates were last refreshed from the primary rate provider.
+     * Rates filled in from fallback providers only are stored, but do not count as a refresh.
+     *
+     * @return The last refresh time, or an empty optional if the rates were never refreshed.
      */
-    @PostConstruct
-    public void init() {
-        updateCurrencyExchangeRates();
+    public Optional<Instant> getLastRefreshedAt() {
+        return Optional.ofNullable(lastRefreshedAt);
     }
 
     /**
-     * Updates the currency exchange rates based on a scheduled cron expression.
+     * Runs the currency exchange rate update based on a scheduled cron expression.
+     * The run is keyed by its date, so an update that already completed today is not repeated.
      */
     @Scheduled(cron = "${currency.rates.check}")
-    public void updateCurrencyExchangeRates() {
-        JsonNode jsonNode = currencyApiService.getCurrencyRates();
-        Map<String, BigDecimal> currencyMap = jsonToHashMap(jsonNode);
-
-        currencyMap.forEach((currencyCode, exchangeRate) -> {
-            CurrencyExchangeRate currencyRate = new CurrencyExchangeRate();
-            currencyRate.setCurrencyCode(currencyCode);
-            currencyRate.setExchangeRate(exchangeRate);
-            currencyExchangeRateDatabaseService.create(currencyRate);
-        });
+    public void checkCurrencyExchangeRates() {
+        jobRunner.run(this, LocalDate.now(ZoneOffset.UTC).toString());
+    }
+
+    @Override
+    public String getJobName() {
+        return JOB_NAME;
+    }
+
+    @Override
+    public ChunkResult processChunk(String checkpoint) {
+        return prepareChunk(checkpoint).get();
+    }
+
+    @Override
+    public Supplier<ChunkResult> prepareChunk(String checkpoint) {
+        CurrencyRates currencyRates = fetchRates();
+        return () -> ChunkResult.finished(null, storeRates(currencyRates));
     }
 
     /**
-     * Converts a JsonNode to a HashMap of currency codes and exchange rates.
-     *
-     * @param jsonNode The JsonNode representing the currency rates.
-     * @return The HashMap of currency codes and exchange rates.
+     * Updates the currency exchange rates.
+     * All rates are written in one bulk upsert; if only supported currencies are kept,
+     * rates of currencies missing from {@link CurrencyCode} are skipped while the response is parsed.
+     * Once the rates are stored, the in-memory exchange rate snapshot is rebuilt and swapped in,
+     * and recorded as a new version of the exchange rate history if the rates changed.
      */
-    public Map<String, BigDecimal> jsonToHashMap(JsonNode jsonNode) {
-        Map<String, BigDecimal> currencyMap = new HashMap<>();
-        Iterator<String> currencyCodes = jsonNode.fieldNames();
-
-        while (currencyCodes.hasNext()) {
-            String currencyCode = currencyCodes.next();
-            BigDecimal exchangeRate = BigDecimal.valueOf(jsonNode.get(currencyCode).asDouble());
-            currencyMap.put(currencyCode, exchangeRate);
+    public void updateCurrencyExchangeRates() {
+        storeRates(fetchRates());
+    }
+
+    private CurrencyRates fetchRates() {
+        return currencyApiService.getCurrencyRates(supportedOnly ? SUPPORTED_CODES::contains : currencyCode -> true);
+    }
+
+    private int storeRates(CurrencyRates currencyRates) {
+        int changed = currencyExchangeRateDatabaseService.upsertAll(currencyRates.rates());
+        log.info("currency exchange rates updated, {} rows changed", changed);
+        exchangeRateHistoryService.record(exchangeRateSnapshotService.refresh());
+        if (currencyRates.primaryAnswered()) {
+            lastRefreshedAt = Instant.now();
         }
+        return changed;
+    }
 
-        return currencyMap;
+    private void refreshInBackground() {
+        try {
+            updateCurrencyExchangeRates();
+            log.info("currency exchange rates warmed up");
+        } catch (RuntimeException e) {
+            log.error("currency exchange rate warm-up failed, serving the last persisted rates", e);
+        }
     }
 }
@@ -0,0 +1,27 @@
+package org.crazymages.bankingspringproject.scheduler;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.crazymages.bankingspringproject.service.idempotency.IdempotencyService;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * A scheduler component for purging expired idempotency records from the database.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class IdempotencyKeyPurgeScheduler {
+
+    private final IdempotencyService idempotencyService;
+
+    /**
+     * Purges expired idempotency records based on a scheduled cron expression.
+     */
+    @Scheduled(cron = "${idempotency.purge}")
+    public void purgeExpiredIdempotencyKeys() {
+        log.info("Purging expired idempotency keys");
+        idempotencyService.purgeExpired();
+    }
+}
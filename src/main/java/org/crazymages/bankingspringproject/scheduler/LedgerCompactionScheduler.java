@@ -0,0 +1,27 @@
+package org.crazymages.bankingspringproject.scheduler;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.crazymages.bankingspringproject.service.ledger.LedgerService;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * A scheduler component for compacting ledger entries into balance snapshots.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class LedgerCompactionScheduler {
+
+    private final LedgerService ledgerService;
+
+    /**
+     * Compacts the balance snapshots based on a scheduled cron expression.
+     */
+    @Scheduled(cron = "${ledger.compaction}")
+    public void compactBalanceSnapshots() {
+        log.info("Compacting balance snapshots");
+        ledgerService.compactSnapshots();
+    }
+}
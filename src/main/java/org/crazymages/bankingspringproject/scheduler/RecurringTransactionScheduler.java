@@ -1,78 +1,160 @@
 package org.crazymages.bankingspringproject.scheduler;
 
-import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.crazymages.bankingspringproject.dto.TransferResultDto;
 import org.crazymages.bankingspringproject.entity.Account;
-import org.crazymages.bankingspringproject.entity.Agreement;
-import org.crazymages.bankingspringproject.entity.Client;
 import org.crazymages.bankingspringproject.entity.Transaction;
-import org.crazymages.bankingspringproject.entity.enums.AgreementStatus;
 import org.crazymages.bankingspringproject.entity.enums.TransactionType;
-import org.crazymages.bankingspringproject.service.database.AccountDatabaseService;
-import org.crazymages.bankingspringproject.service.database.AgreementDatabaseService;
+import org.crazymages.bankingspringproject.entity.enums.TransferStatus;
+import org.crazymages.bankingspringproject.repository.ClientRepository.RecurringTransfer;
 import org.crazymages.bankingspringproject.service.database.ClientDatabaseService;
 import org.crazymages.bankingspringproject.service.database.TransactionDatabaseService;
+import org.crazymages.bankingspringproject.service.job.ChunkResult;
+import org.crazymages.bankingspringproject.service.job.JobRunner;
+import org.crazymages.bankingspringproject.service.job.PartitionedChunkJob;
+import org.crazymages.bankingspringproject.service.job.UuidPartition;
 import org.crazymages.bankingspringproject.service.utils.initializer.TransactionInitializer;
+import org.crazymages.bankingspringproject.service.utils.lock.AccountLockManager;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
+import java.util.UUID;
+import java.util.stream.Stream;
 
 /**
  * A component class that executes recurring transactions
  * between same customer current and savings accounts on a scheduled basis.
+ * The clients are processed as a chunk job in client UUID order; each chunk of transfers is executed as one
+ * batch in the transaction that stores the checkpoint, which is the UUID of the last client of the chunk.
+ * The accounts and the agreed amount of every client of a chunk are read by one streamed query,
+ * so a chunk costs one read and one batch of transfers rather than several reads per client.
+ * The clients are split into UUID range partitions processed concurrently; the transfers of a client only touch
+ * the accounts of that client, so chunks of different partitions do not contend for account locks.
+ * The batch joins the chunk transaction directly instead of going through the retrying transfer executor:
+ * a locking conflict dooms the whole chunk transaction, so the chunk fails and is retried as a unit by the
+ * job runner, from the last committed checkpoint.
+ * The in-process locks of all accounts of a chunk are taken before the batch and held until the chunk transaction
+ * completes, so single transfers on those accounts wait in memory instead of on the row locks of the batch.
  */
 @Component
-@RequiredArgsConstructor
 @Slf4j
-public class RecurringTransactionScheduler {
+public class RecurringTransactionScheduler implements PartitionedChunkJob {
+
+    static final String JOB_NAME = "recurring-transactions";
 
     private final ClientDatabaseService clientDatabaseService;
     private final TransactionDatabaseService transactionDatabaseService;
-    private final AccountDatabaseService accountDatabaseService;
-    private final AgreementDatabaseService agreementDatabaseService;
     private final TransactionInitializer transactionInitializer;
+    private final AccountLockManager accountLockManager;
+    private final JobRunner jobRunner;
+    private final int chunkSize;
+    private final int partitionCount;
+
+    public RecurringTransactionScheduler(ClientDatabaseService clientDatabaseService,
+                                         TransactionDatabaseService transactionDatabaseService,
+                                         TransactionInitializer transactionInitializer,
+                                         AccountLockManager accountLockManager,
+                                         JobRunner jobRunner,
+                                         @Value("${recurring.transaction.chunk-size:500}") int chunkSize,
+                                         @Value("${recurring.transaction.partitions:1}") int partitionCount) {
+        if (chunkSize < 1 || partitionCount < 1) {
+            throw new IllegalArgumentException("Recurring transaction chunk size and partition count must be positive");
+        }
+        this.clientDatabaseService = clientDatabaseService;
+        this.transactionDatabaseService = transactionDatabaseService;
+        this.transactionInitializer = transactionInitializer;
+        this.accountLockManager = accountLockManager;
+        this.jobRunner = jobRunner;
+        this.chunkSize = chunkSize;
+        this.partitionCount = partitionCount;
+    }
 
     /**
      * Executes recurring transactions based on a scheduled cron expression.
+     * The run is keyed by its date, so a run interrupted midway resumes after its last committed chunk.
      */
     @Scheduled(cron = "${recurring.transaction}")
     public void executeRecurringTransactions() {
-        List<Client> clients = clientDatabaseService.findClientsWithCurrentAndSavingsAccounts();
-        for (Client client : clients) {
-            if (isRecurringTransactionAllowed(client)) {
-                executeTransaction(client);
-            }
-        }
         log.info("executing recurring transactions");
+        jobRunner.runPartitioned(this, LocalDate.now(ZoneOffset.UTC).toString());
     }
 
-    /**
-     * Checks if recurring transactions are allowed for the given client.
-     *
-     * @param client The client for whom to check the recurring transaction allowance
-     * @return {@code true} if recurring transactions are allowed, {@code false} otherwise
-     */
-    public boolean isRecurringTransactionAllowed(Client client) {
-        Agreement agreement = agreementDatabaseService.findSavingsAgreementByClientId(client.getUuid());
-        return agreement.getStatus().equals(AgreementStatus.ACTIVE);
+    @Override
+    public String getJobName() {
+        return JOB_NAME;
+    }
+
+    @Override
+    public int getPartitionCount() {
+        return partitionCount;
+    }
+
+    @Override
+    public ChunkResult processChunk(UuidPartition partition, String checkpoint) {
+        UUID after = checkpoint != null ? UUID.fromString(checkpoint) : partition.after();
+        List<Transaction> transactions = new ArrayList<>();
+        UUID lastClientUuid = null;
+        int rows = 0;
+        try (Stream<RecurringTransfer> recurringTransfers =
+                     clientDatabaseService.streamRecurringTransfersBetween(after, partition.upTo(), chunkSize)) {
+            Iterator<RecurringTransfer> iterator = recurringTransfers.iterator();
+            while (iterator.hasNext()) {
+                RecurringTransfer recurringTransfer = iterator.next();
+                rows++;
+                if (!recurringTransfer.getClientUuid().equals(lastClientUuid)) {
+                    transactions.add(initializeTransaction(recurringTransfer));
+                    lastClientUuid = recurringTransfer.getClientUuid();
+                }
+            }
+        }
+        if (lastClientUuid == null) {
+            return ChunkResult.finished(checkpoint, 0);
+        }
+
+        List<UUID> accountUuids = transactions.stream()
+                .flatMap(transaction -> Stream.of(
+                        transaction.getDebitAccountUuid(), transaction.getCreditAccountUuid()))
+                .toList();
+        List<TransferResultDto> results = accountLockManager.executeWithLocks(accountUuids,
+                () -> transactionDatabaseService.transferFundsBatch(transactions));
+        int completed = 0;
+        for (TransferResultDto result : results) {
+            if (TransferStatus.COMPLETED.name().equals(result.getStatus())) {
+                completed++;
+            } else {
+                log.warn("recurring transaction {} rejected: {}", result.getIndex(), result.getMessage());
+            }
+        }
+        String last = lastClientUuid.toString();
+        return rows < chunkSize ? ChunkResult.finished(last, completed) : ChunkResult.next(last, completed);
     }
 
     /**
-     * Executes a transaction for the given client.
+     * Initializes the recurring transaction of a client, from its current to its savings account.
+     * A client holding several accounts of a type is paid once, from and to the first ones returned.
      *
-     * @param client The client for whom to execute the transaction
+     * @param recurringTransfer The accounts and the agreed amount of the client.
+     * @return The transaction from the current to the savings account of the client.
      */
-    public void executeTransaction(Client client) {
-        Account currentAccount = accountDatabaseService.findCurrentByClientId(client.getUuid());
-        Account savingsAccount = accountDatabaseService.findSavingsByClientId(client.getUuid());
-        Agreement agreement = agreementDatabaseService.findSavingsAgreementByClientId(client.getUuid());
+    Transaction initializeTransaction(RecurringTransfer recurringTransfer) {
+        Account currentAccount = Account.builder()
+                .uuid(recurringTransfer.getCurrentAccountUuid())
+                .currencyCode(recurringTransfer.getCurrencyCode())
+                .build();
+        Account savingsAccount = Account.builder()
+                .uuid(recurringTransfer.getSavingsAccountUuid())
+                .build();
 
         Transaction transaction = transactionInitializer.initializeTransaction(currentAccount, savingsAccount);
         transaction.setType(TransactionType.RECURRING_PAYMENT);
-        transaction.setAmount(agreement.getAmount());
+        transaction.setAmount(recurringTransfer.getAmount());
         transaction.setDescription("Recurring payment");
-
-        transactionDatabaseService.transferFunds(transaction);
+        return transaction;
     }
 }
@@ -1,12 +1,13 @@
 package org.crazymages.bankingspringproject.service.api;
 
-import com.fasterxml.jackson.databind.JsonNode;
+import java.util.function.Predicate;
 
 public interface CurrencyApiService {
     /**
-     * Retrieves the JSON response body from the currency API.
+     * Retrieves the current exchange rates from the currency API.
      *
-     * @return The JSON response body as a JsonNode.
+     * @param currencyFilter The filter deciding which currency codes to keep.
+     * @return The exact exchange rates by currency code, tagged with whether the primary provider answered.
      */
-    JsonNode getCurrencyRates();
+    CurrencyRates getCurrencyRates(Predicate<String> currencyFilter);
 }
@@ -0,0 +1,14 @@
+package org.crazymages.bankingspringproject.service.api;
+
+import java.math.BigDecimal;
+import java.util.Map;
+
+/**
+ * The exchange rates combined from the rate providers.
+ *
+ * @param rates           The exact exchange rates by currency code.
+ * @param primaryAnswered Whether the first configured provider answered, i.e. whether the rates are fresh
+ *                        rather than made up from fallback providers only.
+ */
+public record CurrencyRates(Map<String, BigDecimal> rates, boolean primaryAnswered) {
+}
@@ -0,0 +1,26 @@
+package org.crazymages.bankingspringproject.service.api;
+
+import java.math.BigDecimal;
+import java.util.Map;
+import java.util.function.Predicate;
+
+/**
+ * An interface for a single source of exchange rates, such as a remote API or a local file.
+ */
+public interface RateProvider {
+
+    /**
+     * Returns the name identifying the provider in logs and metrics.
+     *
+     * @return The provider name.
+     */
+    String getName();
+
+    /**
+     * Fetches the current exchange rates from the provider.
+     *
+     * @param currencyFilter The filter deciding which currency codes to keep.
+     * @return The exact exchange rates by currency code.
+     */
+    Map<String, BigDecimal> fetchRates(Predicate<String> currencyFilter);
+}
@@ -1,42 +1,169 @@
 package org.crazymages.bankingspringproject.service.api.impl;
 
-import com.fasterxml.jackson.databind.JsonNode;
-import lombok.RequiredArgsConstructor;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
+import org.crazymages.bankingspringproject.config.RateProviderProperties;
+import org.crazymages.bankingspringproject.config.RateProviderProperties.Strategy;
+import org.crazymages.bankingspringproject.exception.DataNotFoundException;
 import org.crazymages.bankingspringproject.service.api.CurrencyApiService;
+import org.crazymages.bankingspringproject.service.api.CurrencyRates;
+import org.crazymages.bankingspringproject.service.api.RateProvider;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.http.MediaType;
 import org.springframework.stereotype.Service;
-import org.springframework.web.reactive.function.client.WebClient;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
 
 /**
- * A service class for interacting with a currency API to retrieve currency rates.
+ * A service class that sources currency rates from several providers.
+ * All providers are fetched in parallel under one shared deadline; a provider that fails or does not
+ * answer in time is left out, so one slow provider cannot stall the refresh.
+ * The answers are combined per currency with the configured strategy.
+ * The first configured provider is the primary one: rates are only reported as fresh when it answered,
+ * so fallback providers such as a local file can fill gaps without hiding that the primary is down.
+ * If no providers are configured, the single {@code api.url} provider is used.
  */
 @Service
-@RequiredArgsConstructor
 @Slf4j
 public class CurrencyApiServiceImpl implements CurrencyApiService {
 
-    @Value("${api.url}")
-    private String apiUrl;
-
-    @Value("${member.name}")
-    private String memberName;
+    private final List<RateProvider> providers;
+    private final Duration deadline;
+    private final Strategy strategy;
+    private final MeterRegistry meterRegistry;
+    private final ExecutorService executor;
 
-    public JsonNode getJsonResponseBody() {
-        WebClient webClient = WebClient.create();
+    @Autowired
+    public CurrencyApiServiceImpl(RateProviderProperties properties,
+                                  RateProviderFactory rateProviderFactory,
+                                  MeterRegistry meterRegistry,
+                                  @Value("${api.url}") String apiUrl,
+                                  @Value("${member.name}") String memberName) {
+        this(createProviders(properties, rateProviderFactory, apiUrl, memberName),
+                properties.getDeadline(), properties.getStrategy(), meterRegistry);
+    }
 
-        return webClient.get()
-                .uri(apiUrl)
-                .accept(MediaType.APPLICATION_JSON)
-                .retrieve()
-                .bodyToMono(JsonNode.class)
-                .block();
+    CurrencyApiServiceImpl(List<RateProvider> providers, Duration deadline, Strategy strategy,
+                           MeterRegistry meterRegistry) {
+        if (providers.isEmpty()) {
+            throw new IllegalArgumentException("At least one rate provider is required");
+        }
+        this.providers = List.copyOf(providers);
+        this.deadline = deadline;
+        this.strategy = strategy;
+        this.meterRegistry = meterRegistry;
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(providers.size(), runnable -> {
+            Thread thread = new Thread(runnable, "rate-provider-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
     }
 
     @Override
-    public JsonNode getCurrencyRates() {
-        JsonNode jsonNode = getJsonResponseBody();
-        return jsonNode.get(memberName);
+    public CurrencyRates getCurrencyRates(Predicate<String> currencyFilter) {
+        List<Callable<Map<String, BigDecimal>>> fetches = providers.stream()
+                .<Callable<Map<String, BigDecimal>>>map(provider -> () -> provider.fetchRates(currencyFilter))
+                .toList();
+        List<Future<Map<String, BigDecimal>>> futures;
+        try {
+            futures = executor.invokeAll(fetches, deadline.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while fetching currency rates", e);
+        }
+
+        List<Map<String, BigDecimal>> answers = new ArrayList<>();
+        boolean primaryAnswered = false;
+        for (int i = 0; i < futures.size(); i++) {
+            String providerName = providers.get(i).getName();
+            try {
+                Map<String, BigDecimal> answer = futures.get(i).get();
+                answers.add(answer);
+                primaryAnswered |= i == 0 && !answer.isEmpty();
+            } catch (CancellationException e) {
+                meterRegistry.counter("currency.providers.failures", "provider", providerName, "reason", "deadline")
+                        .increment();
+                log.warn("rate provider {} missed the {} deadline", providerName, deadline);
+            } catch (ExecutionException e) {
+                meterRegistry.counter("currency.providers.failures", "provider", providerName, "reason", "error")
+                        .increment();
+                log.warn("rate provider {} failed: {}", providerName, e.getCause().toString());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while fetching currency rates", e);
+            }
+        }
+        if (answers.stream().allMatch(Map::isEmpty)) {
+            throw new DataNotFoundException("No rate provider returned currency rates");
+        }
+        if (!primaryAnswered) {
+            log.warn("primary rate provider {} did not answer, rates come from fallback providers only",
+                    providers.get(0).getName());
+        }
+        return new CurrencyRates(combine(answers), primaryAnswered);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Combines the answers of the providers, given in configuration order, into one rate per currency.
+     * Non-positive rates are treated as invalid and ignored.
+     */
+    Map<String, BigDecimal> combine(List<Map<String, BigDecimal>> answers) {
+        Map<String, List<BigDecimal>> candidates = new LinkedHashMap<>();
+        for (Map<String, BigDecimal> answer : answers) {
+            answer.forEach((currencyCode, rate) -> {
+                if (rate != null && rate.signum() > 0) {
+                    candidates.computeIfAbsent(currencyCode, code -> new ArrayList<>()).add(rate);
+                }
+            });
+        }
+        Map<String, BigDecimal> rates = new HashMap<>();
+        candidates.forEach((currencyCode, values) ->
+                rates.put(currencyCode, strategy == Strategy.MEDIAN ? median(values) : values.get(0)));
+        return rates;
+    }
+
+    private static BigDecimal median(List<BigDecimal> values) {
+        List<BigDecimal> sorted = values.stream().sorted().toList();
+        int middle = sorted.size() / 2;
+        if (sorted.size() % 2 == 1) {
+            return sorted.get(middle);
+        }
+        return sorted.get(middle - 1).add(sorted.get(middle)).divide(BigDecimal.valueOf(2));
+    }
+
+    private static List<RateProvider> createProviders(RateProviderProperties properties,
+                                                      RateProviderFactory rateProviderFactory,
+                                                      String apiUrl,
+                                                      String memberName) {
+        if (properties.getSources().isEmpty()) {
+            RateProviderProperties.Source source = new RateProviderProperties.Source();
+            source.setName("default");
+            source.setUrl(apiUrl);
+            source.setMemberName(memberName);
+            return List.of(rateProviderFactory.create(source));
+        }
+        return properties.getSources().stream().map(rateProviderFactory::create).toList();
     }
 }
@@ -0,0 +1,45 @@
+package org.crazymages.bankingspringproject.service.api.impl;
+
+import org.crazymages.bankingspringproject.service.api.RateProvider;
+import org.crazymages.bankingspringproject.service.utils.parser.ConversionRatesParser;
+import org.springframework.core.io.Resource;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.util.Map;
+import java.util.function.Predicate;
+
+/**
+ * A rate provider that reads exchange rates from a local file in the same format as the currency API response.
+ * The file is read again on every fetch, so it can be replaced while the application runs.
+ */
+public class FileRateProvider implements RateProvider {
+
+    private final String name;
+    private final Resource resource;
+    private final String memberName;
+    private final ConversionRatesParser conversionRatesParser;
+
+    FileRateProvider(String name, Resource resource, String memberName, ConversionRatesParser conversionRatesParser) {
+        this.name = name;
+        this.resource = resource;
+        this.memberName = memberName;
+        this.conversionRatesParser = conversionRatesParser;
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public Map<String, BigDecimal> fetchRates(Predicate<String> currencyFilter) {
+        try (InputStream inputStream = resource.getInputStream()) {
+            return conversionRatesParser.parse(inputStream.readAllBytes(), memberName, currencyFilter);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package org.crazymages.bankingspringproject.service.api.impl;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.crazymages.bankingspringproject.exception.CircuitBreakerOpenException;
+import org.crazymages.bankingspringproject.service.api.RateProvider;
+import org.crazymages.bankingspringproject.service.utils.parser.ConversionRatesParser;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.util.retry.Retry;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.Map;
+import java.util.function.Predicate;
+
+/**
+ * A rate provider that calls a currency API over HTTP.
+ * Calls go through the shared pooled client, transient failures are retried with exponential backoff,
+ * and a circuit breaker stops calling the provider after repeated failures.
+ * The latency of every call is recorded in the {@code currency.api.requests} timer.
+ * The response body is read as raw bytes and streamed through the {@link ConversionRatesParser}.
+ */
+@Slf4j
+public class HttpRateProvider implements RateProvider {
+
+    private final String name;
+    private final WebClient currencyApiWebClient;
+    private final ConversionRatesParser conversionRatesParser;
+    private final MeterRegistry meterRegistry;
+    private final CircuitBreaker circuitBreaker;
+    private final String apiUrl;
+    private final String memberName;
+    private final int maxRetries;
+    private final Duration retryBackoff;
+
+    HttpRateProvider(String name,
+                     WebClient currencyApiWebClient,
+                     ConversionRatesParser conversionRatesParser,
+                     MeterRegistry meterRegistry,
+                     String apiUrl,
+                     String memberName,
+                     int maxRetries,
+                     Duration retryBackoff,
+                     CircuitBreaker circuitBreaker) {
+        this.name = name;
+        this.currencyApiWebClient = currencyApiWebClient;
+        this.conversionRatesParser = conversionRatesParser;
+        this.meterRegistry = meterRegistry;
+        this.apiUrl = apiUrl;
+        this.memberName = memberName;
+        this.maxRetries = maxRetries;
+        this.retryBackoff = retryBackoff;
+        this.circuitBreaker = circuitBreaker;
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public Map<String, BigDecimal> fetchRates(Predicate<String> currencyFilter) {
+        return conversionRatesParser.parse(getResponseBody(), memberName, currencyFilter);
+    }
+
+    public byte[] getResponseBody() {
+        if (!circuitBreaker.tryAcquire()) {
+            meterRegistry.counter("currency.api.rejected", "provider", name).increment();
+            throw new CircuitBreakerOpenException("Currency API circuit breaker is open: " + name);
+        }
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "success";
+        try {
+            byte[] body = currencyApiWebClient.get()
+                    .uri(apiUrl)
+                    .accept(MediaType.APPLICATION_JSON)
+                    .retrieve()
+                    .bodyToMono(byte[].class)
+                    .retryWhen(Retry.backoff(maxRetries, retryBackoff)
+                            .filter(this::isTransient)
+                            .doBeforeRetry(signal -> {
+                                meterRegistry.counter("currency.api.retries", "provider", name).increment();
+                                log.warn("retrying {} call after {}", name, signal.failure().toString());
+                            })
+                            .onRetryExhaustedThrow((spec, signal) -> signal.failure()))
+                    .block();
+            circuitBreaker.onSuccess();
+            return body;
+        } catch (RuntimeException e) {
+            outcome = "failure";
+            circuitBreaker.onFailure();
+            throw e;
+        } finally {
+            sample.stop(meterRegistry.timer("currency.api.requests", "provider", name, "outcome", outcome));
+        }
+    }
+
+    private boolean isTransient(Throwable throwable) {
+        if (throwable instanceof WebClientRequestException) {
+            return true;
+        }
+        if (throwable instanceof WebClientResponseException responseException) {
+            return responseException.getStatusCode().is5xxServerError()
+                    || responseException.getStatusCode().isSameCodeAs(HttpStatus.TOO_MANY_REQUESTS);
+        }
+        return false;
+    }
+}
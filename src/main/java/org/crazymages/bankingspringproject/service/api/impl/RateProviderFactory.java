@@ -0,0 +1,68 @@
+package org.crazymages.bankingspringproject.service.api.impl;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.crazymages.bankingspringproject.config.RateProviderProperties;
+import org.crazymages.bankingspringproject.service.api.RateProvider;
+import org.crazymages.bankingspringproject.service.utils.parser.ConversionRatesParser;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import java.time.Clock;
+import java.time.Duration;
+
+/**
+ * A component that creates the rate providers described by the {@code currency.providers.sources} properties.
+ * Every HTTP provider shares the pooled client and the retry settings but gets its own circuit breaker.
+ */
+@Component
+public class RateProviderFactory {
+
+    private final WebClient currencyApiWebClient;
+    private final ConversionRatesParser conversionRatesParser;
+    private final ResourceLoader resourceLoader;
+    private final MeterRegistry meterRegistry;
+    private final int maxRetries;
+    private final Duration retryBackoff;
+    private final int failureThreshold;
+    private final Duration openDuration;
+
+    public RateProviderFactory(WebClient currencyApiWebClient,
+                               ConversionRatesParser conversionRatesParser,
+                               ResourceLoader resourceLoader,
+                               MeterRegistry meterRegistry,
+                               @Value("${currency.api.max-retries:3}") int maxRetries,
+                               @Value("${currency.api.retry-backoff-ms:200}") long retryBackoffMs,
+                               @Value("${currency.api.circuit-breaker.failure-threshold:5}") int failureThreshold,
+                               @Value("${currency.api.circuit-breaker.open-duration-seconds:60}") long openDurationSeconds) {
+        this.currencyApiWebClient = currencyApiWebClient;
+        this.conversionRatesParser = conversionRatesParser;
+        this.resourceLoader = resourceLoader;
+        this.meterRegistry = meterRegistry;
+        this.maxRetries = maxRetries;
+        this.retryBackoff = Duration.ofMillis(retryBackoffMs);
+        this.failureThreshold = failureThreshold;
+        this.openDuration = Duration.ofSeconds(openDurationSeconds);
+    }
+
+    /**
+     * Creates the rate provider for the given source.
+     *
+     * @param source The configured provider source.
+     * @return The rate provider.
+     * @throws IllegalArgumentException if the source has no name or URL.
+     */
+    public RateProvider create(RateProviderProperties.Source source) {
+        if (source == null || source.getName() == null || source.getUrl() == null) {
+            throw new IllegalArgumentException("Rate provider sources need a name and a URL");
+        }
+        return switch (source.getType()) {
+            case HTTP -> new HttpRateProvider(source.getName(), currencyApiWebClient, conversionRatesParser,
+                    meterRegistry, source.getUrl(), source.getMemberName(), maxRetries, retryBackoff,
+                    new CircuitBreaker(failureThreshold, openDuration, Clock.systemUTC()));
+            case FILE -> new FileRateProvider(source.getName(), resourceLoader.getResource(source.getUrl()),
+                    source.getMemberName(), conversionRatesParser);
+        };
+    }
+}
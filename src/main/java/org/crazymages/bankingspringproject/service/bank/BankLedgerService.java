@@ -0,0 +1,73 @@
+package org.crazymages.bankingspringproject.service.bank;
+
+import org.crazymages.bankingspringproject.entity.Account;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * A service interface for managing the bank-house account and its sub-ledger shards.
+ * Payments made by the bank are spread across the shards so that they do not all
+ * lock the same account row; the shards are periodically rolled up into the main account.
+ */
+public interface BankLedgerService {
+
+    /**
+     * Retrieves the main account of the bank client.
+     *
+     * @return The main bank account.
+     */
+    Account getMainAccount();
+
+    /**
+     * Retrieves the shard accounts of the bank client, creating any missing shards
+     * up to the configured shard count.
+     *
+     * @return A list of the bank shard accounts.
+     */
+    List<Account> getShardAccounts();
+
+    /**
+     * Selects the shard that pays every account of a job partition.
+     * As long as there are no more partitions than shards, different partitions are paid from different shards,
+     * so concurrent partitions never lock the same shard row.
+     *
+     * @param shards         The bank shard accounts to choose from.
+     * @param partitionIndex The index of the job partition, from zero.
+     * @return The selected shard account.
+     */
+    Account selectShard(List<Account> shards, int partitionIndex);
+
+    /**
+     * Moves funds from the main bank account to the shards in a single transaction.
+     *
+     * @param amountsByShard The amounts to move, keyed by shard account UUID.
+     */
+    void fundShards(Map<UUID, BigDecimal> amountsByShard);
+
+    /**
+     * Debits the given amounts from the shards, locking only the shards themselves.
+     * A shard whose balance does not cover its amount is first topped up from the main bank account
+     * with the shortfall plus the configured top-up amount, so the main account is locked only when a shard runs low.
+     * Whether a shard runs low is read before any lock is taken; if so, the main account is locked together with
+     * the shards in UUID order, as the roll-up does, so the two never wait on each other's locks in opposite order.
+     * A shard drained between that read and its lock fails the debit with a retryable locking failure.
+     *
+     * @param amountsByShard The amounts to debit, keyed by shard account UUID.
+     */
+    void debitShards(Map<UUID, BigDecimal> amountsByShard);
+
+    /**
+     * Consolidates the balances of all shards into the main bank account in a single transaction.
+     */
+    void rollUp();
+
+    /**
+     * Calculates the logical balance of the bank, that is the main account balance plus all shard balances.
+     *
+     * @return The logical bank balance.
+     */
+    BigDecimal getLogicalBalance();
+}
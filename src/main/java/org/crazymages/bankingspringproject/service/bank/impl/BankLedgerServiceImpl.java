@@ -0,0 +1,257 @@
+package org.crazymages.bankingspringproject.service.bank.impl;
+
+import lombok.extern.slf4j.Slf4j;
+import org.crazymages.bankingspringproject.entity.Account;
+import org.crazymages.bankingspringproject.entity.Client;
+import org.crazymages.bankingspringproject.entity.enums.AccountStatus;
+import org.crazymages.bankingspringproject.entity.enums.AccountType;
+import org.crazymages.bankingspringproject.entity.enums.ClientStatus;
+import org.crazymages.bankingspringproject.exception.DataNotFoundException;
+import org.crazymages.bankingspringproject.exception.InsufficientFundsException;
+import org.crazymages.bankingspringproject.repository.AccountRepository;
+import org.crazymages.bankingspringproject.repository.AccountRepository.AccountBalance;
+import org.crazymages.bankingspringproject.service.bank.BankLedgerService;
+import org.crazymages.bankingspringproject.service.database.ClientDatabaseService;
+import org.crazymages.bankingspringproject.service.ledger.LedgerService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.PessimisticLockingFailureException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * A service implementation for managing the bank-house account and its sub-ledger shards.
+ */
+@Service
+@Slf4j
+public class BankLedgerServiceImpl implements BankLedgerService {
+
+    private static final String SHARD_NAME_PREFIX = "Bank shard ";
+
+    private final AccountRepository accountRepository;
+    private final ClientDatabaseService clientDatabaseService;
+    private final LedgerService ledgerService;
+    private final int shardCount;
+    private final BigDecimal topUpAmount;
+
+    public BankLedgerServiceImpl(AccountRepository accountRepository,
+                                 ClientDatabaseService clientDatabaseService,
+                                 LedgerService ledgerService,
+                                 @Value("${bank.shards.count:16}") int shardCount,
+                                 @Value("${bank.shards.top-up:10000}") BigDecimal topUpAmount) {
+        if (shardCount < 1) {
+            throw new IllegalArgumentException("Bank shard count must be positive");
+        }
+        if (topUpAmount == null || topUpAmount.signum() < 0) {
+            throw new IllegalArgumentException("Bank shard top-up amount must not be negative");
+        }
+        this.accountRepository = accountRepository;
+        this.clientDatabaseService = clientDatabaseService;
+        this.ledgerService = ledgerService;
+        this.shardCount = shardCount;
+        this.topUpAmount = topUpAmount;
+    }
+
+    @Override
+    @Transactional
+    public Account getMainAccount() {
+        return accountRepository.findAccountsByClientUuid(getBankUuid())
+                .stream()
+                .filter(account -> account.getType() != AccountType.BANK_SHARD)
+                .findFirst()
+                .orElseThrow(() -> new DataNotFoundException("Bank account not found"));
+    }
+
+    @Override
+    @Transactional
+    public List<Account> getShardAccounts() {
+        Account mainAccount = getMainAccount();
+        List<Account> shards = new ArrayList<>(
+                accountRepository.findAccountsByClientUuidAndType(mainAccount.getClientUuid(), AccountType.BANK_SHARD));
+        Set<String> names = shards.stream().map(Account::getName).collect(Collectors.toSet());
+        List<Account> created = new ArrayList<>();
+        for (int i = 0; i < shardCount; i++) {
+            if (!names.contains(shardName(i))) {
+                created.add(createShard(mainAccount, i));
+            }
+        }
+        if (!created.isEmpty()) {
+            log.info("creating {} bank shard accounts", created.size());
+            shards.addAll(accountRepository.saveAll(created));
+        }
+        Map<String, Account> shardsByName = shards.stream()
+                .collect(Collectors.toMap(Account::getName, Function.identity(), (first, second) -> first));
+        return IntStream.range(0, shardCount)
+                .mapToObj(i -> shardsByName.get(shardName(i)))
+                .toList();
+    }
+
+    @Override
+    public Account selectShard(List<Account> shards, int partitionIndex) {
+        if (shards == null || shards.isEmpty() || partitionIndex < 0) {
+            throw new IllegalArgumentException();
+        }
+        return shards.get(partitionIndex % shards.size());
+    }
+
+    @Override
+    @Transactional
+    public void fundShards(Map<UUID, BigDecimal> amountsByShard) {
+        if (amountsByShard == null) {
+            throw new IllegalArgumentException();
+        }
+        if (amountsByShard.isEmpty()) {
+            return;
+        }
+        UUID mainUuid = getMainAccount().getUuid();
+        Map<UUID, Account> locked = lockAccounts(mainUuid, amountsByShard.keySet());
+        fund(locked.get(mainUuid), locked, amountsByShard);
+    }
+
+    @Override
+    @Transactional
+    public void debitShards(Map<UUID, BigDecimal> amountsByShard) {
+        if (amountsByShard == null) {
+            throw new IllegalArgumentException();
+        }
+        if (amountsByShard.isEmpty()) {
+            return;
+        }
+        Map<UUID, BigDecimal> balances = accountRepository.findBalancesByUuidIn(amountsByShard.keySet())
+                .stream()
+                .collect(Collectors.toMap(AccountBalance::getAccountUuid, AccountBalance::getBalance));
+        boolean shortfallPossible = amountsByShard.entrySet().stream()
+                .anyMatch(entry -> isShort(balances.get(entry.getKey()), entry.getValue()));
+        Account main = null;
+        Map<UUID, Account> shards;
+        if (shortfallPossible) {
+            UUID mainUuid = getMainAccount().getUuid();
+            shards = lockAccounts(mainUuid, amountsByShard.keySet());
+            main = shards.remove(mainUuid);
+        } else {
+            shards = accountRepository.findAccountsByUuidInForUpdate(amountsByShard.keySet())
+                    .stream()
+                    .collect(Collectors.toMap(Account::getUuid, Function.identity()));
+        }
+
+        Map<UUID, BigDecimal> topUps = new HashMap<>();
+        amountsByShard.forEach((shardUuid, amount) -> {
+            Account shard = shards.get(shardUuid);
+            if (shard == null || shard.getType() != AccountType.BANK_SHARD) {
+                throw new DataNotFoundException("Bank shard not found: " + shardUuid);
+            }
+            if (isShort(shard.getBalance(), amount)) {
+                topUps.put(shardUuid, amount.subtract(shard.getBalance()).add(topUpAmount));
+            }
+        });
+        if (!topUps.isEmpty()) {
+            if (main == null) {
+                throw new PessimisticLockingFailureException(
+                        "Bank shards were drained after their balances were read, retry with the main account locked");
+            }
+            fund(main, shards, topUps);
+        }
+        amountsByShard.forEach((shardUuid, amount) -> {
+            Account shard = shards.get(shardUuid);
+            shard.setBalance(shard.getBalance().subtract(amount));
+        });
+    }
+
+    @Override
+    @Transactional
+    public void rollUp() {
+        Account mainAccount = getMainAccount();
+        Set<UUID> shardUuids = accountRepository
+                .findAccountsByClientUuidAndType(mainAccount.getClientUuid(), AccountType.BANK_SHARD)
+                .stream()
+                .map(Account::getUuid)
+                .collect(Collectors.toSet());
+        if (shardUuids.isEmpty()) {
+            return;
+        }
+        Map<UUID, Account> locked = lockAccounts(mainAccount.getUuid(), shardUuids);
+        Account main = locked.remove(mainAccount.getUuid());
+        BigDecimal total = BigDecimal.ZERO;
+        for (Account shard : locked.values()) {
+            BigDecimal balance = shard.getBalance();
+            if (balance.signum() > 0) {
+                ledgerService.recordTransfer(null, shard, balance, main, balance);
+            } else if (balance.signum() < 0) {
+                ledgerService.recordTransfer(null, main, balance.negate(), shard, balance.negate());
+            }
+            total = total.add(balance);
+            shard.setBalance(BigDecimal.ZERO);
+        }
+        main.setBalance(main.getBalance().add(total));
+        log.info("rolled up {} from {} bank shards", total, locked.size());
+    }
+
+    @Override
+    @Transactional
+    public BigDecimal getLogicalBalance() {
+        return clientDatabaseService.calculateTotalBalanceByClientUuid(String.valueOf(getBankUuid()));
+    }
+
+    private UUID getBankUuid() {
+        return clientDatabaseService.findClientsByStatus(ClientStatus.BANK)
+                .stream()
+                .map(Client::getUuid)
+                .findFirst()
+                .orElseThrow(() -> new DataNotFoundException("Bank UUID not found"));
+    }
+
+    private void fund(Account main, Map<UUID, Account> locked, Map<UUID, BigDecimal> amountsByShard) {
+        BigDecimal total = amountsByShard.values().stream().reduce(BigDecimal.ZERO, BigDecimal::add);
+        if (main.getBalance().compareTo(total) < 0) {
+            throw new InsufficientFundsException("Bank balance is too low to fund shards");
+        }
+        amountsByShard.forEach((shardUuid, amount) -> {
+            Account shard = locked.get(shardUuid);
+            if (shard == null || shard.getType() != AccountType.BANK_SHARD) {
+                throw new DataNotFoundException("Bank shard not found: " + shardUuid);
+            }
+            shard.setBalance(shard.getBalance().add(amount));
+            ledgerService.recordTransfer(null, main, amount, shard, amount);
+        });
+        main.setBalance(main.getBalance().subtract(total));
+        log.info("funded {} bank shards with {}", amountsByShard.size(), total);
+    }
+
+    private static boolean isShort(BigDecimal balance, BigDecimal amount) {
+        return balance == null || balance.compareTo(amount) < 0;
+    }
+
+    private Map<UUID, Account> lockAccounts(UUID mainUuid, Set<UUID> shardUuids) {
+        Set<UUID> uuids = new HashSet<>(shardUuids);
+        uuids.add(mainUuid);
+        return accountRepository.findAccountsByUuidInForUpdate(uuids)
+                .stream()
+                .collect(Collectors.toMap(Account::getUuid, Function.identity()));
+    }
+
+    private String shardName(int index) {
+        return SHARD_NAME_PREFIX + index;
+    }
+
+    private Account createShard(Account mainAccount, int index) {
+        Account shard = new Account();
+        shard.setClientUuid(mainAccount.getClientUuid());
+        shard.setName(shardName(index));
+        shard.setType(AccountType.BANK_SHARD);
+        shard.setStatus(AccountStatus.ACTIVE);
+        shard.setCurrencyCode(mainAccount.getCurrencyCode());
+        shard.setBalance(BigDecimal.ZERO);
+        return shard;
+    }
+}
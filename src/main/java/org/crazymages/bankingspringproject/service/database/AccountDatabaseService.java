@@ -5,6 +5,7 @@ import org.crazymages.bankingspringproject.dto.AccountDto;
 import org.crazymages.bankingspringproject.entity.enums.ProductStatus;
 import org.crazymages.bankingspringproject.entity.enums.ProductType;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
 
@@ -45,6 +46,24 @@ public interface AccountDatabaseService {
      */
     Account findById(UUID uuid);
 
+    /**
+     * Retrieves an Account entity from the database by its UUID and locks its row
+     * until the current transaction completes.
+     *
+     * @param uuid The UUID of the Account entity to retrieve and lock.
+     * @return The locked Account entity.
+     */
+    Account findByIdForUpdate(UUID uuid);
+
+    /**
+     * Retrieves Account entities from the database by their UUIDs in a single query
+     * and locks their rows in UUID order until the current transaction completes.
+     *
+     * @param uuids The UUIDs of the Account entities to retrieve and lock.
+     * @return A list of the locked Account entities that exist.
+     */
+    List<Account> findAllByIdForUpdate(Collection<UUID> uuids);
+
     /**
      * Retrieves all non-deleted Account entities from the database.
      *
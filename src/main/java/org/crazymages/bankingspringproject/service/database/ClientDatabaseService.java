@@ -3,10 +3,14 @@ package org.crazymages.bankingspringproject.service.database;
 import org.crazymages.bankingspringproject.dto.ClientDto;
 import org.crazymages.bankingspringproject.entity.Client;
 import org.crazymages.bankingspringproject.entity.enums.ClientStatus;
+import org.crazymages.bankingspringproject.repository.ClientRepository.RecurringTransfer;
 
 import java.math.BigDecimal;
+import java.util.Collection;
 import java.util.List;
+import java.util.Set;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 /**
  * A service interface for managing Client entities in the database.
@@ -100,12 +104,21 @@ public interface ClientDatabaseService {
 
     /**
      * Checks if the Client with the specified UUID has an active status.
+     * The result is cached until the client is updated, deleted or blocked through this service.
      *
      * @param uuid The UUID of the client to check.
      * @return True if the Client has an active status, false otherwise.
      */
     boolean isClientStatusActive(UUID uuid);
 
+    /**
+     * Checks the status of several Clients with a single query.
+     *
+     * @param uuids The UUIDs of the clients to check.
+     * @return The UUIDs of the given Clients that have an active status.
+     */
+    Set<UUID> findActiveClientUuids(Collection<UUID> uuids);
+
     /**
      * Retrieves all Client entities from the database that have both current and savings Accounts.
      *
@@ -113,6 +126,18 @@ public interface ClientDatabaseService {
      */
     List<Client> findClientsWithCurrentAndSavingsAccounts();
 
+    /**
+     * Streams, in client UUID order, the recurring transfers from the current to the savings account
+     * of the active clients after the given UUID and up to the given bound that have an active savings agreement.
+     * The stream must be consumed within a transaction and closed afterwards.
+     *
+     * @param after The UUID after which clients are returned.
+     * @param upTo  The UUID of the last client that may be returned.
+     * @param limit The maximum number of rows to return.
+     * @return A stream of recurring transfer tuples ordered by client UUID.
+     */
+    Stream<RecurringTransfer> streamRecurringTransfersBetween(UUID after, UUID upTo, int limit);
+
     /**
      * Retrieves all Client entities from the database that have the specified status.
      *
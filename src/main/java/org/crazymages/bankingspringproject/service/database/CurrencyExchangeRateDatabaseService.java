@@ -3,7 +3,11 @@ package org.crazymages.bankingspringproject.service.database;
 import org.crazymages.bankingspringproject.dto.CurrencyExchangeRateDto;
 import org.crazymages.bankingspringproject.entity.CurrencyExchangeRate;
 
+import java.math.BigDecimal;
+import java.time.Instant;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 
 /**
  * A service interface for managing currency exchange rates in the database.
@@ -18,6 +22,16 @@ public interface CurrencyExchangeRateDatabaseService {
      */
     void create(CurrencyExchangeRate currencyExchangeRate);
 
+    /**
+     * Creates or updates the currency exchange rates in the database in a single transaction.
+     * Existing rates are read with one query, and only the rates whose value changed are written.
+     *
+     * @param exchangeRates The exchange rates by currency code.
+     * @return The number of rows created or updated.
+     * @throws IllegalArgumentException if the exchange rates are null.
+     */
+    int upsertAll(Map<String, BigDecimal> exchangeRates);
+
     /**
      * Retrieves all currency exchange rates from the database.
      *
@@ -32,6 +46,13 @@ public interface CurrencyExchangeRateDatabaseService {
      */
     List<CurrencyExchangeRateDto> findAllRates();
 
+    /**
+     * Retrieves the time the currency exchange rates were last written to the database.
+     *
+     * @return The last update time, or an empty optional if no rates are stored.
+     */
+    Optional<Instant> findLastUpdatedAt();
+
     /**
      * Retrieves a currency exchange rate from the database by its currency code.
      *
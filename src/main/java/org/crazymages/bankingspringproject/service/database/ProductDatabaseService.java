@@ -6,6 +6,7 @@ import org.crazymages.bankingspringproject.entity.enums.CurrencyCode;
 import org.crazymages.bankingspringproject.entity.enums.ProductStatus;
 import org.crazymages.bankingspringproject.entity.enums.ProductType;
 
+import java.math.BigDecimal;
 import java.util.List;
 
 /**
@@ -61,6 +62,15 @@ public interface ProductDatabaseService {
     Product findProductByTypeAndStatusAndCurrencyCode(
             ProductType type, ProductStatus status, CurrencyCode currencyCode);
 
+    /**
+     * Retrieves the limitation of the active Product with the specified type and currency code.
+     *
+     * @param type         The type of the Product.
+     * @param currencyCode The currency code of the Product.
+     * @return The limitation of the Product, or zero if there is no such Product or it has no limitation.
+     */
+    BigDecimal findActiveProductLimitation(ProductType type, CurrencyCode currencyCode);
+
     /**
      * Updates a Product entity in the database with the specified UUID.
      *
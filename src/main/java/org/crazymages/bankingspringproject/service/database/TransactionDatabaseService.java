@@ -1,6 +1,7 @@
 package org.crazymages.bankingspringproject.service.database;
 
 import org.crazymages.bankingspringproject.dto.TransactionDto;
+import org.crazymages.bankingspringproject.dto.TransferResultDto;
 import org.crazymages.bankingspringproject.entity.Transaction;
 
 import java.util.List;
@@ -59,11 +60,26 @@ public interface TransactionDatabaseService {
 
     /**
      * Transfers funds between accounts based on the provided Transaction entity.
+     * Both account rows are locked in ascending UUID order before their balances are read,
+     * so concurrent transfers over the same accounts are serialized without deadlocks.
+     * With {@code transfer.optimistic.locking} enabled the rows are read without locks instead,
+     * and a concurrent modification fails the commit on the account version check.
      *
      * @param transaction The Transaction entity representing the fund transfer.
      */
     void transferFunds(Transaction transaction);
 
+    /**
+     * Transfers funds for a batch of Transaction entities within a single database transaction.
+     * All involved accounts are loaded and locked with one query and all client statuses are checked with one query.
+     * Each transfer is validated against the balances left by the preceding ones;
+     * a rejected transfer does not affect the others.
+     *
+     * @param transactions The Transaction entities representing the fund transfers.
+     * @return The result of each transfer, in the order of the given list.
+     */
+    List<TransferResultDto> transferFundsBatch(List<Transaction> transactions);
+
     /**
      * Retrieves all Transaction entities associated with the specified client UUID between the specified dates.
      *
@@ -13,6 +13,7 @@ import org.crazymages.bankingspringproject.repository.AccountRepository;
 import org.crazymages.bankingspringproject.service.database.AccountDatabaseService;
 import org.crazymages.bankingspringproject.service.database.AgreementDatabaseService;
 import org.crazymages.bankingspringproject.service.database.ProductDatabaseService;
+import org.crazymages.bankingspringproject.service.ledger.LedgerService;
 import org.crazymages.bankingspringproject.service.utils.initializer.AgreementInitializer;
 import org.crazymages.bankingspringproject.dto.mapper.account.AccountDtoMapper;
 import org.crazymages.bankingspringproject.dto.mapper.agreement.AgreementDtoMapper;
@@ -42,6 +43,7 @@ public class AccountDatabaseServiceImpl implements AccountDatabaseService {
     private final AgreementInitializer agreementInitializer;
     private final AgreementDtoMapper agreementDtoMapper;
     private final ProductTypeMatcher productTypeMatcher;
+    private final LedgerService ledgerService;
 
 
     @Override
@@ -52,6 +54,7 @@ public class AccountDatabaseServiceImpl implements AccountDatabaseService {
         }
         Account account = accountDtoMapper.mapDtoToEntity(accountDto);
         accountRepository.save(account);
+        ledgerService.openAccount(account);
         log.info("account created");
     }
 
@@ -67,6 +70,7 @@ public class AccountDatabaseServiceImpl implements AccountDatabaseService {
         account.setBalance(BigDecimal.ZERO);
         account.setStatus(AccountStatus.PENDING);
         accountRepository.save(account);
+        ledgerService.openAccount(account);
 
         ProductType type = productTypeMatcher.matchTypes(account.getType());
         ProductStatus status = ProductStatus.ACTIVE;
@@ -118,6 +122,30 @@ public class AccountDatabaseServiceImpl implements AccountDatabaseService {
                 .orElseThrow(() -> new DataNotFoundException(String.valueOf(uuid)));
     }
 
+    @Override
+    @Transactional
+    public Account findByIdForUpdate(UUID uuid) {
+        if (uuid == null) {
+            throw new IllegalArgumentException();
+        }
+        log.info("retrieving account by id {} for update", uuid);
+        return accountRepository.findAccountByUuidForUpdate(uuid)
+                .orElseThrow(() -> new DataNotFoundException(String.valueOf(uuid)));
+    }
+
+    @Override
+    @Transactional
+    public List<Account> findAllByIdForUpdate(Collection<UUID> uuids) {
+        if (uuids == null) {
+            throw new IllegalArgumentException();
+        }
+        if (uuids.isEmpty()) {
+            return Collections.emptyList();
+        }
+        log.info("retrieving {} accounts for update", uuids.size());
+        return accountRepository.findAccountsByUuidInForUpdate(uuids);
+    }
+
     @Override
     @Transactional
     public List<AccountDto> findAllByStatus(String status) {
@@ -7,38 +7,57 @@ import org.crazymages.bankingspringproject.dto.mapper.client.ClientCreationMappe
 import org.crazymages.bankingspringproject.entity.Client;
 import org.crazymages.bankingspringproject.entity.Manager;
 import org.crazymages.bankingspringproject.entity.enums.AccountType;
+import org.crazymages.bankingspringproject.entity.enums.AgreementStatus;
 import org.crazymages.bankingspringproject.entity.enums.ClientStatus;
 import org.crazymages.bankingspringproject.entity.enums.ManagerStatus;
+import org.crazymages.bankingspringproject.entity.enums.ProductType;
 import org.crazymages.bankingspringproject.exception.DataNotFoundException;
 import org.crazymages.bankingspringproject.repository.ClientRepository;
+import org.crazymages.bankingspringproject.repository.ClientRepository.RecurringTransfer;
 import org.crazymages.bankingspringproject.service.database.AccountDatabaseService;
 import org.crazymages.bankingspringproject.service.database.ClientDatabaseService;
 import org.crazymages.bankingspringproject.service.database.ManagerDatabaseService;
 import org.crazymages.bankingspringproject.dto.mapper.client.ClientDtoMapper;
 import org.crazymages.bankingspringproject.service.utils.updater.EntityUpdateService;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.math.BigDecimal;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 /**
  * A service implementation for managing Client entities in the database.
+ * Cached client statuses are evicted once the transaction changing the client has committed,
+ * so that a lookup running in the meantime cannot cache the status the transaction is about to replace.
  */
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class ClientDatabaseServiceImpl implements ClientDatabaseService {
 
+    private static final String CLIENT_STATUS_CACHE = "clientStatus";
+
     private final ClientRepository clientRepository;
     private final ClientDtoMapper clientDtoMapper;
     private final ClientCreationMapper clientCreationMapper;
     private final EntityUpdateService<Client> clientUpdateService;
     private final ManagerDatabaseService managerDatabaseService;
     private final AccountDatabaseService accountDatabaseService;
+    private final CacheManager cacheManager;
 
 
     @Override
@@ -62,6 +81,9 @@ public class ClientDatabaseServiceImpl implements ClientDatabaseService {
     public void save(Client client) {
         log.info("saving client into db");
         clientRepository.save(client);
+        if (client.getUuid() != null) {
+            evictClientStatusAfterCommit(client.getUuid());
+        }
     }
 
     @Override
@@ -113,6 +135,7 @@ public class ClientDatabaseServiceImpl implements ClientDatabaseService {
                 .orElseThrow(() -> new DataNotFoundException(String.valueOf(uuid)));
         client = clientUpdateService.update(client, updatedClient);
         clientRepository.save(client);
+        evictClientStatusAfterCommit(uuid);
         log.info("updated client id {}", uuid);
     }
 
@@ -127,6 +150,7 @@ public class ClientDatabaseServiceImpl implements ClientDatabaseService {
                 .orElseThrow(() -> new DataNotFoundException(String.valueOf(uuid)));
         client.setDeleted(true);
         clientRepository.save(client);
+        evictClientStatusAfterCommit(uuid);
         log.info("deleted client id {}", uuid);
     }
 
@@ -167,12 +191,26 @@ public class ClientDatabaseServiceImpl implements ClientDatabaseService {
 
     @Override
     @Transactional
+    @Cacheable(value = CLIENT_STATUS_CACHE, key = "#uuid", condition = "#uuid != null")
     public boolean isClientStatusActive(UUID uuid) {
         if (uuid == null) {
             throw new IllegalArgumentException();
         }
         log.info("checking status for client id {}", uuid);
-        return clientRepository.isClientStatusBlocked(uuid);
+        return !clientRepository.isClientStatusBlocked(uuid);
+    }
+
+    @Override
+    @Transactional
+    public Set<UUID> findActiveClientUuids(Collection<UUID> uuids) {
+        if (uuids == null) {
+            throw new IllegalArgumentException();
+        }
+        if (uuids.isEmpty()) {
+            return Collections.emptySet();
+        }
+        log.info("checking status for {} clients", uuids.size());
+        return new HashSet<>(clientRepository.findNotBlockedClientUuids(uuids));
     }
 
     @Override
@@ -187,6 +225,18 @@ public class ClientDatabaseServiceImpl implements ClientDatabaseService {
                 .toList();
     }
 
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public Stream<RecurringTransfer> streamRecurringTransfersBetween(UUID after, UUID upTo, int limit) {
+        if (after == null || upTo == null) {
+            throw new IllegalArgumentException();
+        }
+        log.info("streaming up to {} recurring transfers of clients after {} up to {}", limit, after, upTo);
+        return clientRepository.streamRecurringTransfersBetween(after, upTo, ClientStatus.ACTIVE,
+                AccountType.CURRENT, AccountType.SAVINGS, ProductType.SAVINGS_ACCOUNT, AgreementStatus.ACTIVE,
+                PageRequest.ofSize(limit));
+    }
+
     @Override
     @Transactional
     public List<Client> findClientsByStatus(ClientStatus status) {
@@ -204,6 +254,24 @@ public class ClientDatabaseServiceImpl implements ClientDatabaseService {
         log.info("blocked client with uuid {}", uuid);
         clientRepository.blockClientById(uuid);
         accountDatabaseService.blockAccountsByClientUuid(clientUuid);
+        evictClientStatusAfterCommit(uuid);
+    }
+
+    private void evictClientStatusAfterCommit(UUID uuid) {
+        Cache cache = cacheManager.getCache(CLIENT_STATUS_CACHE);
+        if (cache == null) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            cache.evict(uuid);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                cache.evict(uuid);
+            }
+        });
     }
 
     private List<ClientDto> getDtoList(List<Client> clients) {
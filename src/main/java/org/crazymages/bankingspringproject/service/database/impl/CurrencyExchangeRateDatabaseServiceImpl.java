@@ -12,9 +12,15 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 /**
  * A service implementation for managing Currency exchange rate entities in the database.
@@ -45,6 +51,41 @@ public class CurrencyExchangeRateDatabaseServiceImpl implements CurrencyExchange
         }
     }
 
+    @Override
+    @Transactional
+    public int upsertAll(Map<String, BigDecimal> exchangeRates) {
+        if (exchangeRates == null) {
+            throw new IllegalArgumentException();
+        }
+        Map<String, CurrencyExchangeRate> existingRates = currencyExchangeRateRepository.findAll()
+                .stream()
+                .collect(Collectors.toMap(CurrencyExchangeRate::getCurrencyCode, Function.identity(), (a, b) -> a));
+        List<CurrencyExchangeRate> newRates = new ArrayList<>();
+        int changed = 0;
+
+        for (Map.Entry<String, BigDecimal> entry : exchangeRates.entrySet()) {
+            String currencyCode = entry.getKey();
+            BigDecimal exchangeRate = entry.getValue();
+            if (currencyCode == null || exchangeRate == null) {
+                continue;
+            }
+            CurrencyExchangeRate existing = existingRates.get(currencyCode);
+            if (existing == null) {
+                CurrencyExchangeRate currencyExchangeRate = new CurrencyExchangeRate();
+                currencyExchangeRate.setCurrencyCode(currencyCode);
+                currencyExchangeRate.setExchangeRate(exchangeRate);
+                newRates.add(currencyExchangeRate);
+                changed++;
+            } else if (existing.getExchangeRate() == null || existing.getExchangeRate().compareTo(exchangeRate) != 0) {
+                existing.setExchangeRate(exchangeRate);
+                changed++;
+            }
+        }
+        currencyExchangeRateRepository.saveAll(newRates);
+        log.info("upserted currency exchange rates: {} of {} changed", changed, exchangeRates.size());
+        return changed;
+    }
+
     @Override
     @Transactional
     public List<CurrencyExchangeRate> findAll() {
@@ -64,6 +105,12 @@ public class CurrencyExchangeRateDatabaseServiceImpl implements CurrencyExchange
                 .toList();
     }
 
+    @Override
+    @Transactional
+    public Optional<Instant> findLastUpdatedAt() {
+        return currencyExchangeRateRepository.findLastUpdatedAt().map(Timestamp::toInstant);
+    }
+
     @Override
     @Transactional
     public CurrencyExchangeRate findById(Integer id) {
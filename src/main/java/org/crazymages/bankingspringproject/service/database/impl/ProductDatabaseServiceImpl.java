@@ -21,6 +21,7 @@ import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.math.BigDecimal;
 import java.util.*;
 
 /**
@@ -39,7 +40,7 @@ public class ProductDatabaseServiceImpl implements ProductDatabaseService {
 
     @Override
     @Transactional
-    @CacheEvict(value = {"productsList", "productsCache"}, allEntries = true)
+    @CacheEvict(value = {"productsList", "productsCache", "productLimits"}, allEntries = true)
     public void create(ProductDto productDto) {
         Product product = productDtoMapper.mapDtoToEntity(productDto);
         if (product.getManagerUuid() == null) {
@@ -101,10 +102,21 @@ public class ProductDatabaseServiceImpl implements ProductDatabaseService {
                 .orElseThrow(() -> new DataNotFoundException(String.valueOf(type)));
     }
 
+    @Override
+    @Transactional
+    @Cacheable(value = "productLimits", key = "{#type, #currencyCode}")
+    public BigDecimal findActiveProductLimitation(ProductType type, CurrencyCode currencyCode) {
+        log.info("retrieving limitation of product by type {} and currency {}", type, currencyCode);
+        return productRepository
+                .findProductByTypeIsAndStatusIsAndCurrencyCodeIs(type, ProductStatus.ACTIVE, currencyCode)
+                .map(Product::getLimitation)
+                .orElse(BigDecimal.ZERO);
+    }
+
     @Override
     @Transactional
     @CachePut(value = "productsCache", key = "#productUuid")
-    @CacheEvict(value = "productsList", allEntries = true)
+    @CacheEvict(value = {"productsList", "productLimits"}, allEntries = true)
     public void update(String productUuid, ProductDto productDtoUpdate) {
         if (productUuid == null || productDtoUpdate == null) {
             throw new IllegalArgumentException();
@@ -121,7 +133,7 @@ public class ProductDatabaseServiceImpl implements ProductDatabaseService {
     @Override
     @Transactional
     @CachePut(value = "deletedProducts", key = "#productUuid")
-    @CacheEvict(value = {"productsList", "productsCache"}, allEntries = true)
+    @CacheEvict(value = {"productsList", "productsCache", "productLimits"}, allEntries = true)
     public void delete(String productUuid) {
         if (productUuid == null) {
             throw new IllegalArgumentException();
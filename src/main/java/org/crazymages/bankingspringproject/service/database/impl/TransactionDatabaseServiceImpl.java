@@ -3,10 +3,12 @@ package org.crazymages.bankingspringproject.service.database.impl;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.crazymages.bankingspringproject.dto.TransactionDto;
+import org.crazymages.bankingspringproject.dto.TransferResultDto;
 import org.crazymages.bankingspringproject.entity.Account;
 import org.crazymages.bankingspringproject.entity.Transaction;
 import org.crazymages.bankingspringproject.entity.enums.AccountStatus;
 import org.crazymages.bankingspringproject.entity.enums.CurrencyCode;
+import org.crazymages.bankingspringproject.entity.enums.TransferStatus;
 import org.crazymages.bankingspringproject.exception.TransactionNotAllowedException;
 import org.crazymages.bankingspringproject.exception.DataNotFoundException;
 import org.crazymages.bankingspringproject.exception.InsufficientFundsException;
@@ -14,8 +16,14 @@ import org.crazymages.bankingspringproject.repository.TransactionRepository;
 import org.crazymages.bankingspringproject.service.database.AccountDatabaseService;
 import org.crazymages.bankingspringproject.service.database.ClientDatabaseService;
 import org.crazymages.bankingspringproject.service.database.TransactionDatabaseService;
+import org.crazymages.bankingspringproject.service.exchange.ExchangeQuoteService;
+import org.crazymages.bankingspringproject.service.ledger.LedgerMovement;
+import org.crazymages.bankingspringproject.service.ledger.LedgerService;
+import org.crazymages.bankingspringproject.service.limit.SpendingLimitService;
 import org.crazymages.bankingspringproject.service.utils.converter.CurrencyConverter;
 import org.crazymages.bankingspringproject.dto.mapper.transaction.TransactionDtoMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -23,6 +31,7 @@ import java.math.BigDecimal;
 import java.sql.Timestamp;
 import java.time.LocalDate;
 import java.util.*;
+import java.util.stream.Collectors;
 
 /**
  * A service implementation for managing Transaction entities in the database.
@@ -32,11 +41,23 @@ import java.util.*;
 @Slf4j
 public class TransactionDatabaseServiceImpl implements TransactionDatabaseService {
 
+    private static final int AMOUNT_SCALE = 2;
+
+    private static final Comparator<UUID> LOCK_ORDER = Comparator
+            .comparing(UUID::getMostSignificantBits, Long::compareUnsigned)
+            .thenComparing(UUID::getLeastSignificantBits, Long::compareUnsigned);
+
     private final TransactionRepository transactionRepository;
     private final TransactionDtoMapper transactionDtoMapper;
     private final AccountDatabaseService accountDatabaseService;
     private final ClientDatabaseService clientDatabaseService;
     private final CurrencyConverter currencyConverter;
+    private final ExchangeQuoteService exchangeQuoteService;
+    private final LedgerService ledgerService;
+    private final SpendingLimitService spendingLimitService;
+
+    @Value("${transfer.optimistic.locking:false}")
+    private boolean optimisticLocking;
 
 
     @Override
@@ -108,43 +129,159 @@ public class TransactionDatabaseServiceImpl implements TransactionDatabaseServic
     @Transactional
     public void transferFunds(Transaction transaction) {
         BigDecimal amount = transaction.getAmount();
-        Account senderAccount = accountDatabaseService.findById(transaction.getDebitAccountUuid());
-        Account recipientAccount = accountDatabaseService.findById(transaction.getCreditAccountUuid());
+        UUID senderUuid = transaction.getDebitAccountUuid();
+        UUID recipientUuid = transaction.getCreditAccountUuid();
+        if (senderUuid == null || recipientUuid == null) {
+            throw new IllegalArgumentException();
+        }
+
+        Account senderAccount;
+        Account recipientAccount;
+        if (optimisticLocking) {
+            senderAccount = accountDatabaseService.findById(senderUuid);
+            recipientAccount = accountDatabaseService.findById(recipientUuid);
+        } else if (LOCK_ORDER.compare(senderUuid, recipientUuid) <= 0) {
+            senderAccount = accountDatabaseService.findByIdForUpdate(senderUuid);
+            recipientAccount = accountDatabaseService.findByIdForUpdate(recipientUuid);
+        } else {
+            recipientAccount = accountDatabaseService.findByIdForUpdate(recipientUuid);
+            senderAccount = accountDatabaseService.findByIdForUpdate(senderUuid);
+        }
+
+        checkTransferAllowed(amount, senderAccount, recipientAccount);
+        checkClientsStatusActive(senderAccount, recipientAccount);
+        BigDecimal creditAmount = resolveCreditAmount(transaction, amount, senderAccount, recipientAccount);
+        spendingLimitService.checkLimit(transaction, senderAccount);
+
+        applyTransfer(transaction, amount, senderAccount, recipientAccount, creditAmount);
+        accountDatabaseService.update(senderAccount.getUuid(), senderAccount);
+        accountDatabaseService.update(recipientAccount.getUuid(), recipientAccount);
+        transactionRepository.save(transaction);
+        ledgerService.recordTransfer(transaction.getUuid(), senderAccount, amount, recipientAccount, creditAmount);
+        log.info("transfer saved to db");
+    }
+
+    @Override
+    @Transactional
+    public List<TransferResultDto> transferFundsBatch(List<Transaction> transactions) {
+        if (transactions == null) {
+            throw new IllegalArgumentException();
+        }
+        log.info("executing batch of {} transfers", transactions.size());
+
+        Set<UUID> accountUuids = new HashSet<>();
+        for (Transaction transaction : transactions) {
+            if (transaction.getDebitAccountUuid() != null) {
+                accountUuids.add(transaction.getDebitAccountUuid());
+            }
+            if (transaction.getCreditAccountUuid() != null) {
+                accountUuids.add(transaction.getCreditAccountUuid());
+            }
+        }
+        Map<UUID, Account> accounts = new HashMap<>();
+        accountDatabaseService.findAllByIdForUpdate(accountUuids)
+                .forEach(account -> accounts.put(account.getUuid(), account));
+
+        Set<UUID> clientUuids = accounts.values().stream()
+                .map(Account::getClientUuid)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        Set<UUID> activeClientUuids = clientDatabaseService.findActiveClientUuids(clientUuids);
+
+        List<TransferResultDto> results = new ArrayList<>(transactions.size());
+        List<LedgerMovement> movements = new ArrayList<>(transactions.size());
+        for (int i = 0; i < transactions.size(); i++) {
+            Transaction transaction = transactions.get(i);
+            Account senderAccount;
+            Account recipientAccount;
+            BigDecimal amount = transaction.getAmount();
+            BigDecimal creditAmount;
+            try {
+                senderAccount = getLoadedAccount(accounts, transaction.getDebitAccountUuid());
+                recipientAccount = getLoadedAccount(accounts, transaction.getCreditAccountUuid());
+                checkTransferAllowed(amount, senderAccount, recipientAccount);
+                if (!activeClientUuids.contains(senderAccount.getClientUuid())
+                        || !activeClientUuids.contains(recipientAccount.getClientUuid())) {
+                    throw new TransactionNotAllowedException("Client is not active");
+                }
+                creditAmount = resolveCreditAmount(transaction, amount, senderAccount, recipientAccount);
+                spendingLimitService.checkLimit(transaction, senderAccount);
+            } catch (DataAccessException e) {
+                throw e;
+            } catch (RuntimeException e) {
+                results.add(TransferResultDto.builder()
+                        .index(i)
+                        .status(TransferStatus.REJECTED.name())
+                        .message(e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName())
+                        .build());
+                continue;
+            }
+
+            applyTransfer(transaction, amount, senderAccount, recipientAccount, creditAmount);
+            transactionRepository.save(transaction);
+            movements.add(new LedgerMovement(
+                    transaction.getUuid(), senderAccount, amount, recipientAccount, creditAmount));
+            results.add(TransferResultDto.builder()
+                    .index(i)
+                    .transactionUuid(String.valueOf(transaction.getUuid()))
+                    .status(TransferStatus.COMPLETED.name())
+                    .build());
+        }
+        if (!movements.isEmpty()) {
+            ledgerService.recordTransfers(movements);
+        }
+        log.info("batch transfers saved to db");
+        return results;
+    }
+
+    private Account getLoadedAccount(Map<UUID, Account> accounts, UUID uuid) {
+        if (uuid == null) {
+            throw new IllegalArgumentException("Account id is null");
+        }
+        Account account = accounts.get(uuid);
+        if (account == null) {
+            throw new DataNotFoundException("Account not found: " + uuid);
+        }
+        return account;
+    }
 
+    private void checkTransferAllowed(BigDecimal amount, Account senderAccount, Account recipientAccount) {
         checkAmount(amount);
         checkBalanceNotNull(senderAccount, recipientAccount);
         checkAccountStatusNotNull(senderAccount, recipientAccount);
         checkSufficientFunds(amount, senderAccount);
         checkAccountsStatusActive(senderAccount, recipientAccount);
-        checkClientsStatusActive(senderAccount, recipientAccount);
-
-        CurrencyCode senderCurrency = senderAccount.getCurrencyCode();
-        transaction.setCurrencyCode(senderCurrency);
-        senderAccount.setBalance(senderAccount.getBalance().subtract(amount));
-
-        performTransfer(transaction, amount, senderAccount, recipientAccount);
     }
 
-    private void performTransfer(Transaction transaction, BigDecimal amount, Account sender, Account recipient) {
+    private BigDecimal resolveCreditAmount(Transaction transaction, BigDecimal amount, Account sender,
+                                           Account recipient) {
         CurrencyCode senderCurrency = sender.getCurrencyCode();
         CurrencyCode recipientCurrency = recipient.getCurrencyCode();
-
+        String quoteId = transaction.getQuoteId();
+        if (quoteId != null) {
+            long quotedCrossRate = exchangeQuoteService.getQuotedCrossRate(quoteId, senderCurrency, recipientCurrency);
+            return currencyConverter.convert(amount, senderCurrency, recipientCurrency, quotedCrossRate);
+        }
         if (recipientCurrency.equals(senderCurrency)) {
-            recipient.setBalance(recipient.getBalance().add(amount));
-        } else {
-            recipient = currencyConverter.performCurrencyConversion(amount, recipient, sender);
+            return amount;
         }
+        return currencyConverter.convert(amount, senderCurrency, recipientCurrency);
+    }
 
-        accountDatabaseService.update(sender.getUuid(), sender);
-        accountDatabaseService.update(recipient.getUuid(), recipient);
-        transactionRepository.save(transaction);
-        log.info("transfer saved to db");
+    private void applyTransfer(Transaction transaction, BigDecimal amount, Account sender, Account recipient,
+                               BigDecimal creditAmount) {
+        transaction.setCurrencyCode(sender.getCurrencyCode());
+        sender.setBalance(sender.getBalance().subtract(amount));
+        recipient.setBalance(recipient.getBalance().add(creditAmount));
     }
 
     private void checkAmount(BigDecimal amount) {
-        if (amount.compareTo(BigDecimal.ZERO) <= 0) {
+        if (amount == null || amount.compareTo(BigDecimal.ZERO) <= 0) {
             throw new IllegalArgumentException("Amount is less or equals Zero");
         }
+        if (amount.scale() > AMOUNT_SCALE && amount.stripTrailingZeros().scale() > AMOUNT_SCALE) {
+            throw new IllegalArgumentException("Amount has more than " + AMOUNT_SCALE + " decimal places");
+        }
     }
 
     private void checkBalanceNotNull(Account senderAccount, Account recipientAccount) {
@@ -0,0 +1,23 @@
+package org.crazymages.bankingspringproject.service.deposit;
+
+import org.crazymages.bankingspringproject.service.job.PartitionedChunkJob;
+
+import java.math.BigDecimal;
+
+/**
+ * A service interface for posting interest on deposit accounts.
+ * Interest is paid from the bank shard accounts and posted as a chunk job over the active deposit accounts
+ * with an active agreement, in account UUID order; the checkpoint is the UUID of the last account of a chunk.
+ * The accounts can be split into UUID range partitions posted concurrently.
+ */
+public interface InterestPostingService extends PartitionedChunkJob {
+
+    /**
+     * Calculates the interest earned on a balance.
+     *
+     * @param balance      The balance the interest is earned on.
+     * @param interestRate The interest rate, in percent.
+     * @return The interest in the currency of the balance, rounded half up to minor units.
+     */
+    BigDecimal calculateInterest(BigDecimal balance, BigDecimal interestRate);
+}
@@ -0,0 +1,199 @@
+package org.crazymages.bankingspringproject.service.deposit.impl;
+
+import lombok.extern.slf4j.Slf4j;
+import org.crazymages.bankingspringproject.entity.Account;
+import org.crazymages.bankingspringproject.entity.Transaction;
+import org.crazymages.bankingspringproject.entity.enums.AccountStatus;
+import org.crazymages.bankingspringproject.entity.enums.AgreementStatus;
+import org.crazymages.bankingspringproject.entity.enums.CurrencyCode;
+import org.crazymages.bankingspringproject.entity.enums.ProductStatus;
+import org.crazymages.bankingspringproject.entity.enums.ProductType;
+import org.crazymages.bankingspringproject.entity.enums.TransactionType;
+import org.crazymages.bankingspringproject.repository.AccountRepository;
+import org.crazymages.bankingspringproject.repository.AccountRepository.AccountInterest;
+import org.crazymages.bankingspringproject.repository.TransactionRepository;
+import org.crazymages.bankingspringproject.service.bank.BankLedgerService;
+import org.crazymages.bankingspringproject.service.deposit.InterestPostingService;
+import org.crazymages.bankingspringproject.service.exchange.ExchangeRateSnapshot;
+import org.crazymages.bankingspringproject.service.exchange.ExchangeRateSnapshotService;
+import org.crazymages.bankingspringproject.service.job.ChunkResult;
+import org.crazymages.bankingspringproject.service.job.UuidPartition;
+import org.crazymages.bankingspringproject.service.ledger.LedgerMovement;
+import org.crazymages.bankingspringproject.service.ledger.LedgerService;
+import org.crazymages.bankingspringproject.service.utils.lock.AccountLockManager;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * A service implementation that posts deposit interest set by set rather than account by account.
+ * Each chunk of accounts is read with one joined query returning the balance and interest rate of every account,
+ * the deposit accounts are credited with one JDBC batch update, and the transactions and ledger entries
+ * are inserted as batches when the chunk transaction, opened by the job runner, is flushed.
+ * Every payment of a chunk is debited directly from the pre-funded shard of its job partition, so a chunk locks
+ * exactly one shard row and concurrent partitions do not wait on each other as long as there are no more partitions
+ * than shards; the main bank account is locked only when the shard runs low and has to be topped up.
+ * The shard is locked after the deposit accounts have been credited but before any ledger entry is written,
+ * so that the ledger entries of every account are written in sequence order under its row lock.
+ * The in-process locks of the deposit accounts and the shard of a chunk are taken before any row is written
+ * and held until the chunk transaction completes, so transfers on those accounts wait in memory meanwhile.
+ */
+@Service
+@Slf4j
+public class InterestPostingServiceImpl implements InterestPostingService {
+
+    static final String CREDIT_BALANCE_SQL = "UPDATE accounts " +
+            "SET balance = balance + ?, version = COALESCE(version, 0) + 1, updated_at = CURRENT_TIMESTAMP " +
+            "WHERE uuid = ?";
+
+    static final String JOB_NAME = "deposit-interest";
+
+    private static final int RATE_SCALE = 6;
+    private static final int AMOUNT_SCALE = 2;
+    private static final String DESCRIPTION = "Deposit Interest Payment";
+
+    private final AccountRepository accountRepository;
+    private final TransactionRepository transactionRepository;
+    private final BankLedgerService bankLedgerService;
+    private final LedgerService ledgerService;
+    private final ExchangeRateSnapshotService exchangeRateSnapshotService;
+    private final AccountLockManager accountLockManager;
+    private final JdbcTemplate jdbcTemplate;
+    private final int chunkSize;
+    private final int partitionCount;
+
+    public InterestPostingServiceImpl(AccountRepository accountRepository,
+                                      TransactionRepository transactionRepository,
+                                      BankLedgerService bankLedgerService,
+                                      LedgerService ledgerService,
+                                      ExchangeRateSnapshotService exchangeRateSnapshotService,
+                                      AccountLockManager accountLockManager,
+                                      JdbcTemplate jdbcTemplate,
+                                      @Value("${deposit.interest.chunk-size:1000}") int chunkSize,
+                                      @Value("${deposit.interest.partitions:1}") int partitionCount) {
+        if (chunkSize < 1 || partitionCount < 1) {
+            throw new IllegalArgumentException("Interest posting chunk size and partition count must be positive");
+        }
+        this.accountRepository = accountRepository;
+        this.transactionRepository = transactionRepository;
+        this.bankLedgerService = bankLedgerService;
+        this.ledgerService = ledgerService;
+        this.exchangeRateSnapshotService = exchangeRateSnapshotService;
+        this.accountLockManager = accountLockManager;
+        this.jdbcTemplate = jdbcTemplate;
+        this.chunkSize = chunkSize;
+        this.partitionCount = partitionCount;
+    }
+
+    @Override
+    public String getJobName() {
+        return JOB_NAME;
+    }
+
+    @Override
+    public int getPartitionCount() {
+        return partitionCount;
+    }
+
+    @Override
+    public ChunkResult processChunk(UuidPartition partition, String checkpoint) {
+        UUID after = checkpoint != null ? UUID.fromString(checkpoint) : partition.after();
+        List<AccountInterest> chunk = accountRepository.findAccountInterestBetween(after, partition.upTo(),
+                ProductType.DEPOSIT_ACCOUNT, ProductStatus.ACTIVE, AccountStatus.ACTIVE, AgreementStatus.ACTIVE,
+                PageRequest.ofSize(chunkSize));
+        if (chunk.isEmpty()) {
+            return ChunkResult.finished(checkpoint, 0);
+        }
+        int posted = postChunk(chunk, bankLedgerService.selectShard(bankLedgerService.getShardAccounts(),
+                partition.index()));
+        String last = String.valueOf(chunk.get(chunk.size() - 1).getAccountUuid());
+        return chunk.size() < chunkSize ? ChunkResult.finished(last, posted) : ChunkResult.next(last, posted);
+    }
+
+    @Override
+    public BigDecimal calculateInterest(BigDecimal balance, BigDecimal interestRate) {
+        if (balance == null || interestRate == null) {
+            throw new IllegalArgumentException();
+        }
+        BigDecimal factor = interestRate.movePointLeft(2).setScale(RATE_SCALE, RoundingMode.HALF_UP);
+        return balance.multiply(factor).setScale(AMOUNT_SCALE, RoundingMode.HALF_UP);
+    }
+
+    private int postChunk(List<AccountInterest> accountInterests, Account shard) {
+        Map<UUID, AccountInterest> index = new LinkedHashMap<>();
+        for (AccountInterest accountInterest : accountInterests) {
+            index.putIfAbsent(accountInterest.getAccountUuid(), accountInterest);
+        }
+
+        ExchangeRateSnapshot snapshot = exchangeRateSnapshotService.getSnapshot();
+        CurrencyCode shardCurrencyCode = shard.getCurrencyCode();
+        BigDecimal shardDebit = BigDecimal.ZERO;
+        List<Object[]> credits = new ArrayList<>(index.size());
+        List<Transaction> transactions = new ArrayList<>(index.size());
+        List<Account> payers = new ArrayList<>(index.size());
+        List<Account> recipients = new ArrayList<>(index.size());
+        List<BigDecimal> creditAmounts = new ArrayList<>(index.size());
+
+        for (AccountInterest accountInterest : index.values()) {
+            if (accountInterest.getBalance() == null || accountInterest.getInterestRate() == null) {
+                continue;
+            }
+            CurrencyCode currencyCode = accountInterest.getCurrencyCode();
+            BigDecimal interest = calculateInterest(accountInterest.getBalance(), accountInterest.getInterestRate());
+            if (interest.signum() <= 0) {
+                continue;
+            }
+            BigDecimal debit = shardCurrencyCode == currencyCode ? interest
+                    : snapshot.convert(interest, currencyCode, shardCurrencyCode);
+
+            shardDebit = shardDebit.add(debit);
+            credits.add(new Object[]{interest, accountInterest.getAccountUuid()});
+            transactions.add(Transaction.builder()
+                    .debitAccountUuid(shard.getUuid())
+                    .creditAccountUuid(accountInterest.getAccountUuid())
+                    .type(TransactionType.DEPOSIT)
+                    .currencyCode(shardCurrencyCode)
+                    .amount(debit)
+                    .description(DESCRIPTION)
+                    .build());
+            payers.add(shard);
+            recipients.add(Account.builder()
+                    .uuid(accountInterest.getAccountUuid())
+                    .currencyCode(currencyCode)
+                    .build());
+            creditAmounts.add(interest);
+        }
+        if (transactions.isEmpty()) {
+            return 0;
+        }
+
+        List<UUID> accountUuids = new ArrayList<>(recipients.size() + 1);
+        recipients.forEach(recipient -> accountUuids.add(recipient.getUuid()));
+        accountUuids.add(shard.getUuid());
+        BigDecimal totalDebit = shardDebit;
+        return accountLockManager.executeWithLocks(accountUuids, () -> {
+            jdbcTemplate.batchUpdate(CREDIT_BALANCE_SQL, credits);
+            bankLedgerService.debitShards(Map.of(shard.getUuid(), totalDebit));
+            transactionRepository.saveAll(transactions);
+            List<LedgerMovement> movements = new ArrayList<>(transactions.size());
+            for (int i = 0; i < transactions.size(); i++) {
+                Transaction transaction = transactions.get(i);
+                movements.add(new LedgerMovement(transaction.getUuid(), payers.get(i),
+                        transaction.getAmount(), recipients.get(i), creditAmounts.get(i)));
+            }
+            ledgerService.recordTransfers(movements);
+            transactionRepository.flush();
+            log.info("posted {} deposit interest payments", transactions.size());
+            return transactions.size();
+        });
+    }
+}
@@ -0,0 +1,36 @@
+package org.crazymages.bankingspringproject.service.exchange;
+
+import org.crazymages.bankingspringproject.dto.ExchangeQuoteDto;
+import org.crazymages.bankingspringproject.dto.ExchangeQuoteRequestDto;
+import org.crazymages.bankingspringproject.entity.enums.CurrencyCode;
+
+/**
+ * A service interface for short-lived exchange rate quotes.
+ * A quote locks the current cross rate of a currency pair for a limited time,
+ * so a transfer referencing it is converted at the quoted rate.
+ */
+public interface ExchangeQuoteService {
+
+    /**
+     * Creates a quote locking the current cross rate of the requested currency pair.
+     *
+     * @param quoteRequest The requested currency pair.
+     * @return The quote with its id, rate and expiry time.
+     * @throws IllegalArgumentException if the request is null or names an unsupported currency.
+     * @throws org.crazymages.bankingspringproject.exception.DataNotFoundException if there is no rate for the pair.
+     */
+    ExchangeQuoteDto createQuote(ExchangeQuoteRequestDto quoteRequest);
+
+    /**
+     * Retrieves the cross rate locked by a quote that has not expired.
+     *
+     * @param quoteId The quote id.
+     * @param from    The source currency of the transfer.
+     * @param to      The target currency of the transfer.
+     * @return The quoted cross rate scaled by 10 to the power of {@link ExchangeRateSnapshot#FACTOR_SCALE}.
+     * @throws org.crazymages.bankingspringproject.exception.DataNotFoundException if the quote is unknown or expired.
+     * @throws org.crazymages.bankingspringproject.exception.TransactionNotAllowedException if the quote is for
+     *                                                                                       another currency pair.
+     */
+    long getQuotedCrossRate(String quoteId, CurrencyCode from, CurrencyCode to);
+}
@@ -0,0 +1,43 @@
+package org.crazymages.bankingspringproject.service.exchange;
+
+import org.crazymages.bankingspringproject.dto.CurrencyExchangeRateDto;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * A service interface that keeps every refreshed exchange rate set as a new version,
+ * so rates can be looked up as they were at any point in time.
+ */
+public interface ExchangeRateHistoryService {
+
+    /**
+     * Stores the rates of the snapshot as a new version effective from now.
+     * Nothing is stored if the rates are the same as those of the latest version.
+     *
+     * @param snapshot The snapshot to record.
+     * @return true if a new version was stored, false otherwise.
+     * @throws IllegalArgumentException if the snapshot is null.
+     */
+    boolean record(ExchangeRateSnapshot snapshot);
+
+    /**
+     * Retrieves the exchange rates that were in effect at the given point in time.
+     *
+     * @param at The point in time.
+     * @return The snapshot of the version in effect at that time.
+     * @throws IllegalArgumentException if the point in time is null.
+     * @throws org.crazymages.bankingspringproject.exception.DataNotFoundException if no version was in effect.
+     */
+    ExchangeRateSnapshot getSnapshotAt(Instant at);
+
+    /**
+     * Retrieves the exchange rate DTOs that were in effect at the given point in time.
+     *
+     * @param at The point in time.
+     * @return A list of the exchange rate DTOs in effect at that time.
+     * @throws IllegalArgumentException if the point in time is null.
+     * @throws org.crazymages.bankingspringproject.exception.DataNotFoundException if no version was in effect.
+     */
+    List<CurrencyExchangeRateDto> findRatesAt(Instant at);
+}
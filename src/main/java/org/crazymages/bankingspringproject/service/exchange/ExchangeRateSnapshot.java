@@ -0,0 +1,167 @@
+package org.crazymages.bankingspringproject.service.exchange;
+
+import org.crazymages.bankingspringproject.entity.enums.CurrencyCode;
+import org.crazymages.bankingspringproject.exception.DataNotFoundException;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * An immutable snapshot of the exchange rates of the supported currencies against the base currency.
+ * A snapshot is never modified once built, so readers holding it always see one consistent set of rates.
+ * <p>
+ * The snapshot also precomputes the cross rate of every currency pair as a fixed-point {@code long}
+ * with {@link #FACTOR_SCALE} decimal places, so a conversion is one multiplication and one rounding step.
+ */
+public final class ExchangeRateSnapshot {
+
+    public static final int FACTOR_SCALE = 12;
+    public static final int AMOUNT_SCALE = 2;
+
+    private static final long FACTOR_ONE = 1_000_000_000_000L;
+    private static final int MAX_FAST_PATH_PRECISION = 15;
+    private static final CurrencyCode[] CURRENCY_CODES = CurrencyCode.values();
+    private static final ExchangeRateSnapshot EMPTY = new ExchangeRateSnapshot(new EnumMap<>(CurrencyCode.class));
+
+    private final Map<CurrencyCode, BigDecimal> rates;
+    private final long[][] crossRates;
+
+    private ExchangeRateSnapshot(EnumMap<CurrencyCode, BigDecimal> rates) {
+        this.rates = Collections.unmodifiableMap(rates);
+        this.crossRates = buildCrossRates(rates);
+    }
+
+    /**
+     * Returns the snapshot without any rates.
+     *
+     * @return The empty snapshot.
+     */
+    public static ExchangeRateSnapshot empty() {
+        return EMPTY;
+    }
+
+    /**
+     * Builds a snapshot from a copy of the given rates.
+     *
+     * @param rates The exchange rates by currency code.
+     * @return The snapshot of the rates.
+     */
+    public static ExchangeRateSnapshot of(Map<CurrencyCode, BigDecimal> rates) {
+        EnumMap<CurrencyCode, BigDecimal> copy = new EnumMap<>(CurrencyCode.class);
+        rates.forEach((currencyCode, rate) -> {
+            if (currencyCode != null && rate != null) {
+                copy.put(currencyCode, rate);
+            }
+        });
+        return copy.isEmpty() ? EMPTY : new ExchangeRateSnapshot(copy);
+    }
+
+    /**
+     * Retrieves the exchange rate of a currency against the base currency.
+     *
+     * @param currencyCode The currency code.
+     * @return The exchange rate.
+     * @throws DataNotFoundException if the snapshot has no rate for the currency.
+     */
+    public BigDecimal getRate(CurrencyCode currencyCode) {
+        BigDecimal rate = rates.get(currencyCode);
+        if (rate == null) {
+            throw new DataNotFoundException(String.valueOf(currencyCode));
+        }
+        return rate;
+    }
+
+    /**
+     * Returns the exchange rates of the snapshot.
+     *
+     * @return An unmodifiable map of the exchange rates by currency code.
+     */
+    public Map<CurrencyCode, BigDecimal> getRates() {
+        return rates;
+    }
+
+    public boolean isEmpty() {
+        return rates.isEmpty();
+    }
+
+    /**
+     * Converts an amount between two currencies with the precomputed cross rate,
+     * rounding the result half up to {@link #AMOUNT_SCALE} decimal places.
+     *
+     * @param amount The amount in the source currency.
+     * @param from   The source currency.
+     * @param to     The target currency.
+     * @return The converted amount in the target currency.
+     * @throws DataNotFoundException if the snapshot has no rate for one of the currencies.
+     */
+    public BigDecimal convert(BigDecimal amount, CurrencyCode from, CurrencyCode to) {
+        return convert(amount, getCrossRate(from, to));
+    }
+
+    /**
+     * Converts an amount with the given fixed-point cross rate,
+     * rounding the result half up to {@link #AMOUNT_SCALE} decimal places.
+     *
+     * @param amount The amount in the source currency.
+     * @param factor The cross rate scaled by 10 to the power of {@link #FACTOR_SCALE}.
+     * @return The converted amount in the target currency.
+     */
+    public static BigDecimal convert(BigDecimal amount, long factor) {
+        if (amount.scale() <= AMOUNT_SCALE && amount.precision() <= MAX_FAST_PATH_PRECISION) {
+            long minorUnits = amount.movePointRight(AMOUNT_SCALE).longValue();
+            long high = Math.multiplyHigh(minorUnits, factor);
+            long low = minorUnits * factor;
+            if ((high == 0 && low >= 0) || (high == -1 && low < 0)) {
+                return BigDecimal.valueOf(roundHalfUp(low), AMOUNT_SCALE);
+            }
+        }
+        return amount.multiply(BigDecimal.valueOf(factor, FACTOR_SCALE)).setScale(AMOUNT_SCALE, RoundingMode.HALF_UP);
+    }
+
+    /**
+     * Retrieves the precomputed cross rate from one currency to another.
+     *
+     * @param from The source currency.
+     * @param to   The target currency.
+     * @return The cross rate scaled by 10 to the power of {@link #FACTOR_SCALE}.
+     * @throws DataNotFoundException if the snapshot has no rate for one of the currencies.
+     */
+    public long getCrossRate(CurrencyCode from, CurrencyCode to) {
+        long factor = crossRates[from.ordinal()][to.ordinal()];
+        if (factor == 0) {
+            throw new DataNotFoundException(String.valueOf(rates.containsKey(from) ? to : from));
+        }
+        return factor;
+    }
+
+    private static long roundHalfUp(long scaledProduct) {
+        long quotient = scaledProduct / FACTOR_ONE;
+        long remainder = scaledProduct % FACTOR_ONE;
+        if (Math.abs(remainder) * 2 >= FACTOR_ONE) {
+            quotient += Long.signum(scaledProduct);
+        }
+        return quotient;
+    }
+
+    private static long[][] buildCrossRates(Map<CurrencyCode, BigDecimal> rates) {
+        long[][] matrix = new long[CURRENCY_CODES.length][CURRENCY_CODES.length];
+        for (CurrencyCode from : CURRENCY_CODES) {
+            BigDecimal fromRate = rates.get(from);
+            if (fromRate == null || fromRate.signum() <= 0) {
+                continue;
+            }
+            for (CurrencyCode to : CURRENCY_CODES) {
+                BigDecimal toRate = rates.get(to);
+                if (toRate != null && toRate.signum() > 0) {
+                    matrix[from.ordinal()][to.ordinal()] = from == to
+                            ? FACTOR_ONE
+                            : toRate.divide(fromRate, FACTOR_SCALE, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+                }
+            }
+        }
+        return matrix;
+    }
+}
@@ -0,0 +1,24 @@
+package org.crazymages.bankingspringproject.service.exchange;
+
+/**
+ * A service interface that publishes the current exchange rates as an immutable in-memory snapshot,
+ * so currency conversions do not query the database.
+ */
+public interface ExchangeRateSnapshotService {
+
+    /**
+     * Returns the current exchange rate snapshot.
+     * The snapshot is loaded from the database on first use if it has not been published yet.
+     *
+     * @return The current snapshot.
+     */
+    ExchangeRateSnapshot getSnapshot();
+
+    /**
+     * Rebuilds the snapshot from the exchange rates stored in the database and publishes it in one step.
+     * Rates of currencies that are not supported are left out.
+     *
+     * @return The published snapshot.
+     */
+    ExchangeRateSnapshot refresh();
+}
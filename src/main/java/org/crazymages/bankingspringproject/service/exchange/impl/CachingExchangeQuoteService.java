@@ -0,0 +1,103 @@
+package org.crazymages.bankingspringproject.service.exchange.impl;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
+import org.crazymages.bankingspringproject.dto.ExchangeQuoteDto;
+import org.crazymages.bankingspringproject.dto.ExchangeQuoteRequestDto;
+import org.crazymages.bankingspringproject.entity.enums.CurrencyCode;
+import org.crazymages.bankingspringproject.exception.DataNotFoundException;
+import org.crazymages.bankingspringproject.exception.TransactionNotAllowedException;
+import org.crazymages.bankingspringproject.service.exchange.ExchangeQuoteService;
+import org.crazymages.bankingspringproject.service.exchange.ExchangeRateSnapshot;
+import org.crazymages.bankingspringproject.service.exchange.ExchangeRateSnapshotService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * A service implementation that keeps quotes in a bounded in-memory cache evicting them after the time to live.
+ * A quote is stored as the currency pair and the fixed-point cross rate already computed by the
+ * exchange rate snapshot, under a random 64-bit key, so creating one is a matrix read and a single small object.
+ */
+@Service
+@Slf4j
+public class CachingExchangeQuoteService implements ExchangeQuoteService {
+
+    private final ExchangeRateSnapshotService exchangeRateSnapshotService;
+    private final Duration ttl;
+    private final Clock clock;
+    private final Cache<Long, Quote> quotes;
+
+    @Autowired
+    public CachingExchangeQuoteService(ExchangeRateSnapshotService exchangeRateSnapshotService,
+                                       @Value("${exchange.quote.ttl-seconds:30}") long ttlSeconds,
+                                       @Value("${exchange.quote.max-size:1000000}") long maxSize) {
+        this(exchangeRateSnapshotService, Duration.ofSeconds(ttlSeconds), maxSize, Clock.systemUTC());
+    }
+
+    CachingExchangeQuoteService(ExchangeRateSnapshotService exchangeRateSnapshotService,
+                                Duration ttl,
+                                long maxSize,
+                                Clock clock) {
+        this.exchangeRateSnapshotService = exchangeRateSnapshotService;
+        this.ttl = ttl;
+        this.clock = clock;
+        this.quotes = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .ticker(() -> clock.millis() * 1_000_000)
+                .build();
+    }
+
+    @Override
+    public ExchangeQuoteDto createQuote(ExchangeQuoteRequestDto quoteRequest) {
+        if (quoteRequest == null || quoteRequest.getFromCurrency() == null || quoteRequest.getToCurrency() == null) {
+            throw new IllegalArgumentException();
+        }
+        CurrencyCode from = CurrencyCode.valueOf(quoteRequest.getFromCurrency());
+        CurrencyCode to = CurrencyCode.valueOf(quoteRequest.getToCurrency());
+        long crossRate = exchangeRateSnapshotService.getSnapshot().getCrossRate(from, to);
+        long expiresAt = clock.millis() + ttl.toMillis();
+
+        long key = ThreadLocalRandom.current().nextLong();
+        quotes.put(key, new Quote(from, to, crossRate));
+        return ExchangeQuoteDto.builder()
+                .quoteId(Long.toHexString(key))
+                .fromCurrency(from.name())
+                .toCurrency(to.name())
+                .rate(BigDecimal.valueOf(crossRate, ExchangeRateSnapshot.FACTOR_SCALE))
+                .expiresAt(Instant.ofEpochMilli(expiresAt).toString())
+                .build();
+    }
+
+    @Override
+    public long getQuotedCrossRate(String quoteId, CurrencyCode from, CurrencyCode to) {
+        Quote quote = quoteId == null ? null : quotes.getIfPresent(parseKey(quoteId));
+        if (quote == null) {
+            throw new DataNotFoundException("Exchange quote not found or expired: " + quoteId);
+        }
+        if (quote.from() != from || quote.to() != to) {
+            throw new TransactionNotAllowedException("Exchange quote is for another currency pair");
+        }
+        log.info("applying exchange quote {}", quoteId);
+        return quote.crossRate();
+    }
+
+    private static long parseKey(String quoteId) {
+        try {
+            return Long.parseUnsignedLong(quoteId, 16);
+        } catch (NumberFormatException e) {
+            throw new DataNotFoundException("Exchange quote not found or expired: " + quoteId);
+        }
+    }
+
+    private record Quote(CurrencyCode from, CurrencyCode to, long crossRate) {
+    }
+}
@@ -0,0 +1,147 @@
+package org.crazymages.bankingspringproject.service.exchange.impl;
+
+import lombok.extern.slf4j.Slf4j;
+import org.crazymages.bankingspringproject.dto.CurrencyExchangeRateDto;
+import org.crazymages.bankingspringproject.entity.CurrencyExchangeRateHistory;
+import org.crazymages.bankingspringproject.entity.enums.CurrencyCode;
+import org.crazymages.bankingspringproject.exception.DataNotFoundException;
+import org.crazymages.bankingspringproject.repository.CurrencyExchangeRateHistoryRepository;
+import org.crazymages.bankingspringproject.service.exchange.ExchangeRateHistoryService;
+import org.crazymages.bankingspringproject.service.exchange.ExchangeRateSnapshot;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A service implementation that writes every exchange rate version to the history table
+ * and keeps the versions of the retention window in memory as sorted arrays.
+ * Lookups inside the window are a binary search; only older lookups query the database.
+ */
+@Service
+@Slf4j
+public class ExchangeRateHistoryServiceImpl implements ExchangeRateHistoryService {
+
+    private final CurrencyExchangeRateHistoryRepository currencyExchangeRateHistoryRepository;
+    private final Duration retention;
+    private final Clock clock;
+
+    private volatile RateVersions versions;
+
+    @Autowired
+    public ExchangeRateHistoryServiceImpl(CurrencyExchangeRateHistoryRepository currencyExchangeRateHistoryRepository,
+                                          @Value("${exchange.history.retention-days:30}") int retentionDays) {
+        this(currencyExchangeRateHistoryRepository, Duration.ofDays(retentionDays), Clock.systemUTC());
+    }
+
+    ExchangeRateHistoryServiceImpl(CurrencyExchangeRateHistoryRepository currencyExchangeRateHistoryRepository,
+                                   Duration retention,
+                                   Clock clock) {
+        this.currencyExchangeRateHistoryRepository = currencyExchangeRateHistoryRepository;
+        this.retention = retention;
+        this.clock = clock;
+    }
+
+    @Override
+    public synchronized boolean record(ExchangeRateSnapshot snapshot) {
+        if (snapshot == null) {
+            throw new IllegalArgumentException();
+        }
+        RateVersions current = getVersions();
+        if (snapshot.isEmpty() || current.latest() != null && current.latest().getRates().equals(snapshot.getRates())) {
+            return false;
+        }
+        long effectiveAt = Math.max(clock.millis(), current.latestEffectiveAt() + 1);
+        Timestamp timestamp = new Timestamp(effectiveAt);
+        List<CurrencyExchangeRateHistory> rates = snapshot.getRates().entrySet().stream()
+                .map(rate -> CurrencyExchangeRateHistory.builder()
+                        .effectiveAt(timestamp)
+                        .currencyCode(rate.getKey().name())
+                        .exchangeRate(rate.getValue())
+                        .build())
+                .toList();
+        currencyExchangeRateHistoryRepository.saveAll(rates);
+        versions = current.append(effectiveAt, snapshot, effectiveAt - retention.toMillis());
+        log.info("recorded exchange rate version effective at {}", timestamp.toInstant());
+        return true;
+    }
+
+    @Override
+    public ExchangeRateSnapshot getSnapshotAt(Instant at) {
+        if (at == null) {
+            throw new IllegalArgumentException();
+        }
+        ExchangeRateSnapshot snapshot = getVersions().findAt(at.toEpochMilli());
+        if (snapshot != null) {
+            return snapshot;
+        }
+        log.info("retrieving exchange rate version effective at {} from history", at);
+        snapshot = toSnapshot(currencyExchangeRateHistoryRepository.findAllEffectiveAt(Timestamp.from(at)));
+        if (snapshot.isEmpty()) {
+            throw new DataNotFoundException(String.valueOf(at));
+        }
+        return snapshot;
+    }
+
+    @Override
+    public List<CurrencyExchangeRateDto> findRatesAt(Instant at) {
+        return getSnapshotAt(at).getRates().entrySet().stream()
+                .map(rate -> new CurrencyExchangeRateDto(rate.getKey().name(), rate.getValue()))
+                .toList();
+    }
+
+    /**
+     * Returns the in-memory versions, loading the retention window from the database on first use.
+     */
+    private RateVersions getVersions() {
+        RateVersions current = versions;
+        if (current == null) {
+            synchronized (this) {
+                if (versions == null) {
+                    versions = loadVersions();
+                }
+                current = versions;
+            }
+        }
+        return current;
+    }
+
+    private RateVersions loadVersions() {
+        Timestamp cutoff = Timestamp.from(clock.instant().minus(retention));
+        List<CurrencyExchangeRateHistory> rows =
+                new ArrayList<>(currencyExchangeRateHistoryRepository.findAllEffectiveAt(cutoff));
+        rows.addAll(currencyExchangeRateHistoryRepository.findAllEffectiveAfter(cutoff));
+
+        RateVersions loaded = RateVersions.empty();
+        int start = 0;
+        for (int i = 1; i <= rows.size(); i++) {
+            if (i == rows.size() || !rows.get(i).getEffectiveAt().equals(rows.get(start).getEffectiveAt())) {
+                ExchangeRateSnapshot snapshot = toSnapshot(rows.subList(start, i));
+                loaded = loaded.append(rows.get(start).getEffectiveAt().getTime(), snapshot, cutoff.getTime());
+                start = i;
+            }
+        }
+        log.info("loaded {} exchange rate versions", loaded.size());
+        return loaded;
+    }
+
+    private ExchangeRateSnapshot toSnapshot(List<CurrencyExchangeRateHistory> rows) {
+        Map<CurrencyCode, BigDecimal> rates = new EnumMap<>(CurrencyCode.class);
+        for (CurrencyExchangeRateHistory row : rows) {
+            CurrencyCode currencyCode = ExchangeRateSnapshotServiceImpl.SUPPORTED_CODES.get(row.getCurrencyCode());
+            if (currencyCode != null) {
+                rates.put(currencyCode, row.getExchangeRate());
+            }
+        }
+        return ExchangeRateSnapshot.of(rates);
+    }
+}
@@ -0,0 +1,56 @@
+package org.crazymages.bankingspringproject.service.exchange.impl;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.crazymages.bankingspringproject.entity.CurrencyExchangeRate;
+import org.crazymages.bankingspringproject.entity.enums.CurrencyCode;
+import org.crazymages.bankingspringproject.repository.CurrencyExchangeRateRepository;
+import org.crazymages.bankingspringproject.service.exchange.ExchangeRateSnapshot;
+import org.crazymages.bankingspringproject.service.exchange.ExchangeRateSnapshotService;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * A service implementation that keeps the exchange rate snapshot behind a volatile reference.
+ * A refresh builds a complete new snapshot before swapping the reference,
+ * so readers see either the previous or the new rates and never a mix of both.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ExchangeRateSnapshotServiceImpl implements ExchangeRateSnapshotService {
+
+    static final Map<String, CurrencyCode> SUPPORTED_CODES = Arrays.stream(CurrencyCode.values())
+            .collect(Collectors.toUnmodifiableMap(CurrencyCode::name, Function.identity()));
+
+    private final CurrencyExchangeRateRepository currencyExchangeRateRepository;
+
+    private volatile ExchangeRateSnapshot snapshot = ExchangeRateSnapshot.empty();
+
+    @Override
+    public ExchangeRateSnapshot getSnapshot() {
+        ExchangeRateSnapshot current = snapshot;
+        return current.isEmpty() ? refresh() : current;
+    }
+
+    @Override
+    public ExchangeRateSnapshot refresh() {
+        Map<CurrencyCode, BigDecimal> rates = new EnumMap<>(CurrencyCode.class);
+        for (CurrencyExchangeRate exchangeRate : currencyExchangeRateRepository.findAllNotDeleted()) {
+            CurrencyCode currencyCode = SUPPORTED_CODES.get(exchangeRate.getCurrencyCode());
+            if (currencyCode != null && exchangeRate.getExchangeRate() != null) {
+                rates.put(currencyCode, exchangeRate.getExchangeRate());
+            }
+        }
+        ExchangeRateSnapshot refreshed = ExchangeRateSnapshot.of(rates);
+        snapshot = refreshed;
+        log.info("published exchange rate snapshot with {} currencies", refreshed.getRates().size());
+        return refreshed;
+    }
+}
@@ -0,0 +1,70 @@
+package org.crazymages.bankingspringproject.service.exchange.impl;
+
+import org.crazymages.bankingspringproject.service.exchange.ExchangeRateSnapshot;
+
+import java.util.Arrays;
+
+/**
+ * An immutable list of exchange rate versions kept as two parallel arrays sorted by effective time,
+ * so the version in effect at a point in time is found with a binary search.
+ */
+final class RateVersions {
+
+    private static final RateVersions EMPTY = new RateVersions(new long[0], new ExchangeRateSnapshot[0]);
+
+    private final long[] effectiveAt;
+    private final ExchangeRateSnapshot[] snapshots;
+
+    private RateVersions(long[] effectiveAt, ExchangeRateSnapshot[] snapshots) {
+        this.effectiveAt = effectiveAt;
+        this.snapshots = snapshots;
+    }
+
+    static RateVersions empty() {
+        return EMPTY;
+    }
+
+    /**
+     * Returns the version in effect at the given epoch millisecond, or null if it precedes every version.
+     */
+    ExchangeRateSnapshot findAt(long epochMilli) {
+        int index = floorIndex(epochMilli);
+        return index < 0 ? null : snapshots[index];
+    }
+
+    ExchangeRateSnapshot latest() {
+        return snapshots.length == 0 ? null : snapshots[snapshots.length - 1];
+    }
+
+    long latestEffectiveAt() {
+        return effectiveAt.length == 0 ? Long.MIN_VALUE : effectiveAt[effectiveAt.length - 1];
+    }
+
+    int size() {
+        return snapshots.length;
+    }
+
+    /**
+     * Returns a copy with the version appended, dropping the versions superseded before the cutoff.
+     * The version in effect at the cutoff itself is kept, so every instant from the cutoff on is covered.
+     *
+     * @throws IllegalArgumentException if the version is not newer than the latest one.
+     */
+    RateVersions append(long epochMilli, ExchangeRateSnapshot snapshot, long cutoffEpochMilli) {
+        if (epochMilli <= latestEffectiveAt()) {
+            throw new IllegalArgumentException("Exchange rate versions must be appended in effective order");
+        }
+        int from = Math.max(0, floorIndex(cutoffEpochMilli));
+        int retained = effectiveAt.length - from;
+        long[] nextEffectiveAt = Arrays.copyOfRange(effectiveAt, from, effectiveAt.length + 1);
+        ExchangeRateSnapshot[] nextSnapshots = Arrays.copyOfRange(snapshots, from, snapshots.length + 1);
+        nextEffectiveAt[retained] = epochMilli;
+        nextSnapshots[retained] = snapshot;
+        return new RateVersions(nextEffectiveAt, nextSnapshots);
+    }
+
+    private int floorIndex(long epochMilli) {
+        int index = Arrays.binarySearch(effectiveAt, epochMilli);
+        return index >= 0 ? index : -index - 2;
+    }
+}
@@ -0,0 +1,36 @@
+package org.crazymages.bankingspringproject.service.idempotency;
+
+import org.springframework.http.ResponseEntity;
+
+import java.util.function.Supplier;
+
+/**
+ * A service interface for executing requests at most once per idempotency key.
+ * The outcome of a request is remembered, so that a client retrying with the same key
+ * receives the original response instead of having the request executed again.
+ */
+public interface IdempotencyService {
+
+    /**
+     * Executes the action unless a request with the same idempotency key has already completed,
+     * in which case its recorded response is returned instead.
+     * Requests without an idempotency key are always executed.
+     *
+     * @param idempotencyKey The idempotency key sent by the client, or null.
+     * @param endpoint       The name of the endpoint the key is scoped to.
+     * @param request        The request payload, used to detect a key reused for a different request.
+     * @param bodyType       The type of the response body.
+     * @param action         The action producing the response.
+     * @param <T>            The type of the response body.
+     * @return The response of the action, or the recorded response of the original request.
+     */
+    <T> ResponseEntity<T> execute(String idempotencyKey, String endpoint, Object request,
+                                  Class<T> bodyType, Supplier<ResponseEntity<T>> action);
+
+    /**
+     * Deletes idempotency records older than the configured time to live.
+     *
+     * @return The number of deleted records.
+     */
+    int purgeExpired();
+}
@@ -0,0 +1,244 @@
+package org.crazymages.bankingspringproject.service.idempotency.impl;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
+import org.crazymages.bankingspringproject.entity.IdempotencyRecord;
+import org.crazymages.bankingspringproject.exception.IdempotencyKeyConflictException;
+import org.crazymages.bankingspringproject.repository.IdempotencyRecordRepository;
+import org.crazymages.bankingspringproject.service.idempotency.IdempotencyService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+
+/**
+ * A service implementation that keeps recently completed idempotency records in a bounded in-memory cache
+ * and persists every record, so that keys survive restarts and are shared between application instances.
+ * A key is reserved in the database before the action runs, so concurrent duplicates are rejected
+ * by the primary key constraint instead of being executed twice. The action and the recording of its response
+ * run in one transaction, so a request either completes together with its response or not at all.
+ * A locking conflict dooms that transaction, so the action and the recording of its response are retried as a unit,
+ * in a fresh transaction after a jittered exponential backoff, while the reservation of the key is kept.
+ * A reservation holds a lease; a request left in progress by a crashed instance is taken over once its lease
+ * has expired, and the response of the original request is then refused, as its reservation no longer matches.
+ * Keys are scoped to the authenticated principal, so different clients may use the same key.
+ */
+@Service
+@Slf4j
+public class IdempotencyServiceImpl implements IdempotencyService {
+
+    private static final int MAX_KEY_LENGTH = 255;
+
+    private final IdempotencyRecordRepository idempotencyRecordRepository;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final Duration ttl;
+    private final Duration lease;
+    private final int maxAttempts;
+    private final long initialBackoffMs;
+    private final long maxBackoffMs;
+    private final Cache<String, IdempotencyRecord> completedRecords;
+
+    public IdempotencyServiceImpl(IdempotencyRecordRepository idempotencyRecordRepository,
+                                  ObjectMapper objectMapper,
+                                  PlatformTransactionManager transactionManager,
+                                  @Value("${idempotency.ttl-minutes:1440}") long ttlMinutes,
+                                  @Value("${idempotency.lease-seconds:60}") long leaseSeconds,
+                                  @Value("${idempotency.cache.max-size:100000}") long maxCacheSize,
+                                  @Value("${idempotency.retry.max-attempts:5}") int maxAttempts,
+                                  @Value("${idempotency.retry.initial-backoff-ms:10}") long initialBackoffMs,
+                                  @Value("${idempotency.retry.max-backoff-ms:500}") long maxBackoffMs) {
+        this.idempotencyRecordRepository = idempotencyRecordRepository;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.ttl = Duration.ofMinutes(ttlMinutes);
+        this.lease = Duration.ofSeconds(leaseSeconds);
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.initialBackoffMs = initialBackoffMs;
+        this.maxBackoffMs = maxBackoffMs;
+        this.completedRecords = Caffeine.newBuilder()
+                .maximumSize(maxCacheSize)
+                .expireAfterWrite(ttl)
+                .build();
+    }
+
+    @Override
+    public <T> ResponseEntity<T> execute(String idempotencyKey, String endpoint, Object request,
+                                         Class<T> bodyType, Supplier<ResponseEntity<T>> action) {
+        if (idempotencyKey == null) {
+            return action.get();
+        }
+        if (idempotencyKey.isBlank() || idempotencyKey.length() > MAX_KEY_LENGTH) {
+            throw new IllegalArgumentException("Invalid idempotency key");
+        }
+        String recordKey = scope(idempotencyKey);
+        String requestHash = hash(endpoint, request);
+        IdempotencyRecord cached = completedRecords.getIfPresent(recordKey);
+        if (cached != null) {
+            return replay(cached, endpoint, requestHash, bodyType);
+        }
+
+        Instant now = Instant.now();
+        IdempotencyRecord record = new IdempotencyRecord(recordKey, endpoint, requestHash);
+        record.setReservedAt(Timestamp.from(now));
+        record.setLeaseToken(UUID.randomUUID());
+        try {
+            idempotencyRecordRepository.saveAndFlush(record);
+        } catch (DataIntegrityViolationException e) {
+            IdempotencyRecord existing = idempotencyRecordRepository.findById(recordKey)
+                    .orElseThrow(() -> new IdempotencyKeyConflictException("Idempotency key is being released"));
+            if (existing.getResponseStatus() != null) {
+                completedRecords.put(recordKey, existing);
+                return replay(existing, endpoint, requestHash, bodyType);
+            }
+            checkSameRequest(existing, endpoint, requestHash);
+            if (!takeOver(record, now)) {
+                throw new IdempotencyKeyConflictException("Request with this idempotency key is still in progress");
+            }
+            log.info("took over expired reservation of idempotency key {}", idempotencyKey);
+        }
+
+        ResponseEntity<T> response;
+        try {
+            response = executeWithRetries(record, action);
+        } catch (RuntimeException e) {
+            transactionTemplate.executeWithoutResult(status ->
+                    idempotencyRecordRepository.release(recordKey, record.getLeaseToken()));
+            throw e;
+        }
+        completedRecords.put(recordKey, record);
+        return response;
+    }
+
+    @Override
+    @Transactional
+    public int purgeExpired() {
+        int deleted = idempotencyRecordRepository.deleteCreatedBefore(Timestamp.from(Instant.now().minus(ttl)));
+        log.info("purged {} expired idempotency records", deleted);
+        return deleted;
+    }
+
+    private <T> ResponseEntity<T> executeWithRetries(IdempotencyRecord record, Supplier<ResponseEntity<T>> action) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return transactionTemplate.execute(status -> {
+                    ResponseEntity<T> result = action.get();
+                    complete(record, result);
+                    return result;
+                });
+            } catch (ConcurrencyFailureException e) {
+                if (attempt >= maxAttempts) {
+                    throw e;
+                }
+                log.warn("conflict executing request with idempotency key {}, attempt {}",
+                        record.getIdempotencyKey(), attempt);
+                backOff(attempt, e);
+            }
+        }
+    }
+
+    private void backOff(int attempt, ConcurrencyFailureException cause) {
+        long ceiling = Math.min(maxBackoffMs, initialBackoffMs << Math.min(attempt - 1, 20));
+        if (ceiling <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(ThreadLocalRandom.current().nextLong(ceiling + 1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw cause;
+        }
+    }
+
+    private boolean takeOver(IdempotencyRecord record, Instant now) {
+        Integer takenOver = transactionTemplate.execute(status -> idempotencyRecordRepository.takeOver(
+                record.getIdempotencyKey(), record.getLeaseToken(), record.getReservedAt(),
+                Timestamp.from(now.minus(lease))));
+        return takenOver != null && takenOver == 1;
+    }
+
+    private void complete(IdempotencyRecord record, ResponseEntity<?> response) {
+        record.setResponseStatus(response.getStatusCode().value());
+        record.setResponseBody(write(response.getBody()));
+        int completed = idempotencyRecordRepository.complete(record.getIdempotencyKey(), record.getLeaseToken(),
+                record.getResponseStatus(), record.getResponseBody());
+        if (completed != 1) {
+            throw new IdempotencyKeyConflictException("Reservation of the idempotency key has been taken over");
+        }
+    }
+
+    private <T> ResponseEntity<T> replay(IdempotencyRecord record, String endpoint, String requestHash,
+                                         Class<T> bodyType) {
+        checkSameRequest(record, endpoint, requestHash);
+        if (record.getResponseStatus() == null) {
+            throw new IdempotencyKeyConflictException("Request with this idempotency key is still in progress");
+        }
+        log.info("replaying response for idempotency key {}", record.getIdempotencyKey());
+        return ResponseEntity.status(record.getResponseStatus()).body(read(record.getResponseBody(), bodyType));
+    }
+
+    private void checkSameRequest(IdempotencyRecord record, String endpoint, String requestHash) {
+        if (!record.getEndpoint().equals(endpoint) || !record.getRequestHash().equals(requestHash)) {
+            throw new IdempotencyKeyConflictException("Idempotency key was used for a different request");
+        }
+    }
+
+    private String scope(String idempotencyKey) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        String principal = authentication != null ? authentication.getName() : "";
+        return principal.length() + ":" + principal + ":" + idempotencyKey;
+    }
+
+    String hash(String endpoint, Object request) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(endpoint.getBytes(StandardCharsets.UTF_8));
+            digest.update(objectMapper.writeValueAsBytes(request));
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException | JsonProcessingException e) {
+            throw new IllegalStateException("Unable to hash request", e);
+        }
+    }
+
+    private String write(Object body) {
+        if (body == null) {
+            return null;
+        }
+        try {
+            return objectMapper.writeValueAsString(body);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Unable to serialize response", e);
+        }
+    }
+
+    private <T> T read(String body, Class<T> bodyType) {
+        if (body == null) {
+            return null;
+        }
+        try {
+            return objectMapper.readValue(body, bodyType);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Unable to deserialize response", e);
+        }
+    }
+}
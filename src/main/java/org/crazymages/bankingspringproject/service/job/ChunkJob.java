@@ -0,0 +1,40 @@
+package org.crazymages.bankingspringproject.service.job;
+
+import java.util.function.Supplier;
+
+/**
+ * An interface for batch jobs that process their work in chunks, each chunk continuing from a checkpoint.
+ * Implementations must not commit on their own: every chunk runs in the transaction that also
+ * stores its checkpoint, so the work of a chunk and its checkpoint are committed or rolled back together.
+ */
+public interface ChunkJob {
+
+    /**
+     * Retrieves the name identifying the job in its executions.
+     *
+     * @return The job name.
+     */
+    String getJobName();
+
+    /**
+     * Processes the chunk that follows the given checkpoint.
+     *
+     * @param checkpoint The checkpoint returned for the last committed chunk, or null for the first chunk.
+     * @return The result of the chunk, holding the checkpoint to continue from.
+     */
+    ChunkResult processChunk(String checkpoint);
+
+    /**
+     * Prepares the chunk that follows the given checkpoint before its transaction is opened, so that slow work
+     * such as a call to a remote service neither holds a database connection nor the lock of the job execution.
+     * The returned work runs in the chunk transaction, and is run again without being prepared again
+     * when the chunk is retried after a locking conflict.
+     * By default nothing is prepared and the whole chunk is processed by {@link #processChunk(String)}.
+     *
+     * @param checkpoint The checkpoint returned for the last committed chunk, or null for the first chunk.
+     * @return The work of the chunk, returning its result.
+     */
+    default Supplier<ChunkResult> prepareChunk(String checkpoint) {
+        return () -> processChunk(checkpoint);
+    }
+}
@@ -0,0 +1,33 @@
+package org.crazymages.bankingspringproject.service.job;
+
+/**
+ * The result of one processed chunk of a {@link ChunkJob}.
+ *
+ * @param checkpoint The checkpoint to continue from, that is the position after the last processed item.
+ * @param processed  The number of items processed in the chunk.
+ * @param finished   Whether the chunk was the last one of the run.
+ */
+public record ChunkResult(String checkpoint, int processed, boolean finished) {
+
+    /**
+     * Creates the result of a chunk that is followed by more chunks.
+     *
+     * @param checkpoint The checkpoint to continue from.
+     * @param processed  The number of items processed in the chunk.
+     * @return The chunk result.
+     */
+    public static ChunkResult next(String checkpoint, int processed) {
+        return new ChunkResult(checkpoint, processed, false);
+    }
+
+    /**
+     * Creates the result of the last chunk of a run.
+     *
+     * @param checkpoint The checkpoint after the last processed item.
+     * @param processed  The number of items processed in the chunk.
+     * @return The chunk result.
+     */
+    public static ChunkResult finished(String checkpoint, int processed) {
+        return new ChunkResult(checkpoint, processed, true);
+    }
+}
@@ -0,0 +1,43 @@
+package org.crazymages.bankingspringproject.service.job;
+
+import org.crazymages.bankingspringproject.entity.JobExecution;
+
+import java.util.List;
+
+/**
+ * A service interface for running chunk-oriented batch jobs with checkpoints.
+ * Each run of a job is identified by a run key, such as the date of a scheduled run, and recorded as a
+ * job execution; running the same job with the same run key again resumes an interrupted run from its last
+ * committed chunk and does nothing if the run has completed.
+ */
+public interface JobRunner {
+
+    /**
+     * Runs a job for the given run key, chunk by chunk, each chunk in its own transaction.
+     *
+     * @param job    The job to run.
+     * @param runKey The key identifying the run.
+     * @return The job execution after the run.
+     * @throws IllegalArgumentException if the job or the run key is null.
+     */
+    JobExecution run(ChunkJob job, String runKey);
+
+    /**
+     * Runs a job for the given run key with its partitions processed concurrently, each partition recorded as
+     * a job execution of its own and run chunk by chunk. The number of partitions running at the same time is
+     * capped by the connection pool size. A run that was started keeps the partition count it was started with.
+     *
+     * @param job    The job to run.
+     * @param runKey The key identifying the run.
+     * @return The job executions of the partitions after the run, in partition order.
+     * @throws IllegalArgumentException if the job or the run key is null.
+     */
+    List<JobExecution> runPartitioned(PartitionedChunkJob job, String runKey);
+
+    /**
+     * Resumes, in the background, every run left started or failed, for instance by a crash or a redeploy.
+     *
+     * @return The background thread resuming the runs.
+     */
+    Thread resumeIncomplete();
+}
@@ -0,0 +1,31 @@
+package org.crazymages.bankingspringproject.service.job;
+
+/**
+ * An interface for chunk jobs whose work is keyed by UUID and can be split into {@link UuidPartition}s
+ * processed concurrently, each partition with its own checkpoint.
+ * Partitions must not share rows, so that chunks of different partitions never wait for each other's locks.
+ */
+public interface PartitionedChunkJob extends ChunkJob {
+
+    /**
+     * Retrieves the number of partitions a new run of the job is split into.
+     *
+     * @return The partition count.
+     */
+    int getPartitionCount();
+
+    /**
+     * Processes the chunk of the given partition that follows the given checkpoint.
+     *
+     * @param partition  The partition to process.
+     * @param checkpoint The checkpoint returned for the last committed chunk of the partition,
+     *                   or null for its first chunk.
+     * @return The result of the chunk, holding the checkpoint to continue from.
+     */
+    ChunkResult processChunk(UuidPartition partition, String checkpoint);
+
+    @Override
+    default ChunkResult processChunk(String checkpoint) {
+        return processChunk(new UuidPartition(0, 1), checkpoint);
+    }
+}
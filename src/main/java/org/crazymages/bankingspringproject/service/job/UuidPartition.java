@@ -0,0 +1,61 @@
+package org.crazymages.bankingspringproject.service.job;
+
+import java.math.BigInteger;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.IntStream;
+
+/**
+ * One of several contiguous, equally wide ranges of the UUID space, ordered as the database orders UUIDs.
+ * Random UUIDs are spread uniformly over their leading bits, so each range holds about the same share of rows,
+ * while a range, unlike a hash bucket, can still be read in key order from the primary key index.
+ *
+ * @param index The index of the partition, from zero.
+ * @param count The number of partitions.
+ */
+public record UuidPartition(int index, int count) {
+
+    private static final BigInteger SPACE = BigInteger.ONE.shiftLeft(Long.SIZE);
+
+    public UuidPartition {
+        if (count < 1 || index < 0 || index >= count) {
+            throw new IllegalArgumentException("Invalid partition " + index + " of " + count);
+        }
+    }
+
+    /**
+     * Splits the UUID space into the given number of partitions.
+     *
+     * @param count The number of partitions.
+     * @return The partitions, in UUID order.
+     * @throws IllegalArgumentException if the count is not positive.
+     */
+    public static List<UuidPartition> split(int count) {
+        if (count < 1) {
+            throw new IllegalArgumentException("Partition count must be positive");
+        }
+        return IntStream.range(0, count).mapToObj(index -> new UuidPartition(index, count)).toList();
+    }
+
+    /**
+     * Retrieves the UUID after which the partition starts; the bound itself belongs to the previous partition.
+     *
+     * @return The exclusive lower bound.
+     */
+    public UUID after() {
+        return index == 0 ? new UUID(0L, 0L) : new UUID(boundary(index) - 1, -1L);
+    }
+
+    /**
+     * Retrieves the last UUID of the partition.
+     *
+     * @return The inclusive upper bound.
+     */
+    public UUID upTo() {
+        return index == count - 1 ? new UUID(-1L, -1L) : new UUID(boundary(index + 1) - 1, -1L);
+    }
+
+    private long boundary(int partition) {
+        return SPACE.multiply(BigInteger.valueOf(partition)).divide(BigInteger.valueOf(count)).longValue();
+    }
+}
@@ -0,0 +1,375 @@
+package org.crazymages.bankingspringproject.service.job.impl;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.crazymages.bankingspringproject.entity.JobExecution;
+import org.crazymages.bankingspringproject.entity.enums.JobStatus;
+import org.crazymages.bankingspringproject.exception.DataNotFoundException;
+import org.crazymages.bankingspringproject.repository.JobExecutionRepository;
+import org.crazymages.bankingspringproject.service.job.ChunkJob;
+import org.crazymages.bankingspringproject.service.job.ChunkResult;
+import org.crazymages.bankingspringproject.service.job.JobRunner;
+import org.crazymages.bankingspringproject.service.job.PartitionedChunkJob;
+import org.crazymages.bankingspringproject.service.job.UuidPartition;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * A service implementation that runs chunk jobs and records their progress in the job execution table.
+ * Before each chunk the execution row is locked and its checkpoint compared with the one the chunk continues
+ * from, so when two instances run the same job only one of them advances it and the other one stops.
+ * Partitions of a partitioned job run on virtual threads when the runtime provides them, and on a fixed pool
+ * of platform threads otherwise; either way fewer partitions than the connection pool holds connections
+ * hold a chunk transaction at the same time, so a headroom of connections stays free for request handling.
+ * A chunk whose transaction fails on a locking conflict is rolled back and retried as a unit,
+ * so jobs do not retry inside their chunk transaction, where a conflict has already doomed it.
+ * Each chunk is prepared by its job before the transaction is opened, and only once however often it is retried.
+ */
+@Service
+@Slf4j
+public class JobRunnerImpl implements JobRunner {
+
+    private static final int MAX_ERROR_LENGTH = 1000;
+    private static final String PARTITION_THREAD_PREFIX = "job-partition-";
+
+    private final JobExecutionRepository jobExecutionRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectProvider<ChunkJob> jobs;
+    private final Clock clock;
+    private final ExecutorService executor;
+    private final Semaphore partitionPermits;
+    private final int maxChunkAttempts;
+
+    @Autowired
+    public JobRunnerImpl(JobExecutionRepository jobExecutionRepository,
+                         PlatformTransactionManager transactionManager,
+                         ObjectProvider<ChunkJob> jobs,
+                         @Value("${job.partition.max-concurrency:2147483647}") int maxConcurrency,
+                         @Value("${spring.datasource.hikari.maximum-pool-size:10}") int poolSize,
+                         @Value("${job.partition.connection-headroom:2}") int connectionHeadroom,
+                         @Value("${job.chunk.max-attempts:3}") int maxChunkAttempts) {
+        this(jobExecutionRepository, new TransactionTemplate(transactionManager), jobs, Clock.systemUTC(),
+                partitionConcurrency(maxConcurrency, poolSize, connectionHeadroom), maxChunkAttempts);
+    }
+
+    private JobRunnerImpl(JobExecutionRepository jobExecutionRepository,
+                          TransactionTemplate transactionTemplate,
+                          ObjectProvider<ChunkJob> jobs,
+                          Clock clock,
+                          int maxConcurrency,
+                          int maxChunkAttempts) {
+        this(jobExecutionRepository, transactionTemplate, jobs, clock, newPartitionExecutor(maxConcurrency),
+                maxConcurrency, maxChunkAttempts);
+    }
+
+    JobRunnerImpl(JobExecutionRepository jobExecutionRepository,
+                  TransactionTemplate transactionTemplate,
+                  ObjectProvider<ChunkJob> jobs,
+                  Clock clock,
+                  ExecutorService executor,
+                  int maxConcurrency,
+                  int maxChunkAttempts) {
+        if (maxConcurrency < 1 || maxChunkAttempts < 1) {
+            throw new IllegalArgumentException("Partition concurrency and chunk attempts must be positive");
+        }
+        this.jobExecutionRepository = jobExecutionRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.jobs = jobs;
+        this.clock = clock;
+        this.executor = executor;
+        this.partitionPermits = new Semaphore(maxConcurrency);
+        this.maxChunkAttempts = maxChunkAttempts;
+    }
+
+    @Override
+    public JobExecution run(ChunkJob job, String runKey) {
+        if (job == null || runKey == null) {
+            throw new IllegalArgumentException();
+        }
+        return execute(job.getJobName(), runKey, new UuidPartition(0, 1), job::prepareChunk);
+    }
+
+    @Override
+    public List<JobExecution> runPartitioned(PartitionedChunkJob job, String runKey) {
+        if (job == null || runKey == null) {
+            throw new IllegalArgumentException();
+        }
+        List<JobExecution> started = jobExecutionRepository
+                .findByJobNameAndRunKeyOrderByPartitionIndexAsc(job.getJobName(), runKey);
+        int partitionCount = started.isEmpty() ? job.getPartitionCount() : started.get(0).getPartitionCount();
+        if (partitionCount != job.getPartitionCount()) {
+            log.info("job {} run {} continues with the {} partitions it was started with",
+                    job.getJobName(), runKey, partitionCount);
+        }
+
+        List<Callable<JobExecution>> partitions = UuidPartition.split(partitionCount).stream()
+                .<Callable<JobExecution>>map(partition -> () -> runPartition(job, runKey, partition))
+                .toList();
+        List<JobExecution> executions = new ArrayList<>(partitionCount);
+        RuntimeException failure = null;
+        for (Future<JobExecution> future : runConcurrently(partitions)) {
+            try {
+                executions.add(future.get());
+            } catch (ExecutionException e) {
+                RuntimeException cause = e.getCause() instanceof RuntimeException runtimeException
+                        ? runtimeException : new IllegalStateException(e.getCause());
+                if (failure == null) {
+                    failure = cause;
+                } else {
+                    failure.addSuppressed(cause);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while running job " + job.getJobName(), e);
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+        return executions;
+    }
+
+    @Override
+    @EventListener(ApplicationReadyEvent.class)
+    public Thread resumeIncomplete() {
+        Thread resume = new Thread(this::resumeInBackground, "job-resume");
+        resume.setDaemon(true);
+        resume.start();
+        return resume;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private JobExecution runPartition(PartitionedChunkJob job, String runKey, UuidPartition partition) {
+        return execute(job.getJobName(), runKey, partition,
+                checkpoint -> () -> job.processChunk(partition, checkpoint));
+    }
+
+    private JobExecution execute(String jobName, String runKey, UuidPartition partition,
+                                 Function<String, Supplier<ChunkResult>> chunkPreparer) {
+        String run = describe(runKey, partition);
+        JobExecution execution = startOrResume(jobName, runKey, partition);
+        if (execution.getStatus() == JobStatus.COMPLETED) {
+            log.info("job {} run {} has already completed", jobName, run);
+            return execution;
+        }
+        if (execution.getCheckpoint() != null) {
+            log.info("resuming job {} run {} after checkpoint {}", jobName, run, execution.getCheckpoint());
+        }
+
+        Long id = execution.getId();
+        String checkpoint = execution.getCheckpoint();
+        try {
+            while (true) {
+                JobExecution current = processChunkWithRetry(chunkPreparer, id, checkpoint, jobName, run);
+                if (current == null) {
+                    log.warn("job {} run {} was advanced by another runner, stopping", jobName, run);
+                    return jobExecutionRepository.findById(id).orElseThrow();
+                }
+                if (current.getStatus() == JobStatus.COMPLETED) {
+                    log.info("job {} run {} completed, {} items in {} chunks",
+                            jobName, run, current.getProcessedCount(), current.getChunkCount());
+                    return current;
+                }
+                checkpoint = current.getCheckpoint();
+            }
+        } catch (RuntimeException e) {
+            log.error("job {} run {} failed after checkpoint {}", jobName, run, checkpoint, e);
+            transactionTemplate.executeWithoutResult(status -> markFailed(id, e));
+            throw e;
+        }
+    }
+
+    private JobExecution startOrResume(String jobName, String runKey, UuidPartition partition) {
+        try {
+            return transactionTemplate.execute(status -> jobExecutionRepository
+                    .findByJobNameAndRunKeyAndPartitionIndex(jobName, runKey, partition.index())
+                    .orElseGet(() -> jobExecutionRepository.save(JobExecution.builder()
+                            .jobName(jobName)
+                            .runKey(runKey)
+                            .partitionIndex(partition.index())
+                            .partitionCount(partition.count())
+                            .status(JobStatus.STARTED)
+                            .build())));
+        } catch (DataIntegrityViolationException e) {
+            return jobExecutionRepository.findByJobNameAndRunKeyAndPartitionIndex(jobName, runKey, partition.index())
+                    .orElseThrow(() -> e);
+        }
+    }
+
+    private JobExecution processChunkWithRetry(Function<String, Supplier<ChunkResult>> chunkPreparer, Long id,
+                                               String expectedCheckpoint, String jobName, String run) {
+        Supplier<ChunkResult> chunk = chunkPreparer.apply(expectedCheckpoint);
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return transactionTemplate.execute(status -> processChunk(chunk, id, expectedCheckpoint));
+            } catch (ConcurrencyFailureException e) {
+                if (attempt >= maxChunkAttempts) {
+                    throw e;
+                }
+                log.warn("job {} run {} chunk after checkpoint {} conflicted, retrying (attempt {}/{}): {}",
+                        jobName, run, expectedCheckpoint, attempt + 1, maxChunkAttempts, e.getMessage());
+            }
+        }
+    }
+
+    private JobExecution processChunk(Supplier<ChunkResult> chunk, Long id, String expectedCheckpoint) {
+        JobExecution execution = jobExecutionRepository.findByIdForUpdate(id)
+                .orElseThrow(() -> new DataNotFoundException("Job execution not found: " + id));
+        if (execution.getStatus() == JobStatus.COMPLETED
+                || !Objects.equals(execution.getCheckpoint(), expectedCheckpoint)) {
+            return null;
+        }
+        ChunkResult result = chunk.get();
+        execution.setCheckpoint(result.checkpoint());
+        execution.setChunkCount(execution.getChunkCount() + 1);
+        execution.setProcessedCount(execution.getProcessedCount() + result.processed());
+        execution.setLastError(null);
+        if (result.finished()) {
+            execution.setStatus(JobStatus.COMPLETED);
+            execution.setFinishedAt(new Timestamp(clock.millis()));
+        } else {
+            execution.setStatus(JobStatus.STARTED);
+        }
+        return jobExecutionRepository.save(execution);
+    }
+
+    private void markFailed(Long id, RuntimeException cause) {
+        jobExecutionRepository.findById(id).ifPresent(execution -> {
+            String message = cause.getMessage() != null ? cause.getMessage() : cause.getClass().getName();
+            execution.setStatus(JobStatus.FAILED);
+            execution.setLastError(message.length() > MAX_ERROR_LENGTH
+                    ? message.substring(0, MAX_ERROR_LENGTH) : message);
+            jobExecutionRepository.save(execution);
+        });
+    }
+
+    private void resumeInBackground() {
+        Map<String, ChunkJob> jobsByName = jobs.stream()
+                .collect(Collectors.toMap(ChunkJob::getJobName, Function.identity()));
+        List<JobExecution> incomplete = jobExecutionRepository
+                .findByStatusInOrderByIdAsc(EnumSet.of(JobStatus.STARTED, JobStatus.FAILED));
+        List<Callable<JobExecution>> resumes = new ArrayList<>(incomplete.size());
+        for (JobExecution execution : incomplete) {
+            ChunkJob job = jobsByName.get(execution.getJobName());
+            UuidPartition partition = new UuidPartition(execution.getPartitionIndex(), execution.getPartitionCount());
+            if (job == null || partition.count() > 1 && !(job instanceof PartitionedChunkJob)) {
+                log.warn("no job named {} to resume run {}",
+                        execution.getJobName(), describe(execution.getRunKey(), partition));
+                continue;
+            }
+            resumes.add(() -> {
+                try {
+                    return partition.count() > 1
+                            ? runPartition((PartitionedChunkJob) job, execution.getRunKey(), partition)
+                            : run(job, execution.getRunKey());
+                } catch (RuntimeException e) {
+                    log.error("resuming job {} run {} failed",
+                            execution.getJobName(), describe(execution.getRunKey(), partition), e);
+                    return null;
+                }
+            });
+        }
+        try {
+            for (Future<JobExecution> future : runConcurrently(resumes)) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            log.error("resuming jobs failed", e.getCause());
+        }
+    }
+
+    private List<Future<JobExecution>> runConcurrently(List<Callable<JobExecution>> tasks) {
+        List<Callable<JobExecution>> bounded = tasks.stream()
+                .<Callable<JobExecution>>map(task -> () -> {
+                    partitionPermits.acquire();
+                    try {
+                        return task.call();
+                    } finally {
+                        partitionPermits.release();
+                    }
+                })
+                .toList();
+        try {
+            return executor.invokeAll(bounded);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while running job partitions", e);
+        }
+    }
+
+    private static String describe(String runKey, UuidPartition partition) {
+        return partition.count() == 1
+                ? runKey : runKey + " partition " + (partition.index() + 1) + "/" + partition.count();
+    }
+
+    /**
+     * Caps the partition concurrency so that at least {@code connectionHeadroom} connections of the pool stay
+     * free for request handling, while always allowing one partition to run.
+     */
+    static int partitionConcurrency(int maxConcurrency, int poolSize, int connectionHeadroom) {
+        if (connectionHeadroom < 1) {
+            throw new IllegalArgumentException("Connection headroom must be positive");
+        }
+        return Math.max(1, Math.min(maxConcurrency, poolSize - connectionHeadroom));
+    }
+
+    /**
+     * Creates the executor running job partitions: one virtual thread per partition on Java 21 and later,
+     * looked up reflectively since the application is compiled for Java 17, or else a fixed pool of
+     * platform threads no larger than the partition concurrency.
+     */
+    static ExecutorService newPartitionExecutor(int maxConcurrency) {
+        if (Runtime.version().feature() >= 21) {
+            try {
+                Class<?> builderType = Class.forName("java.lang.Thread$Builder");
+                Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+                builder = builderType.getMethod("name", String.class, long.class)
+                        .invoke(builder, PARTITION_THREAD_PREFIX, 1L);
+                ThreadFactory threadFactory = (ThreadFactory) builderType.getMethod("factory").invoke(builder);
+                return (ExecutorService) Executors.class.getMethod("newThreadPerTaskExecutor", ThreadFactory.class)
+                        .invoke(null, threadFactory);
+            } catch (ReflectiveOperationException e) {
+                log.warn("virtual threads are not available, running job partitions on platform threads", e);
+            }
+        }
+        AtomicInteger threadCount = new AtomicInteger();
+        return Executors.newFixedThreadPool(maxConcurrency, runnable -> {
+            Thread thread = new Thread(runnable, PARTITION_THREAD_PREFIX + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+}
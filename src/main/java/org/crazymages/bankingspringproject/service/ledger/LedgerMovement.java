@@ -0,0 +1,20 @@
+package org.crazymages.bankingspringproject.service.ledger;
+
+import org.crazymages.bankingspringproject.entity.Account;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+/**
+ * A movement of funds to be recorded in the ledger as one debit and one credit entry.
+ * Each amount is expressed in the currency of its account.
+ *
+ * @param transactionUuid The UUID of the transaction the movement belongs to, or null for internal movements.
+ * @param sender          The account the funds are taken from.
+ * @param debitAmount     The amount taken from the sender.
+ * @param recipient       The account the funds are added to.
+ * @param creditAmount    The amount added to the recipient.
+ */
+public record LedgerMovement(UUID transactionUuid, Account sender, BigDecimal debitAmount,
+                             Account recipient, BigDecimal creditAmount) {
+}
@@ -0,0 +1,63 @@
+package org.crazymages.bankingspringproject.service.ledger;
+
+import org.crazymages.bankingspringproject.entity.Account;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * A service interface for the append-only double-entry ledger.
+ * Every movement of funds is written as a debit entry for the sender and a credit entry for the recipient,
+ * and account balances can be derived from the latest balance snapshot plus the entries written since.
+ * The ledger is an audit trail kept alongside the stored account balance, which transfers still update in place
+ * and check funds against; it is written in the transaction of each movement, at the cost of one extra batch insert.
+ */
+public interface LedgerService {
+
+    /**
+     * Records a movement of funds as one debit and one credit ledger entry.
+     * Each amount is expressed in the currency of its account.
+     *
+     * @param transactionUuid The UUID of the transaction the movement belongs to, or null for internal movements.
+     * @param sender          The account the funds are taken from.
+     * @param debitAmount     The amount taken from the sender.
+     * @param recipient       The account the funds are added to.
+     * @param creditAmount    The amount added to the recipient.
+     */
+    void recordTransfer(UUID transactionUuid, Account sender, BigDecimal debitAmount,
+                        Account recipient, BigDecimal creditAmount);
+
+    /**
+     * Records several movements of funds, writing all of their ledger entries in one batch.
+     *
+     * @param movements The movements to record.
+     */
+    void recordTransfers(List<LedgerMovement> movements);
+
+    /**
+     * Records the opening balance of a newly created account as its first balance snapshot,
+     * so that its balance can be derived from the ledger before any compaction has run.
+     *
+     * @param account The newly created account.
+     */
+    void openAccount(Account account);
+
+    /**
+     * Derives the balance of an account from its balance snapshot and the ledger entries written since.
+     * An account created before the ledger is given an opening snapshot taken from its current balance first.
+     *
+     * @param accountUuid The UUID of the account.
+     * @return The derived account balance.
+     */
+    BigDecimal getBalance(UUID accountUuid);
+
+    /**
+     * Folds the ledger entries written since the last compaction into the balance snapshots.
+     * Accounts without a snapshot are given an opening snapshot taken from their current balance,
+     * and any account whose derived balance differs from its stored balance is reported.
+     *
+     * @return The number of snapshots created or updated.
+     */
+    int compactSnapshots();
+}
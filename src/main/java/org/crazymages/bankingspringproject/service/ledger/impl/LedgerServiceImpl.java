@@ -0,0 +1,189 @@
+package org.crazymages.bankingspringproject.service.ledger.impl;
+
+import lombok.extern.slf4j.Slf4j;
+import org.crazymages.bankingspringproject.entity.Account;
+import org.crazymages.bankingspringproject.entity.BalanceSnapshot;
+import org.crazymages.bankingspringproject.entity.enums.CurrencyCode;
+import org.crazymages.bankingspringproject.entity.enums.LedgerEntryType;
+import org.crazymages.bankingspringproject.exception.DataNotFoundException;
+import org.crazymages.bankingspringproject.repository.AccountRepository;
+import org.crazymages.bankingspringproject.repository.BalanceSnapshotRepository;
+import org.crazymages.bankingspringproject.repository.LedgerEntryRepository;
+import org.crazymages.bankingspringproject.repository.LedgerEntryRepository.LedgerDelta;
+import org.crazymages.bankingspringproject.service.ledger.LedgerMovement;
+import org.crazymages.bankingspringproject.service.ledger.LedgerService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * A service implementation for the append-only double-entry ledger.
+ * Entries are inserted with one JDBC batch per movement, and their identifiers are drawn from the sequence
+ * by the insert itself: this saves a round trip per entry, and as the accounts are locked when their entries
+ * are inserted, the identifiers of every account keep growing in commit order across application instances,
+ * which a pooled allocation would not guarantee.
+ * Snapshots are compacted in chunks of accounts, each in its own transaction that locks the accounts
+ * of the chunk, so that no transfer on those accounts can write entries while their snapshot is taken.
+ * Compaction reconciles every derived balance against the stored account balance and reports any difference.
+ */
+@Service
+@Slf4j
+public class LedgerServiceImpl implements LedgerService {
+
+    static final String INSERT_ENTRY_SQL = "INSERT INTO ledger_entries " +
+            "(id, created_at, transaction_uuid, account_uuid, entry_type, amount, currency_code) " +
+            "VALUES (nextval('ledger_entries_seq'), CURRENT_TIMESTAMP, ?, ?, ?, ?, ?)";
+
+    private final LedgerEntryRepository ledgerEntryRepository;
+    private final BalanceSnapshotRepository balanceSnapshotRepository;
+    private final AccountRepository accountRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final int compactionChunkSize;
+
+    public LedgerServiceImpl(LedgerEntryRepository ledgerEntryRepository,
+                             BalanceSnapshotRepository balanceSnapshotRepository,
+                             AccountRepository accountRepository,
+                             JdbcTemplate jdbcTemplate,
+                             PlatformTransactionManager transactionManager,
+                             @Value("${ledger.compaction.chunk-size:500}") int compactionChunkSize) {
+        this.ledgerEntryRepository = ledgerEntryRepository;
+        this.balanceSnapshotRepository = balanceSnapshotRepository;
+        this.accountRepository = accountRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.compactionChunkSize = compactionChunkSize;
+    }
+
+    @Override
+    @Transactional
+    public void recordTransfer(UUID transactionUuid, Account sender, BigDecimal debitAmount,
+                               Account recipient, BigDecimal creditAmount) {
+        recordTransfers(List.of(new LedgerMovement(transactionUuid, sender, debitAmount, recipient, creditAmount)));
+    }
+
+    @Override
+    @Transactional
+    public void recordTransfers(List<LedgerMovement> movements) {
+        if (movements == null) {
+            throw new IllegalArgumentException();
+        }
+        List<Object[]> entries = new ArrayList<>(2 * movements.size());
+        for (LedgerMovement movement : movements) {
+            if (movement.sender() == null || movement.recipient() == null
+                    || movement.debitAmount() == null || movement.creditAmount() == null) {
+                throw new IllegalArgumentException();
+            }
+            entries.add(entryArgs(movement.transactionUuid(), movement.sender(),
+                    LedgerEntryType.DEBIT, movement.debitAmount()));
+            entries.add(entryArgs(movement.transactionUuid(), movement.recipient(),
+                    LedgerEntryType.CREDIT, movement.creditAmount()));
+        }
+        if (!entries.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_ENTRY_SQL, entries);
+        }
+    }
+
+    @Override
+    @Transactional
+    public void openAccount(Account account) {
+        if (account == null || account.getUuid() == null) {
+            throw new IllegalArgumentException();
+        }
+        balanceSnapshotRepository.save(BalanceSnapshot.builder()
+                .accountUuid(account.getUuid())
+                .balance(account.getBalance() != null ? account.getBalance() : BigDecimal.ZERO)
+                .lastEntryId(0L)
+                .build());
+    }
+
+    @Override
+    public BigDecimal getBalance(UUID accountUuid) {
+        if (accountUuid == null) {
+            throw new IllegalArgumentException();
+        }
+        return transactionTemplate.execute(status -> {
+            BalanceSnapshot snapshot = balanceSnapshotRepository.findById(accountUuid).orElse(null);
+            if (snapshot == null) {
+                compactChunk(List.of(accountUuid));
+                snapshot = balanceSnapshotRepository.findById(accountUuid)
+                        .orElseThrow(() -> new DataNotFoundException(String.valueOf(accountUuid)));
+            }
+            BigDecimal delta = ledgerEntryRepository.sumDeltaAfter(accountUuid, snapshot.getLastEntryId());
+            return snapshot.getBalance().add(delta);
+        });
+    }
+
+    @Override
+    public int compactSnapshots() {
+        int compacted = 0;
+        UUID after = new UUID(0L, 0L);
+        List<UUID> chunk;
+        do {
+            chunk = accountRepository.findUuidsAfter(after, PageRequest.ofSize(compactionChunkSize));
+            if (!chunk.isEmpty()) {
+                List<UUID> accountUuids = chunk;
+                compacted += transactionTemplate.execute(status -> compactChunk(accountUuids));
+                after = chunk.get(chunk.size() - 1);
+            }
+        } while (chunk.size() == compactionChunkSize);
+        log.info("compacted {} balance snapshots", compacted);
+        return compacted;
+    }
+
+    private int compactChunk(List<UUID> accountUuids) {
+        List<Account> accounts = accountRepository.findAccountsByUuidInForUpdate(accountUuids);
+        Map<UUID, BalanceSnapshot> snapshots = balanceSnapshotRepository.findAllById(accountUuids).stream()
+                .collect(Collectors.toMap(BalanceSnapshot::getAccountUuid, Function.identity()));
+        Map<UUID, LedgerDelta> deltas = ledgerEntryRepository.findDeltasSinceSnapshot(accountUuids).stream()
+                .collect(Collectors.toMap(LedgerDelta::getAccountUuid, Function.identity()));
+
+        int compacted = 0;
+        for (Account account : accounts) {
+            BalanceSnapshot snapshot = snapshots.get(account.getUuid());
+            LedgerDelta delta = deltas.get(account.getUuid());
+            if (snapshot == null) {
+                snapshot = BalanceSnapshot.builder()
+                        .accountUuid(account.getUuid())
+                        .balance(account.getBalance() != null ? account.getBalance() : BigDecimal.ZERO)
+                        .lastEntryId(delta != null ? delta.getLastEntryId() : 0L)
+                        .build();
+            } else if (delta != null) {
+                snapshot.setBalance(snapshot.getBalance().add(delta.getDelta()));
+                snapshot.setLastEntryId(delta.getLastEntryId());
+            } else {
+                reconcile(account, snapshot);
+                continue;
+            }
+            reconcile(account, snapshot);
+            balanceSnapshotRepository.save(snapshot);
+            compacted++;
+        }
+        return compacted;
+    }
+
+    private void reconcile(Account account, BalanceSnapshot snapshot) {
+        if (account.getBalance() != null && account.getBalance().compareTo(snapshot.getBalance()) != 0) {
+            log.warn("ledger balance {} of account {} differs from its stored balance {}",
+                    snapshot.getBalance(), account.getUuid(), account.getBalance());
+        }
+    }
+
+    private Object[] entryArgs(UUID transactionUuid, Account account, LedgerEntryType type, BigDecimal amount) {
+        CurrencyCode currencyCode = account.getCurrencyCode();
+        return new Object[]{transactionUuid, account.getUuid(), type.name(), amount,
+                currencyCode != null ? currencyCode.name() : null};
+    }
+}
@@ -0,0 +1,32 @@
+package org.crazymages.bankingspringproject.service.limit;
+
+import org.crazymages.bankingspringproject.entity.Account;
+import org.crazymages.bankingspringproject.entity.Transaction;
+
+/**
+ * A service interface for enforcing the spending limits of accounts.
+ * The daily limit of an account is the limitation of its product, and the monthly limit is a multiple of it.
+ * Amounts spent are kept in memory per account and day, so checks do not query the transactions table.
+ */
+public interface SpendingLimitService {
+
+    /**
+     * Checks that the transaction keeps the sender within its daily and monthly spending limits
+     * and reserves its amount against the spending of the sender in the same step,
+     * so concurrent transactions of one account cannot pass the check together.
+     * When called inside a transaction, the reservation is released again if that transaction rolls back.
+     * Transactions that are not spending, such as deposits and refunds, always pass.
+     *
+     * @param transaction The transaction to check.
+     * @param sender      The account the transaction debits.
+     * @throws org.crazymages.bankingspringproject.exception.SpendingLimitExceededException if a limit would be exceeded.
+     */
+    void checkLimit(Transaction transaction, Account sender);
+
+    /**
+     * Loads the spending of the last month from the transactions table into memory.
+     *
+     * @return The number of account days loaded.
+     */
+    int warmUp();
+}
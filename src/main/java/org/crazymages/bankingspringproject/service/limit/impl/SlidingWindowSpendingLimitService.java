@@ -0,0 +1,187 @@
+package org.crazymages.bankingspringproject.service.limit.impl;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
+import org.crazymages.bankingspringproject.entity.Account;
+import org.crazymages.bankingspringproject.entity.Transaction;
+import org.crazymages.bankingspringproject.entity.enums.AccountType;
+import org.crazymages.bankingspringproject.entity.enums.TransactionType;
+import org.crazymages.bankingspringproject.exception.SpendingLimitExceededException;
+import org.crazymages.bankingspringproject.repository.TransactionRepository;
+import org.crazymages.bankingspringproject.repository.TransactionRepository.DailySpending;
+import org.crazymages.bankingspringproject.service.database.ProductDatabaseService;
+import org.crazymages.bankingspringproject.service.limit.SpendingLimitService;
+import org.crazymages.bankingspringproject.service.utils.matcher.ProductTypeMatcher;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * A service implementation that enforces spending limits with in-memory sliding windows of daily buckets.
+ * Windows live in a bounded cache: a window idle for longer than the window length holds no spending that
+ * still counts, and a window missing from the cache is loaded from the transactions of its account.
+ * Windows are loaded outside the cache, so a slow query never blocks other accounts sharing a cache bin;
+ * when two threads load the same window, the first one stored wins.
+ * Checking and reserving an amount is serialized per window, while releases only ever lower the spending.
+ * Spending recorded before the service started is preloaded once, only for accounts without a window yet,
+ * so preloaded and recorded spending never overlap.
+ */
+@Service
+@Slf4j
+public class SlidingWindowSpendingLimitService implements SpendingLimitService {
+
+    static final int WINDOW_DAYS = 30;
+    private static final int RING_DAYS = 32;
+    private static final Set<TransactionType> EXEMPT_TYPES = EnumSet.of(TransactionType.DEPOSIT, TransactionType.REFUND);
+
+    private final ProductDatabaseService productDatabaseService;
+    private final ProductTypeMatcher productTypeMatcher;
+    private final TransactionRepository transactionRepository;
+    private final BigDecimal monthlyMultiplier;
+    private final Clock clock;
+    private final Instant startedAt;
+    private final Cache<UUID, SpendingWindow> windows;
+    private final AtomicBoolean warmedUp = new AtomicBoolean();
+
+    @Autowired
+    public SlidingWindowSpendingLimitService(ProductDatabaseService productDatabaseService,
+                                             ProductTypeMatcher productTypeMatcher,
+                                             TransactionRepository transactionRepository,
+                                             @Value("${transfer.limits.monthly-multiplier:10}") BigDecimal monthlyMultiplier,
+                                             @Value("${transfer.limits.max-accounts:1000000}") long maxAccounts) {
+        this(productDatabaseService, productTypeMatcher, transactionRepository, monthlyMultiplier, maxAccounts,
+                Clock.systemDefaultZone());
+    }
+
+    SlidingWindowSpendingLimitService(ProductDatabaseService productDatabaseService,
+                                      ProductTypeMatcher productTypeMatcher,
+                                      TransactionRepository transactionRepository,
+                                      BigDecimal monthlyMultiplier,
+                                      long maxAccounts,
+                                      Clock clock) {
+        this.productDatabaseService = productDatabaseService;
+        this.productTypeMatcher = productTypeMatcher;
+        this.transactionRepository = transactionRepository;
+        this.monthlyMultiplier = monthlyMultiplier;
+        this.clock = clock;
+        this.startedAt = clock.instant();
+        this.windows = Caffeine.newBuilder()
+                .maximumSize(maxAccounts)
+                .expireAfterAccess(Duration.ofDays(WINDOW_DAYS))
+                .ticker(() -> clock.millis() * 1_000_000)
+                .build();
+    }
+
+    @Override
+    public void checkLimit(Transaction transaction, Account sender) {
+        if (transaction == null || sender == null) {
+            throw new IllegalArgumentException();
+        }
+        if (!isSpending(transaction, sender)) {
+            return;
+        }
+        BigDecimal dailyLimit = productDatabaseService.findActiveProductLimitation(
+                productTypeMatcher.matchTypes(sender.getType()), sender.getCurrencyCode());
+        UUID accountUuid = sender.getUuid();
+        BigDecimal amount = transaction.getAmount();
+        long today = today();
+        SpendingWindow window = window(accountUuid);
+        synchronized (window) {
+            if (dailyLimit != null && dailyLimit.signum() > 0) {
+                checkWithinLimits(window, today, amount, dailyLimit, accountUuid);
+            }
+            window.add(today, amount);
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status == STATUS_ROLLED_BACK) {
+                        window.add(today, amount.negate());
+                    }
+                }
+            });
+        }
+    }
+
+    @Override
+    @EventListener(ApplicationReadyEvent.class)
+    public int warmUp() {
+        if (!warmedUp.compareAndSet(false, true)) {
+            return 0;
+        }
+        List<DailySpending> spending = transactionRepository.sumDailySpendingBetween(
+                windowStart(), Timestamp.from(startedAt), EXEMPT_TYPES);
+        Map<UUID, SpendingWindow> loaded = new HashMap<>();
+        spending.stream()
+                .filter(day -> day.getAccountUuid() != null)
+                .forEach(day -> loaded.computeIfAbsent(day.getAccountUuid(), uuid -> new SpendingWindow(RING_DAYS))
+                        .add(day.getDay().toEpochDay(), day.getAmount()));
+        loaded.forEach(windows.asMap()::putIfAbsent);
+        log.info("loaded {} account days of spending", spending.size());
+        return spending.size();
+    }
+
+    private boolean isSpending(Transaction transaction, Account sender) {
+        return transaction.getAmount() != null
+                && sender.getUuid() != null
+                && !EXEMPT_TYPES.contains(transaction.getType())
+                && sender.getType() != null
+                && sender.getType() != AccountType.BANK_SHARD;
+    }
+
+    private void checkWithinLimits(SpendingWindow window, long today, BigDecimal amount, BigDecimal dailyLimit,
+                                   UUID accountUuid) {
+        if (window.sum(today, today).add(amount).compareTo(dailyLimit) > 0) {
+            throw new SpendingLimitExceededException("Daily spending limit exceeded for account " + accountUuid);
+        }
+        BigDecimal spentThisMonth = window.sum(today - WINDOW_DAYS + 1, today);
+        if (spentThisMonth.add(amount).compareTo(dailyLimit.multiply(monthlyMultiplier)) > 0) {
+            throw new SpendingLimitExceededException("Monthly spending limit exceeded for account " + accountUuid);
+        }
+    }
+
+    private SpendingWindow window(UUID accountUuid) {
+        SpendingWindow window = windows.getIfPresent(accountUuid);
+        if (window != null) {
+            return window;
+        }
+        SpendingWindow loaded = load(accountUuid);
+        SpendingWindow existing = windows.asMap().putIfAbsent(accountUuid, loaded);
+        return existing != null ? existing : loaded;
+    }
+
+    private SpendingWindow load(UUID accountUuid) {
+        SpendingWindow window = new SpendingWindow(RING_DAYS);
+        transactionRepository.sumDailySpendingOfAccountSince(accountUuid, windowStart(), EXEMPT_TYPES)
+                .forEach(day -> window.add(day.getDay().toEpochDay(), day.getAmount()));
+        return window;
+    }
+
+    private Timestamp windowStart() {
+        return Timestamp.valueOf(LocalDate.now(clock).minusDays(WINDOW_DAYS - 1).atStartOfDay());
+    }
+
+    private long today() {
+        return LocalDate.now(clock).toEpochDay();
+    }
+}
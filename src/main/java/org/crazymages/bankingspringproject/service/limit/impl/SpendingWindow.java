@@ -0,0 +1,54 @@
+package org.crazymages.bankingspringproject.service.limit.impl;
+
+import java.math.BigDecimal;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Lock-free ring of daily spending buckets for one account.
+ * Each slot holds an immutable bucket for one epoch day and is replaced with compare-and-set,
+ * so a slot left over from an older day is reset the first time a newer day writes to it.
+ */
+class SpendingWindow {
+
+    private final AtomicReferenceArray<Bucket> buckets;
+
+    SpendingWindow(int days) {
+        this.buckets = new AtomicReferenceArray<>(days);
+    }
+
+    void add(long epochDay, BigDecimal amount) {
+        int slot = slot(epochDay);
+        while (true) {
+            Bucket current = buckets.get(slot);
+            Bucket updated;
+            if (current == null || current.epochDay < epochDay) {
+                updated = new Bucket(epochDay, amount);
+            } else if (current.epochDay == epochDay) {
+                updated = new Bucket(epochDay, current.amount.add(amount));
+            } else {
+                return;
+            }
+            if (buckets.compareAndSet(slot, current, updated)) {
+                return;
+            }
+        }
+    }
+
+    BigDecimal sum(long fromEpochDay, long toEpochDay) {
+        BigDecimal sum = BigDecimal.ZERO;
+        for (int i = 0; i < buckets.length(); i++) {
+            Bucket bucket = buckets.get(i);
+            if (bucket != null && bucket.epochDay >= fromEpochDay && bucket.epochDay <= toEpochDay) {
+                sum = sum.add(bucket.amount);
+            }
+        }
+        return sum;
+    }
+
+    private int slot(long epochDay) {
+        return (int) Math.floorMod(epochDay, (long) buckets.length());
+    }
+
+    private record Bucket(long epochDay, BigDecimal amount) {
+    }
+}
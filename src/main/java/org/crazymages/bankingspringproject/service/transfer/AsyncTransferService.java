@@ -0,0 +1,37 @@
+package org.crazymages.bankingspringproject.service.transfer;
+
+import org.crazymages.bankingspringproject.dto.TransferStatusDto;
+import org.crazymages.bankingspringproject.entity.Transaction;
+
+/**
+ * A service interface for accepting fund transfers for asynchronous execution.
+ */
+public interface AsyncTransferService {
+
+    /**
+     * Accepts a fund transfer for asynchronous execution.
+     * The transfer is stored before it is acknowledged, and queued once the enclosing transaction, if any, commits.
+     *
+     * @param transaction The Transaction entity representing the fund transfer.
+     * @return The status of the accepted transfer, including the transfer ID to query it by.
+     * @throws java.util.concurrent.RejectedExecutionException if the transfer queue is full.
+     */
+    TransferStatusDto submit(Transaction transaction);
+
+    /**
+     * Retrieves the status of an asynchronously executed fund transfer.
+     *
+     * @param transferId The ID of the transfer.
+     * @return The status of the transfer.
+     * @throws org.crazymages.bankingspringproject.exception.DataNotFoundException if the transfer is unknown or expired.
+     */
+    TransferStatusDto getStatus(String transferId);
+
+    /**
+     * Queues again the transfers that were accepted longer ago than the configured delay but not executed yet,
+     * such as those left queued by a stopped instance.
+     *
+     * @return The number of queued transfers.
+     */
+    int recoverAccepted();
+}
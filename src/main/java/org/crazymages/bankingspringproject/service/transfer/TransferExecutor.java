@@ -0,0 +1,29 @@
+package org.crazymages.bankingspringproject.service.transfer;
+
+import org.crazymages.bankingspringproject.dto.TransferResultDto;
+import org.crazymages.bankingspringproject.entity.Transaction;
+
+import java.util.List;
+
+/**
+ * An interface for executing fund transfers on top of the transaction database service.
+ */
+public interface TransferExecutor {
+
+    /**
+     * Executes a fund transfer, retrying it when it fails because of a concurrent modification
+     * of one of the involved accounts.
+     *
+     * @param transaction The Transaction entity representing the fund transfer.
+     */
+    void execute(Transaction transaction);
+
+    /**
+     * Executes a batch of fund transfers in one database transaction,
+     * retrying the whole batch when it fails because of a concurrent modification.
+     *
+     * @param transactions The Transaction entities representing the fund transfers.
+     * @return The result of each transfer, in the order of the given list.
+     */
+    List<TransferResultDto> executeBatch(List<Transaction> transactions);
+}
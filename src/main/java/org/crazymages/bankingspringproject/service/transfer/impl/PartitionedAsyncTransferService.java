@@ -0,0 +1,320 @@
+package org.crazymages.bankingspringproject.service.transfer.impl;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.crazymages.bankingspringproject.dto.TransferResultDto;
+import org.crazymages.bankingspringproject.dto.TransferStatusDto;
+import org.crazymages.bankingspringproject.entity.AsyncTransfer;
+import org.crazymages.bankingspringproject.entity.Transaction;
+import org.crazymages.bankingspringproject.entity.enums.TransferStatus;
+import org.crazymages.bankingspringproject.exception.DataNotFoundException;
+import org.crazymages.bankingspringproject.repository.AsyncTransferRepository;
+import org.crazymages.bankingspringproject.service.transfer.AsyncTransferService;
+import org.crazymages.bankingspringproject.service.transfer.TransferExecutor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * A service class that queues accepted transfers into partitions chosen by the hash of the debit account.
+ * Each partition is drained by a single worker thread that applies its transfers in arrival order,
+ * committing up to the configured number of queued transfers in one batch.
+ * Transfers debiting the same account therefore never wait on each other's row locks.
+ * An accepted transfer is stored before it is acknowledged and queued once that is committed.
+ * A batch locks its stored transfers, skips those that are no longer accepted and records the outcome
+ * of the others in the same database transaction that applies them, so a transfer is applied at most once
+ * even when it is queued again by the recovery of transfers left behind by a stopped instance.
+ * On shutdown no transfer is accepted any more, and the workers drain their queues for the configured time.
+ * Transfer statuses are cached in memory for the configured time to live and read from the database otherwise.
+ */
+@Service
+@Slf4j
+public class PartitionedAsyncTransferService implements AsyncTransferService {
+
+    private static final long POLL_INTERVAL_MS = 100;
+
+    private final TransferExecutor transferExecutor;
+    private final AsyncTransferRepository asyncTransferRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final int maxBatchSize;
+    private final int maxAttempts;
+    private final Duration shutdownTimeout;
+    private final Duration recoveryDelay;
+    private final List<BlockingQueue<UUID>> partitions;
+    private final List<Thread> workers;
+    private final Cache<String, TransferStatusDto> statuses;
+
+    private volatile boolean running = true;
+
+    public PartitionedAsyncTransferService(TransferExecutor transferExecutor,
+                                           AsyncTransferRepository asyncTransferRepository,
+                                           PlatformTransactionManager transactionManager,
+                                           @Value("${transfer.async.partitions:8}") int partitionCount,
+                                           @Value("${transfer.async.queue-capacity:10000}") int queueCapacity,
+                                           @Value("${transfer.async.max-batch-size:100}") int maxBatchSize,
+                                           @Value("${transfer.async.status-ttl-minutes:60}") long statusTtlMinutes,
+                                           @Value("${transfer.async.status-max-size:1000000}") long statusMaxSize,
+                                           @Value("${transfer.retry.max-attempts:5}") int maxAttempts,
+                                           @Value("${transfer.async.shutdown-timeout-seconds:30}")
+                                           long shutdownTimeoutSeconds,
+                                           @Value("${transfer.async.recovery-delay-seconds:300}")
+                                           long recoveryDelaySeconds) {
+        if (partitionCount < 1 || queueCapacity < 1 || maxBatchSize < 1) {
+            throw new IllegalArgumentException("Async transfer partitions, queue capacity and batch size must be positive");
+        }
+        this.transferExecutor = transferExecutor;
+        this.asyncTransferRepository = asyncTransferRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.maxBatchSize = maxBatchSize;
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.shutdownTimeout = Duration.ofSeconds(shutdownTimeoutSeconds);
+        this.recoveryDelay = Duration.ofSeconds(recoveryDelaySeconds);
+        this.statuses = Caffeine.newBuilder()
+                .maximumSize(statusMaxSize)
+                .expireAfterWrite(Duration.ofMinutes(statusTtlMinutes))
+                .build();
+        this.partitions = new ArrayList<>(partitionCount);
+        this.workers = new ArrayList<>(partitionCount);
+        for (int i = 0; i < partitionCount; i++) {
+            BlockingQueue<UUID> queue = new ArrayBlockingQueue<>(queueCapacity);
+            Thread worker = new Thread(() -> drain(queue), "transfer-partition-" + i);
+            worker.setDaemon(true);
+            partitions.add(queue);
+            workers.add(worker);
+            worker.start();
+        }
+    }
+
+    @Override
+    public TransferStatusDto submit(Transaction transaction) {
+        if (transaction == null || transaction.getDebitAccountUuid() == null) {
+            throw new IllegalArgumentException();
+        }
+        BlockingQueue<UUID> partition = partitionOf(transaction.getDebitAccountUuid());
+        if (!running) {
+            throw new RejectedExecutionException("Transfer service is shutting down");
+        }
+        if (partition.remainingCapacity() == 0) {
+            throw new RejectedExecutionException("Transfer queue is full");
+        }
+        AsyncTransfer transfer = asyncTransferRepository.save(AsyncTransfer.builder()
+                .debitAccountUuid(transaction.getDebitAccountUuid())
+                .creditAccountUuid(transaction.getCreditAccountUuid())
+                .type(transaction.getType())
+                .amount(transaction.getAmount())
+                .description(transaction.getDescription())
+                .quoteId(transaction.getQuoteId())
+                .status(TransferStatus.ACCEPTED)
+                .build());
+        TransferStatusDto accepted = mapToDto(transfer);
+        afterCommit(() -> {
+            statuses.put(accepted.getTransferId(), accepted);
+            enqueue(partition, transfer.getUuid());
+        });
+        return accepted;
+    }
+
+    @Override
+    public TransferStatusDto getStatus(String transferId) {
+        if (transferId == null) {
+            throw new IllegalArgumentException();
+        }
+        TransferStatusDto status = statuses.getIfPresent(transferId);
+        if (status != null) {
+            return status;
+        }
+        UUID uuid;
+        try {
+            uuid = UUID.fromString(transferId);
+        } catch (IllegalArgumentException e) {
+            throw new DataNotFoundException(transferId);
+        }
+        return asyncTransferRepository.findById(uuid)
+                .map(this::mapToDto)
+                .orElseThrow(() -> new DataNotFoundException(transferId));
+    }
+
+    @Override
+    public int recoverAccepted() {
+        int capacity = partitions.stream().mapToInt(BlockingQueue::remainingCapacity).sum();
+        if (!running || capacity == 0) {
+            return 0;
+        }
+        Timestamp threshold = Timestamp.from(Instant.now().minus(recoveryDelay));
+        List<AsyncTransfer> transfers = asyncTransferRepository.findAllByStatusCreatedBefore(
+                TransferStatus.ACCEPTED, threshold, PageRequest.ofSize(capacity));
+        int recovered = 0;
+        for (AsyncTransfer transfer : transfers) {
+            if (enqueue(partitionOf(transfer.getDebitAccountUuid()), transfer.getUuid())) {
+                recovered++;
+            }
+        }
+        if (recovered > 0) {
+            log.info("queued {} accepted async transfers again", recovered);
+        }
+        return recovered;
+    }
+
+    /**
+     * Stops accepting transfers and lets the partition workers drain their queues for the configured time.
+     * Transfers still queued afterwards remain accepted in the database and are recovered later.
+     */
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        running = false;
+        long deadline = System.nanoTime() + shutdownTimeout.toNanos();
+        for (Thread worker : workers) {
+            long remainingMs = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+            if (remainingMs > 0) {
+                worker.join(remainingMs);
+            }
+        }
+        int left = partitions.stream().mapToInt(BlockingQueue::size).sum();
+        if (left > 0) {
+            log.warn("{} queued async transfers were not applied before shutdown, they are left for recovery", left);
+        }
+    }
+
+    private BlockingQueue<UUID> partitionOf(UUID debitAccountUuid) {
+        return partitions.get(Math.floorMod(debitAccountUuid.hashCode(), partitions.size()));
+    }
+
+    private boolean enqueue(BlockingQueue<UUID> partition, UUID transferId) {
+        if (partition.offer(transferId)) {
+            return true;
+        }
+        log.warn("transfer queue is full, async transfer {} is left for recovery", transferId);
+        return false;
+    }
+
+    private void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    private void drain(BlockingQueue<UUID> queue) {
+        List<UUID> batch = new ArrayList<>(maxBatchSize);
+        while (running || !queue.isEmpty()) {
+            UUID next;
+            try {
+                next = queue.poll(POLL_INTERVAL_MS, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            if (next == null) {
+                continue;
+            }
+            batch.add(next);
+            queue.drainTo(batch, maxBatchSize - 1);
+            apply(batch);
+            batch.clear();
+        }
+    }
+
+    private void apply(List<UUID> batch) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                List<AsyncTransfer> applied = transactionTemplate.execute(status -> applyAccepted(batch));
+                applied.forEach(transfer -> statuses.put(transfer.getUuid().toString(), mapToDto(transfer)));
+                return;
+            } catch (ConcurrencyFailureException e) {
+                if (attempt >= maxAttempts) {
+                    fail(batch, e);
+                    return;
+                }
+                log.warn("conflict in batch of {} async transfers, attempt {}", batch.size(), attempt);
+            } catch (RuntimeException e) {
+                fail(batch, e);
+                return;
+            }
+        }
+    }
+
+    private List<AsyncTransfer> applyAccepted(List<UUID> batch) {
+        Map<UUID, AsyncTransfer> accepted = asyncTransferRepository
+                .findAllByUuidInAndStatusForUpdate(batch, TransferStatus.ACCEPTED).stream()
+                .collect(Collectors.toMap(AsyncTransfer::getUuid, Function.identity()));
+        List<AsyncTransfer> transfers = batch.stream()
+                .distinct()
+                .map(accepted::get)
+                .filter(Objects::nonNull)
+                .toList();
+        if (transfers.isEmpty()) {
+            return transfers;
+        }
+        List<TransferResultDto> results = transferExecutor.executeBatch(
+                transfers.stream().map(this::mapToTransaction).toList());
+        for (TransferResultDto result : results) {
+            AsyncTransfer transfer = transfers.get(result.getIndex());
+            transfer.setStatus(TransferStatus.valueOf(result.getStatus()));
+            transfer.setTransactionUuid(result.getTransactionUuid() != null
+                    ? UUID.fromString(result.getTransactionUuid()) : null);
+            transfer.setMessage(result.getMessage());
+        }
+        return transfers;
+    }
+
+    private void fail(List<UUID> batch, RuntimeException cause) {
+        log.error("batch of {} async transfers failed", batch.size(), cause);
+        String message = cause.getMessage() != null ? cause.getMessage() : cause.getClass().getSimpleName();
+        try {
+            transactionTemplate.executeWithoutResult(status -> asyncTransferRepository.markFailed(batch, message));
+        } catch (RuntimeException e) {
+            log.error("could not mark batch of {} async transfers as failed, they are left for recovery",
+                    batch.size(), e);
+        }
+        batch.forEach(transferId -> statuses.invalidate(transferId.toString()));
+    }
+
+    private Transaction mapToTransaction(AsyncTransfer transfer) {
+        return Transaction.builder()
+                .debitAccountUuid(transfer.getDebitAccountUuid())
+                .creditAccountUuid(transfer.getCreditAccountUuid())
+                .type(transfer.getType())
+                .amount(transfer.getAmount())
+                .description(transfer.getDescription())
+                .quoteId(transfer.getQuoteId())
+                .build();
+    }
+
+    private TransferStatusDto mapToDto(AsyncTransfer transfer) {
+        return TransferStatusDto.builder()
+                .transferId(String.valueOf(transfer.getUuid()))
+                .status(transfer.getStatus().name())
+                .transactionUuid(transfer.getTransactionUuid() != null
+                        ? transfer.getTransactionUuid().toString() : null)
+                .message(transfer.getMessage())
+                .build();
+    }
+}
@@ -0,0 +1,164 @@
+package org.crazymages.bankingspringproject.service.transfer.impl;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.crazymages.bankingspringproject.dto.TransferResultDto;
+import org.crazymages.bankingspringproject.entity.Transaction;
+import org.crazymages.bankingspringproject.service.database.TransactionDatabaseService;
+import org.crazymages.bankingspringproject.service.transfer.TransferExecutor;
+import org.crazymages.bankingspringproject.service.utils.lock.AccountLockManager;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+
+/**
+ * A service class that runs every transfer in its own database transaction
+ * and retries it with jittered exponential backoff on optimistic or pessimistic locking conflicts.
+ * Each retry re-reads both accounts, as the failed attempt has been rolled back,
+ * and runs on fresh copies of the requested transactions, so no identifier generated by the rolled back attempt
+ * is reused; the identifiers of the successful attempt are copied back to the requested transactions.
+ * Transfers and batches first take the in-process locks of all their accounts, so conflicting transfers
+ * wait in memory rather than on database row locks; the locks are held until the transaction of the attempt
+ * has completed, including an enclosing one, and are not held during backoff.
+ * A transfer joining an enclosing transaction, such as the one an idempotent request records its response in,
+ * is not retried, as a conflict has already marked that transaction for rollback; the idempotency service
+ * retries the whole request instead.
+ */
+@Service
+@Slf4j
+public class RetryingTransferExecutor implements TransferExecutor {
+
+    private final TransactionDatabaseService transactionDatabaseService;
+    private final AccountLockManager accountLockManager;
+    private final int maxAttempts;
+    private final long initialBackoffMs;
+    private final long maxBackoffMs;
+    private final int maxBatchSize;
+    private final Counter conflictCounter;
+    private final Counter retryCounter;
+    private final Counter exhaustedCounter;
+
+    public RetryingTransferExecutor(TransactionDatabaseService transactionDatabaseService,
+                                    AccountLockManager accountLockManager,
+                                    MeterRegistry meterRegistry,
+                                    @Value("${transfer.retry.max-attempts:5}") int maxAttempts,
+                                    @Value("${transfer.retry.initial-backoff-ms:10}") long initialBackoffMs,
+                                    @Value("${transfer.retry.max-backoff-ms:500}") long maxBackoffMs,
+                                    @Value("${transfer.batch.max-size:5000}") int maxBatchSize) {
+        this.transactionDatabaseService = transactionDatabaseService;
+        this.accountLockManager = accountLockManager;
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.initialBackoffMs = initialBackoffMs;
+        this.maxBackoffMs = maxBackoffMs;
+        this.maxBatchSize = maxBatchSize;
+        this.conflictCounter = meterRegistry.counter("transfer.conflicts");
+        this.retryCounter = meterRegistry.counter("transfer.retries");
+        this.exhaustedCounter = meterRegistry.counter("transfer.retries.exhausted");
+    }
+
+    @Override
+    public void execute(Transaction transaction) {
+        List<UUID> accountUuids = Arrays.asList(transaction.getDebitAccountUuid(), transaction.getCreditAccountUuid());
+        Transaction completed = withRetries(() -> accountLockManager.executeWithLocks(accountUuids, () -> {
+            Transaction attempt = copyRequest(transaction);
+            transactionDatabaseService.transferFunds(attempt);
+            return attempt;
+        }), () -> log.warn("transfer conflict on accounts {} -> {}",
+                transaction.getDebitAccountUuid(), transaction.getCreditAccountUuid()));
+        copyGenerated(completed, transaction);
+    }
+
+    @Override
+    public List<TransferResultDto> executeBatch(List<Transaction> transactions) {
+        if (transactions == null || transactions.size() > maxBatchSize) {
+            throw new IllegalArgumentException("Batch must contain at most " + maxBatchSize + " transfers");
+        }
+        List<UUID> accountUuids = accountUuids(transactions);
+        List<Transaction> completed = new ArrayList<>(transactions.size());
+        List<TransferResultDto> results = withRetries(() -> accountLockManager.executeWithLocks(accountUuids, () -> {
+            completed.clear();
+            transactions.forEach(transaction -> completed.add(copyRequest(transaction)));
+            return transactionDatabaseService.transferFundsBatch(completed);
+        }), () -> log.warn("transfer conflict in batch of {} transfers", transactions.size()));
+        for (int i = 0; i < transactions.size(); i++) {
+            copyGenerated(completed.get(i), transactions.get(i));
+        }
+        return results;
+    }
+
+    private static List<UUID> accountUuids(List<Transaction> transactions) {
+        List<UUID> accountUuids = new ArrayList<>(transactions.size() * 2);
+        for (Transaction transaction : transactions) {
+            if (transaction != null) {
+                accountUuids.add(transaction.getDebitAccountUuid());
+                accountUuids.add(transaction.getCreditAccountUuid());
+            }
+        }
+        return accountUuids;
+    }
+
+    private static Transaction copyRequest(Transaction transaction) {
+        if (transaction == null) {
+            return null;
+        }
+        return Transaction.builder()
+                .debitAccountUuid(transaction.getDebitAccountUuid())
+                .creditAccountUuid(transaction.getCreditAccountUuid())
+                .type(transaction.getType())
+                .amount(transaction.getAmount())
+                .description(transaction.getDescription())
+                .quoteId(transaction.getQuoteId())
+                .build();
+    }
+
+    private static void copyGenerated(Transaction source, Transaction target) {
+        if (source == null || target == null) {
+            return;
+        }
+        target.setUuid(source.getUuid());
+        target.setCreatedAt(source.getCreatedAt());
+        target.setCurrencyCode(source.getCurrencyCode());
+    }
+
+    private <T> T withRetries(Supplier<T> transfer, Runnable conflictLogger) {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            return transfer.get();
+        }
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return transfer.get();
+            } catch (ConcurrencyFailureException e) {
+                conflictCounter.increment();
+                conflictLogger.run();
+                if (attempt >= maxAttempts) {
+                    exhaustedCounter.increment();
+                    throw e;
+                }
+                backOff(attempt, e);
+                retryCounter.increment();
+            }
+        }
+    }
+
+    private void backOff(int attempt, ConcurrencyFailureException cause) {
+        long ceiling = Math.min(maxBackoffMs, initialBackoffMs << Math.min(attempt - 1, 20));
+        if (ceiling <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(ThreadLocalRandom.current().nextLong(ceiling + 1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw cause;
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package org.crazymages.bankingspringproject.service.utils.converter;
 
 import org.crazymages.bankingspringproject.entity.Account;
+import org.crazymages.bankingspringproject.entity.enums.CurrencyCode;
 
 import java.math.BigDecimal;
 
@@ -14,4 +15,39 @@ public interface CurrencyConverter {
      * @return The updated recipient account with the converted amount added to its balance.
      */
     Account performCurrencyConversion(BigDecimal amount, Account recipientAccount, Account senderAccount);
+
+    /**
+     * Performs currency conversion for the given amount with an already resolved cross rate,
+     * such as the rate locked by an exchange quote, without looking up the current rates.
+     *
+     * @param amount           The amount to be converted.
+     * @param recipientAccount The Account representing the recipient of the converted amount.
+     * @param senderAccount    The Account representing the sender of the amount.
+     * @param crossRate        The fixed-point cross rate from the sender to the recipient currency.
+     * @return The updated recipient account with the converted amount added to its balance.
+     */
+    Account performCurrencyConversion(BigDecimal amount, Account recipientAccount, Account senderAccount,
+                                      long crossRate);
+
+    /**
+     * Converts the given amount at the current rates without changing any account,
+     * so a missing rate is detected before any balance is touched.
+     *
+     * @param amount The amount to be converted.
+     * @param from   The currency of the amount.
+     * @param to     The currency to convert the amount to.
+     * @return The converted amount.
+     */
+    BigDecimal convert(BigDecimal amount, CurrencyCode from, CurrencyCode to);
+
+    /**
+     * Converts the given amount with an already resolved cross rate without changing any account.
+     *
+     * @param amount    The amount to be converted.
+     * @param from      The currency of the amount.
+     * @param to        The currency to convert the amount to.
+     * @param crossRate The fixed-point cross rate from the source to the target currency.
+     * @return The converted amount.
+     */
+    BigDecimal convert(BigDecimal amount, CurrencyCode from, CurrencyCode to, long crossRate);
 }
@@ -3,46 +3,56 @@ package org.crazymages.bankingspringproject.service.utils.converter.impl;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.crazymages.bankingspringproject.entity.Account;
-import org.crazymages.bankingspringproject.entity.CurrencyExchangeRate;
-import org.crazymages.bankingspringproject.service.database.CurrencyExchangeRateDatabaseService;
+import org.crazymages.bankingspringproject.entity.enums.CurrencyCode;
+import org.crazymages.bankingspringproject.service.exchange.ExchangeRateSnapshot;
+import org.crazymages.bankingspringproject.service.exchange.ExchangeRateSnapshotService;
 import org.crazymages.bankingspringproject.service.utils.converter.CurrencyConverter;
 import org.springframework.stereotype.Component;
 
 import java.math.BigDecimal;
-import java.math.RoundingMode;
 
 /**
  * A component class responsible for performing currency conversion for a given amount between two accounts.
+ * The cross rate is read from the in-memory snapshot, so a conversion never touches the database.
  */
 @Component
 @RequiredArgsConstructor
 @Slf4j
 public class CurrencyConverterImpl implements CurrencyConverter {
 
-    private final CurrencyExchangeRateDatabaseService currencyExchangeRateDatabaseService;
+    private final ExchangeRateSnapshotService exchangeRateSnapshotService;
 
     @Override
     public Account performCurrencyConversion(BigDecimal amount, Account recipientAccount, Account senderAccount) {
-        String recipientCurrencyCode = recipientAccount.getCurrencyCode().name();
-        CurrencyExchangeRate recipientToBaseCurrencyRate = currencyExchangeRateDatabaseService
-                .findByCurrencyCode(recipientCurrencyCode);
-        BigDecimal recipientCurrencyRate = recipientToBaseCurrencyRate.getExchangeRate();
-        log.info("Курс валюты получателя к доллару {}", recipientCurrencyRate);
-
-        String senderCurrencyCode = senderAccount.getCurrencyCode().name();
-        CurrencyExchangeRate senderToBaseCurrencyRate = currencyExchangeRateDatabaseService
-                .findByCurrencyCode(senderCurrencyCode);
-        BigDecimal senderCurrencyRate = senderToBaseCurrencyRate.getExchangeRate();
-        log.info("Курс валюты отправителя к доллару {}", senderCurrencyRate);
-
-        BigDecimal baseCurrencyAmount = amount.divide(senderCurrencyRate, 2, RoundingMode.HALF_UP);
-        log.info("сумма в долларах: {}", baseCurrencyAmount);
-
-        BigDecimal recipientAmount = baseCurrencyAmount.multiply(recipientCurrencyRate);
+        CurrencyCode recipientCurrencyCode = recipientAccount.getCurrencyCode();
+        BigDecimal recipientAmount = convert(amount, senderAccount.getCurrencyCode(), recipientCurrencyCode);
+        return credit(recipientAccount, recipientAmount);
+    }
+
+    @Override
+    public Account performCurrencyConversion(BigDecimal amount, Account recipientAccount, Account senderAccount,
+                                             long crossRate) {
+        CurrencyCode recipientCurrencyCode = recipientAccount.getCurrencyCode();
+        BigDecimal recipientAmount = convert(amount, senderAccount.getCurrencyCode(), recipientCurrencyCode, crossRate);
+        return credit(recipientAccount, recipientAmount);
+    }
+
+    @Override
+    public BigDecimal convert(BigDecimal amount, CurrencyCode from, CurrencyCode to) {
+        BigDecimal recipientAmount = exchangeRateSnapshotService.getSnapshot().convert(amount, from, to);
         log.info("сумма в валюте получателя: {}", recipientAmount);
+        return recipientAmount;
+    }
+
+    @Override
+    public BigDecimal convert(BigDecimal amount, CurrencyCode from, CurrencyCode to, long crossRate) {
+        BigDecimal recipientAmount = ExchangeRateSnapshot.convert(amount, crossRate);
+        log.info("сумма в валюте получателя по котировке: {}", recipientAmount);
+        return recipientAmount;
+    }
 
-        BigDecimal recipientBalance = recipientAccount.getBalance();
-        recipientAccount.setBalance(recipientBalance.add(recipientAmount));
+    private Account credit(Account recipientAccount, BigDecimal recipientAmount) {
+        recipientAccount.setBalance(recipientAccount.getBalance().add(recipientAmount));
         return recipientAccount;
     }
 }
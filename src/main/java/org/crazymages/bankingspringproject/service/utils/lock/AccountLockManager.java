@@ -0,0 +1,25 @@
+package org.crazymages.bankingspringproject.service.utils.lock;
+
+import java.util.Collection;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+/**
+ * An interface for serializing work on accounts inside the application node.
+ */
+public interface AccountLockManager {
+
+    /**
+     * Executes an action while holding the in-process locks of the given accounts.
+     * Locks are always acquired in the same global order, so concurrent callers cannot deadlock.
+     * When called inside a transaction, the locks are held until that transaction has committed or rolled back;
+     * otherwise they are released when the action returns. A transaction must therefore take all of its locks
+     * in a single call, as locks taken by separate calls are not ordered against each other.
+     *
+     * @param accountUuids The UUIDs of the accounts to lock; {@code null} elements are ignored.
+     * @param action       The action to execute.
+     * @param <T>          The type of the action result.
+     * @return The result of the action.
+     */
+    <T> T executeWithLocks(Collection<UUID> accountUuids, Supplier<T> action);
+}
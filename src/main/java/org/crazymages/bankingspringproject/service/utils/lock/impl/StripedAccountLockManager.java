@@ -0,0 +1,93 @@
+package org.crazymages.bankingspringproject.service.utils.lock.impl;
+
+import org.crazymages.bankingspringproject.service.utils.lock.AccountLockManager;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collection;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * A component class that maps account UUIDs onto a fixed array of lock stripes.
+ * Callers touching the same accounts queue up on the stripe locks in memory
+ * instead of holding database connections while they wait for row locks.
+ * Inside a transaction the stripes are released in the afterCompletion callback of the transaction,
+ * so a second caller cannot lock the accounts before the changes of the first one are committed.
+ */
+@Component
+public class StripedAccountLockManager implements AccountLockManager {
+
+    private final ReentrantLock[] stripes;
+    private final int mask;
+
+    public StripedAccountLockManager(@Value("${transfer.lock.stripes:16384}") int stripeCount) {
+        int size = stripeCount <= 1 ? 1 : Integer.highestOneBit(stripeCount - 1) << 1;
+        this.stripes = new ReentrantLock[size];
+        this.mask = size - 1;
+        for (int i = 0; i < size; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+    }
+
+    @Override
+    public <T> T executeWithLocks(Collection<UUID> accountUuids, Supplier<T> action) {
+        int[] indexes = stripeIndexes(accountUuids);
+        lock(indexes);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    unlock(indexes, indexes.length);
+                }
+            });
+            return action.get();
+        }
+        try {
+            return action.get();
+        } finally {
+            unlock(indexes, indexes.length);
+        }
+    }
+
+    private void lock(int[] indexes) {
+        int locked = 0;
+        try {
+            for (int index : indexes) {
+                stripes[index].lock();
+                locked++;
+            }
+        } catch (RuntimeException | Error e) {
+            unlock(indexes, locked);
+            throw e;
+        }
+    }
+
+    private void unlock(int[] indexes, int locked) {
+        for (int i = locked - 1; i >= 0; i--) {
+            stripes[indexes[i]].unlock();
+        }
+    }
+
+    private int[] stripeIndexes(Collection<UUID> accountUuids) {
+        return accountUuids.stream()
+                .filter(Objects::nonNull)
+                .mapToInt(this::stripeIndex)
+                .distinct()
+                .sorted()
+                .toArray();
+    }
+
+    private int stripeIndex(UUID uuid) {
+        int hash = uuid.hashCode();
+        return (hash ^ (hash >>> 16)) & mask;
+    }
+
+    int getStripeCount() {
+        return stripes.length;
+    }
+}
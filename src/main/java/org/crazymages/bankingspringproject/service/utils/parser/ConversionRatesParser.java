@@ -0,0 +1,74 @@
+package org.crazymages.bankingspringproject.service.utils.parser;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.crazymages.bankingspringproject.exception.DataNotFoundException;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Predicate;
+
+/**
+ * A class representing a streaming parser of the currency rate provider response.
+ * It reads the rates member token by token, without building a JSON tree,
+ * and keeps every rate as the exact decimal written in the response.
+ */
+@Component
+public class ConversionRatesParser {
+
+    private final JsonFactory jsonFactory;
+
+    public ConversionRatesParser(ObjectMapper objectMapper) {
+        this.jsonFactory = objectMapper.getFactory();
+    }
+
+    /**
+     * Parses the exchange rates held in the given top-level member of the response body.
+     * Rates of currencies rejected by the filter, and values that are not numbers, are skipped.
+     *
+     * @param body           The response body.
+     * @param memberName     The name of the top-level member holding the rates.
+     * @param currencyFilter The filter deciding which currency codes to keep.
+     * @return The exchange rates by currency code.
+     * @throws DataNotFoundException if the body has no rates member.
+     * @throws UncheckedIOException  if the body is not valid JSON.
+     */
+    public Map<String, BigDecimal> parse(byte[] body, String memberName, Predicate<String> currencyFilter) {
+        try (JsonParser parser = jsonFactory.createParser(body)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new DataNotFoundException(memberName);
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String fieldName = parser.currentName();
+                JsonToken value = parser.nextToken();
+                if (memberName.equals(fieldName) && value == JsonToken.START_OBJECT) {
+                    return parseRates(parser, currencyFilter);
+                }
+                parser.skipChildren();
+            }
+            throw new DataNotFoundException(memberName);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private Map<String, BigDecimal> parseRates(JsonParser parser, Predicate<String> currencyFilter) throws IOException {
+        Map<String, BigDecimal> rates = new HashMap<>();
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String currencyCode = parser.currentName();
+            JsonToken value = parser.nextToken();
+            if (value.isNumeric() && currencyFilter.test(currencyCode)) {
+                rates.put(currencyCode, parser.getDecimalValue());
+            } else {
+                parser.skipChildren();
+            }
+        }
+        return rates;
+    }
+}
@@ -7,6 +7,7 @@ import org.springframework.stereotype.Component;
 /**
  * A class implementing the EntityUpdateService interface for updating Account entities.
  * It provides custom update logic for the Account entity.
+ * The balance is never copied: it only changes through transfers, which record every movement in the ledger.
  */
 @Component
 public class AccountUpdateServiceImpl implements EntityUpdateService<Account> {
@@ -33,9 +34,6 @@ public class AccountUpdateServiceImpl implements EntityUpdateService<Account> {
         if (accountUpdate.getStatus() != null) {
             account.setStatus(accountUpdate.getStatus());
         }
-        if (accountUpdate.getBalance() != null) {
-            account.setBalance(accountUpdate.getBalance());
-        }
         if (accountUpdate.getCurrencyCode() != null) {
             account.setCurrencyCode(accountUpdate.getCurrencyCode());
         }
@@ -0,0 +1,87 @@
+package org.crazymages.bankingspringproject.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.crazymages.bankingspringproject.entity.enums.CurrencyCode;
+import org.crazymages.bankingspringproject.service.utils.parser.ConversionRatesParser;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Compares parsing a provider response into a JSON tree and converting every rate through a double
+ * with streaming only the supported rates into exact decimals. Run with the GC profiler,
+ * which the main method enables, to compare the bytes allocated per operation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ConversionRatesParsingBenchmark {
+
+    private static final int CURRENCIES = 160;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final Set<String> supportedCodes = Arrays.stream(CurrencyCode.values())
+            .map(CurrencyCode::name)
+            .collect(Collectors.toSet());
+
+    private ConversionRatesParser conversionRatesParser;
+    private byte[] body;
+
+    @Setup
+    public void setUp() {
+        conversionRatesParser = new ConversionRatesParser(objectMapper);
+        StringBuilder rates = new StringBuilder();
+        for (CurrencyCode currencyCode : CurrencyCode.values()) {
+            rates.append('"').append(currencyCode.name()).append("\":").append("1.2345,");
+        }
+        for (int i = CurrencyCode.values().length; i < CURRENCIES; i++) {
+            rates.append("\"X").append((char) ('A' + i / 26 % 26)).append((char) ('A' + i % 26)).append("\":")
+                    .append(i).append(".4321,");
+        }
+        rates.setLength(rates.length() - 1);
+        body = ("{\"result\":\"success\",\"base_code\":\"USD\",\"conversion_rates\":{" + rates + "}}")
+                .getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public Map<String, BigDecimal> jsonTreeWithDoubles() throws IOException {
+        JsonNode jsonNode = objectMapper.readTree(body).get("conversion_rates");
+        Map<String, BigDecimal> currencyMap = new HashMap<>();
+        Iterator<String> currencyCodes = jsonNode.fieldNames();
+        while (currencyCodes.hasNext()) {
+            String currencyCode = currencyCodes.next();
+            currencyMap.put(currencyCode, BigDecimal.valueOf(jsonNode.get(currencyCode).asDouble()));
+        }
+        return currencyMap;
+    }
+
+    @Benchmark
+    public Map<String, BigDecimal> streamingSupportedDecimals() {
+        return conversionRatesParser.parse(body, "conversion_rates", supportedCodes::contains);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(ConversionRatesParsingBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build())
+                .run();
+    }
+}
@@ -0,0 +1,57 @@
+package org.crazymages.bankingspringproject.benchmark;
+
+import org.crazymages.bankingspringproject.entity.enums.CurrencyCode;
+import org.crazymages.bankingspringproject.service.exchange.ExchangeRateSnapshot;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the divide-then-multiply BigDecimal conversion with the precomputed fixed-point cross rate.
+ * Run the main method from the IDE, or with {@code java -cp <test classpath> ...CurrencyConversionBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CurrencyConversionBenchmark {
+
+    private final Map<CurrencyCode, BigDecimal> rates = Map.of(
+            CurrencyCode.EUR, new BigDecimal("0.9187"),
+            CurrencyCode.AUD, new BigDecimal("1.5342"));
+
+    private ExchangeRateSnapshot snapshot;
+    private BigDecimal amount;
+
+    @Setup
+    public void setUp() {
+        snapshot = ExchangeRateSnapshot.of(rates);
+        amount = new BigDecimal("1234.56");
+    }
+
+    @Benchmark
+    public BigDecimal divideThenMultiply() {
+        BigDecimal baseCurrencyAmount = amount.divide(rates.get(CurrencyCode.AUD), 2, RoundingMode.HALF_UP);
+        return baseCurrencyAmount.multiply(rates.get(CurrencyCode.EUR));
+    }
+
+    @Benchmark
+    public BigDecimal crossRateMatrix() {
+        return snapshot.convert(amount, CurrencyCode.AUD, CurrencyCode.EUR);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(CurrencyConversionBenchmark.class.getSimpleName())
+                .build())
+                .run();
+    }
+}
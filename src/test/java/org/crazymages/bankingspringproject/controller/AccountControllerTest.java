@@ -3,7 +3,9 @@ package org.crazymages.bankingspringproject.controller;
 import org.crazymages.bankingspringproject.dto.AccountDto;
 import org.crazymages.bankingspringproject.entity.enums.AccountStatus;
 import org.crazymages.bankingspringproject.entity.enums.ProductStatus;
+import org.crazymages.bankingspringproject.service.bank.BankLedgerService;
 import org.crazymages.bankingspringproject.service.database.AccountDatabaseService;
+import org.crazymages.bankingspringproject.service.ledger.LedgerService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -13,8 +15,10 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 
+import java.math.BigDecimal;
 import java.util.Collections;
 import java.util.List;
+import java.util.UUID;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -24,6 +28,10 @@ class AccountControllerTest {
 
     @Mock
     AccountDatabaseService accountDatabaseService;
+    @Mock
+    BankLedgerService bankLedgerService;
+    @Mock
+    LedgerService ledgerService;
 
     @InjectMocks
     AccountController accountController;
@@ -202,4 +210,32 @@ class AccountControllerTest {
         assertEquals(expected, actual.getBody());
         verify(accountDatabaseService).findAllDtoByClientId(uuid);
     }
+
+    @Test
+    void getBankBalance_success() {
+        // given
+        BigDecimal expected = BigDecimal.valueOf(1000);
+        when(bankLedgerService.getLogicalBalance()).thenReturn(expected);
+
+        // when
+        ResponseEntity<BigDecimal> actual = accountController.getBankBalance();
+
+        // then
+        assertEquals(HttpStatus.OK, actual.getStatusCode());
+        assertEquals(expected, actual.getBody());
+    }
+
+    @Test
+    void getLedgerBalance_success() {
+        // given
+        BigDecimal expected = BigDecimal.valueOf(250);
+        when(ledgerService.getBalance(UUID.fromString(uuid))).thenReturn(expected);
+
+        // when
+        ResponseEntity<BigDecimal> actual = accountController.getLedgerBalance(uuid);
+
+        // then
+        assertEquals(HttpStatus.OK, actual.getStatusCode());
+        assertEquals(expected, actual.getBody());
+    }
 }
@@ -1,7 +1,11 @@
 package org.crazymages.bankingspringproject.controller;
 
 import org.crazymages.bankingspringproject.dto.CurrencyExchangeRateDto;
+import org.crazymages.bankingspringproject.dto.ExchangeQuoteDto;
+import org.crazymages.bankingspringproject.dto.ExchangeQuoteRequestDto;
 import org.crazymages.bankingspringproject.service.database.CurrencyExchangeRateDatabaseService;
+import org.crazymages.bankingspringproject.service.exchange.ExchangeQuoteService;
+import org.crazymages.bankingspringproject.service.exchange.ExchangeRateHistoryService;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
@@ -11,6 +15,7 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 
 import java.math.BigDecimal;
+import java.time.Instant;
 import java.util.Collections;
 import java.util.List;
 
@@ -23,6 +28,10 @@ class ExchangeRatesControllerTest {
 
     @Mock
     CurrencyExchangeRateDatabaseService currencyExchangeRateDatabaseService;
+    @Mock
+    ExchangeRateHistoryService exchangeRateHistoryService;
+    @Mock
+    ExchangeQuoteService exchangeQuoteService;
 
     @InjectMocks
     ExchangeRatesController exchangeRatesController;
@@ -59,4 +68,42 @@ class ExchangeRatesControllerTest {
         assertNull(actual.getBody());
         verify(currencyExchangeRateDatabaseService).findAllRates();
     }
+
+    @Test
+    void getExchangeRatesAt_success() {
+        // given
+        Instant at = Instant.parse("2023-07-01T12:00:00Z");
+        List<CurrencyExchangeRateDto> expected = List.of(new CurrencyExchangeRateDto("EUR", BigDecimal.valueOf(0.89)));
+        when(exchangeRateHistoryService.findRatesAt(at)).thenReturn(expected);
+
+        // when
+        ResponseEntity<List<CurrencyExchangeRateDto>> actual = exchangeRatesController.getExchangeRatesAt(at);
+
+        // then
+        assertEquals(HttpStatus.OK, actual.getStatusCode());
+        assertEquals(expected, actual.getBody());
+        verify(exchangeRateHistoryService).findRatesAt(at);
+    }
+
+    @Test
+    void createQuote_success() {
+        // given
+        ExchangeQuoteRequestDto request = new ExchangeQuoteRequestDto("USD", "EUR");
+        ExchangeQuoteDto expected = ExchangeQuoteDto.builder()
+                .quoteId("1f")
+                .fromCurrency("USD")
+                .toCurrency("EUR")
+                .rate(BigDecimal.valueOf(0.89))
+                .expiresAt("2023-07-01T12:00:30Z")
+                .build();
+        when(exchangeQuoteService.createQuote(request)).thenReturn(expected);
+
+        // when
+        ResponseEntity<ExchangeQuoteDto> actual = exchangeRatesController.createQuote(request);
+
+        // then
+        assertEquals(HttpStatus.OK, actual.getStatusCode());
+        assertEquals(expected, actual.getBody());
+        verify(exchangeQuoteService).createQuote(request);
+    }
 }
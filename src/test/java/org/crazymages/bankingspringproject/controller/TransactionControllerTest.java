@@ -1,8 +1,13 @@
 package org.crazymages.bankingspringproject.controller;
 
 import org.crazymages.bankingspringproject.dto.TransactionDto;
+import org.crazymages.bankingspringproject.dto.TransferResultDto;
+import org.crazymages.bankingspringproject.dto.TransferStatusDto;
 import org.crazymages.bankingspringproject.entity.Transaction;
 import org.crazymages.bankingspringproject.service.database.TransactionDatabaseService;
+import org.crazymages.bankingspringproject.service.idempotency.IdempotencyService;
+import org.crazymages.bankingspringproject.service.transfer.AsyncTransferService;
+import org.crazymages.bankingspringproject.service.transfer.TransferExecutor;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -14,6 +19,7 @@ import org.springframework.http.ResponseEntity;
 
 import java.util.Collections;
 import java.util.List;
+import java.util.function.Supplier;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -22,6 +28,12 @@ import static org.mockito.Mockito.*;
 class TransactionControllerTest {
     @Mock
     TransactionDatabaseService transactionDatabaseService;
+    @Mock
+    TransferExecutor transferExecutor;
+    @Mock
+    IdempotencyService idempotencyService;
+    @Mock
+    AsyncTransferService asyncTransferService;
 
     @InjectMocks
     TransactionController transactionController;
@@ -31,6 +43,8 @@ class TransactionControllerTest {
     @BeforeEach
     void setUp() {
         uuid = "7bcf30be-8c6e-4e10-a73b-706849fc94dc";
+        lenient().when(idempotencyService.execute(any(), any(), any(), any(), any()))
+                .thenAnswer(invocation -> invocation.<Supplier<?>>getArgument(4).get());
     }
 
     @Test
@@ -40,7 +54,7 @@ class TransactionControllerTest {
         TransactionDto createdTransactionDto = TransactionDto.builder().build();
 
         // when
-        ResponseEntity<TransactionDto> actual = transactionController.createTransaction(transactionDto);
+        ResponseEntity<TransactionDto> actual = transactionController.createTransaction(transactionDto, null);
 
         // then
         assertEquals(HttpStatus.CREATED, actual.getStatusCode());
@@ -159,11 +173,111 @@ class TransactionControllerTest {
         Transaction transaction = new Transaction();
 
         // when
-        ResponseEntity<String> actual = transactionController.transferFunds(transaction);
+        ResponseEntity<String> actual = transactionController.transferFunds(transaction, null);
+
+        // then
+        assertEquals(HttpStatus.OK, actual.getStatusCode());
+        verify(transferExecutor).execute(transaction);
+        verifyNoInteractions(transactionDatabaseService);
+    }
+
+    @Test
+    void transferFunds_withIdempotencyKey_executedThroughIdempotencyService() {
+        // given
+        Transaction transaction = new Transaction();
+        String idempotencyKey = "key";
+
+        // when
+        ResponseEntity<String> actual = transactionController.transferFunds(transaction, idempotencyKey);
+
+        // then
+        assertEquals(HttpStatus.OK, actual.getStatusCode());
+        verify(idempotencyService).execute(eq(idempotencyKey), eq("transaction/transfer"), eq(transaction),
+                eq(String.class), any());
+        verify(transferExecutor).execute(transaction);
+    }
+
+    @Test
+    void transferFundsAsync_returnsAcceptedStatus() {
+        // given
+        Transaction transaction = new Transaction();
+        TransferStatusDto expected = TransferStatusDto.builder().transferId("id").status("ACCEPTED").build();
+        when(asyncTransferService.submit(transaction)).thenReturn(expected);
+
+        // when
+        ResponseEntity<TransferStatusDto> actual = transactionController.transferFundsAsync(transaction, null);
+
+        // then
+        assertEquals(HttpStatus.ACCEPTED, actual.getStatusCode());
+        assertEquals(expected, actual.getBody());
+        verifyNoInteractions(transferExecutor);
+    }
+
+    @Test
+    void transferFundsAsync_withIdempotencyKey_submittedThroughIdempotencyService() {
+        // given
+        Transaction transaction = new Transaction();
+        String idempotencyKey = "key";
+        TransferStatusDto expected = TransferStatusDto.builder().transferId("id").status("ACCEPTED").build();
+        when(asyncTransferService.submit(transaction)).thenReturn(expected);
+
+        // when
+        ResponseEntity<TransferStatusDto> actual =
+                transactionController.transferFundsAsync(transaction, idempotencyKey);
+
+        // then
+        assertEquals(HttpStatus.ACCEPTED, actual.getStatusCode());
+        assertEquals(expected, actual.getBody());
+        verify(idempotencyService).execute(eq(idempotencyKey), eq("transaction/transfer/async"), eq(transaction),
+                eq(TransferStatusDto.class), any());
+    }
+
+    @Test
+    void getTransferStatus_success() {
+        // given
+        TransferStatusDto expected = TransferStatusDto.builder().transferId("id").status("COMPLETED").build();
+        when(asyncTransferService.getStatus("id")).thenReturn(expected);
+
+        // when
+        ResponseEntity<TransferStatusDto> actual = transactionController.getTransferStatus("id");
+
+        // then
+        assertEquals(HttpStatus.OK, actual.getStatusCode());
+        assertEquals(expected, actual.getBody());
+    }
+
+    @Test
+    void transferFundsBatch_success() {
+        // given
+        List<Transaction> transactions = List.of(new Transaction(), new Transaction());
+        List<TransferResultDto> expected = List.of(TransferResultDto.builder().build(), TransferResultDto.builder().build());
+        when(transferExecutor.executeBatch(transactions)).thenReturn(expected);
+
+        // when
+        ResponseEntity<TransferResultDto[]> actual = transactionController.transferFundsBatch(transactions, null);
+
+        // then
+        assertEquals(HttpStatus.OK, actual.getStatusCode());
+        assertEquals(expected, List.of(actual.getBody()));
+        verify(transferExecutor).executeBatch(transactions);
+    }
+
+    @Test
+    void transferFundsBatch_withIdempotencyKey_executedThroughIdempotencyService() {
+        // given
+        List<Transaction> transactions = List.of(new Transaction());
+        String idempotencyKey = "key";
+        when(transferExecutor.executeBatch(transactions)).thenReturn(List.of(TransferResultDto.builder().build()));
+
+        // when
+        ResponseEntity<TransferResultDto[]> actual =
+                transactionController.transferFundsBatch(transactions, idempotencyKey);
 
         // then
         assertEquals(HttpStatus.OK, actual.getStatusCode());
-        verify(transactionDatabaseService).transferFunds(transaction);
+        verify(idempotencyService).execute(eq(idempotencyKey), eq("transaction/transfer/batch"), eq(transactions),
+                eq(TransferResultDto[].class), any());
+        verify(transferExecutor).executeBatch(transactions);
     }
 
     @Test
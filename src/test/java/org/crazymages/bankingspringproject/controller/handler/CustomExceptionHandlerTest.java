@@ -1,14 +1,19 @@
 package org.crazymages.bankingspringproject.controller.handler;
 
 import org.crazymages.bankingspringproject.exception.DataNotFoundException;
+import org.crazymages.bankingspringproject.exception.IdempotencyKeyConflictException;
 import org.crazymages.bankingspringproject.exception.InsufficientFundsException;
+import org.crazymages.bankingspringproject.exception.SpendingLimitExceededException;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.ConcurrencyFailureException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 
+import java.util.concurrent.RejectedExecutionException;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -41,6 +46,18 @@ class CustomExceptionHandlerTest {
         assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
     }
 
+    @Test
+    void handleSpendingLimitExceededException_shouldReturnBadRequestResponse() {
+        // given
+        SpendingLimitExceededException exception = new SpendingLimitExceededException("Daily spending limit exceeded");
+
+        // when
+        ResponseEntity<String> response = customExceptionHandler.handleSpendingLimitExceededException(exception);
+
+        // then
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+    }
+
     @Test
     void handleTransactionNotAllowedException_shouldReturnBadRequestResponse() {
         // when
@@ -67,4 +84,40 @@ class CustomExceptionHandlerTest {
         // then
         assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
     }
+
+    @Test
+    void handleIdempotencyKeyConflictException_shouldReturnConflictResponse() {
+        // given
+        IdempotencyKeyConflictException exception = new IdempotencyKeyConflictException("Key conflict");
+
+        // when
+        ResponseEntity<String> response = customExceptionHandler.handleIdempotencyKeyConflictException(exception);
+
+        // then
+        assertEquals(HttpStatus.CONFLICT, response.getStatusCode());
+    }
+
+    @Test
+    void handleRejectedExecutionException_shouldReturnServiceUnavailableResponse() {
+        // given
+        RejectedExecutionException exception = new RejectedExecutionException("Transfer queue is full");
+
+        // when
+        ResponseEntity<String> response = customExceptionHandler.handleRejectedExecutionException(exception);
+
+        // then
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, response.getStatusCode());
+    }
+
+    @Test
+    void handleConcurrencyFailureException_shouldReturnConflictResponse() {
+        // given
+        ConcurrencyFailureException exception = new ConcurrencyFailureException("Lock timeout");
+
+        // when
+        ResponseEntity<String> response = customExceptionHandler.handleConcurrencyFailureException(exception);
+
+        // then
+        assertEquals(HttpStatus.CONFLICT, response.getStatusCode());
+    }
 }
@@ -0,0 +1,73 @@
+package org.crazymages.bankingspringproject.health;
+
+import org.crazymages.bankingspringproject.scheduler.CurrencyExchangeRateUpdater;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.Status;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ExchangeRatesHealthIndicatorTest {
+
+    private static final Instant NOW = Instant.parse("2023-07-01T12:00:00Z");
+
+    @Mock
+    CurrencyExchangeRateUpdater currencyExchangeRateUpdater;
+
+    ExchangeRatesHealthIndicator exchangeRatesHealthIndicator;
+
+    @BeforeEach
+    void setUp() {
+        exchangeRatesHealthIndicator = new ExchangeRatesHealthIndicator(
+                currencyExchangeRateUpdater, Duration.ofHours(26), Clock.fixed(NOW, ZoneOffset.UTC));
+    }
+
+    @Test
+    void health_neverRefreshed_down() {
+        // given
+        when(currencyExchangeRateUpdater.getLastRefreshedAt()).thenReturn(Optional.empty());
+
+        // when
+        Health actual = exchangeRatesHealthIndicator.health();
+
+        // then
+        assertEquals(Status.DOWN, actual.getStatus());
+    }
+
+    @Test
+    void health_refreshedWithinMaxAge_up() {
+        // given
+        when(currencyExchangeRateUpdater.getLastRefreshedAt()).thenReturn(Optional.of(NOW.minus(Duration.ofHours(25))));
+
+        // when
+        Health actual = exchangeRatesHealthIndicator.health();
+
+        // then
+        assertEquals(Status.UP, actual.getStatus());
+        assertEquals(NOW.minus(Duration.ofHours(25)).toString(), actual.getDetails().get("lastRefreshedAt"));
+    }
+
+    @Test
+    void health_refreshedBeforeMaxAge_down() {
+        // given
+        when(currencyExchangeRateUpdater.getLastRefreshedAt()).thenReturn(Optional.of(NOW.minus(Duration.ofHours(27))));
+
+        // when
+        Health actual = exchangeRatesHealthIndicator.health();
+
+        // then
+        assertEquals(Status.DOWN, actual.getStatus());
+    }
+}
@@ -0,0 +1,61 @@
+package org.crazymages.bankingspringproject.repository;
+
+import org.crazymages.bankingspringproject.entity.Transaction;
+import org.crazymages.bankingspringproject.entity.enums.TransactionType;
+import org.crazymages.bankingspringproject.repository.TransactionRepository.DailySpending;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+class TransactionRepositoryTest {
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @AfterEach
+    void tearDown() {
+        transactionRepository.deleteAll();
+    }
+
+    @Test
+    void sumDailySpendingBetween_transfersAndDeposits_sumsSpendingPerAccountAndDay() {
+        // given
+        UUID sender = UUID.randomUUID();
+        transactionRepository.save(createTransaction(sender, TransactionType.TRANSFER, 100));
+        transactionRepository.save(createTransaction(sender, TransactionType.RECURRING_PAYMENT, 50));
+        transactionRepository.save(createTransaction(sender, TransactionType.DEPOSIT, 1_000));
+        transactionRepository.save(createTransaction(UUID.randomUUID(), TransactionType.REFUND, 10));
+        LocalDate today = LocalDate.now();
+
+        // when
+        List<DailySpending> actual = transactionRepository.sumDailySpendingBetween(
+                Timestamp.valueOf(today.atStartOfDay()), Timestamp.valueOf(today.plusDays(1).atStartOfDay()),
+                EnumSet.of(TransactionType.DEPOSIT, TransactionType.REFUND));
+
+        // then
+        assertEquals(1, actual.size());
+        assertEquals(sender, actual.get(0).getAccountUuid());
+        assertEquals(today, actual.get(0).getDay());
+        assertEquals(0, BigDecimal.valueOf(150).compareTo(actual.get(0).getAmount()));
+    }
+
+    private Transaction createTransaction(UUID debitAccountUuid, TransactionType type, long amount) {
+        Transaction transaction = new Transaction();
+        transaction.setDebitAccountUuid(debitAccountUuid);
+        transaction.setCreditAccountUuid(UUID.randomUUID());
+        transaction.setType(type);
+        transaction.setAmount(BigDecimal.valueOf(amount));
+        return transaction;
+    }
+}
@@ -0,0 +1,157 @@
+package org.crazymages.bankingspringproject.scheduler;
+
+import org.crazymages.bankingspringproject.service.api.CurrencyApiService;
+import org.crazymages.bankingspringproject.service.api.CurrencyRates;
+import org.crazymages.bankingspringproject.service.database.CurrencyExchangeRateDatabaseService;
+import org.crazymages.bankingspringproject.service.exchange.ExchangeRateHistoryService;
+import org.crazymages.bankingspringproject.service.exchange.ExchangeRateSnapshot;
+import org.crazymages.bankingspringproject.service.exchange.ExchangeRateSnapshotService;
+import org.crazymages.bankingspringproject.service.job.ChunkResult;
+import org.crazymages.bankingspringproject.service.job.JobRunner;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CurrencyExchangeRateUpdaterTest {
+
+    @Mock
+    CurrencyApiService currencyApiService;
+    @Mock
+    CurrencyExchangeRateDatabaseService currencyExchangeRateDatabaseService;
+    @Mock
+    ExchangeRateSnapshotService exchangeRateSnapshotService;
+    @Mock
+    ExchangeRateHistoryService exchangeRateHistoryService;
+    @Mock
+    JobRunner jobRunner;
+
+    @SuppressWarnings("unchecked")
+    @Test
+    void warmUp_providerAvailable_ratesRefreshedInBackground() throws InterruptedException {
+        // given
+        CurrencyExchangeRateUpdater updater = createUpdater(true);
+        Map<String, BigDecimal> rates = Map.of("EUR", new BigDecimal("0.92"));
+        ArgumentCaptor<Predicate<String>> filter = ArgumentCaptor.forClass(Predicate.class);
+        ExchangeRateSnapshot snapshot = ExchangeRateSnapshot.empty();
+        when(currencyExchangeRateDatabaseService.findLastUpdatedAt()).thenReturn(Optional.empty());
+        when(currencyApiService.getCurrencyRates(filter.capture())).thenReturn(new CurrencyRates(rates, true));
+        when(exchangeRateSnapshotService.refresh()).thenReturn(snapshot);
+
+        // when
+        updater.warmUp().join(5_000);
+
+        // then
+        verify(currencyExchangeRateDatabaseService).upsertAll(rates);
+        assertTrue(filter.getValue().test("EUR"));
+        assertFalse(filter.getValue().test("XYZ"));
+        verify(exchangeRateHistoryService).record(snapshot);
+        assertTrue(updater.getLastRefreshedAt().isPresent());
+    }
+
+    @Test
+    void warmUp_providerUnavailable_lastPersistedRatesKept() throws InterruptedException {
+        // given
+        CurrencyExchangeRateUpdater updater = createUpdater(false);
+        Instant persistedAt = Instant.parse("2023-07-01T12:00:00Z");
+        when(currencyExchangeRateDatabaseService.findLastUpdatedAt()).thenReturn(Optional.of(persistedAt));
+        when(currencyApiService.getCurrencyRates(any())).thenThrow(mock(WebClientRequestException.class));
+
+        // when
+        Thread warmUp = updater.warmUp();
+        warmUp.join(5_000);
+
+        // then
+        assertFalse(warmUp.isAlive());
+        assertEquals(Optional.of(persistedAt), updater.getLastRefreshedAt());
+        verify(currencyExchangeRateDatabaseService, never()).upsertAll(anyMap());
+        verifyNoInteractions(exchangeRateSnapshotService, exchangeRateHistoryService);
+    }
+
+    @Test
+    void checkCurrencyExchangeRates_runsUpdateAsJobKeyedByDate() {
+        // given
+        CurrencyExchangeRateUpdater updater = createUpdater(true);
+
+        // when
+        updater.checkCurrencyExchangeRates();
+
+        // then
+        verify(jobRunner).run(eq(updater), matches("\\d{4}-\\d{2}-\\d{2}"));
+        verifyNoInteractions(currencyApiService);
+    }
+
+    @Test
+    void processChunk_ratesUpdatedInSingleChunk() {
+        // given
+        CurrencyExchangeRateUpdater updater = createUpdater(true);
+        Map<String, BigDecimal> rates = Map.of("EUR", new BigDecimal("0.92"));
+        ExchangeRateSnapshot snapshot = ExchangeRateSnapshot.empty();
+        when(currencyApiService.getCurrencyRates(any())).thenReturn(new CurrencyRates(rates, true));
+        when(currencyExchangeRateDatabaseService.upsertAll(rates)).thenReturn(1);
+        when(exchangeRateSnapshotService.refresh()).thenReturn(snapshot);
+
+        // when
+        ChunkResult actual = updater.processChunk(null);
+
+        // then
+        assertTrue(actual.finished());
+        assertEquals(1, actual.processed());
+        verify(exchangeRateHistoryService).record(snapshot);
+    }
+
+    @Test
+    void prepareChunk_ratesFetchedBeforeChunkAndOnlyStoredInIt() {
+        // given
+        CurrencyExchangeRateUpdater updater = createUpdater(true);
+        Map<String, BigDecimal> rates = Map.of("EUR", new BigDecimal("0.92"));
+        when(currencyApiService.getCurrencyRates(any())).thenReturn(new CurrencyRates(rates, true));
+        when(currencyExchangeRateDatabaseService.upsertAll(rates)).thenReturn(1);
+
+        // when
+        Supplier<ChunkResult> chunk = updater.prepareChunk(null);
+
+        // then
+        verify(currencyApiService).getCurrencyRates(any());
+        verifyNoInteractions(currencyExchangeRateDatabaseService, exchangeRateSnapshotService);
+        assertEquals(1, chunk.get().processed());
+        assertEquals(1, chunk.get().processed());
+        verify(currencyApiService).getCurrencyRates(any());
+        verify(currencyExchangeRateDatabaseService, times(2)).upsertAll(rates);
+    }
+
+    @Test
+    void updateCurrencyExchangeRates_onlyFallbackAnswered_ratesStoredButNotCountedAsRefresh() {
+        // given
+        CurrencyExchangeRateUpdater updater = createUpdater(true);
+        Map<String, BigDecimal> rates = Map.of("EUR", new BigDecimal("0.92"));
+        when(currencyApiService.getCurrencyRates(any())).thenReturn(new CurrencyRates(rates, false));
+
+        // when
+        updater.updateCurrencyExchangeRates();
+
+        // then
+        verify(currencyExchangeRateDatabaseService).upsertAll(rates);
+        assertTrue(updater.getLastRefreshedAt().isEmpty());
+    }
+
+    private CurrencyExchangeRateUpdater createUpdater(boolean supportedOnly) {
+        return new CurrencyExchangeRateUpdater(currencyApiService, currencyExchangeRateDatabaseService,
+                exchangeRateSnapshotService, exchangeRateHistoryService, jobRunner, supportedOnly);
+    }
+}
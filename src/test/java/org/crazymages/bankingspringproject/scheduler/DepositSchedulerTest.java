@@ -0,0 +1,49 @@
+package org.crazymages.bankingspringproject.scheduler;
+
+import org.crazymages.bankingspringproject.service.bank.BankLedgerService;
+import org.crazymages.bankingspringproject.service.deposit.InterestPostingService;
+import org.crazymages.bankingspringproject.service.job.JobRunner;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class DepositSchedulerTest {
+
+    @Mock
+    BankLedgerService bankLedgerService;
+    @Mock
+    InterestPostingService interestPostingService;
+    @Mock
+    JobRunner jobRunner;
+
+    @InjectMocks
+    DepositScheduler depositScheduler;
+
+    @Test
+    void executeDepositsInterestPayments_runsInterestJobThenRollsUpShards() {
+        // when
+        depositScheduler.executeDepositsInterestPayments();
+
+        // then
+        InOrder inOrder = inOrder(jobRunner, bankLedgerService);
+        inOrder.verify(jobRunner).runPartitioned(eq(interestPostingService), matches("\\d{4}-\\d{2}-\\d{2}"));
+        inOrder.verify(bankLedgerService).rollUp();
+    }
+
+    @Test
+    void executeDepositsInterestPayments_jobFails_shardsStillRolledUp() {
+        // given
+        when(jobRunner.runPartitioned(eq(interestPostingService), anyString())).thenThrow(new IllegalStateException());
+
+        // when, then
+        assertThrows(IllegalStateException.class, () -> depositScheduler.executeDepositsInterestPayments());
+        verify(bankLedgerService).rollUp();
+    }
+}
@@ -1,177 +1,209 @@
 package org.crazymages.bankingspringproject.scheduler;
 
-import org.crazymages.bankingspringproject.entity.Account;
-import org.crazymages.bankingspringproject.entity.Agreement;
-import org.crazymages.bankingspringproject.entity.Client;
+import org.crazymages.bankingspringproject.dto.TransferResultDto;
 import org.crazymages.bankingspringproject.entity.Transaction;
-import org.crazymages.bankingspringproject.entity.enums.AccountType;
-import org.crazymages.bankingspringproject.entity.enums.AgreementStatus;
-import org.crazymages.bankingspringproject.service.database.AccountDatabaseService;
-import org.crazymages.bankingspringproject.service.database.AgreementDatabaseService;
+import org.crazymages.bankingspringproject.entity.enums.CurrencyCode;
+import org.crazymages.bankingspringproject.entity.enums.TransactionType;
+import org.crazymages.bankingspringproject.entity.enums.TransferStatus;
+import org.crazymages.bankingspringproject.repository.ClientRepository.RecurringTransfer;
 import org.crazymages.bankingspringproject.service.database.ClientDatabaseService;
 import org.crazymages.bankingspringproject.service.database.TransactionDatabaseService;
+import org.crazymages.bankingspringproject.service.job.ChunkResult;
+import org.crazymages.bankingspringproject.service.job.JobRunner;
+import org.crazymages.bankingspringproject.service.job.UuidPartition;
 import org.crazymages.bankingspringproject.service.utils.initializer.TransactionInitializer;
+import org.crazymages.bankingspringproject.service.utils.initializer.impl.TransactionInitializerImpl;
+import org.crazymages.bankingspringproject.service.utils.lock.AccountLockManager;
+import org.crazymages.bankingspringproject.service.utils.lock.impl.StripedAccountLockManager;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
-import org.mockito.InjectMocks;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
-import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
 
-import java.util.Collections;
+import java.math.BigDecimal;
+import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
 
-@DataJpaTest
+@ExtendWith(MockitoExtension.class)
 class RecurringTransactionSchedulerTest {
 
+    private static final UUID FIRST = new UUID(0L, 0L);
+    private static final UUID LAST = new UUID(-1L, -1L);
+
     @Mock
     ClientDatabaseService clientDatabaseService;
     @Mock
     TransactionDatabaseService transactionDatabaseService;
     @Mock
-    AccountDatabaseService accountDatabaseService;
-    @Mock
-    AgreementDatabaseService agreementDatabaseService;
-    @Mock
-    TransactionInitializer transactionInitializer;
+    JobRunner jobRunner;
+    @Spy
+    AccountLockManager accountLockManager = new StripedAccountLockManager(16);
 
-    @InjectMocks
+    TransactionInitializer transactionInitializer = new TransactionInitializerImpl();
     RecurringTransactionScheduler scheduler;
 
-    // TODO rewrite test
-//    @Test
-    void executeRecurringTransactions_activeAgreement_executeTransaction() {
-        // given
-        UUID clientUuid = UUID.randomUUID();
-
-        Client client = new Client();
-        client.setUuid(clientUuid);
-
-        Agreement agreement = new Agreement();
-        agreement.setStatus(AgreementStatus.ACTIVE);
-        when(agreementDatabaseService.findSavingsAgreementByClientId(client.getUuid()))
-                .thenReturn(agreement);
-
-        Account currentAccount = new Account();
-        currentAccount.setUuid(UUID.randomUUID());
-        currentAccount.setType(AccountType.CURRENT);
-        currentAccount.setClientUuid(clientUuid);
-
-        Account savingsAccount = new Account();
-        savingsAccount.setUuid(UUID.randomUUID());
-        savingsAccount.setType(AccountType.SAVINGS);
-        savingsAccount.setUuid(clientUuid);
-
-        when(accountDatabaseService.findCurrentByClientId(client.getUuid()))
-                .thenReturn(currentAccount);
-        when(accountDatabaseService.findSavingsByClientId(client.getUuid()))
-                .thenReturn(savingsAccount);
-
-        Transaction transaction = new Transaction();
-        when(transactionInitializer.initializeTransaction(currentAccount, savingsAccount))
-                .thenReturn(transaction);
+    @BeforeEach
+    void setUp() {
+        scheduler = new RecurringTransactionScheduler(clientDatabaseService, transactionDatabaseService,
+                transactionInitializer, accountLockManager, jobRunner, 2, 4);
+    }
 
+    @Test
+    void executeRecurringTransactions_runsJobKeyedByDate() {
         // when
         scheduler.executeRecurringTransactions();
 
         // then
-        verify(transactionDatabaseService).transferFunds(transaction);
+        verify(jobRunner).runPartitioned(eq(scheduler), matches("\\d{4}-\\d{2}-\\d{2}"));
+        verifyNoInteractions(clientDatabaseService, transactionDatabaseService);
     }
 
+    @SuppressWarnings("unchecked")
     @Test
-    void executeRecurringTransactions_noClients_noTransactionsExecuted_ok() {
+    void processChunk_fullChunk_transfersExecutedInOneBatchUnderAccountLocksAndStreamClosed() {
         // given
-        when(clientDatabaseService.findClientsWithCurrentAndSavingsAccounts())
-                .thenReturn(Collections.emptyList());
+        RecurringTransfer first = recurringTransfer(new UUID(0L, 1L), "10.00");
+        RecurringTransfer second = recurringTransfer(new UUID(0L, 2L), "20.00");
+        AtomicBoolean closed = new AtomicBoolean();
+        when(clientDatabaseService.streamRecurringTransfersBetween(FIRST, LAST, 2))
+                .thenReturn(Stream.of(first, second).onClose(() -> closed.set(true)));
+        when(transactionDatabaseService.transferFundsBatch(anyList()))
+                .thenReturn(List.of(result(0, TransferStatus.COMPLETED), result(1, TransferStatus.COMPLETED)));
 
         // when
-        scheduler.executeRecurringTransactions();
+        ChunkResult actual = scheduler.processChunk(null);
 
         // then
-        verify(transactionDatabaseService, never()).transferFunds(any());
+        assertEquals(ChunkResult.next(second.getClientUuid().toString(), 2), actual);
+        assertTrue(closed.get());
+        ArgumentCaptor<List<Transaction>> captor = ArgumentCaptor.forClass(List.class);
+        verify(transactionDatabaseService).transferFundsBatch(captor.capture());
+        List<Transaction> transactions = captor.getValue();
+        assertEquals(2, transactions.size());
+        assertEquals(first.getCurrentAccountUuid(), transactions.get(0).getDebitAccountUuid());
+        assertEquals(first.getSavingsAccountUuid(), transactions.get(0).getCreditAccountUuid());
+        assertEquals(CurrencyCode.EUR, transactions.get(0).getCurrencyCode());
+        assertEquals(new BigDecimal("10.00"), transactions.get(0).getAmount());
+        assertEquals(new BigDecimal("20.00"), transactions.get(1).getAmount());
+        verify(accountLockManager).executeWithLocks(eq(List.of(first.getCurrentAccountUuid(),
+                first.getSavingsAccountUuid(), second.getCurrentAccountUuid(), second.getSavingsAccountUuid())), any());
     }
 
+    @SuppressWarnings("unchecked")
     @Test
-    void executeRecurringTransactions_inactiveAgreement_noTransactionExecuted_ok() {
+    void processChunk_clientWithSeveralAccountsOfType_paidOnce() {
         // given
-        Client client = new Client();
-        client.setUuid(UUID.randomUUID());
-
-        Agreement agreement = new Agreement();
-        agreement.setStatus(AgreementStatus.SUSPENDED);
-        when(agreementDatabaseService.findSavingsAgreementByClientId(client.getUuid()))
-                .thenReturn(agreement);
+        UUID clientUuid = new UUID(0L, 1L);
+        RecurringTransfer first = recurringTransfer(clientUuid, "10.00");
+        RecurringTransfer duplicate = recurringTransfer(clientUuid, "10.00");
+        when(clientDatabaseService.streamRecurringTransfersBetween(FIRST, LAST, 2))
+                .thenReturn(Stream.of(first, duplicate));
+        when(transactionDatabaseService.transferFundsBatch(anyList()))
+                .thenReturn(List.of(result(0, TransferStatus.COMPLETED)));
 
         // when
-        scheduler.executeRecurringTransactions();
+        ChunkResult actual = scheduler.processChunk(null);
 
         // then
-        verify(transactionDatabaseService, never()).transferFunds(any());
+        assertEquals(ChunkResult.next(clientUuid.toString(), 1), actual);
+        ArgumentCaptor<List<Transaction>> captor = ArgumentCaptor.forClass(List.class);
+        verify(transactionDatabaseService).transferFundsBatch(captor.capture());
+        assertEquals(1, captor.getValue().size());
     }
 
     @Test
-    void isRecurringTransactionAllowed_activeAgreement_ok() {
+    void processChunk_partialChunkInPartition_rejectedTransferNotCountedAndRunFinished() {
         // given
-        Agreement agreement = new Agreement();
-        agreement.setStatus(AgreementStatus.ACTIVE);
-
-        Client client = new Client();
-        client.setUuid(UUID.randomUUID());
-
-        when(agreementDatabaseService.findSavingsAgreementByClientId(client.getUuid())).thenReturn(agreement);
+        UuidPartition partition = new UuidPartition(1, 4);
+        UUID after = new UUID(Long.MIN_VALUE, 5L);
+        RecurringTransfer recurringTransfer = recurringTransfer(new UUID(Long.MIN_VALUE, 6L), "10.00");
+        when(clientDatabaseService.streamRecurringTransfersBetween(after, partition.upTo(), 2))
+                .thenReturn(Stream.of(recurringTransfer));
+        when(transactionDatabaseService.transferFundsBatch(anyList()))
+                .thenReturn(List.of(result(0, TransferStatus.REJECTED)));
 
         // when
-        boolean actual = scheduler.isRecurringTransactionAllowed(client);
+        ChunkResult actual = scheduler.processChunk(partition, after.toString());
 
         // then
-        assertTrue(actual);
-        verify(agreementDatabaseService).findSavingsAgreementByClientId(client.getUuid());
+        assertEquals(ChunkResult.finished(recurringTransfer.getClientUuid().toString(), 0), actual);
+        assertEquals(4, scheduler.getPartitionCount());
     }
 
     @Test
-    void isRecurringTransactionAllowed_inactiveAgreement_ok() {
+    void processChunk_noClients_runFinishedAtCheckpoint() {
         // given
-        Agreement agreement = new Agreement();
-        agreement.setStatus(AgreementStatus.ANNULLED);
-
-        Client client = new Client();
-        client.setUuid(UUID.randomUUID());
-
-        when(agreementDatabaseService.findSavingsAgreementByClientId(client.getUuid())).thenReturn(agreement);
+        UuidPartition partition = new UuidPartition(2, 4);
+        when(clientDatabaseService.streamRecurringTransfersBetween(partition.after(), partition.upTo(), 2))
+                .thenReturn(Stream.empty());
 
         // when
-        boolean actual = scheduler.isRecurringTransactionAllowed(client);
+        ChunkResult actual = scheduler.processChunk(partition, null);
 
         // then
-        assertFalse(actual);
-        verify(agreementDatabaseService).findSavingsAgreementByClientId(client.getUuid());
+        assertEquals(ChunkResult.finished(null, 0), actual);
+        verifyNoInteractions(transactionDatabaseService);
     }
 
     @Test
-    void executeTransaction() {
+    void initializeTransaction() {
         // given
-        Client client = new Client();
-        client.setUuid(UUID.randomUUID());
-        Account currentAccount = new Account();
-        Account savingsAccount = new Account();
-        Agreement agreement = new Agreement();
-        Transaction transaction = new Transaction();
-
-        when(accountDatabaseService.findCurrentByClientId(client.getUuid())).thenReturn(currentAccount);
-        when(accountDatabaseService.findSavingsByClientId(client.getUuid())).thenReturn(savingsAccount);
-        when(agreementDatabaseService.findSavingsAgreementByClientId(client.getUuid())).thenReturn(agreement);
-        when(transactionInitializer.initializeTransaction(currentAccount, savingsAccount)).thenReturn(transaction);
+        RecurringTransfer recurringTransfer = recurringTransfer(UUID.randomUUID(), "10.00");
 
         // when
-        scheduler.executeTransaction(client);
+        Transaction actual = scheduler.initializeTransaction(recurringTransfer);
 
         // then
-        verify(accountDatabaseService).findCurrentByClientId(client.getUuid());
-        verify(accountDatabaseService).findSavingsByClientId(client.getUuid());
-        verify(agreementDatabaseService).findSavingsAgreementByClientId(client.getUuid());
-        verify(transactionInitializer).initializeTransaction(currentAccount, savingsAccount);
-        verify(transactionDatabaseService).transferFunds(transaction);
+        assertEquals(recurringTransfer.getCurrentAccountUuid(), actual.getDebitAccountUuid());
+        assertEquals(recurringTransfer.getSavingsAccountUuid(), actual.getCreditAccountUuid());
+        assertEquals(TransactionType.RECURRING_PAYMENT, actual.getType());
+        assertEquals(new BigDecimal("10.00"), actual.getAmount());
+        assertEquals("Recurring payment", actual.getDescription());
     }
 
+    private static RecurringTransfer recurringTransfer(UUID clientUuid, String amount) {
+        UUID currentAccountUuid = UUID.randomUUID();
+        UUID savingsAccountUuid = UUID.randomUUID();
+        return new RecurringTransfer() {
+            @Override
+            public UUID getClientUuid() {
+                return clientUuid;
+            }
+
+            @Override
+            public UUID getCurrentAccountUuid() {
+                return currentAccountUuid;
+            }
+
+            @Override
+            public CurrencyCode getCurrencyCode() {
+                return CurrencyCode.EUR;
+            }
+
+            @Override
+            public UUID getSavingsAccountUuid() {
+                return savingsAccountUuid;
+            }
+
+            @Override
+            public BigDecimal getAmount() {
+                return new BigDecimal(amount);
+            }
+        };
+    }
+
+    private static TransferResultDto result(int index, TransferStatus status) {
+        return TransferResultDto.builder()
+                .index(index)
+                .status(status.name())
+                .build();
+    }
 }
@@ -0,0 +1,75 @@
+package org.crazymages.bankingspringproject.service.api.impl;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CircuitBreakerTest {
+
+    private static final Instant NOW = Instant.parse("2023-07-01T12:00:00Z");
+
+    @Test
+    void onFailure_thresholdReached_rejectsUntilOpenDurationPassed() {
+        // given
+        CircuitBreaker circuitBreaker = new CircuitBreaker(2, Duration.ofSeconds(30), Clock.fixed(NOW, ZoneOffset.UTC));
+
+        // when
+        circuitBreaker.onFailure();
+        boolean afterOneFailure = circuitBreaker.tryAcquire();
+        circuitBreaker.onFailure();
+
+        // then
+        assertTrue(afterOneFailure);
+        assertFalse(circuitBreaker.tryAcquire());
+        assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.getState());
+    }
+
+    @Test
+    void tryAcquire_openDurationPassed_letsOneTrialCallThrough() {
+        // given
+        CircuitBreaker circuitBreaker = new CircuitBreaker(1, Duration.ZERO, Clock.fixed(NOW, ZoneOffset.UTC));
+        circuitBreaker.onFailure();
+
+        // when
+        boolean trial = circuitBreaker.tryAcquire();
+
+        // then
+        assertTrue(trial);
+        assertFalse(circuitBreaker.tryAcquire());
+        assertEquals(CircuitBreaker.State.HALF_OPEN, circuitBreaker.getState());
+    }
+
+    @Test
+    void onFailure_halfOpenTrialFails_reopens() {
+        // given
+        CircuitBreaker circuitBreaker = new CircuitBreaker(1, Duration.ZERO, Clock.fixed(NOW, ZoneOffset.UTC));
+        circuitBreaker.onFailure();
+        circuitBreaker.tryAcquire();
+
+        // when
+        circuitBreaker.onFailure();
+
+        // then
+        assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.getState());
+    }
+
+    @Test
+    void onSuccess_halfOpenTrialSucceeds_closes() {
+        // given
+        CircuitBreaker circuitBreaker = new CircuitBreaker(1, Duration.ZERO, Clock.fixed(NOW, ZoneOffset.UTC));
+        circuitBreaker.onFailure();
+        circuitBreaker.tryAcquire();
+
+        // when
+        circuitBreaker.onSuccess();
+
+        // then
+        assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.getState());
+        assertTrue(circuitBreaker.tryAcquire());
+    }
+}
@@ -0,0 +1,168 @@
+package org.crazymages.bankingspringproject.service.api.impl;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.crazymages.bankingspringproject.config.RateProviderProperties.Strategy;
+import org.crazymages.bankingspringproject.exception.DataNotFoundException;
+import org.crazymages.bankingspringproject.service.api.CurrencyRates;
+import org.crazymages.bankingspringproject.service.api.RateProvider;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CurrencyApiServiceImplTest {
+
+    MeterRegistry meterRegistry;
+    CurrencyApiServiceImpl currencyApiService;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (currencyApiService != null) {
+            currencyApiService.shutdown();
+        }
+    }
+
+    @Test
+    void getCurrencyRates_firstValid_firstProviderWinsAndGapsAreFilled() {
+        // given
+        currencyApiService = createService(Strategy.FIRST_VALID,
+                provider("primary", () -> Map.of("EUR", new BigDecimal("0.92"), "GBP", BigDecimal.ZERO)),
+                provider("secondary", () -> Map.of("EUR", new BigDecimal("0.90"), "GBP", new BigDecimal("0.79"))));
+
+        // when
+        CurrencyRates actual = currencyApiService.getCurrencyRates(currencyCode -> true);
+
+        // then
+        assertEquals(Map.of("EUR", new BigDecimal("0.92"), "GBP", new BigDecimal("0.79")), actual.rates());
+        assertTrue(actual.primaryAnswered());
+    }
+
+    @Test
+    void getCurrencyRates_median_middleValuePerCurrency() {
+        // given
+        currencyApiService = createService(Strategy.MEDIAN,
+                provider("a", () -> Map.of("EUR", new BigDecimal("0.92"), "GBP", new BigDecimal("0.78"))),
+                provider("b", () -> Map.of("EUR", new BigDecimal("0.99"), "GBP", new BigDecimal("0.80"))),
+                provider("c", () -> Map.of("EUR", new BigDecimal("0.91"))));
+
+        // when
+        Map<String, BigDecimal> actual = currencyApiService.getCurrencyRates(currencyCode -> true).rates();
+
+        // then
+        assertEquals(new BigDecimal("0.92"), actual.get("EUR"));
+        assertEquals(new BigDecimal("0.79"), actual.get("GBP"));
+    }
+
+    @Test
+    void getCurrencyRates_slowProvider_skippedAfterDeadline() {
+        // given
+        currencyApiService = createService(Strategy.FIRST_VALID,
+                provider("slow", () -> {
+                    sleep(5_000);
+                    return Map.of("EUR", new BigDecimal("0.80"));
+                }),
+                provider("fast", () -> Map.of("EUR", new BigDecimal("0.92"))));
+
+        // when
+        long start = System.nanoTime();
+        Map<String, BigDecimal> actual = currencyApiService.getCurrencyRates(currencyCode -> true).rates();
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+        // then
+        assertEquals(Map.of("EUR", new BigDecimal("0.92")), actual);
+        assertTrue(elapsedMillis < 2_000);
+        assertEquals(1, meterRegistry.counter("currency.providers.failures",
+                "provider", "slow", "reason", "deadline").count());
+    }
+
+    @Test
+    void getCurrencyRates_primaryDown_fallbackProviderUsed() {
+        // given
+        currencyApiService = createService(Strategy.FIRST_VALID,
+                provider("primary", () -> {
+                    throw new IllegalStateException("provider down");
+                }),
+                provider("file", () -> Map.of("EUR", new BigDecimal("0.91"))));
+
+        // when
+        CurrencyRates actual = currencyApiService.getCurrencyRates(currencyCode -> true);
+
+        // then
+        assertEquals(Map.of("EUR", new BigDecimal("0.91")), actual.rates());
+        assertFalse(actual.primaryAnswered());
+        assertEquals(1, meterRegistry.counter("currency.providers.failures",
+                "provider", "primary", "reason", "error").count());
+    }
+
+    @Test
+    void getCurrencyRates_allProvidersFail_throwsDataNotFoundException() {
+        // given
+        currencyApiService = createService(Strategy.MEDIAN,
+                provider("primary", () -> {
+                    throw new IllegalStateException("provider down");
+                }));
+
+        // when, then
+        assertThrows(DataNotFoundException.class, () -> currencyApiService.getCurrencyRates(currencyCode -> true));
+    }
+
+    @Test
+    void getCurrencyRates_filter_passedToProviders() {
+        // given
+        currencyApiService = createService(Strategy.FIRST_VALID, new RateProvider() {
+            @Override
+            public String getName() {
+                return "filtered";
+            }
+
+            @Override
+            public Map<String, BigDecimal> fetchRates(Predicate<String> currencyFilter) {
+                return currencyFilter.test("EUR") ? Map.of("EUR", BigDecimal.ONE) : Map.of();
+            }
+        });
+
+        // when, then
+        assertEquals(Map.of("EUR", BigDecimal.ONE), currencyApiService.getCurrencyRates("EUR"::equals).rates());
+        assertThrows(DataNotFoundException.class, () -> currencyApiService.getCurrencyRates("GBP"::equals));
+    }
+
+    private CurrencyApiServiceImpl createService(Strategy strategy, RateProvider... providers) {
+        return new CurrencyApiServiceImpl(List.of(providers), Duration.ofMillis(500), strategy, meterRegistry);
+    }
+
+    private RateProvider provider(String name, Supplier<Map<String, BigDecimal>> rates) {
+        return new RateProvider() {
+            @Override
+            public String getName() {
+                return name;
+            }
+
+            @Override
+            public Map<String, BigDecimal> fetchRates(Predicate<String> currencyFilter) {
+                return rates.get();
+            }
+        };
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
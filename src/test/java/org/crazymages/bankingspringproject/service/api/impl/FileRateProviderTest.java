@@ -0,0 +1,52 @@
+package org.crazymages.bankingspringproject.service.api.impl;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.crazymages.bankingspringproject.service.utils.parser.ConversionRatesParser;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.FileSystemResource;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FileRateProviderTest {
+
+    @TempDir
+    Path directory;
+
+    ConversionRatesParser conversionRatesParser = new ConversionRatesParser(new ObjectMapper());
+
+    @Test
+    void fetchRates_fileReplaced_latestContentRead() throws IOException {
+        // given
+        Path file = directory.resolve("exchange-rates.json");
+        Files.writeString(file, "{\"conversion_rates\":{\"EUR\":0.91}}");
+        FileRateProvider fileRateProvider = new FileRateProvider("file", new FileSystemResource(file),
+                "conversion_rates", conversionRatesParser);
+        Map<String, BigDecimal> first = fileRateProvider.fetchRates(currencyCode -> true);
+        Files.writeString(file, "{\"conversion_rates\":{\"EUR\":0.93}}");
+
+        // when
+        Map<String, BigDecimal> actual = fileRateProvider.fetchRates(currencyCode -> true);
+
+        // then
+        assertEquals(Map.of("EUR", new BigDecimal("0.91")), first);
+        assertEquals(Map.of("EUR", new BigDecimal("0.93")), actual);
+    }
+
+    @Test
+    void fetchRates_missingFile_throwsUncheckedIOException() {
+        // given
+        FileRateProvider fileRateProvider = new FileRateProvider("file",
+                new FileSystemResource(directory.resolve("missing.json")), "conversion_rates", conversionRatesParser);
+
+        // when, then
+        assertThrows(UncheckedIOException.class, () -> fileRateProvider.fetchRates(currencyCode -> true));
+    }
+}
@@ -0,0 +1,176 @@
+package org.crazymages.bankingspringproject.service.api.impl;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.crazymages.bankingspringproject.config.WebClientConfig;
+import org.crazymages.bankingspringproject.exception.CircuitBreakerOpenException;
+import org.crazymages.bankingspringproject.service.utils.parser.ConversionRatesParser;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Deque;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs the HTTP rate provider against a local stub HTTP server.
+ */
+class HttpRateProviderTest {
+
+    private static final String RATES = "{\"result\":\"success\",\"conversion_rates\":{\"USD\":1,\"EUR\":0.92}}";
+
+    HttpServer server;
+    ExecutorService serverExecutor;
+    Deque<StubResponse> responses;
+    AtomicInteger requests;
+    MeterRegistry meterRegistry;
+    CircuitBreaker circuitBreaker;
+    HttpRateProvider httpRateProvider;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        responses = new ConcurrentLinkedDeque<>();
+        requests = new AtomicInteger();
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/latest/USD", exchange -> {
+            requests.incrementAndGet();
+            StubResponse response = responses.isEmpty() ? new StubResponse(200, RATES, 0) : responses.poll();
+            sleep(response.delayMs());
+            byte[] body = response.body().getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(response.status(), body.length);
+            try (OutputStream outputStream = exchange.getResponseBody()) {
+                outputStream.write(body);
+            }
+        });
+        serverExecutor = Executors.newCachedThreadPool();
+        server.setExecutor(serverExecutor);
+        server.start();
+
+        WebClient webClient = new WebClientConfig().currencyApiWebClient(4, 500, 300);
+        meterRegistry = new SimpleMeterRegistry();
+        circuitBreaker = new CircuitBreaker(3, Duration.ofMinutes(1), Clock.systemUTC());
+        httpRateProvider = new HttpRateProvider("stub", webClient,
+                new ConversionRatesParser(new ObjectMapper()), meterRegistry,
+                "http://localhost:" + server.getAddress().getPort() + "/latest/USD", "conversion_rates",
+                2, Duration.ofMillis(10), circuitBreaker);
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.stop(0);
+        serverExecutor.shutdownNow();
+    }
+
+    @Test
+    void fetchRates_providerAvailable_returnsRatesAndRecordsLatency() {
+        // when
+        Map<String, BigDecimal> actual = httpRateProvider.fetchRates(currencyCode -> true);
+
+        // then
+        assertEquals(new BigDecimal("0.92"), actual.get("EUR"));
+        assertEquals(1, requests.get());
+        assertEquals(1, meterRegistry.timer("currency.api.requests", "provider", "stub", "outcome", "success").count());
+    }
+
+    @Test
+    void fetchRates_transientServerErrors_retriedWithBackoff() {
+        // given
+        responses.add(new StubResponse(503, "{}", 0));
+        responses.add(new StubResponse(502, "{}", 0));
+
+        // when
+        Map<String, BigDecimal> actual = httpRateProvider.fetchRates(currencyCode -> true);
+
+        // then
+        assertEquals(new BigDecimal("0.92"), actual.get("EUR"));
+        assertEquals(3, requests.get());
+        assertEquals(2, meterRegistry.counter("currency.api.retries", "provider", "stub").count());
+        assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.getState());
+    }
+
+    @Test
+    void fetchRates_clientError_notRetried() {
+        // given
+        responses.add(new StubResponse(403, "{}", 0));
+
+        // when, then
+        assertThrows(WebClientResponseException.Forbidden.class,
+                () -> httpRateProvider.fetchRates(currencyCode -> true));
+        assertEquals(1, requests.get());
+        assertEquals(1, meterRegistry.timer("currency.api.requests", "provider", "stub", "outcome", "failure").count());
+    }
+
+    @Test
+    void fetchRates_slowProvider_readTimeoutThenRetried() {
+        // given
+        responses.add(new StubResponse(200, RATES, 1_000));
+
+        // when
+        Map<String, BigDecimal> actual = httpRateProvider.fetchRates(currencyCode -> true);
+
+        // then
+        assertEquals(new BigDecimal("0.92"), actual.get("EUR"));
+        assertEquals(1, meterRegistry.counter("currency.api.retries", "provider", "stub").count());
+    }
+
+    @Test
+    void fetchRates_repeatedFailures_circuitOpensAndRejectsCalls() {
+        // given
+        for (int i = 0; i < 9; i++) {
+            responses.add(new StubResponse(500, "{}", 0));
+        }
+        for (int i = 0; i < 3; i++) {
+            assertThrows(WebClientResponseException.InternalServerError.class,
+                    () -> httpRateProvider.fetchRates(currencyCode -> true));
+        }
+        int requestsBeforeOpen = requests.get();
+
+        // when, then
+        assertThrows(CircuitBreakerOpenException.class,
+                () -> httpRateProvider.fetchRates(currencyCode -> true));
+        assertEquals(requestsBeforeOpen, requests.get());
+        assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.getState());
+        assertEquals(1, meterRegistry.counter("currency.api.rejected", "provider", "stub").count());
+    }
+
+    @Test
+    void fetchRates_providerDown_requestExceptionAfterRetries() {
+        // given
+        server.stop(0);
+
+        // when, then
+        assertThrows(WebClientRequestException.class,
+                () -> httpRateProvider.fetchRates(currencyCode -> true));
+        assertEquals(2, meterRegistry.counter("currency.api.retries", "provider", "stub").count());
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private record StubResponse(int status, String body, long delayMs) {
+    }
+}
@@ -0,0 +1,156 @@
+package org.crazymages.bankingspringproject.service.bank.impl;
+
+import lombok.extern.slf4j.Slf4j;
+import org.crazymages.bankingspringproject.entity.Account;
+import org.crazymages.bankingspringproject.entity.Client;
+import org.crazymages.bankingspringproject.entity.enums.AccountStatus;
+import org.crazymages.bankingspringproject.entity.enums.AccountType;
+import org.crazymages.bankingspringproject.entity.enums.ClientStatus;
+import org.crazymages.bankingspringproject.entity.enums.CurrencyCode;
+import org.crazymages.bankingspringproject.repository.AccountRepository;
+import org.crazymages.bankingspringproject.service.bank.BankLedgerService;
+import org.crazymages.bankingspringproject.service.database.ClientDatabaseService;
+import org.crazymages.bankingspringproject.service.ledger.LedgerService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.when;
+
+/**
+ * Measures whether concurrent interest posting partitions wait on each other's bank shard row locks
+ * against an in-memory database.
+ */
+@Slf4j
+@DataJpaTest
+@Import(BankLedgerServiceImpl.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class BankLedgerServiceImplConcurrencyTest {
+
+    private static final BigDecimal SHARD_BALANCE = BigDecimal.valueOf(1_000).setScale(2);
+
+    @Autowired
+    BankLedgerService bankLedgerService;
+    @Autowired
+    AccountRepository accountRepository;
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    @MockBean
+    ClientDatabaseService clientDatabaseService;
+    @MockBean
+    LedgerService ledgerService;
+
+    TransactionTemplate transactionTemplate;
+    List<Account> shards;
+
+    @BeforeEach
+    void setUp() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        UUID bankUuid = UUID.randomUUID();
+        when(clientDatabaseService.findClientsByStatus(ClientStatus.BANK))
+                .thenReturn(List.of(Client.builder().uuid(bankUuid).status(ClientStatus.BANK).build()));
+        accountRepository.save(Account.builder()
+                .clientUuid(bankUuid)
+                .type(AccountType.CURRENT)
+                .status(AccountStatus.ACTIVE)
+                .currencyCode(CurrencyCode.EUR)
+                .balance(SHARD_BALANCE)
+                .build());
+        shards = bankLedgerService.getShardAccounts();
+        shards.forEach(shard -> shard.setBalance(SHARD_BALANCE));
+        shards = accountRepository.saveAll(shards);
+    }
+
+    @AfterEach
+    void tearDown() {
+        accountRepository.deleteAll();
+    }
+
+    @Test
+    void debitShards_partitionsOnDifferentShards_doNotWaitForEachOther() throws Exception {
+        // given
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        CountDownLatch locked = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Future<?> holder = executor.submit(() -> holdShard(bankLedgerService.selectShard(shards, 0), locked, release));
+        assertTrue(locked.await(10, TimeUnit.SECONDS));
+
+        // when
+        long start = System.nanoTime();
+        Future<?> other = executor.submit(() -> debit(bankLedgerService.selectShard(shards, 1)));
+        other.get(10, TimeUnit.SECONDS);
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+        release.countDown();
+        holder.get(10, TimeUnit.SECONDS);
+        executor.shutdown();
+
+        // then
+        log.info("partition 1 debited its shard in {} ms while partition 0 held its shard lock", elapsedMillis);
+        assertEquals(0, SHARD_BALANCE.subtract(BigDecimal.TEN)
+                .compareTo(accountRepository.findById(shards.get(0).getUuid()).orElseThrow().getBalance()));
+        assertEquals(0, SHARD_BALANCE.subtract(BigDecimal.TEN)
+                .compareTo(accountRepository.findById(shards.get(1).getUuid()).orElseThrow().getBalance()));
+    }
+
+    @Test
+    void debitShards_partitionsOnTheSameShard_waitForTheLockHolder() throws Exception {
+        // given
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        CountDownLatch locked = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Future<?> holder = executor.submit(() -> holdShard(bankLedgerService.selectShard(shards, 0), locked, release));
+        assertTrue(locked.await(10, TimeUnit.SECONDS));
+
+        // when
+        Future<?> other = executor.submit(() -> debit(bankLedgerService.selectShard(shards, shards.size())));
+        Thread.sleep(300);
+        boolean finishedWhileHeld = other.isDone();
+        release.countDown();
+        holder.get(10, TimeUnit.SECONDS);
+        other.get(10, TimeUnit.SECONDS);
+        executor.shutdown();
+
+        // then
+        assertFalse(finishedWhileHeld);
+        assertEquals(0, SHARD_BALANCE.subtract(BigDecimal.valueOf(20))
+                .compareTo(accountRepository.findById(shards.get(0).getUuid()).orElseThrow().getBalance()));
+    }
+
+    private void holdShard(Account shard, CountDownLatch locked, CountDownLatch release) {
+        transactionTemplate.executeWithoutResult(status -> {
+            bankLedgerService.debitShards(Map.of(shard.getUuid(), BigDecimal.TEN));
+            locked.countDown();
+            try {
+                assertTrue(release.await(10, TimeUnit.SECONDS));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException(e);
+            }
+        });
+    }
+
+    private void debit(Account shard) {
+        transactionTemplate.executeWithoutResult(
+                status -> bankLedgerService.debitShards(Map.of(shard.getUuid(), BigDecimal.TEN)));
+    }
+}
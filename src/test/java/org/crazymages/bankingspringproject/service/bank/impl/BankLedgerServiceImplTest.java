@@ -0,0 +1,307 @@
+package org.crazymages.bankingspringproject.service.bank.impl;
+
+import org.crazymages.bankingspringproject.entity.Account;
+import org.crazymages.bankingspringproject.entity.Client;
+import org.crazymages.bankingspringproject.entity.enums.AccountType;
+import org.crazymages.bankingspringproject.entity.enums.ClientStatus;
+import org.crazymages.bankingspringproject.entity.enums.CurrencyCode;
+import org.crazymages.bankingspringproject.exception.DataNotFoundException;
+import org.crazymages.bankingspringproject.exception.InsufficientFundsException;
+import org.crazymages.bankingspringproject.repository.AccountRepository;
+import org.crazymages.bankingspringproject.repository.AccountRepository.AccountBalance;
+import org.crazymages.bankingspringproject.service.database.ClientDatabaseService;
+import org.crazymages.bankingspringproject.service.ledger.LedgerService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.PessimisticLockingFailureException;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class BankLedgerServiceImplTest {
+
+    @Mock
+    AccountRepository accountRepository;
+    @Mock
+    ClientDatabaseService clientDatabaseService;
+    @Mock
+    LedgerService ledgerService;
+
+    BankLedgerServiceImpl bankLedgerService;
+    UUID bankUuid;
+    Account mainAccount;
+    Account shard1;
+    Account shard2;
+
+    @BeforeEach
+    void setUp() {
+        bankLedgerService = new BankLedgerServiceImpl(accountRepository, clientDatabaseService, ledgerService, 2,
+                BigDecimal.TEN);
+        bankUuid = UUID.randomUUID();
+        mainAccount = Account.builder()
+                .uuid(UUID.randomUUID())
+                .clientUuid(bankUuid)
+                .type(AccountType.CURRENT)
+                .currencyCode(CurrencyCode.EUR)
+                .balance(BigDecimal.valueOf(100))
+                .build();
+        shard1 = createShard("Bank shard 0", BigDecimal.ZERO);
+        shard2 = createShard("Bank shard 1", BigDecimal.ZERO);
+        Client bank = Client.builder().uuid(bankUuid).status(ClientStatus.BANK).build();
+        lenient().when(clientDatabaseService.findClientsByStatus(ClientStatus.BANK)).thenReturn(List.of(bank));
+        lenient().when(accountRepository.findAccountsByClientUuid(bankUuid)).thenReturn(List.of(shard1, mainAccount));
+    }
+
+    @Test
+    void constructor_nonPositiveShardCount_throwsIllegalArgumentException() {
+        // when, then
+        assertThrows(IllegalArgumentException.class,
+                () -> new BankLedgerServiceImpl(accountRepository, clientDatabaseService, ledgerService, 0,
+                        BigDecimal.TEN));
+    }
+
+    @Test
+    void getMainAccount_skipsShards() {
+        // when
+        Account actual = bankLedgerService.getMainAccount();
+
+        // then
+        assertEquals(mainAccount, actual);
+    }
+
+    @Test
+    void getMainAccount_noBankClient_throwsDataNotFoundException() {
+        // given
+        when(clientDatabaseService.findClientsByStatus(ClientStatus.BANK)).thenReturn(Collections.emptyList());
+
+        // when, then
+        assertThrows(DataNotFoundException.class, () -> bankLedgerService.getMainAccount());
+    }
+
+    @Test
+    void getShardAccounts_missingShardsCreated() {
+        // given
+        when(accountRepository.findAccountsByClientUuidAndType(bankUuid, AccountType.BANK_SHARD))
+                .thenReturn(List.of(shard1));
+        when(accountRepository.saveAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // when
+        List<Account> actual = bankLedgerService.getShardAccounts();
+
+        // then
+        assertEquals(2, actual.size());
+        assertEquals(shard1, actual.get(0));
+        Account created = actual.get(1);
+        assertEquals("Bank shard 1", created.getName());
+        assertEquals(AccountType.BANK_SHARD, created.getType());
+        assertEquals(bankUuid, created.getClientUuid());
+        assertEquals(CurrencyCode.EUR, created.getCurrencyCode());
+        assertEquals(BigDecimal.ZERO, created.getBalance());
+    }
+
+    @Test
+    void getShardAccounts_allShardsExist_noneCreated() {
+        // given
+        when(accountRepository.findAccountsByClientUuidAndType(bankUuid, AccountType.BANK_SHARD))
+                .thenReturn(List.of(shard2, shard1));
+
+        // when
+        List<Account> actual = bankLedgerService.getShardAccounts();
+
+        // then
+        assertEquals(List.of(shard1, shard2), actual);
+        verify(accountRepository, never()).saveAll(anyList());
+    }
+
+    @Test
+    void selectShard_partitions_eachPaidFromItsOwnShard() {
+        // given
+        List<Account> shards = List.of(shard1, shard2);
+
+        // when
+        Account first = bankLedgerService.selectShard(shards, 0);
+        Account second = bankLedgerService.selectShard(shards, 1);
+
+        // then
+        assertSame(shard1, first);
+        assertSame(shard2, second);
+        assertSame(shard1, bankLedgerService.selectShard(shards, 2));
+    }
+
+    @Test
+    void selectShard_noShards_throwsIllegalArgumentException() {
+        // when, then
+        assertThrows(IllegalArgumentException.class,
+                () -> bankLedgerService.selectShard(Collections.emptyList(), 0));
+    }
+
+    @Test
+    void fundShards_success() {
+        // given
+        when(accountRepository.findAccountsByUuidInForUpdate(anyCollection()))
+                .thenReturn(List.of(mainAccount, shard1, shard2));
+
+        // when
+        bankLedgerService.fundShards(Map.of(shard1.getUuid(), BigDecimal.valueOf(30),
+                shard2.getUuid(), BigDecimal.valueOf(20)));
+
+        // then
+        assertEquals(BigDecimal.valueOf(50), mainAccount.getBalance());
+        assertEquals(BigDecimal.valueOf(30), shard1.getBalance());
+        assertEquals(BigDecimal.valueOf(20), shard2.getBalance());
+        verify(ledgerService).recordTransfer(null, mainAccount, BigDecimal.valueOf(30), shard1, BigDecimal.valueOf(30));
+        verify(ledgerService).recordTransfer(null, mainAccount, BigDecimal.valueOf(20), shard2, BigDecimal.valueOf(20));
+    }
+
+    @Test
+    void fundShards_insufficientBankBalance_throwsInsufficientFundsException() {
+        // given
+        when(accountRepository.findAccountsByUuidInForUpdate(anyCollection()))
+                .thenReturn(List.of(mainAccount, shard1));
+        Map<UUID, BigDecimal> amounts = Map.of(shard1.getUuid(), BigDecimal.valueOf(101));
+
+        // when, then
+        assertThrows(InsufficientFundsException.class, () -> bankLedgerService.fundShards(amounts));
+        assertEquals(BigDecimal.valueOf(100), mainAccount.getBalance());
+    }
+
+    @Test
+    void fundShards_emptyAmounts_noInteractions() {
+        // when
+        bankLedgerService.fundShards(Collections.emptyMap());
+
+        // then
+        verifyNoInteractions(accountRepository);
+    }
+
+    @Test
+    void debitShards_fundedShard_mainAccountNotLocked() {
+        // given
+        shard1.setBalance(BigDecimal.valueOf(50));
+        stubBalances(shard1);
+        when(accountRepository.findAccountsByUuidInForUpdate(Set.of(shard1.getUuid()))).thenReturn(List.of(shard1));
+
+        // when
+        bankLedgerService.debitShards(Map.of(shard1.getUuid(), BigDecimal.valueOf(30)));
+
+        // then
+        assertEquals(BigDecimal.valueOf(20), shard1.getBalance());
+        assertEquals(BigDecimal.valueOf(100), mainAccount.getBalance());
+        verify(accountRepository).findAccountsByUuidInForUpdate(anyCollection());
+        verifyNoInteractions(ledgerService);
+    }
+
+    @Test
+    void debitShards_shardRunningLow_mainLockedTogetherWithShardAndTopsItUp() {
+        // given
+        shard1.setBalance(BigDecimal.valueOf(5));
+        stubBalances(shard1);
+        when(accountRepository.findAccountsByUuidInForUpdate(Set.of(shard1.getUuid(), mainAccount.getUuid())))
+                .thenReturn(List.of(mainAccount, shard1));
+
+        // when
+        bankLedgerService.debitShards(Map.of(shard1.getUuid(), BigDecimal.valueOf(30)));
+
+        // then
+        assertEquals(BigDecimal.valueOf(10), shard1.getBalance());
+        assertEquals(BigDecimal.valueOf(65), mainAccount.getBalance());
+        verify(ledgerService).recordTransfer(null, mainAccount, BigDecimal.valueOf(35), shard1, BigDecimal.valueOf(35));
+        verify(accountRepository).findAccountsByUuidInForUpdate(anyCollection());
+    }
+
+    @Test
+    void debitShards_shardDrainedAfterBalanceRead_throwsPessimisticLockingFailureException() {
+        // given
+        shard1.setBalance(BigDecimal.valueOf(50));
+        stubBalances(shard1);
+        Account drained = createShard("Bank shard 0", BigDecimal.ZERO);
+        drained.setUuid(shard1.getUuid());
+        when(accountRepository.findAccountsByUuidInForUpdate(Set.of(shard1.getUuid()))).thenReturn(List.of(drained));
+        Map<UUID, BigDecimal> amounts = Map.of(shard1.getUuid(), BigDecimal.valueOf(30));
+
+        // when, then
+        assertThrows(PessimisticLockingFailureException.class, () -> bankLedgerService.debitShards(amounts));
+        assertEquals(BigDecimal.ZERO, drained.getBalance());
+        verifyNoInteractions(ledgerService);
+    }
+
+    @Test
+    void debitShards_unknownShard_throwsDataNotFoundException() {
+        // given
+        Map<UUID, BigDecimal> amounts = Map.of(mainAccount.getUuid(), BigDecimal.ONE);
+        stubBalances(mainAccount);
+        when(accountRepository.findAccountsByUuidInForUpdate(anyCollection())).thenReturn(List.of(mainAccount));
+
+        // when, then
+        assertThrows(DataNotFoundException.class, () -> bankLedgerService.debitShards(amounts));
+        assertEquals(BigDecimal.valueOf(100), mainAccount.getBalance());
+    }
+
+    @Test
+    void rollUp_shardBalancesMovedToMainAccount() {
+        // given
+        shard1.setBalance(BigDecimal.valueOf(5));
+        shard2.setBalance(BigDecimal.valueOf(-2));
+        when(accountRepository.findAccountsByClientUuidAndType(bankUuid, AccountType.BANK_SHARD))
+                .thenReturn(List.of(shard1, shard2));
+        when(accountRepository.findAccountsByUuidInForUpdate(anyCollection()))
+                .thenReturn(new ArrayList<>(List.of(mainAccount, shard1, shard2)));
+
+        // when
+        bankLedgerService.rollUp();
+
+        // then
+        assertEquals(BigDecimal.valueOf(103), mainAccount.getBalance());
+        assertEquals(BigDecimal.ZERO, shard1.getBalance());
+        assertEquals(BigDecimal.ZERO, shard2.getBalance());
+        verify(ledgerService).recordTransfer(null, shard1, BigDecimal.valueOf(5), mainAccount, BigDecimal.valueOf(5));
+        verify(ledgerService).recordTransfer(null, mainAccount, BigDecimal.valueOf(2), shard2, BigDecimal.valueOf(2));
+    }
+
+    @Test
+    void getLogicalBalance_sumsAllBankAccounts() {
+        // given
+        when(clientDatabaseService.calculateTotalBalanceByClientUuid(String.valueOf(bankUuid)))
+                .thenReturn(BigDecimal.valueOf(150));
+
+        // when
+        BigDecimal actual = bankLedgerService.getLogicalBalance();
+
+        // then
+        assertEquals(BigDecimal.valueOf(150), actual);
+    }
+
+    private Account createShard(String name, BigDecimal balance) {
+        return Account.builder()
+                .uuid(UUID.randomUUID())
+                .clientUuid(bankUuid)
+                .name(name)
+                .type(AccountType.BANK_SHARD)
+                .balance(balance)
+                .build();
+    }
+
+    private void stubBalances(Account... accounts) {
+        List<AccountBalance> balances = new ArrayList<>();
+        for (Account account : accounts) {
+            AccountBalance balance = mock(AccountBalance.class);
+            when(balance.getAccountUuid()).thenReturn(account.getUuid());
+            when(balance.getBalance()).thenReturn(account.getBalance());
+            balances.add(balance);
+        }
+        when(accountRepository.findBalancesByUuidIn(anyCollection())).thenReturn(balances);
+    }
+}
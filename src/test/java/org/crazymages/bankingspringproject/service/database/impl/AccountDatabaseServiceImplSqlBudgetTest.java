@@ -0,0 +1,110 @@
+package org.crazymages.bankingspringproject.service.database.impl;
+
+import org.crazymages.bankingspringproject.dto.AccountDto;
+import org.crazymages.bankingspringproject.dto.AgreementDto;
+import org.crazymages.bankingspringproject.dto.mapper.account.AccountCreationMapper;
+import org.crazymages.bankingspringproject.dto.mapper.account.AccountDtoMapper;
+import org.crazymages.bankingspringproject.dto.mapper.account.AccountUpdateMapper;
+import org.crazymages.bankingspringproject.dto.mapper.agreement.AgreementDtoMapper;
+import org.crazymages.bankingspringproject.entity.Product;
+import org.crazymages.bankingspringproject.entity.enums.AccountType;
+import org.crazymages.bankingspringproject.entity.enums.CurrencyCode;
+import org.crazymages.bankingspringproject.entity.enums.ProductStatus;
+import org.crazymages.bankingspringproject.entity.enums.ProductType;
+import org.crazymages.bankingspringproject.repository.AccountRepository;
+import org.crazymages.bankingspringproject.repository.BalanceSnapshotRepository;
+import org.crazymages.bankingspringproject.service.database.AccountDatabaseService;
+import org.crazymages.bankingspringproject.service.database.AgreementDatabaseService;
+import org.crazymages.bankingspringproject.service.database.ProductDatabaseService;
+import org.crazymages.bankingspringproject.service.utils.initializer.impl.AgreementInitializerImpl;
+import org.crazymages.bankingspringproject.service.utils.matcher.ProductTypeMatcher;
+import org.crazymages.bankingspringproject.service.ledger.impl.LedgerServiceImpl;
+import org.crazymages.bankingspringproject.service.utils.updater.impl.AccountUpdateServiceImpl;
+import org.crazymages.bankingspringproject.support.SqlStatementCounter;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Guards the number of SQL statements opening an account sends to the database.
+ * Product lookup and agreement creation are mocked because the products and agreements
+ * table DDL does not run on H2, so they are left out of the budget.
+ */
+@DataJpaTest
+@Import({AccountDatabaseServiceImpl.class, AccountUpdateServiceImpl.class, AccountDtoMapper.class,
+        AccountCreationMapper.class, AccountUpdateMapper.class, AgreementDtoMapper.class,
+        AgreementInitializerImpl.class, ProductTypeMatcher.class, LedgerServiceImpl.class,
+        SqlStatementCounter.Config.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class AccountDatabaseServiceImplSqlBudgetTest {
+
+    private static final int CREATE_BUDGET = 2;
+
+    @Autowired
+    AccountDatabaseService accountDatabaseService;
+    @Autowired
+    SqlStatementCounter sqlStatementCounter;
+    @Autowired
+    AccountRepository accountRepository;
+    @Autowired
+    BalanceSnapshotRepository balanceSnapshotRepository;
+
+    @MockBean
+    ProductDatabaseService productDatabaseService;
+    @MockBean
+    AgreementDatabaseService agreementDatabaseService;
+
+    @BeforeEach
+    void setUp() {
+        Product product = new Product();
+        product.setUuid(UUID.randomUUID());
+        product.setName("Current account");
+        product.setStatus(ProductStatus.ACTIVE);
+        product.setType(ProductType.CURRENT_ACCOUNT);
+        product.setCurrencyCode(CurrencyCode.EUR);
+        product.setInterestRate(BigDecimal.ZERO);
+        product.setLimitation(BigDecimal.valueOf(1_000));
+        when(productDatabaseService.findProductByTypeAndStatusAndCurrencyCode(
+                ProductType.CURRENT_ACCOUNT, ProductStatus.ACTIVE, CurrencyCode.EUR)).thenReturn(product);
+    }
+
+    @AfterEach
+    void tearDown() {
+        balanceSnapshotRepository.deleteAll();
+        accountRepository.deleteAll();
+    }
+
+    @Test
+    void create_accountWithAgreement_staysWithinStatementBudget() {
+        // given
+        AccountDto accountDto = AccountDto.builder()
+                .name("Current account")
+                .type(AccountType.CURRENT.name())
+                .currencyCode(CurrencyCode.EUR.name())
+                .build();
+        String clientUuid = UUID.randomUUID().toString();
+
+        // when
+        sqlStatementCounter.assertStatementBudget(CREATE_BUDGET,
+                () -> accountDatabaseService.create(accountDto, clientUuid));
+
+        // then
+        assertEquals(1, accountRepository.count());
+        assertEquals(1, balanceSnapshotRepository.count());
+        verify(agreementDatabaseService).create(any(AgreementDto.class));
+    }
+}
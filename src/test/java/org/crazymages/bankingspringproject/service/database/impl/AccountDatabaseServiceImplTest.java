@@ -10,6 +10,7 @@ import org.crazymages.bankingspringproject.exception.DataNotFoundException;
 import org.crazymages.bankingspringproject.repository.AccountRepository;
 import org.crazymages.bankingspringproject.service.database.AgreementDatabaseService;
 import org.crazymages.bankingspringproject.service.database.ProductDatabaseService;
+import org.crazymages.bankingspringproject.service.ledger.LedgerService;
 import org.crazymages.bankingspringproject.service.utils.initializer.AgreementInitializer;
 import org.crazymages.bankingspringproject.dto.mapper.account.AccountDtoMapper;
 import org.crazymages.bankingspringproject.dto.mapper.agreement.AgreementDtoMapper;
@@ -22,6 +23,7 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -52,6 +54,8 @@ class AccountDatabaseServiceImplTest {
     AgreementDtoMapper agreementDTOMapper;
     @Mock
     ProductTypeMatcher productTypeMatcher;
+    @Mock
+    LedgerService ledgerService;
 
     @InjectMocks
     AccountDatabaseServiceImpl accountDatabaseService;
@@ -84,6 +88,7 @@ class AccountDatabaseServiceImplTest {
         // then
         verify(accountDtoMapper).mapDtoToEntity(accountDto1);
         verify(accountRepository).save(account1);
+        verify(ledgerService).openAccount(account1);
     }
 
     @Test
@@ -113,6 +118,7 @@ class AccountDatabaseServiceImplTest {
         assertEquals(uuid, account1.getClientUuid());
         verify(accountCreationMapper).mapDtoToEntity(accountDto1);
         verify(accountRepository).save(account1);
+        verify(ledgerService).openAccount(account1);
         verify(productTypeMatcher).matchTypes(account1.getType());
         verify(productDatabaseService).findProductByTypeAndStatusAndCurrencyCode(type, status, currencyCode);
         verify(agreementInitializer).initializeAgreement(account1.getUuid(), product);
@@ -202,6 +208,59 @@ class AccountDatabaseServiceImplTest {
         assertThrows(IllegalArgumentException.class, () -> accountDatabaseService.findDtoById(null));
     }
 
+    @Test
+    void findByIdForUpdate_returnLockedAccountFromRepository_success() {
+        // given
+        when(accountRepository.findAccountByUuidForUpdate(uuid)).thenReturn(Optional.ofNullable(account1));
+
+        // when
+        Account actual = accountDatabaseService.findByIdForUpdate(uuid);
+
+        // then
+        assertEquals(account1, actual);
+        verify(accountRepository).findAccountByUuidForUpdate(uuid);
+        verify(accountRepository, never()).findById(uuid);
+    }
+
+    @Test
+    void findByIdForUpdate_nonExistentAccount_throwsDataNotFoundException() {
+        // given
+        when(accountRepository.findAccountByUuidForUpdate(uuid)).thenReturn(Optional.empty());
+
+        // when, then
+        assertThrows(DataNotFoundException.class, () -> accountDatabaseService.findByIdForUpdate(uuid));
+    }
+
+    @Test
+    void findByIdForUpdate_nullUuid_throwsIllegalArgumentException() {
+        assertThrows(IllegalArgumentException.class, () -> accountDatabaseService.findByIdForUpdate(null));
+    }
+
+    @Test
+    void findAllByIdForUpdate_returnLockedAccountsFromRepository_success() {
+        // given
+        List<UUID> uuids = List.of(uuid, clientUuid);
+        List<Account> expected = List.of(account1, account2);
+        when(accountRepository.findAccountsByUuidInForUpdate(uuids)).thenReturn(expected);
+
+        // when
+        List<Account> actual = accountDatabaseService.findAllByIdForUpdate(uuids);
+
+        // then
+        assertEquals(expected, actual);
+        verify(accountRepository).findAccountsByUuidInForUpdate(uuids);
+    }
+
+    @Test
+    void findAllByIdForUpdate_emptyCollection_noQueryExecuted() {
+        // when
+        List<Account> actual = accountDatabaseService.findAllByIdForUpdate(Collections.emptyList());
+
+        // then
+        assertTrue(actual.isEmpty());
+        verifyNoInteractions(accountRepository);
+    }
+
     @Test
     void findDtoById_invalidUuid_throwsIllegalArgumentException() {
         // given
@@ -0,0 +1,211 @@
+package org.crazymages.bankingspringproject.service.database.impl;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import org.crazymages.bankingspringproject.dto.ClientDto;
+import org.crazymages.bankingspringproject.dto.mapper.client.ClientCreationMapper;
+import org.crazymages.bankingspringproject.dto.mapper.client.ClientDtoMapper;
+import org.crazymages.bankingspringproject.entity.Client;
+import org.crazymages.bankingspringproject.repository.ClientRepository;
+import org.crazymages.bankingspringproject.service.database.AccountDatabaseService;
+import org.crazymages.bankingspringproject.service.database.ClientDatabaseService;
+import org.crazymages.bankingspringproject.service.database.ManagerDatabaseService;
+import org.crazymages.bankingspringproject.service.utils.updater.EntityUpdateService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.junit.jupiter.SpringJUnitConfig;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@SpringJUnitConfig(ClientDatabaseServiceImplCacheTest.CacheConfig.class)
+class ClientDatabaseServiceImplCacheTest {
+
+    @Autowired
+    ClientDatabaseService clientDatabaseService;
+    @Autowired
+    CacheManager cacheManager;
+
+    @MockBean
+    ClientRepository clientRepository;
+    @MockBean
+    ClientDtoMapper clientDtoMapper;
+    @MockBean
+    ClientCreationMapper clientCreationMapper;
+    @MockBean
+    EntityUpdateService<Client> clientUpdateService;
+    @MockBean
+    ManagerDatabaseService managerDatabaseService;
+    @MockBean
+    AccountDatabaseService accountDatabaseService;
+
+    UUID uuid;
+
+    @BeforeEach
+    void setUp() {
+        uuid = UUID.fromString("d358838e-1134-4101-85ac-5d99e8debfae");
+        cacheManager.getCache("clientStatus").clear();
+        when(clientRepository.isClientStatusBlocked(uuid)).thenReturn(false);
+    }
+
+    @Test
+    void isClientStatusActive_repeatedLookups_repositoryQueriedOnce() {
+        // given
+        CacheStats before = getStats();
+
+        // when
+        boolean first = clientDatabaseService.isClientStatusActive(uuid);
+        boolean second = clientDatabaseService.isClientStatusActive(uuid);
+
+        // then
+        assertTrue(first);
+        assertTrue(second);
+        verify(clientRepository, times(1)).isClientStatusBlocked(uuid);
+        CacheStats stats = getStats().minus(before);
+        assertEquals(1, stats.hitCount());
+        assertEquals(1, stats.missCount());
+    }
+
+    @Test
+    void blockClientById_cachedStatus_evicted() {
+        // given
+        clientDatabaseService.isClientStatusActive(uuid);
+        when(clientRepository.isClientStatusBlocked(uuid)).thenReturn(true);
+
+        // when
+        clientDatabaseService.blockClientById(uuid.toString());
+
+        // then
+        assertFalse(clientDatabaseService.isClientStatusActive(uuid));
+        verify(clientRepository, times(2)).isClientStatusBlocked(uuid);
+    }
+
+    @Test
+    void update_cachedStatus_evicted() {
+        // given
+        Client client = new Client();
+        ClientDto clientDto = ClientDto.builder().build();
+        when(clientCreationMapper.mapDtoToEntity(clientDto)).thenReturn(client);
+        when(clientRepository.findById(uuid)).thenReturn(Optional.of(client));
+        when(clientUpdateService.update(client, client)).thenReturn(client);
+        clientDatabaseService.isClientStatusActive(uuid);
+
+        // when
+        clientDatabaseService.update(uuid.toString(), clientDto);
+
+        // then
+        clientDatabaseService.isClientStatusActive(uuid);
+        verify(clientRepository, times(2)).isClientStatusBlocked(uuid);
+    }
+
+    @Test
+    void delete_cachedStatus_evicted() {
+        // given
+        when(clientRepository.findById(uuid)).thenReturn(Optional.of(new Client()));
+        clientDatabaseService.isClientStatusActive(uuid);
+
+        // when
+        clientDatabaseService.delete(uuid.toString());
+
+        // then
+        clientDatabaseService.isClientStatusActive(uuid);
+        verify(clientRepository, times(2)).isClientStatusBlocked(uuid);
+    }
+
+    @Test
+    void save_cachedStatus_evicted() {
+        // given
+        Client client = Client.builder().uuid(uuid).build();
+        clientDatabaseService.isClientStatusActive(uuid);
+
+        // when
+        clientDatabaseService.save(client);
+
+        // then
+        clientDatabaseService.isClientStatusActive(uuid);
+        verify(clientRepository, times(2)).isClientStatusBlocked(uuid);
+        verify(clientRepository).save(any(Client.class));
+    }
+
+    @Test
+    void blockClientById_withinTransaction_evictedAfterCommit() {
+        // given
+        clientDatabaseService.isClientStatusActive(uuid);
+        when(clientRepository.isClientStatusBlocked(uuid)).thenReturn(true);
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            // when
+            clientDatabaseService.blockClientById(uuid.toString());
+            boolean beforeCommit = clientDatabaseService.isClientStatusActive(uuid);
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+
+            // then
+            assertTrue(beforeCommit);
+            assertFalse(clientDatabaseService.isClientStatusActive(uuid));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void update_transactionRolledBack_cachedStatusKept() {
+        // given
+        Client client = new Client();
+        ClientDto clientDto = ClientDto.builder().build();
+        when(clientCreationMapper.mapDtoToEntity(clientDto)).thenReturn(client);
+        when(clientRepository.findById(uuid)).thenReturn(Optional.of(client));
+        when(clientUpdateService.update(client, client)).thenReturn(client);
+        clientDatabaseService.isClientStatusActive(uuid);
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            // when
+            clientDatabaseService.update(uuid.toString(), clientDto);
+            TransactionSynchronizationManager.getSynchronizations().forEach(synchronization ->
+                    synchronization.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        // then
+        clientDatabaseService.isClientStatusActive(uuid);
+        verify(clientRepository, times(1)).isClientStatusBlocked(uuid);
+    }
+
+    @Test
+    void isClientStatusActive_nullUuid_throwsIllegalArgumentException() {
+        // when, then
+        assertThrows(IllegalArgumentException.class, () -> clientDatabaseService.isClientStatusActive(null));
+    }
+
+    private CacheStats getStats() {
+        return ((CaffeineCache) cacheManager.getCache("clientStatus")).getNativeCache().stats();
+    }
+
+    @Configuration
+    @EnableCaching
+    @Import(ClientDatabaseServiceImpl.class)
+    static class CacheConfig {
+
+        @Bean
+        CacheManager cacheManager() {
+            CaffeineCacheManager cacheManager = new CaffeineCacheManager("clientStatus");
+            cacheManager.setCaffeine(Caffeine.newBuilder().maximumSize(100).recordStats());
+            return cacheManager;
+        }
+    }
+}
@@ -5,10 +5,13 @@ import org.crazymages.bankingspringproject.dto.mapper.client.ClientCreationMappe
 import org.crazymages.bankingspringproject.entity.Client;
 import org.crazymages.bankingspringproject.entity.Manager;
 import org.crazymages.bankingspringproject.entity.enums.AccountType;
+import org.crazymages.bankingspringproject.entity.enums.AgreementStatus;
 import org.crazymages.bankingspringproject.entity.enums.ClientStatus;
 import org.crazymages.bankingspringproject.entity.enums.ManagerStatus;
+import org.crazymages.bankingspringproject.entity.enums.ProductType;
 import org.crazymages.bankingspringproject.exception.DataNotFoundException;
 import org.crazymages.bankingspringproject.repository.ClientRepository;
+import org.crazymages.bankingspringproject.repository.ClientRepository.RecurringTransfer;
 import org.crazymages.bankingspringproject.service.database.AccountDatabaseService;
 import org.crazymages.bankingspringproject.service.database.ManagerDatabaseService;
 import org.crazymages.bankingspringproject.dto.mapper.client.ClientDtoMapper;
@@ -19,11 +22,16 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.domain.PageRequest;
 
 import java.math.BigDecimal;
+import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -43,6 +51,8 @@ class ClientDatabaseServiceImplTest {
     ManagerDatabaseService managerDatabaseService;
     @Mock
     AccountDatabaseService accountDatabaseService;
+    @Mock
+    CacheManager cacheManager;
 
     @InjectMocks
     ClientDatabaseServiceImpl clientDatabaseService;
@@ -329,7 +339,7 @@ class ClientDatabaseServiceImplTest {
     void isClientStatusActive_clientIsActive_success() {
         // given
         Boolean expected = true;
-        when(clientRepository.isClientStatusBlocked(uuid)).thenReturn(true);
+        when(clientRepository.isClientStatusBlocked(uuid)).thenReturn(false);
 
         // when
         Boolean actual = clientDatabaseService.isClientStatusActive(uuid);
@@ -343,7 +353,7 @@ class ClientDatabaseServiceImplTest {
     void isClientStatusActive_clientStatusBlocked_success() {
         // given
         Boolean expected = false;
-        when(clientRepository.isClientStatusBlocked(uuid)).thenReturn(false);
+        when(clientRepository.isClientStatusBlocked(uuid)).thenReturn(true);
 
         // when
         Boolean actual = clientDatabaseService.isClientStatusActive(uuid);
@@ -353,6 +363,36 @@ class ClientDatabaseServiceImplTest {
         verify(clientRepository).isClientStatusBlocked(uuid);
     }
 
+    @Test
+    void findActiveClientUuids_success() {
+        // given
+        UUID blockedUuid = UUID.randomUUID();
+        List<UUID> uuids = List.of(uuid, blockedUuid);
+        when(clientRepository.findNotBlockedClientUuids(uuids)).thenReturn(List.of(uuid));
+
+        // when
+        Set<UUID> actual = clientDatabaseService.findActiveClientUuids(uuids);
+
+        // then
+        assertEquals(Set.of(uuid), actual);
+        verify(clientRepository).findNotBlockedClientUuids(uuids);
+    }
+
+    @Test
+    void findActiveClientUuids_emptyCollection_noQueryExecuted() {
+        // when
+        Set<UUID> actual = clientDatabaseService.findActiveClientUuids(Collections.emptyList());
+
+        // then
+        assertTrue(actual.isEmpty());
+        verifyNoInteractions(clientRepository);
+    }
+
+    @Test
+    void findActiveClientUuids_nullCollection_throwsIllegalArgumentException() {
+        assertThrows(IllegalArgumentException.class, () -> clientDatabaseService.findActiveClientUuids(null));
+    }
+
     @Test
     void findClientsWithCurrentAndSavingsAccounts_success() {
         // given
@@ -369,6 +409,34 @@ class ClientDatabaseServiceImplTest {
         verify(clientRepository).findAllActiveClientsWithTwoDifferentAccountTypes(current, savings);
     }
 
+    @Test
+    void streamRecurringTransfersBetween_success() {
+        // given
+        UUID after = new UUID(0L, 0L);
+        UUID upTo = new UUID(Long.MAX_VALUE, -1L);
+        Stream<RecurringTransfer> expected = Stream.empty();
+        when(clientRepository.streamRecurringTransfersBetween(after, upTo, ClientStatus.ACTIVE, AccountType.CURRENT,
+                AccountType.SAVINGS, ProductType.SAVINGS_ACCOUNT, AgreementStatus.ACTIVE, PageRequest.ofSize(2)))
+                .thenReturn(expected);
+
+        // when
+        Stream<RecurringTransfer> actual = clientDatabaseService.streamRecurringTransfersBetween(after, upTo, 2);
+
+        // then
+        assertSame(expected, actual);
+    }
+
+    @Test
+    void streamRecurringTransfersBetween_nullAfter_throwsIllegalArgumentException() {
+        // given
+        UUID upTo = new UUID(-1L, -1L);
+
+        // when, then
+        assertThrows(IllegalArgumentException.class,
+                () -> clientDatabaseService.streamRecurringTransfersBetween(null, upTo, 2));
+        verifyNoInteractions(clientRepository);
+    }
+
     @Test
     void findClientsByStatus_success() {
         // given
@@ -0,0 +1,77 @@
+package org.crazymages.bankingspringproject.service.database.impl;
+
+import org.crazymages.bankingspringproject.dto.mapper.exchange_rate.CurrencyExchangeRateDtoMapper;
+import org.crazymages.bankingspringproject.repository.CurrencyExchangeRateRepository;
+import org.crazymages.bankingspringproject.service.database.CurrencyExchangeRateDatabaseService;
+import org.crazymages.bankingspringproject.support.SqlStatementCounter;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Guards the number of SQL statements a full exchange rate refresh sends to the database.
+ * Once the currencies exist, a refresh is one select plus one batched update of the changed rows.
+ */
+@DataJpaTest
+@Import({CurrencyExchangeRateDatabaseServiceImpl.class, CurrencyExchangeRateDtoMapper.class,
+        SqlStatementCounter.Config.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class CurrencyExchangeRateDatabaseServiceImplSqlBudgetTest {
+
+    private static final int CURRENCIES = 160;
+    private static final int CHANGED = 40;
+    private static final int REFRESH_BUDGET = 2;
+
+    @Autowired
+    CurrencyExchangeRateDatabaseService currencyExchangeRateDatabaseService;
+    @Autowired
+    CurrencyExchangeRateRepository currencyExchangeRateRepository;
+    @Autowired
+    SqlStatementCounter sqlStatementCounter;
+
+    Map<String, BigDecimal> rates;
+
+    @BeforeEach
+    void setUp() {
+        rates = new HashMap<>();
+        for (int i = 0; i < CURRENCIES; i++) {
+            rates.put(String.format("C%02d", i), BigDecimal.valueOf(i + 1, 2));
+        }
+        currencyExchangeRateDatabaseService.upsertAll(rates);
+    }
+
+    @AfterEach
+    void tearDown() {
+        currencyExchangeRateRepository.deleteAll();
+    }
+
+    @Test
+    void upsertAll_existingCurrencies_withinStatementBudget() {
+        // given
+        for (int i = 0; i < CHANGED; i++) {
+            rates.put(String.format("C%02d", i), BigDecimal.valueOf(i + 1000, 2));
+        }
+        int[] changed = new int[1];
+
+        // when
+        sqlStatementCounter.assertStatementBudget(REFRESH_BUDGET,
+                () -> changed[0] = currencyExchangeRateDatabaseService.upsertAll(rates));
+
+        // then
+        assertEquals(CHANGED, changed[0]);
+        assertEquals(0, currencyExchangeRateRepository.findByCurrencyCode("C00").orElseThrow()
+                .getExchangeRate().compareTo(BigDecimal.valueOf(1000, 2)));
+        assertEquals(CURRENCIES, currencyExchangeRateRepository.count());
+    }
+}
@@ -15,7 +15,9 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.math.BigDecimal;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -87,6 +89,41 @@ class CurrencyExchangeRateDatabaseServiceImplTest {
         assertEquals(expectedArgument.getExchangeRate(), currencyExchangeRate2.getExchangeRate());
     }
 
+    @SuppressWarnings("unchecked")
+    @Test
+    void upsertAll_newChangedAndUnchangedRates_onlyChangedRatesWritten() {
+        // given
+        currencyExchangeRate1.setCurrencyCode("EUR");
+        currencyExchangeRate1.setExchangeRate(new BigDecimal("0.92"));
+        currencyExchangeRate2.setCurrencyCode("AUD");
+        currencyExchangeRate2.setExchangeRate(new BigDecimal("1.50"));
+        when(currencyExchangeRateRepository.findAll()).thenReturn(List.of(currencyExchangeRate1, currencyExchangeRate2));
+        Map<String, BigDecimal> rates = new HashMap<>();
+        rates.put("EUR", new BigDecimal("0.95"));
+        rates.put("AUD", new BigDecimal("1.5"));
+        rates.put("GBP", new BigDecimal("0.79"));
+        ArgumentCaptor<List<CurrencyExchangeRate>> captor = ArgumentCaptor.forClass(List.class);
+
+        // when
+        int actual = currencyExchangeRateDatabaseService.upsertAll(rates);
+
+        // then
+        assertEquals(2, actual);
+        assertEquals(new BigDecimal("0.95"), currencyExchangeRate1.getExchangeRate());
+        assertEquals(new BigDecimal("1.50"), currencyExchangeRate2.getExchangeRate());
+        verify(currencyExchangeRateRepository).saveAll(captor.capture());
+        assertEquals(1, captor.getValue().size());
+        assertEquals("GBP", captor.getValue().get(0).getCurrencyCode());
+        verify(currencyExchangeRateRepository, never()).findByCurrencyCode(any());
+    }
+
+    @Test
+    void upsertAll_nullRates_throwsIllegalArgumentException() {
+        // when, then
+        assertThrows(IllegalArgumentException.class, () -> currencyExchangeRateDatabaseService.upsertAll(null));
+        verifyNoInteractions(currencyExchangeRateRepository);
+    }
+
     @Test
     void findAll_success() {
         // given
@@ -19,6 +19,7 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.math.BigDecimal;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -201,6 +202,35 @@ class ProductDatabaseServiceImplTest {
         verify(productRepository).findProductByTypeIsAndStatusIsAndCurrencyCodeIs(type, status, currencyCode);
     }
 
+    @Test
+    void findActiveProductLimitation_productExists_returnsLimitation() {
+        // given
+        product1.setLimitation(BigDecimal.valueOf(500));
+        when(productRepository.findProductByTypeIsAndStatusIsAndCurrencyCodeIs(
+                ProductType.CURRENT_ACCOUNT, ProductStatus.ACTIVE, CurrencyCode.EUR))
+                .thenReturn(Optional.of(product1));
+
+        // when
+        BigDecimal actual = productDatabaseService.findActiveProductLimitation(ProductType.CURRENT_ACCOUNT, CurrencyCode.EUR);
+
+        // then
+        assertEquals(BigDecimal.valueOf(500), actual);
+    }
+
+    @Test
+    void findActiveProductLimitation_noProduct_returnsZero() {
+        // given
+        when(productRepository.findProductByTypeIsAndStatusIsAndCurrencyCodeIs(
+                ProductType.CURRENT_ACCOUNT, ProductStatus.ACTIVE, CurrencyCode.EUR))
+                .thenReturn(Optional.empty());
+
+        // when
+        BigDecimal actual = productDatabaseService.findActiveProductLimitation(ProductType.CURRENT_ACCOUNT, CurrencyCode.EUR);
+
+        // then
+        assertEquals(BigDecimal.ZERO, actual);
+    }
+
     @Test
     void update_success() {
         // given
@@ -0,0 +1,332 @@
+package org.crazymages.bankingspringproject.service.database.impl;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.crazymages.bankingspringproject.dto.mapper.account.AccountCreationMapper;
+import org.crazymages.bankingspringproject.dto.mapper.account.AccountDtoMapper;
+import org.crazymages.bankingspringproject.dto.mapper.account.AccountUpdateMapper;
+import org.crazymages.bankingspringproject.dto.mapper.agreement.AgreementDtoMapper;
+import org.crazymages.bankingspringproject.dto.mapper.transaction.TransactionDtoMapper;
+import org.crazymages.bankingspringproject.dto.TransferResultDto;
+import org.crazymages.bankingspringproject.entity.Account;
+import org.crazymages.bankingspringproject.entity.LedgerEntry;
+import org.crazymages.bankingspringproject.entity.Transaction;
+import org.crazymages.bankingspringproject.entity.enums.AccountStatus;
+import org.crazymages.bankingspringproject.entity.enums.CurrencyCode;
+import org.crazymages.bankingspringproject.entity.enums.TransactionType;
+import org.crazymages.bankingspringproject.entity.enums.TransferStatus;
+import org.crazymages.bankingspringproject.repository.AccountRepository;
+import org.crazymages.bankingspringproject.repository.BalanceSnapshotRepository;
+import org.crazymages.bankingspringproject.repository.IdempotencyRecordRepository;
+import org.crazymages.bankingspringproject.repository.LedgerEntryRepository;
+import org.crazymages.bankingspringproject.repository.TransactionRepository;
+import org.crazymages.bankingspringproject.service.database.AgreementDatabaseService;
+import org.crazymages.bankingspringproject.service.database.ClientDatabaseService;
+import org.crazymages.bankingspringproject.service.database.ProductDatabaseService;
+import org.crazymages.bankingspringproject.service.database.TransactionDatabaseService;
+import org.crazymages.bankingspringproject.service.exchange.ExchangeQuoteService;
+import org.crazymages.bankingspringproject.service.idempotency.impl.IdempotencyServiceImpl;
+import org.crazymages.bankingspringproject.service.ledger.LedgerService;
+import org.crazymages.bankingspringproject.service.ledger.impl.LedgerServiceImpl;
+import org.crazymages.bankingspringproject.service.limit.SpendingLimitService;
+import org.crazymages.bankingspringproject.service.transfer.impl.RetryingTransferExecutor;
+import org.crazymages.bankingspringproject.service.utils.converter.CurrencyConverter;
+import org.crazymages.bankingspringproject.service.utils.initializer.AgreementInitializer;
+import org.crazymages.bankingspringproject.service.utils.lock.impl.StripedAccountLockManager;
+import org.crazymages.bankingspringproject.service.utils.matcher.ProductTypeMatcher;
+import org.crazymages.bankingspringproject.service.utils.updater.impl.AccountUpdateServiceImpl;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.dao.PessimisticLockingFailureException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.when;
+
+/**
+ * Stress test running many concurrent transfers over one hot account pair against an in-memory database.
+ */
+@Slf4j
+@DataJpaTest
+@Import({TransactionDatabaseServiceImpl.class, AccountDatabaseServiceImpl.class, AccountUpdateServiceImpl.class,
+        LedgerServiceImpl.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class TransactionDatabaseServiceImplConcurrencyTest {
+
+    private static final int THREADS = 8;
+    private static final int TRANSFERS_PER_THREAD = 100;
+    private static final int BATCH_SIZE = 20;
+    private static final BigDecimal INITIAL_BALANCE = BigDecimal.valueOf(10_000).setScale(2);
+
+    @Autowired
+    TransactionDatabaseService transactionDatabaseService;
+    @Autowired
+    AccountRepository accountRepository;
+    @Autowired
+    TransactionRepository transactionRepository;
+    @Autowired
+    LedgerEntryRepository ledgerEntryRepository;
+    @Autowired
+    BalanceSnapshotRepository balanceSnapshotRepository;
+    @SpyBean
+    LedgerService ledgerService;
+    @Autowired
+    IdempotencyRecordRepository idempotencyRecordRepository;
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    @MockBean
+    TransactionDtoMapper transactionDtoMapper;
+    @MockBean
+    ClientDatabaseService clientDatabaseService;
+    @MockBean
+    CurrencyConverter currencyConverter;
+    @MockBean
+    ExchangeQuoteService exchangeQuoteService;
+    @MockBean
+    SpendingLimitService spendingLimitService;
+    @MockBean
+    AccountDtoMapper accountDtoMapper;
+    @MockBean
+    AccountCreationMapper accountCreationMapper;
+    @MockBean
+    AccountUpdateMapper accountUpdateMapper;
+    @MockBean
+    ProductDatabaseService productDatabaseService;
+    @MockBean
+    AgreementDatabaseService agreementDatabaseService;
+    @MockBean
+    AgreementInitializer agreementInitializer;
+    @MockBean
+    AgreementDtoMapper agreementDtoMapper;
+    @MockBean
+    ProductTypeMatcher productTypeMatcher;
+
+    Account first;
+    Account second;
+
+    @BeforeEach
+    void setUp() {
+        when(clientDatabaseService.isClientStatusActive(any(UUID.class))).thenReturn(true);
+        when(clientDatabaseService.findActiveClientUuids(anyCollection()))
+                .thenAnswer(invocation -> new HashSet<UUID>(invocation.getArgument(0)));
+        first = accountRepository.save(createAccount());
+        second = accountRepository.save(createAccount());
+        ledgerService.openAccount(first);
+        ledgerService.openAccount(second);
+    }
+
+    @AfterEach
+    void tearDown() {
+        idempotencyRecordRepository.deleteAll();
+        balanceSnapshotRepository.deleteAll();
+        ledgerEntryRepository.deleteAll();
+        transactionRepository.deleteAll();
+        accountRepository.deleteAll();
+    }
+
+    @Test
+    void transferFunds_concurrentTransfersOnHotAccountPair_moneyIsConserved() throws Exception {
+        // given
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        List<Future<BigDecimal>> results = new ArrayList<>();
+
+        // when
+        long start = System.nanoTime();
+        for (int i = 0; i < THREADS; i++) {
+            boolean forward = i % 2 == 0;
+            results.add(executor.submit(() -> runTransfers(forward)));
+        }
+        BigDecimal movedForward = BigDecimal.ZERO;
+        for (Future<BigDecimal> result : results) {
+            movedForward = movedForward.add(result.get(2, TimeUnit.MINUTES));
+        }
+        long elapsedNanos = System.nanoTime() - start;
+        executor.shutdown();
+
+        // then
+        int transfers = THREADS * TRANSFERS_PER_THREAD;
+        log.info("{} transfers on a hot account pair in {} ms, {} transfers/s",
+                transfers, elapsedNanos / 1_000_000, transfers * 1_000_000_000L / elapsedNanos);
+
+        BigDecimal firstBalance = accountRepository.findById(first.getUuid()).orElseThrow().getBalance();
+        BigDecimal secondBalance = accountRepository.findById(second.getUuid()).orElseThrow().getBalance();
+        assertEquals(0, INITIAL_BALANCE.add(INITIAL_BALANCE).compareTo(firstBalance.add(secondBalance)));
+        assertEquals(0, INITIAL_BALANCE.subtract(movedForward).compareTo(firstBalance));
+        assertEquals(0, INITIAL_BALANCE.add(movedForward).compareTo(secondBalance));
+        assertEquals(transfers, transactionRepository.count());
+        assertEquals(2L * transfers, ledgerEntryRepository.count());
+        assertEquals(0, firstBalance.compareTo(ledgerService.getBalance(first.getUuid())));
+        assertEquals(0, secondBalance.compareTo(ledgerService.getBalance(second.getUuid())));
+    }
+
+    @Test
+    void compactSnapshots_afterConcurrentTransfers_derivedBalancesMatchAccounts() throws Exception {
+        // given
+        ledgerService.compactSnapshots();
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        List<Future<BigDecimal>> results = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            boolean forward = i % 2 == 0;
+            results.add(executor.submit(() -> runTransfers(forward)));
+        }
+
+        // when
+        int compacted = ledgerService.compactSnapshots();
+        for (Future<BigDecimal> result : results) {
+            result.get(2, TimeUnit.MINUTES);
+        }
+        executor.shutdown();
+        ledgerService.compactSnapshots();
+
+        // then
+        assertTrue(compacted <= 2);
+        BigDecimal firstBalance = accountRepository.findById(first.getUuid()).orElseThrow().getBalance();
+        BigDecimal secondBalance = accountRepository.findById(second.getUuid()).orElseThrow().getBalance();
+        assertEquals(0, firstBalance.compareTo(ledgerService.getBalance(first.getUuid())));
+        assertEquals(0, secondBalance.compareTo(ledgerService.getBalance(second.getUuid())));
+        assertEquals(0, firstBalance.compareTo(balanceSnapshotRepository.findById(first.getUuid()).orElseThrow().getBalance()));
+    }
+
+    @Test
+    void transferFundsBatch_concurrentWithSingleTransfers_moneyIsConserved() throws Exception {
+        // given
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        List<Future<BigDecimal>> results = new ArrayList<>();
+
+        // when
+        for (int i = 0; i < THREADS; i++) {
+            boolean forward = i % 2 == 0;
+            results.add(executor.submit(i < THREADS / 2 ? () -> runTransfers(forward) : () -> runBatches(forward)));
+        }
+        BigDecimal movedForward = BigDecimal.ZERO;
+        for (Future<BigDecimal> result : results) {
+            movedForward = movedForward.add(result.get(2, TimeUnit.MINUTES));
+        }
+        executor.shutdown();
+
+        // then
+        BigDecimal firstBalance = accountRepository.findById(first.getUuid()).orElseThrow().getBalance();
+        BigDecimal secondBalance = accountRepository.findById(second.getUuid()).orElseThrow().getBalance();
+        assertEquals(0, INITIAL_BALANCE.add(INITIAL_BALANCE).compareTo(firstBalance.add(secondBalance)));
+        assertEquals(0, INITIAL_BALANCE.subtract(movedForward).compareTo(firstBalance));
+        assertEquals(THREADS * TRANSFERS_PER_THREAD, transactionRepository.count());
+    }
+
+    @Test
+    void execute_conflictAfterTransactionSaved_retryPersistsFreshIds() {
+        // given
+        RetryingTransferExecutor transferExecutor = new RetryingTransferExecutor(transactionDatabaseService,
+                new StripedAccountLockManager(16), new SimpleMeterRegistry(), 3, 1, 2, 10);
+        doThrow(new PessimisticLockingFailureException("lock timeout")).doCallRealMethod()
+                .when(ledgerService).recordTransfer(any(), any(), any(), any(), any());
+        Transaction transaction = createTransfer(true, BigDecimal.TEN);
+
+        // when
+        transferExecutor.execute(transaction);
+
+        // then
+        List<Transaction> persisted = transactionRepository.findAll();
+        assertEquals(1, persisted.size());
+        assertEquals(persisted.get(0).getUuid(), transaction.getUuid());
+        List<LedgerEntry> entries = ledgerEntryRepository.findAll();
+        assertEquals(2, entries.size());
+        assertTrue(entries.stream().allMatch(entry -> transaction.getUuid().equals(entry.getTransactionUuid())));
+        assertEquals(0, INITIAL_BALANCE.subtract(BigDecimal.TEN)
+                .compareTo(accountRepository.findById(first.getUuid()).orElseThrow().getBalance()));
+    }
+
+    @Test
+    void execute_conflictInIdempotentRequest_wholeRequestRetried() {
+        // given
+        RetryingTransferExecutor transferExecutor = new RetryingTransferExecutor(transactionDatabaseService,
+                new StripedAccountLockManager(16), new SimpleMeterRegistry(), 3, 1, 2, 10);
+        IdempotencyServiceImpl idempotencyService = new IdempotencyServiceImpl(idempotencyRecordRepository,
+                new ObjectMapper(), transactionManager, 60, 60, 100, 3, 1, 2);
+        doThrow(new PessimisticLockingFailureException("lock timeout")).doCallRealMethod()
+                .when(ledgerService).recordTransfer(any(), any(), any(), any(), any());
+        Transaction transaction = createTransfer(true, BigDecimal.TEN);
+
+        // when
+        ResponseEntity<String> actual = idempotencyService.execute("key", "transaction/transfer", transaction,
+                String.class, () -> {
+                    transferExecutor.execute(transaction);
+                    return ResponseEntity.ok().build();
+                });
+
+        // then
+        assertEquals(HttpStatus.OK, actual.getStatusCode());
+        assertEquals(1, transactionRepository.count());
+        assertEquals(2, ledgerEntryRepository.count());
+        assertEquals(HttpStatus.OK.value(), idempotencyRecordRepository.findAll().get(0).getResponseStatus());
+        assertEquals(0, INITIAL_BALANCE.subtract(BigDecimal.TEN)
+                .compareTo(accountRepository.findById(first.getUuid()).orElseThrow().getBalance()));
+    }
+
+    private BigDecimal runBatches(boolean forward) {
+        BigDecimal movedForward = BigDecimal.ZERO;
+        for (int batch = 0; batch < TRANSFERS_PER_THREAD / BATCH_SIZE; batch++) {
+            List<Transaction> transactions = new ArrayList<>();
+            for (int i = 0; i < BATCH_SIZE; i++) {
+                BigDecimal amount = BigDecimal.valueOf(i % 10 + 1);
+                transactions.add(createTransfer(forward, amount));
+                movedForward = forward ? movedForward.add(amount) : movedForward.subtract(amount);
+            }
+            List<TransferResultDto> results = transactionDatabaseService.transferFundsBatch(transactions);
+            assertTrue(results.stream().allMatch(r -> TransferStatus.COMPLETED.name().equals(r.getStatus())));
+        }
+        return movedForward;
+    }
+
+    private BigDecimal runTransfers(boolean forward) {
+        BigDecimal movedForward = BigDecimal.ZERO;
+        for (int i = 0; i < TRANSFERS_PER_THREAD; i++) {
+            BigDecimal amount = BigDecimal.valueOf(i % 10 + 1);
+            transactionDatabaseService.transferFunds(createTransfer(forward, amount));
+            movedForward = forward ? movedForward.add(amount) : movedForward.subtract(amount);
+        }
+        return movedForward;
+    }
+
+    private Transaction createTransfer(boolean forward, BigDecimal amount) {
+        Transaction transaction = new Transaction();
+        transaction.setDebitAccountUuid(forward ? first.getUuid() : second.getUuid());
+        transaction.setCreditAccountUuid(forward ? second.getUuid() : first.getUuid());
+        transaction.setType(TransactionType.TRANSFER);
+        transaction.setAmount(amount);
+        return transaction;
+    }
+
+    private Account createAccount() {
+        Account account = new Account();
+        account.setClientUuid(UUID.randomUUID());
+        account.setStatus(AccountStatus.ACTIVE);
+        account.setCurrencyCode(CurrencyCode.EUR);
+        account.setBalance(INITIAL_BALANCE);
+        return account;
+    }
+}
@@ -0,0 +1,201 @@
+package org.crazymages.bankingspringproject.service.database.impl;
+
+import org.crazymages.bankingspringproject.dto.mapper.account.AccountCreationMapper;
+import org.crazymages.bankingspringproject.dto.mapper.account.AccountDtoMapper;
+import org.crazymages.bankingspringproject.dto.mapper.account.AccountUpdateMapper;
+import org.crazymages.bankingspringproject.dto.mapper.agreement.AgreementDtoMapper;
+import org.crazymages.bankingspringproject.dto.mapper.client.ClientCreationMapper;
+import org.crazymages.bankingspringproject.dto.mapper.client.ClientDtoMapper;
+import org.crazymages.bankingspringproject.dto.mapper.transaction.TransactionDtoMapper;
+import org.crazymages.bankingspringproject.entity.Account;
+import org.crazymages.bankingspringproject.entity.Client;
+import org.crazymages.bankingspringproject.entity.Transaction;
+import org.crazymages.bankingspringproject.entity.enums.AccountStatus;
+import org.crazymages.bankingspringproject.entity.enums.ClientStatus;
+import org.crazymages.bankingspringproject.entity.enums.CurrencyCode;
+import org.crazymages.bankingspringproject.entity.enums.TransactionType;
+import org.crazymages.bankingspringproject.repository.AccountRepository;
+import org.crazymages.bankingspringproject.repository.ClientRepository;
+import org.crazymages.bankingspringproject.repository.LedgerEntryRepository;
+import org.crazymages.bankingspringproject.repository.TransactionRepository;
+import org.crazymages.bankingspringproject.service.database.AgreementDatabaseService;
+import org.crazymages.bankingspringproject.service.database.ManagerDatabaseService;
+import org.crazymages.bankingspringproject.service.database.ProductDatabaseService;
+import org.crazymages.bankingspringproject.service.database.TransactionDatabaseService;
+import org.crazymages.bankingspringproject.service.exchange.ExchangeQuoteService;
+import org.crazymages.bankingspringproject.service.ledger.impl.LedgerServiceImpl;
+import org.crazymages.bankingspringproject.service.limit.SpendingLimitService;
+import org.crazymages.bankingspringproject.service.utils.converter.CurrencyConverter;
+import org.crazymages.bankingspringproject.service.utils.initializer.AgreementInitializer;
+import org.crazymages.bankingspringproject.service.utils.matcher.ProductTypeMatcher;
+import org.crazymages.bankingspringproject.service.utils.updater.impl.AccountUpdateServiceImpl;
+import org.crazymages.bankingspringproject.service.utils.updater.impl.ClientUpdateServiceImpl;
+import org.crazymages.bankingspringproject.support.SqlStatementCounter;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Guards the number of SQL statements a transfer sends to the database.
+ */
+@DataJpaTest
+@Import({TransactionDatabaseServiceImpl.class, AccountDatabaseServiceImpl.class, AccountUpdateServiceImpl.class,
+        ClientDatabaseServiceImpl.class, ClientUpdateServiceImpl.class, LedgerServiceImpl.class,
+        SqlStatementCounter.Config.class, TransactionDatabaseServiceImplSqlBudgetTest.CacheConfig.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class TransactionDatabaseServiceImplSqlBudgetTest {
+
+    /**
+     * Two account locks, then the ledger entries, the transaction insert and the account updates
+     * as one JDBC batch each; client statuses come from the warmed cache.
+     */
+    private static final int TRANSFER_BUDGET = 5;
+    private static final int BATCH_SIZE = 10;
+    /**
+     * Lock, status check and three JDBC batches, whatever the size of the batch:
+     * ledger ids are drawn by the insert itself, so they cost no extra round trip.
+     */
+    private static final int BATCH_BUDGET = 5;
+
+    @Autowired
+    TransactionDatabaseService transactionDatabaseService;
+    @Autowired
+    SqlStatementCounter sqlStatementCounter;
+    @Autowired
+    AccountRepository accountRepository;
+    @Autowired
+    ClientRepository clientRepository;
+    @Autowired
+    TransactionRepository transactionRepository;
+    @Autowired
+    LedgerEntryRepository ledgerEntryRepository;
+
+    @MockBean
+    TransactionDtoMapper transactionDtoMapper;
+    @MockBean
+    CurrencyConverter currencyConverter;
+    @MockBean
+    ExchangeQuoteService exchangeQuoteService;
+    @MockBean
+    SpendingLimitService spendingLimitService;
+    @MockBean
+    AccountDtoMapper accountDtoMapper;
+    @MockBean
+    AccountCreationMapper accountCreationMapper;
+    @MockBean
+    AccountUpdateMapper accountUpdateMapper;
+    @MockBean
+    ProductDatabaseService productDatabaseService;
+    @MockBean
+    AgreementDatabaseService agreementDatabaseService;
+    @MockBean
+    AgreementInitializer agreementInitializer;
+    @MockBean
+    AgreementDtoMapper agreementDtoMapper;
+    @MockBean
+    ProductTypeMatcher productTypeMatcher;
+    @MockBean
+    ClientDtoMapper clientDtoMapper;
+    @MockBean
+    ClientCreationMapper clientCreationMapper;
+    @MockBean
+    ManagerDatabaseService managerDatabaseService;
+
+    Account sender;
+    Account recipient;
+
+    @BeforeEach
+    void setUp() {
+        sender = accountRepository.save(createAccount(clientRepository.save(createClient("sender@mail.com"))));
+        recipient = accountRepository.save(createAccount(clientRepository.save(createClient("recipient@mail.com"))));
+    }
+
+    @AfterEach
+    void tearDown() {
+        ledgerEntryRepository.deleteAll();
+        transactionRepository.deleteAll();
+        accountRepository.deleteAll();
+        clientRepository.deleteAll();
+    }
+
+    @Test
+    void transferFunds_singleTransfer_staysWithinStatementBudget() {
+        // given
+        transactionDatabaseService.transferFunds(createTransfer(BigDecimal.ONE));
+        Transaction transaction = createTransfer(BigDecimal.TEN);
+
+        // when
+        sqlStatementCounter.assertStatementBudget(TRANSFER_BUDGET,
+                () -> transactionDatabaseService.transferFunds(transaction));
+
+        // then
+        assertEquals(2, transactionRepository.count());
+    }
+
+    @Test
+    void transferFundsBatch_severalTransfers_staysWithinStatementBudget() {
+        // given
+        List<Transaction> transactions = IntStream.range(0, BATCH_SIZE)
+                .mapToObj(i -> createTransfer(BigDecimal.ONE))
+                .toList();
+
+        // when
+        sqlStatementCounter.assertStatementBudget(BATCH_BUDGET,
+                () -> transactionDatabaseService.transferFundsBatch(transactions));
+
+        // then
+        assertEquals(BATCH_SIZE, transactionRepository.count());
+    }
+
+    @TestConfiguration
+    @EnableCaching
+    static class CacheConfig {
+
+        @Bean
+        CacheManager cacheManager() {
+            return new CaffeineCacheManager("clientStatus");
+        }
+    }
+
+    private Transaction createTransfer(BigDecimal amount) {
+        Transaction transaction = new Transaction();
+        transaction.setDebitAccountUuid(sender.getUuid());
+        transaction.setCreditAccountUuid(recipient.getUuid());
+        transaction.setType(TransactionType.TRANSFER);
+        transaction.setAmount(amount);
+        return transaction;
+    }
+
+    private Account createAccount(Client client) {
+        Account account = new Account();
+        account.setClientUuid(client.getUuid());
+        account.setStatus(AccountStatus.ACTIVE);
+        account.setCurrencyCode(CurrencyCode.EUR);
+        account.setBalance(BigDecimal.valueOf(1_000));
+        return account;
+    }
+
+    private Client createClient(String email) {
+        Client client = new Client();
+        client.setStatus(ClientStatus.ACTIVE);
+        client.setEmail(email);
+        return client;
+    }
+}
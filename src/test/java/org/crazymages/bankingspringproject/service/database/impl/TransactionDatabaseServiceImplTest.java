@@ -2,25 +2,34 @@ package org.crazymages.bankingspringproject.service.database.impl;
 
 import org.crazymages.bankingspringproject.dto.AccountDto;
 import org.crazymages.bankingspringproject.dto.TransactionDto;
+import org.crazymages.bankingspringproject.dto.TransferResultDto;
 import org.crazymages.bankingspringproject.entity.Account;
 import org.crazymages.bankingspringproject.entity.Transaction;
 import org.crazymages.bankingspringproject.entity.enums.AccountStatus;
 import org.crazymages.bankingspringproject.entity.enums.CurrencyCode;
+import org.crazymages.bankingspringproject.entity.enums.TransferStatus;
 import org.crazymages.bankingspringproject.exception.DataNotFoundException;
 import org.crazymages.bankingspringproject.exception.InsufficientFundsException;
+import org.crazymages.bankingspringproject.exception.SpendingLimitExceededException;
 import org.crazymages.bankingspringproject.exception.TransactionNotAllowedException;
 import org.crazymages.bankingspringproject.repository.TransactionRepository;
 import org.crazymages.bankingspringproject.service.database.AccountDatabaseService;
 import org.crazymages.bankingspringproject.service.database.ClientDatabaseService;
+import org.crazymages.bankingspringproject.service.exchange.ExchangeQuoteService;
+import org.crazymages.bankingspringproject.service.ledger.LedgerService;
+import org.crazymages.bankingspringproject.service.limit.SpendingLimitService;
 import org.crazymages.bankingspringproject.service.utils.converter.CurrencyConverter;
 import org.crazymages.bankingspringproject.dto.mapper.account.AccountDtoMapper;
 import org.crazymages.bankingspringproject.dto.mapper.transaction.TransactionDtoMapper;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import java.math.BigDecimal;
 import java.sql.Timestamp;
@@ -29,6 +38,7 @@ import java.time.format.DateTimeParseException;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -49,6 +59,12 @@ class TransactionDatabaseServiceImplTest {
     ClientDatabaseService clientDatabaseService;
     @Mock
     CurrencyConverter currencyConverter;
+    @Mock
+    ExchangeQuoteService exchangeQuoteService;
+    @Mock
+    LedgerService ledgerService;
+    @Mock
+    SpendingLimitService spendingLimitService;
 
     @InjectMocks
     TransactionDatabaseServiceImpl transactionDatabaseService;
@@ -276,11 +292,11 @@ class TransactionDatabaseServiceImplTest {
     @Test
     void transferFunds_validData_sameCurrency_success() {
         // given
-        BigDecimal amount = BigDecimal.valueOf(100);
+        BigDecimal amount = new BigDecimal("100.00");
         transaction.setAmount(amount);
 
-        when(accountDatabaseService.findById(transaction.getDebitAccountUuid())).thenReturn(sender);
-        when(accountDatabaseService.findById(transaction.getCreditAccountUuid())).thenReturn(recipient);
+        when(accountDatabaseService.findByIdForUpdate(transaction.getDebitAccountUuid())).thenReturn(sender);
+        when(accountDatabaseService.findByIdForUpdate(transaction.getCreditAccountUuid())).thenReturn(recipient);
         when(clientDatabaseService.isClientStatusActive(sender.getClientUuid())).thenReturn(true);
         when(clientDatabaseService.isClientStatusActive(recipient.getClientUuid())).thenReturn(true);
 
@@ -288,17 +304,92 @@ class TransactionDatabaseServiceImplTest {
         transactionDatabaseService.transferFunds(transaction);
 
         // then
-        verify(accountDatabaseService).findById(transaction.getDebitAccountUuid());
-        verify(accountDatabaseService).findById(transaction.getCreditAccountUuid());
+        verify(accountDatabaseService).findByIdForUpdate(transaction.getDebitAccountUuid());
+        verify(accountDatabaseService).findByIdForUpdate(transaction.getCreditAccountUuid());
         verify(clientDatabaseService).isClientStatusActive(sender.getClientUuid());
         verify(clientDatabaseService).isClientStatusActive(recipient.getClientUuid());
         verify(accountDatabaseService).update(sender.getUuid(), sender);
         verify(accountDatabaseService).update(recipient.getUuid(), recipient);
         verify(transactionRepository).save(transaction);
+        verify(ledgerService).recordTransfer(transaction.getUuid(), sender, amount, recipient, amount);
+        verify(spendingLimitService).checkLimit(transaction, sender);
         verifyNoInteractions(currencyConverter);
         assertEquals(recipient.getBalance(), amount);
     }
 
+    @Test
+    void transferFunds_spendingLimitExceeded_throwsSpendingLimitExceededException() {
+        // given
+        BigDecimal amount = BigDecimal.valueOf(100);
+        transaction.setAmount(amount);
+
+        when(accountDatabaseService.findByIdForUpdate(transaction.getDebitAccountUuid())).thenReturn(sender);
+        when(accountDatabaseService.findByIdForUpdate(transaction.getCreditAccountUuid())).thenReturn(recipient);
+        when(clientDatabaseService.isClientStatusActive(sender.getClientUuid())).thenReturn(true);
+        when(clientDatabaseService.isClientStatusActive(recipient.getClientUuid())).thenReturn(true);
+        doThrow(new SpendingLimitExceededException("Daily spending limit exceeded"))
+                .when(spendingLimitService).checkLimit(transaction, sender);
+
+        // when, then
+        assertThrows(SpendingLimitExceededException.class, () -> transactionDatabaseService.transferFunds(transaction));
+        verify(accountDatabaseService, never()).update(any(UUID.class), any(Account.class));
+        verifyNoInteractions(transactionRepository);
+        verifyNoInteractions(ledgerService);
+    }
+
+    @Test
+    void transferFunds_locksAccountsInAscendingUuidOrder_success() {
+        // given
+        BigDecimal amount = BigDecimal.valueOf(100);
+        transaction.setAmount(amount);
+
+        when(accountDatabaseService.findByIdForUpdate(transaction.getDebitAccountUuid())).thenReturn(sender);
+        when(accountDatabaseService.findByIdForUpdate(transaction.getCreditAccountUuid())).thenReturn(recipient);
+        when(clientDatabaseService.isClientStatusActive(sender.getClientUuid())).thenReturn(true);
+        when(clientDatabaseService.isClientStatusActive(recipient.getClientUuid())).thenReturn(true);
+
+        // when
+        transactionDatabaseService.transferFunds(transaction);
+
+        // then
+        InOrder inOrder = inOrder(accountDatabaseService);
+        inOrder.verify(accountDatabaseService).findByIdForUpdate(transaction.getCreditAccountUuid());
+        inOrder.verify(accountDatabaseService).findByIdForUpdate(transaction.getDebitAccountUuid());
+    }
+
+    @Test
+    void transferFunds_optimisticLocking_readsAccountsWithoutRowLocks() {
+        // given
+        ReflectionTestUtils.setField(transactionDatabaseService, "optimisticLocking", true);
+        BigDecimal amount = new BigDecimal("100.00");
+        transaction.setAmount(amount);
+
+        when(accountDatabaseService.findById(transaction.getDebitAccountUuid())).thenReturn(sender);
+        when(accountDatabaseService.findById(transaction.getCreditAccountUuid())).thenReturn(recipient);
+        when(clientDatabaseService.isClientStatusActive(sender.getClientUuid())).thenReturn(true);
+        when(clientDatabaseService.isClientStatusActive(recipient.getClientUuid())).thenReturn(true);
+
+        // when
+        transactionDatabaseService.transferFunds(transaction);
+
+        // then
+        verify(accountDatabaseService, never()).findByIdForUpdate(any(UUID.class));
+        verify(accountDatabaseService).update(sender.getUuid(), sender);
+        verify(accountDatabaseService).update(recipient.getUuid(), recipient);
+        assertEquals(amount, recipient.getBalance());
+    }
+
+    @Test
+    void transferFunds_nullAccountUuid_throwsIllegalArgumentException() {
+        // given
+        transaction.setAmount(BigDecimal.valueOf(100));
+        transaction.setCreditAccountUuid(null);
+
+        // when, then
+        assertThrows(IllegalArgumentException.class, () -> transactionDatabaseService.transferFunds(transaction));
+        verifyNoInteractions(accountDatabaseService);
+    }
+
     @Test
     void transferFunds_validData_differentCurrencies_success() {
         // given
@@ -307,18 +398,18 @@ class TransactionDatabaseServiceImplTest {
         sender.setCurrencyCode(CurrencyCode.GBP);
         recipient.setCurrencyCode(CurrencyCode.AUD);
 
-        when(accountDatabaseService.findById(transaction.getDebitAccountUuid())).thenReturn(sender);
-        when(accountDatabaseService.findById(transaction.getCreditAccountUuid())).thenReturn(recipient);
+        when(accountDatabaseService.findByIdForUpdate(transaction.getDebitAccountUuid())).thenReturn(sender);
+        when(accountDatabaseService.findByIdForUpdate(transaction.getCreditAccountUuid())).thenReturn(recipient);
         when(clientDatabaseService.isClientStatusActive(sender.getClientUuid())).thenReturn(true);
         when(clientDatabaseService.isClientStatusActive(recipient.getClientUuid())).thenReturn(true);
-        when(currencyConverter.performCurrencyConversion(amount, recipient, sender)).thenReturn(recipient);
+        when(currencyConverter.convert(amount, CurrencyCode.GBP, CurrencyCode.AUD)).thenReturn(BigDecimal.valueOf(190));
 
         // when
         transactionDatabaseService.transferFunds(transaction);
 
         // then
-        verify(accountDatabaseService).findById(transaction.getDebitAccountUuid());
-        verify(accountDatabaseService).findById(transaction.getCreditAccountUuid());
+        verify(accountDatabaseService).findByIdForUpdate(transaction.getDebitAccountUuid());
+        verify(accountDatabaseService).findByIdForUpdate(transaction.getCreditAccountUuid());
         verify(clientDatabaseService).isClientStatusActive(sender.getClientUuid());
         verify(clientDatabaseService).isClientStatusActive(recipient.getClientUuid());
         verify(accountDatabaseService).update(sender.getUuid(), sender);
@@ -326,24 +417,88 @@ class TransactionDatabaseServiceImplTest {
         verify(transactionRepository).save(transaction);
     }
 
+    @Test
+    void transferFunds_withQuoteId_convertsAtQuotedRate() {
+        // given
+        BigDecimal amount = BigDecimal.valueOf(100);
+        transaction.setAmount(amount);
+        transaction.setQuoteId("1f");
+        sender.setCurrencyCode(CurrencyCode.GBP);
+        recipient.setCurrencyCode(CurrencyCode.AUD);
+        long crossRate = 1_900_000_000_000L;
+
+        when(accountDatabaseService.findByIdForUpdate(transaction.getDebitAccountUuid())).thenReturn(sender);
+        when(accountDatabaseService.findByIdForUpdate(transaction.getCreditAccountUuid())).thenReturn(recipient);
+        when(clientDatabaseService.isClientStatusActive(sender.getClientUuid())).thenReturn(true);
+        when(clientDatabaseService.isClientStatusActive(recipient.getClientUuid())).thenReturn(true);
+        when(exchangeQuoteService.getQuotedCrossRate("1f", CurrencyCode.GBP, CurrencyCode.AUD)).thenReturn(crossRate);
+        when(currencyConverter.convert(amount, CurrencyCode.GBP, CurrencyCode.AUD, crossRate))
+                .thenReturn(BigDecimal.valueOf(190));
+
+        // when
+        transactionDatabaseService.transferFunds(transaction);
+
+        // then
+        verify(currencyConverter).convert(amount, CurrencyCode.GBP, CurrencyCode.AUD, crossRate);
+        verify(currencyConverter, never()).convert(amount, CurrencyCode.GBP, CurrencyCode.AUD);
+        verify(transactionRepository).save(transaction);
+    }
+
+    @Test
+    void transferFunds_withExpiredQuote_throwsDataNotFoundException() {
+        // given
+        BigDecimal amount = BigDecimal.valueOf(100);
+        BigDecimal senderBalance = sender.getBalance();
+        transaction.setAmount(amount);
+        transaction.setQuoteId("1f");
+        sender.setCurrencyCode(CurrencyCode.GBP);
+        recipient.setCurrencyCode(CurrencyCode.AUD);
+
+        when(accountDatabaseService.findByIdForUpdate(transaction.getDebitAccountUuid())).thenReturn(sender);
+        when(accountDatabaseService.findByIdForUpdate(transaction.getCreditAccountUuid())).thenReturn(recipient);
+        when(clientDatabaseService.isClientStatusActive(sender.getClientUuid())).thenReturn(true);
+        when(clientDatabaseService.isClientStatusActive(recipient.getClientUuid())).thenReturn(true);
+        when(exchangeQuoteService.getQuotedCrossRate("1f", CurrencyCode.GBP, CurrencyCode.AUD))
+                .thenThrow(new DataNotFoundException("1f"));
+
+        // when, then
+        assertThrows(DataNotFoundException.class, () -> transactionDatabaseService.transferFunds(transaction));
+        assertEquals(senderBalance, sender.getBalance());
+        verify(transactionRepository, never()).save(any(Transaction.class));
+    }
+
     @Test
     void transferFunds_withNegativeAmount_throwsIllegalArgumentException() {
         // given
         BigDecimal amount = BigDecimal.valueOf(-100);
         transaction.setAmount(amount);
 
-        when(accountDatabaseService.findById(transaction.getDebitAccountUuid())).thenReturn(sender);
-        when(accountDatabaseService.findById(transaction.getCreditAccountUuid())).thenReturn(recipient);
+        when(accountDatabaseService.findByIdForUpdate(transaction.getDebitAccountUuid())).thenReturn(sender);
+        when(accountDatabaseService.findByIdForUpdate(transaction.getCreditAccountUuid())).thenReturn(recipient);
 
         // when, then
         assertThrows(IllegalArgumentException.class, () -> transactionDatabaseService.transferFunds(transaction));
-        verify(accountDatabaseService, times(2)).findById(any(UUID.class));
+        verify(accountDatabaseService, times(2)).findByIdForUpdate(any(UUID.class));
         verifyNoInteractions(clientDatabaseService);
         verifyNoInteractions(currencyConverter);
         verifyNoMoreInteractions(accountDatabaseService);
         verify(transactionRepository, never()).save(transaction);
     }
 
+    @Test
+    void transferFunds_fractionOfMinorUnit_throwsIllegalArgumentException() {
+        // given
+        transaction.setAmount(new BigDecimal("10.005"));
+
+        when(accountDatabaseService.findByIdForUpdate(transaction.getDebitAccountUuid())).thenReturn(sender);
+        when(accountDatabaseService.findByIdForUpdate(transaction.getCreditAccountUuid())).thenReturn(recipient);
+
+        // when, then
+        assertThrows(IllegalArgumentException.class, () -> transactionDatabaseService.transferFunds(transaction));
+        verifyNoInteractions(currencyConverter);
+        verify(transactionRepository, never()).save(transaction);
+    }
+
     @Test
     void transferFunds_nullSenderBalance_throwsIllegalArgumentException_throwsIllegalArgumentException() {
         // given
@@ -351,8 +506,8 @@ class TransactionDatabaseServiceImplTest {
         transaction.setAmount(amount);
         sender.setBalance(null);
 
-        when(accountDatabaseService.findById(transaction.getDebitAccountUuid())).thenReturn(sender);
-        when(accountDatabaseService.findById(transaction.getCreditAccountUuid())).thenReturn(recipient);
+        when(accountDatabaseService.findByIdForUpdate(transaction.getDebitAccountUuid())).thenReturn(sender);
+        when(accountDatabaseService.findByIdForUpdate(transaction.getCreditAccountUuid())).thenReturn(recipient);
 
         // when, then
         assertThrows(IllegalArgumentException.class, () -> transactionDatabaseService.transferFunds(transaction));
@@ -365,8 +520,8 @@ class TransactionDatabaseServiceImplTest {
         transaction.setAmount(amount);
         recipient.setBalance(null);
 
-        when(accountDatabaseService.findById(transaction.getDebitAccountUuid())).thenReturn(sender);
-        when(accountDatabaseService.findById(transaction.getCreditAccountUuid())).thenReturn(recipient);
+        when(accountDatabaseService.findByIdForUpdate(transaction.getDebitAccountUuid())).thenReturn(sender);
+        when(accountDatabaseService.findByIdForUpdate(transaction.getCreditAccountUuid())).thenReturn(recipient);
 
         // when, then
         assertThrows(IllegalArgumentException.class, () -> transactionDatabaseService.transferFunds(transaction));
@@ -379,8 +534,8 @@ class TransactionDatabaseServiceImplTest {
         transaction.setAmount(amount);
         sender.setStatus(null);
 
-        when(accountDatabaseService.findById(transaction.getDebitAccountUuid())).thenReturn(sender);
-        when(accountDatabaseService.findById(transaction.getCreditAccountUuid())).thenReturn(recipient);
+        when(accountDatabaseService.findByIdForUpdate(transaction.getDebitAccountUuid())).thenReturn(sender);
+        when(accountDatabaseService.findByIdForUpdate(transaction.getCreditAccountUuid())).thenReturn(recipient);
 
         // when, then
         assertThrows(IllegalArgumentException.class, () -> transactionDatabaseService.transferFunds(transaction));
@@ -393,8 +548,8 @@ class TransactionDatabaseServiceImplTest {
         transaction.setAmount(amount);
         recipient.setStatus(null);
 
-        when(accountDatabaseService.findById(transaction.getDebitAccountUuid())).thenReturn(sender);
-        when(accountDatabaseService.findById(transaction.getCreditAccountUuid())).thenReturn(recipient);
+        when(accountDatabaseService.findByIdForUpdate(transaction.getDebitAccountUuid())).thenReturn(sender);
+        when(accountDatabaseService.findByIdForUpdate(transaction.getCreditAccountUuid())).thenReturn(recipient);
 
         // when, then
         assertThrows(IllegalArgumentException.class, () -> transactionDatabaseService.transferFunds(transaction));
@@ -407,8 +562,8 @@ class TransactionDatabaseServiceImplTest {
         transaction.setAmount(amount);
         sender.setBalance(BigDecimal.valueOf(50));
 
-        when(accountDatabaseService.findById(transaction.getDebitAccountUuid())).thenReturn(sender);
-        when(accountDatabaseService.findById(transaction.getCreditAccountUuid())).thenReturn(recipient);
+        when(accountDatabaseService.findByIdForUpdate(transaction.getDebitAccountUuid())).thenReturn(sender);
+        when(accountDatabaseService.findByIdForUpdate(transaction.getCreditAccountUuid())).thenReturn(recipient);
 
         // when, then
         assertThrows(InsufficientFundsException.class, () -> transactionDatabaseService.transferFunds(transaction));
@@ -426,8 +581,8 @@ class TransactionDatabaseServiceImplTest {
         transaction.setAmount(amount);
         sender.setStatus(AccountStatus.CLOSED);
 
-        when(accountDatabaseService.findById(transaction.getDebitAccountUuid())).thenReturn(sender);
-        when(accountDatabaseService.findById(transaction.getCreditAccountUuid())).thenReturn(recipient);
+        when(accountDatabaseService.findByIdForUpdate(transaction.getDebitAccountUuid())).thenReturn(sender);
+        when(accountDatabaseService.findByIdForUpdate(transaction.getCreditAccountUuid())).thenReturn(recipient);
 
         // when, then
         assertThrows(TransactionNotAllowedException.class, () -> transactionDatabaseService.transferFunds(transaction));
@@ -445,8 +600,8 @@ class TransactionDatabaseServiceImplTest {
         transaction.setAmount(amount);
         recipient.setStatus(AccountStatus.CLOSED);
 
-        when(accountDatabaseService.findById(transaction.getDebitAccountUuid())).thenReturn(sender);
-        when(accountDatabaseService.findById(transaction.getCreditAccountUuid())).thenReturn(recipient);
+        when(accountDatabaseService.findByIdForUpdate(transaction.getDebitAccountUuid())).thenReturn(sender);
+        when(accountDatabaseService.findByIdForUpdate(transaction.getCreditAccountUuid())).thenReturn(recipient);
 
         // when, then
         assertThrows(TransactionNotAllowedException.class, () -> transactionDatabaseService.transferFunds(transaction));
@@ -463,8 +618,8 @@ class TransactionDatabaseServiceImplTest {
         BigDecimal amount = BigDecimal.valueOf(100);
         transaction.setAmount(amount);
 
-        when(accountDatabaseService.findById(transaction.getDebitAccountUuid())).thenReturn(sender);
-        when(accountDatabaseService.findById(transaction.getCreditAccountUuid())).thenReturn(recipient);
+        when(accountDatabaseService.findByIdForUpdate(transaction.getDebitAccountUuid())).thenReturn(sender);
+        when(accountDatabaseService.findByIdForUpdate(transaction.getCreditAccountUuid())).thenReturn(recipient);
         when(clientDatabaseService.isClientStatusActive(sender.getClientUuid())).thenReturn(false);
         when(clientDatabaseService.isClientStatusActive(recipient.getClientUuid())).thenReturn(true);
 
@@ -472,6 +627,115 @@ class TransactionDatabaseServiceImplTest {
         assertThrows(TransactionNotAllowedException.class, () -> transactionDatabaseService.transferFunds(transaction));
     }
 
+    @Test
+    void transferFundsBatch_validAndInvalidItems_perItemResults() {
+        // given
+        sender.setUuid(transaction.getDebitAccountUuid());
+        recipient.setUuid(transaction.getCreditAccountUuid());
+        transaction.setAmount(BigDecimal.valueOf(150));
+
+        Transaction tooLarge = new Transaction();
+        tooLarge.setDebitAccountUuid(sender.getUuid());
+        tooLarge.setCreditAccountUuid(recipient.getUuid());
+        tooLarge.setAmount(BigDecimal.valueOf(100));
+
+        Transaction unknownAccount = new Transaction();
+        unknownAccount.setDebitAccountUuid(sender.getUuid());
+        unknownAccount.setCreditAccountUuid(uuid);
+        unknownAccount.setAmount(BigDecimal.ONE);
+
+        when(accountDatabaseService.findAllByIdForUpdate(anyCollection())).thenReturn(List.of(sender, recipient));
+        when(clientDatabaseService.findActiveClientUuids(anyCollection()))
+                .thenReturn(Set.of(sender.getClientUuid(), recipient.getClientUuid()));
+
+        // when
+        List<TransferResultDto> actual = transactionDatabaseService
+                .transferFundsBatch(List.of(transaction, tooLarge, unknownAccount));
+
+        // then
+        assertEquals(3, actual.size());
+        assertEquals(TransferStatus.COMPLETED.name(), actual.get(0).getStatus());
+        assertEquals(TransferStatus.REJECTED.name(), actual.get(1).getStatus());
+        assertEquals(TransferStatus.REJECTED.name(), actual.get(2).getStatus());
+        assertEquals(0, BigDecimal.valueOf(50).compareTo(sender.getBalance()));
+        assertEquals(0, BigDecimal.valueOf(150).compareTo(recipient.getBalance()));
+        verify(accountDatabaseService).findAllByIdForUpdate(Set.of(sender.getUuid(), recipient.getUuid(), uuid));
+        verify(clientDatabaseService).findActiveClientUuids(Set.of(sender.getClientUuid(), recipient.getClientUuid()));
+        verify(transactionRepository).save(transaction);
+        verify(transactionRepository, never()).save(tooLarge);
+        verify(transactionRepository, never()).save(unknownAccount);
+        verify(spendingLimitService).checkLimit(transaction, sender);
+        verify(spendingLimitService, never()).checkLimit(tooLarge, sender);
+        verify(accountDatabaseService, never()).findById(any(UUID.class));
+        verify(clientDatabaseService, never()).isClientStatusActive(any(UUID.class));
+    }
+
+    @Test
+    void transferFundsBatch_blockedClient_transferRejected() {
+        // given
+        sender.setUuid(transaction.getDebitAccountUuid());
+        recipient.setUuid(transaction.getCreditAccountUuid());
+        transaction.setAmount(BigDecimal.valueOf(100));
+
+        when(accountDatabaseService.findAllByIdForUpdate(anyCollection())).thenReturn(List.of(sender, recipient));
+        when(clientDatabaseService.findActiveClientUuids(anyCollection())).thenReturn(Set.of(sender.getClientUuid()));
+
+        // when
+        List<TransferResultDto> actual = transactionDatabaseService.transferFundsBatch(List.of(transaction));
+
+        // then
+        assertEquals(TransferStatus.REJECTED.name(), actual.get(0).getStatus());
+        assertEquals(0, BigDecimal.valueOf(200).compareTo(sender.getBalance()));
+        verifyNoInteractions(transactionRepository);
+    }
+
+    @Test
+    void transferFundsBatch_missingExchangeRate_transferRejectedWithoutBalanceChange() {
+        // given
+        sender.setUuid(transaction.getDebitAccountUuid());
+        recipient.setUuid(transaction.getCreditAccountUuid());
+        recipient.setCurrencyCode(CurrencyCode.JPY);
+        transaction.setAmount(BigDecimal.valueOf(100));
+
+        when(accountDatabaseService.findAllByIdForUpdate(anyCollection())).thenReturn(List.of(sender, recipient));
+        when(clientDatabaseService.findActiveClientUuids(anyCollection()))
+                .thenReturn(Set.of(sender.getClientUuid(), recipient.getClientUuid()));
+        when(currencyConverter.convert(transaction.getAmount(), CurrencyCode.EUR, CurrencyCode.JPY))
+                .thenThrow(new DataNotFoundException("JPY"));
+
+        // when
+        List<TransferResultDto> actual = transactionDatabaseService.transferFundsBatch(List.of(transaction));
+
+        // then
+        assertEquals(TransferStatus.REJECTED.name(), actual.get(0).getStatus());
+        assertEquals(0, BigDecimal.valueOf(200).compareTo(sender.getBalance()));
+        assertEquals(0, BigDecimal.ZERO.compareTo(recipient.getBalance()));
+        verifyNoInteractions(transactionRepository, ledgerService);
+    }
+
+    @Test
+    void transferFundsBatch_persistenceFailure_batchFails() {
+        // given
+        sender.setUuid(transaction.getDebitAccountUuid());
+        recipient.setUuid(transaction.getCreditAccountUuid());
+        transaction.setAmount(BigDecimal.valueOf(100));
+
+        when(accountDatabaseService.findAllByIdForUpdate(anyCollection())).thenReturn(List.of(sender, recipient));
+        when(clientDatabaseService.findActiveClientUuids(anyCollection()))
+                .thenReturn(Set.of(sender.getClientUuid(), recipient.getClientUuid()));
+        when(transactionRepository.save(transaction)).thenThrow(new DataIntegrityViolationException("transactions"));
+
+        // when, then
+        assertThrows(DataIntegrityViolationException.class,
+                () -> transactionDatabaseService.transferFundsBatch(List.of(transaction)));
+        verifyNoInteractions(ledgerService);
+    }
+
+    @Test
+    void transferFundsBatch_nullList_throwsIllegalArgumentException() {
+        assertThrows(IllegalArgumentException.class, () -> transactionDatabaseService.transferFundsBatch(null));
+    }
+
     @Test
     void findTransactionsByClientIdBetweenDates_success() {
         // given
@@ -0,0 +1,341 @@
+package org.crazymages.bankingspringproject.service.deposit.impl;
+
+import org.crazymages.bankingspringproject.entity.Account;
+import org.crazymages.bankingspringproject.entity.Transaction;
+import org.crazymages.bankingspringproject.entity.enums.AccountStatus;
+import org.crazymages.bankingspringproject.entity.enums.AccountType;
+import org.crazymages.bankingspringproject.entity.enums.AgreementStatus;
+import org.crazymages.bankingspringproject.entity.enums.CurrencyCode;
+import org.crazymages.bankingspringproject.entity.enums.ProductStatus;
+import org.crazymages.bankingspringproject.entity.enums.ProductType;
+import org.crazymages.bankingspringproject.entity.enums.TransactionType;
+import org.crazymages.bankingspringproject.repository.AccountRepository;
+import org.crazymages.bankingspringproject.repository.AccountRepository.AccountInterest;
+import org.crazymages.bankingspringproject.repository.TransactionRepository;
+import org.crazymages.bankingspringproject.service.bank.BankLedgerService;
+import org.crazymages.bankingspringproject.service.bank.impl.BankLedgerServiceImpl;
+import org.crazymages.bankingspringproject.service.exchange.ExchangeRateSnapshot;
+import org.crazymages.bankingspringproject.service.exchange.ExchangeRateSnapshotService;
+import org.crazymages.bankingspringproject.service.job.ChunkResult;
+import org.crazymages.bankingspringproject.service.job.UuidPartition;
+import org.crazymages.bankingspringproject.service.ledger.LedgerMovement;
+import org.crazymages.bankingspringproject.service.ledger.LedgerService;
+import org.crazymages.bankingspringproject.service.utils.lock.AccountLockManager;
+import org.crazymages.bankingspringproject.service.utils.lock.impl.StripedAccountLockManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class InterestPostingServiceImplTest {
+
+    @Mock
+    AccountRepository accountRepository;
+    @Mock
+    TransactionRepository transactionRepository;
+    @Mock
+    BankLedgerService bankLedgerService;
+    @Mock
+    LedgerService ledgerService;
+    @Mock
+    ExchangeRateSnapshotService exchangeRateSnapshotService;
+    @Mock
+    JdbcTemplate jdbcTemplate;
+    @Spy
+    AccountLockManager accountLockManager = new StripedAccountLockManager(16);
+
+    InterestPostingServiceImpl interestPostingService;
+    Account shard;
+
+    @BeforeEach
+    void setUp() {
+        interestPostingService = new InterestPostingServiceImpl(accountRepository, transactionRepository,
+                bankLedgerService, ledgerService, exchangeRateSnapshotService, accountLockManager, jdbcTemplate,
+                2, 4);
+        shard = createShard();
+        lenient().when(bankLedgerService.getShardAccounts()).thenReturn(List.of(shard));
+        lenient().when(bankLedgerService.selectShard(anyList(), anyInt())).thenReturn(shard);
+        lenient().when(exchangeRateSnapshotService.getSnapshot()).thenReturn(ExchangeRateSnapshot.of(Map.of(
+                CurrencyCode.EUR, new BigDecimal("0.8"), CurrencyCode.USD, BigDecimal.ONE)));
+    }
+
+    @Test
+    void processChunk_fullChunk_creditsInterestInBatchUnderAccountLocksAndContinuesAfterLastAccount() {
+        // given
+        UUID first = new UUID(0L, 1L);
+        UUID second = new UUID(0L, 2L);
+        when(findChunkAfter(new UUID(0L, 0L))).thenReturn(List.of(
+                row(first, "1000.00", CurrencyCode.EUR, "4.5"),
+                row(second, "200.00", CurrencyCode.EUR, "10")));
+
+        // when
+        ChunkResult actual = interestPostingService.processChunk(null);
+
+        // then
+        assertEquals(ChunkResult.next(second.toString(), 2), actual);
+        List<Object[]> credits = captureCredits(1).get(0);
+        assertArrayEquals(new Object[]{new BigDecimal("45.00"), first}, credits.get(0));
+        assertArrayEquals(new Object[]{new BigDecimal("20.00"), second}, credits.get(1));
+        verify(bankLedgerService).debitShards(Map.of(shard.getUuid(), new BigDecimal("65.00")));
+        verify(bankLedgerService, never()).fundShards(any());
+        List<LedgerMovement> movements = captureMovements();
+        assertEquals(2, movements.size());
+        assertTrue(movements.stream().allMatch(movement -> shard.equals(movement.sender())));
+        verify(accountLockManager).executeWithLocks(eq(List.of(first, second, shard.getUuid())), any());
+    }
+
+    @Test
+    void processChunk_partialChunkAfterCheckpoint_finishesRun() {
+        // given
+        UUID second = new UUID(0L, 2L);
+        UUID third = new UUID(0L, 3L);
+        when(findChunkAfter(second)).thenReturn(List.of(row(third, "50.00", CurrencyCode.EUR, "2")));
+
+        // when
+        ChunkResult actual = interestPostingService.processChunk(second.toString());
+
+        // then
+        assertEquals(ChunkResult.finished(third.toString(), 1), actual);
+        assertArrayEquals(new Object[]{new BigDecimal("1.00"), third}, captureCredits(1).get(0).get(0));
+    }
+
+    @Test
+    void processChunk_noAccountsAfterCheckpoint_finishesRunAtCheckpoint() {
+        // given
+        UUID last = new UUID(0L, 2L);
+        when(findChunkAfter(last)).thenReturn(Collections.emptyList());
+
+        // when
+        ChunkResult actual = interestPostingService.processChunk(last.toString());
+
+        // then
+        assertEquals(ChunkResult.finished(last.toString(), 0), actual);
+        verifyNoInteractions(jdbcTemplate, transactionRepository, ledgerService);
+    }
+
+    @Test
+    void processChunk_partition_accountsReadWithinPartitionBoundsAndShardsLockedBeforeLedger() {
+        // given
+        UuidPartition partition = new UuidPartition(2, 4);
+        UUID accountUuid = new UUID(Long.MIN_VALUE + 1, 1L);
+        when(findChunkBetween(partition.after(), partition.upTo()))
+                .thenReturn(List.of(row(accountUuid, "1000.00", CurrencyCode.EUR, "5")));
+
+        // when
+        ChunkResult actual = interestPostingService.processChunk(partition, null);
+
+        // then
+        assertEquals(ChunkResult.finished(accountUuid.toString(), 1), actual);
+        InOrder inOrder = inOrder(jdbcTemplate, transactionRepository, ledgerService, bankLedgerService);
+        inOrder.verify(jdbcTemplate).batchUpdate(eq(InterestPostingServiceImpl.CREDIT_BALANCE_SQL), anyList());
+        inOrder.verify(bankLedgerService).debitShards(Map.of(shard.getUuid(), new BigDecimal("50.00")));
+        inOrder.verify(transactionRepository).saveAll(anyList());
+        inOrder.verify(ledgerService).recordTransfers(anyList());
+        inOrder.verify(transactionRepository).flush();
+        assertEquals(4, interestPostingService.getPartitionCount());
+    }
+
+    @Test
+    void processChunk_concurrentPartitions_neverLockTheSameShard() {
+        // given
+        List<Account> shards = List.of(shard, createShard(), createShard(), createShard());
+        BankLedgerServiceImpl shardSelector =
+                new BankLedgerServiceImpl(null, null, null, shards.size(), BigDecimal.TEN);
+        when(bankLedgerService.getShardAccounts()).thenReturn(shards);
+        when(bankLedgerService.selectShard(anyList(), anyInt())).thenAnswer(invocation ->
+                shardSelector.selectShard(invocation.getArgument(0), invocation.getArgument(1)));
+        List<UuidPartition> partitions = UuidPartition.split(shards.size());
+        for (UuidPartition partition : partitions) {
+            UUID accountUuid = new UUID(partition.upTo().getMostSignificantBits(), 0L);
+            when(findChunkBetween(partition.after(), partition.upTo()))
+                    .thenReturn(List.of(row(accountUuid, "1000.00", CurrencyCode.EUR, "5")));
+        }
+
+        // when
+        partitions.forEach(partition -> interestPostingService.processChunk(partition, null));
+
+        // then
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<Map<UUID, BigDecimal>> captor = ArgumentCaptor.forClass(Map.class);
+        verify(bankLedgerService, times(partitions.size())).debitShards(captor.capture());
+        assertTrue(captor.getAllValues().stream().allMatch(debits -> debits.size() == 1));
+        Set<UUID> lockedShards = captor.getAllValues().stream()
+                .flatMap(debits -> debits.keySet().stream())
+                .collect(Collectors.toSet());
+        assertEquals(shards.stream().map(Account::getUuid).collect(Collectors.toSet()), lockedShards);
+    }
+
+    @Test
+    void processChunk_transactionsInsertedPerChunk() {
+        // given
+        UUID accountUuid = new UUID(0L, 1L);
+        when(findChunkAfter(new UUID(0L, 0L))).thenReturn(List.of(row(accountUuid, "1000.00", CurrencyCode.EUR, "5")));
+
+        // when
+        interestPostingService.processChunk(null);
+
+        // then
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<Transaction>> captor = ArgumentCaptor.forClass(List.class);
+        verify(transactionRepository).saveAll(captor.capture());
+        Transaction transaction = captor.getValue().get(0);
+        assertEquals(shard.getUuid(), transaction.getDebitAccountUuid());
+        assertEquals(accountUuid, transaction.getCreditAccountUuid());
+        assertEquals(TransactionType.DEPOSIT, transaction.getType());
+        assertEquals(new BigDecimal("50.00"), transaction.getAmount());
+        assertEquals(CurrencyCode.EUR, transaction.getCurrencyCode());
+    }
+
+    @Test
+    void processChunk_accountWithSeveralAgreements_paidOnce() {
+        // given
+        UUID accountUuid = new UUID(0L, 1L);
+        when(findChunkAfter(new UUID(0L, 0L))).thenReturn(List.of(
+                row(accountUuid, "100.00", CurrencyCode.EUR, "10"),
+                row(accountUuid, "100.00", CurrencyCode.EUR, "20")));
+
+        // when
+        ChunkResult actual = interestPostingService.processChunk(null);
+
+        // then
+        assertEquals(1, actual.processed());
+        List<Object[]> credits = captureCredits(1).get(0);
+        assertEquals(1, credits.size());
+        assertArrayEquals(new Object[]{new BigDecimal("10.00"), accountUuid}, credits.get(0));
+    }
+
+    @Test
+    void processChunk_depositInOtherCurrency_shardDebitedInItsCurrency() {
+        // given
+        UUID accountUuid = new UUID(0L, 1L);
+        when(findChunkAfter(new UUID(0L, 0L))).thenReturn(List.of(row(accountUuid, "1000.00", CurrencyCode.USD, "5")));
+
+        // when
+        interestPostingService.processChunk(null);
+
+        // then
+        assertArrayEquals(new Object[]{new BigDecimal("50.00"), accountUuid}, captureCredits(1).get(0).get(0));
+        verify(bankLedgerService).debitShards(Map.of(shard.getUuid(), new BigDecimal("40.00")));
+        LedgerMovement movement = captureMovements().get(0);
+        assertEquals(shard, movement.sender());
+        assertEquals(new BigDecimal("40.00"), movement.debitAmount());
+        assertEquals(new BigDecimal("50.00"), movement.creditAmount());
+        assertEquals(CurrencyCode.USD, movement.recipient().getCurrencyCode());
+    }
+
+    @Test
+    void processChunk_noInterestDue_nothingPosted() {
+        // given
+        when(findChunkAfter(new UUID(0L, 0L))).thenReturn(List.of(
+                row(new UUID(0L, 1L), "0.00", CurrencyCode.EUR, "5")));
+
+        // when
+        ChunkResult actual = interestPostingService.processChunk(null);
+
+        // then
+        assertEquals(0, actual.processed());
+        verify(bankLedgerService, never()).debitShards(any());
+        verifyNoInteractions(jdbcTemplate, transactionRepository, ledgerService);
+    }
+
+    @Test
+    void calculateInterest_fractionalRate_notRoundedToWholePercent() {
+        // given
+        BigDecimal balance = new BigDecimal("1000.00");
+
+        // when
+        BigDecimal interest = interestPostingService.calculateInterest(balance, new BigDecimal("4.5"));
+
+        // then
+        assertEquals(new BigDecimal("45.00"), interest);
+    }
+
+    @Test
+    void calculateInterest_nullRate_throwsIllegalArgumentException() {
+        // given
+        BigDecimal balance = BigDecimal.TEN;
+
+        // when, then
+        assertThrows(IllegalArgumentException.class, () -> interestPostingService.calculateInterest(balance, null));
+    }
+
+    private List<AccountInterest> findChunkAfter(UUID after) {
+        return findChunkBetween(after, new UUID(-1L, -1L));
+    }
+
+    private List<AccountInterest> findChunkBetween(UUID after, UUID upTo) {
+        return accountRepository.findAccountInterestBetween(eq(after), eq(upTo), eq(ProductType.DEPOSIT_ACCOUNT),
+                eq(ProductStatus.ACTIVE), eq(AccountStatus.ACTIVE), eq(AgreementStatus.ACTIVE), any(Pageable.class));
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<List<Object[]>> captureCredits(int chunks) {
+        ArgumentCaptor<List<Object[]>> captor = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate, times(chunks)).batchUpdate(eq(InterestPostingServiceImpl.CREDIT_BALANCE_SQL),
+                captor.capture());
+        return new ArrayList<>(captor.getAllValues());
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<LedgerMovement> captureMovements() {
+        ArgumentCaptor<List<LedgerMovement>> captor = ArgumentCaptor.forClass(List.class);
+        verify(ledgerService).recordTransfers(captor.capture());
+        return captor.getValue();
+    }
+
+    private static AccountInterest row(UUID accountUuid, String balance, CurrencyCode currencyCode, String rate) {
+        return new AccountInterest() {
+            @Override
+            public UUID getAccountUuid() {
+                return accountUuid;
+            }
+
+            @Override
+            public BigDecimal getBalance() {
+                return new BigDecimal(balance);
+            }
+
+            @Override
+            public CurrencyCode getCurrencyCode() {
+                return currencyCode;
+            }
+
+            @Override
+            public BigDecimal getInterestRate() {
+                return new BigDecimal(rate);
+            }
+        };
+    }
+
+    private Account createShard() {
+        return Account.builder()
+                .uuid(UUID.randomUUID())
+                .type(AccountType.BANK_SHARD)
+                .currencyCode(CurrencyCode.EUR)
+                .balance(BigDecimal.ZERO)
+                .build();
+    }
+}
@@ -0,0 +1,114 @@
+package org.crazymages.bankingspringproject.service.exchange;
+
+import org.crazymages.bankingspringproject.entity.enums.CurrencyCode;
+import org.crazymages.bankingspringproject.exception.DataNotFoundException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.math.RoundingMode;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ExchangeRateSnapshotTest {
+
+    private static final BigDecimal HALF_CENT = new BigDecimal("0.005");
+    private static final BigDecimal FACTOR_ERROR = BigDecimal.ONE.movePointLeft(ExchangeRateSnapshot.FACTOR_SCALE);
+
+    Map<CurrencyCode, BigDecimal> rates;
+    ExchangeRateSnapshot snapshot;
+
+    @BeforeEach
+    void setUp() {
+        rates = Map.of(
+                CurrencyCode.USD, BigDecimal.ONE,
+                CurrencyCode.EUR, new BigDecimal("0.9187"),
+                CurrencyCode.JPY, new BigDecimal("149.7315"),
+                CurrencyCode.GBP, new BigDecimal("0.7934"),
+                CurrencyCode.AUD, new BigDecimal("1.5342"));
+        snapshot = ExchangeRateSnapshot.of(rates);
+    }
+
+    @Test
+    void convert_randomAmountsAllPairs_neverLessPreciseThanDivideThenMultiply() {
+        // given
+        Random random = new Random(42);
+        int legacyOverHalfCent = 0;
+
+        for (int i = 0; i < 2_000; i++) {
+            BigDecimal amount = BigDecimal.valueOf(random.nextLong(1, 100_000_000_00L), 2);
+            for (CurrencyCode from : rates.keySet()) {
+                for (CurrencyCode to : rates.keySet()) {
+                    BigDecimal exact = amount.multiply(rates.get(to)).divide(rates.get(from), MathContext.DECIMAL128);
+                    BigDecimal tolerance = amount.multiply(FACTOR_ERROR);
+                    BigDecimal legacy = amount.divide(rates.get(from), 2, RoundingMode.HALF_UP).multiply(rates.get(to));
+
+                    // when
+                    BigDecimal actual = snapshot.convert(amount, from, to);
+
+                    // then
+                    BigDecimal error = actual.subtract(exact).abs();
+                    BigDecimal legacyError = legacy.subtract(exact).abs();
+                    assertEquals(ExchangeRateSnapshot.AMOUNT_SCALE, actual.scale());
+                    assertTrue(error.compareTo(HALF_CENT.add(tolerance)) <= 0, amount + " " + from + "->" + to);
+                    assertTrue(error.compareTo(legacyError.max(HALF_CENT).add(tolerance)) <= 0,
+                            amount + " " + from + "->" + to);
+                    if (legacyError.compareTo(HALF_CENT) > 0) {
+                        legacyOverHalfCent++;
+                    }
+                }
+            }
+        }
+        assertTrue(legacyOverHalfCent > 0);
+    }
+
+    @Test
+    void convert_fastPathAndBigDecimalPath_identicalResults() {
+        // given
+        BigDecimal factor = BigDecimal.valueOf(snapshot.getCrossRate(CurrencyCode.EUR, CurrencyCode.JPY),
+                ExchangeRateSnapshot.FACTOR_SCALE);
+        BigDecimal small = new BigDecimal("1234.56");
+        BigDecimal large = new BigDecimal("98765432109.87");
+        BigDecimal fractional = new BigDecimal("10.005");
+
+        // when, then
+        assertEquals(small.multiply(factor).setScale(2, RoundingMode.HALF_UP),
+                snapshot.convert(small, CurrencyCode.EUR, CurrencyCode.JPY));
+        assertEquals(large.multiply(factor).setScale(2, RoundingMode.HALF_UP),
+                snapshot.convert(large, CurrencyCode.EUR, CurrencyCode.JPY));
+        assertEquals(fractional.multiply(factor).setScale(2, RoundingMode.HALF_UP),
+                snapshot.convert(fractional, CurrencyCode.EUR, CurrencyCode.JPY));
+    }
+
+    @Test
+    void convert_sameCurrency_amountUnchanged() {
+        // when
+        BigDecimal actual = snapshot.convert(new BigDecimal("100.5"), CurrencyCode.GBP, CurrencyCode.GBP);
+
+        // then
+        assertEquals(new BigDecimal("100.50"), actual);
+    }
+
+    @Test
+    void convert_negativeAmount_roundedSymmetrically() {
+        // when
+        BigDecimal positive = snapshot.convert(new BigDecimal("100"), CurrencyCode.AUD, CurrencyCode.EUR);
+        BigDecimal negative = snapshot.convert(new BigDecimal("-100"), CurrencyCode.AUD, CurrencyCode.EUR);
+
+        // then
+        assertEquals(positive.negate(), negative);
+    }
+
+    @Test
+    void convert_missingRate_throwsDataNotFoundException() {
+        // given
+        ExchangeRateSnapshot partial = ExchangeRateSnapshot.of(Map.of(CurrencyCode.USD, BigDecimal.ONE));
+
+        // when, then
+        assertThrows(DataNotFoundException.class, () -> partial.convert(BigDecimal.TEN, CurrencyCode.USD, CurrencyCode.EUR));
+        assertThrows(DataNotFoundException.class, () -> partial.convert(BigDecimal.TEN, CurrencyCode.EUR, CurrencyCode.USD));
+    }
+}
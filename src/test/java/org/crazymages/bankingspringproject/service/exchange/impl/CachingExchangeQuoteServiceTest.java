@@ -0,0 +1,149 @@
+package org.crazymages.bankingspringproject.service.exchange.impl;
+
+import org.crazymages.bankingspringproject.dto.ExchangeQuoteDto;
+import org.crazymages.bankingspringproject.dto.ExchangeQuoteRequestDto;
+import org.crazymages.bankingspringproject.entity.enums.CurrencyCode;
+import org.crazymages.bankingspringproject.exception.DataNotFoundException;
+import org.crazymages.bankingspringproject.exception.TransactionNotAllowedException;
+import org.crazymages.bankingspringproject.service.exchange.ExchangeRateSnapshot;
+import org.crazymages.bankingspringproject.service.exchange.ExchangeRateSnapshotService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class CachingExchangeQuoteServiceTest {
+
+    private static final Instant NOW = Instant.parse("2023-07-01T12:00:00Z");
+
+    @Mock
+    ExchangeRateSnapshotService exchangeRateSnapshotService;
+
+    MutableClock clock;
+    ExchangeRateSnapshot snapshot;
+    CachingExchangeQuoteService exchangeQuoteService;
+
+    @BeforeEach
+    void setUp() {
+        clock = new MutableClock(NOW);
+        snapshot = ExchangeRateSnapshot.of(Map.of(
+                CurrencyCode.USD, BigDecimal.ONE,
+                CurrencyCode.EUR, new BigDecimal("0.89")));
+        exchangeQuoteService =
+                new CachingExchangeQuoteService(exchangeRateSnapshotService, Duration.ofSeconds(30), 100, clock);
+    }
+
+    @Test
+    void createQuote_validPair_returnsLockedRate() {
+        // given
+        when(exchangeRateSnapshotService.getSnapshot()).thenReturn(snapshot);
+
+        // when
+        ExchangeQuoteDto quote = exchangeQuoteService.createQuote(new ExchangeQuoteRequestDto("USD", "EUR"));
+
+        // then
+        assertNotNull(quote.getQuoteId());
+        assertEquals("USD", quote.getFromCurrency());
+        assertEquals("EUR", quote.getToCurrency());
+        assertEquals(0, new BigDecimal("0.89").compareTo(quote.getRate()));
+        assertEquals("2023-07-01T12:00:30Z", quote.getExpiresAt());
+        assertEquals(snapshot.getCrossRate(CurrencyCode.USD, CurrencyCode.EUR),
+                exchangeQuoteService.getQuotedCrossRate(quote.getQuoteId(), CurrencyCode.USD, CurrencyCode.EUR));
+    }
+
+    @Test
+    void getQuotedCrossRate_ratesChangedAfterQuote_returnsQuotedRate() {
+        // given
+        when(exchangeRateSnapshotService.getSnapshot()).thenReturn(snapshot);
+        ExchangeQuoteDto quote = exchangeQuoteService.createQuote(new ExchangeQuoteRequestDto("USD", "EUR"));
+        long quoted = snapshot.getCrossRate(CurrencyCode.USD, CurrencyCode.EUR);
+        snapshot = ExchangeRateSnapshot.of(Map.of(
+                CurrencyCode.USD, BigDecimal.ONE,
+                CurrencyCode.EUR, new BigDecimal("0.95")));
+
+        // when
+        long actual = exchangeQuoteService.getQuotedCrossRate(quote.getQuoteId(), CurrencyCode.USD, CurrencyCode.EUR);
+
+        // then
+        assertEquals(quoted, actual);
+    }
+
+    @Test
+    void getQuotedCrossRate_expiredQuote_throwsDataNotFoundException() {
+        // given
+        when(exchangeRateSnapshotService.getSnapshot()).thenReturn(snapshot);
+        String quoteId = exchangeQuoteService.createQuote(new ExchangeQuoteRequestDto("USD", "EUR")).getQuoteId();
+        clock.advanceSeconds(31);
+
+        // when, then
+        assertThrows(DataNotFoundException.class,
+                () -> exchangeQuoteService.getQuotedCrossRate(quoteId, CurrencyCode.USD, CurrencyCode.EUR));
+    }
+
+    @Test
+    void getQuotedCrossRate_otherPair_throwsTransactionNotAllowedException() {
+        // given
+        when(exchangeRateSnapshotService.getSnapshot()).thenReturn(snapshot);
+        String quoteId = exchangeQuoteService.createQuote(new ExchangeQuoteRequestDto("USD", "EUR")).getQuoteId();
+
+        // when, then
+        assertThrows(TransactionNotAllowedException.class,
+                () -> exchangeQuoteService.getQuotedCrossRate(quoteId, CurrencyCode.EUR, CurrencyCode.USD));
+    }
+
+    @Test
+    void getQuotedCrossRate_unknownOrMalformedId_throwsDataNotFoundException() {
+        // when, then
+        assertThrows(DataNotFoundException.class,
+                () -> exchangeQuoteService.getQuotedCrossRate("abc", CurrencyCode.USD, CurrencyCode.EUR));
+        assertThrows(DataNotFoundException.class,
+                () -> exchangeQuoteService.getQuotedCrossRate("not-a-quote", CurrencyCode.USD, CurrencyCode.EUR));
+    }
+
+    @Test
+    void createQuote_nullRequest_throwsIllegalArgumentException() {
+        // when, then
+        assertThrows(IllegalArgumentException.class, () -> exchangeQuoteService.createQuote(null));
+    }
+
+    private static class MutableClock extends Clock {
+
+        private Instant instant;
+
+        MutableClock(Instant instant) {
+            this.instant = instant;
+        }
+
+        void advanceSeconds(long seconds) {
+            instant = instant.plusSeconds(seconds);
+        }
+
+        @Override
+        public ZoneOffset getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return instant;
+        }
+    }
+}
@@ -0,0 +1,226 @@
+package org.crazymages.bankingspringproject.service.exchange.impl;
+
+import org.crazymages.bankingspringproject.dto.CurrencyExchangeRateDto;
+import org.crazymages.bankingspringproject.entity.CurrencyExchangeRateHistory;
+import org.crazymages.bankingspringproject.entity.enums.CurrencyCode;
+import org.crazymages.bankingspringproject.exception.DataNotFoundException;
+import org.crazymages.bankingspringproject.repository.CurrencyExchangeRateHistoryRepository;
+import org.crazymages.bankingspringproject.service.exchange.ExchangeRateSnapshot;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ExchangeRateHistoryServiceImplTest {
+
+    private static final Instant NOW = Instant.parse("2023-07-01T12:00:00Z");
+
+    @Mock
+    CurrencyExchangeRateHistoryRepository currencyExchangeRateHistoryRepository;
+
+    MutableClock clock;
+    ExchangeRateHistoryServiceImpl exchangeRateHistoryService;
+
+    @BeforeEach
+    void setUp() {
+        clock = new MutableClock(NOW);
+        exchangeRateHistoryService =
+                new ExchangeRateHistoryServiceImpl(currencyExchangeRateHistoryRepository, Duration.ofDays(30), clock);
+    }
+
+    @Test
+    void record_newRates_versionStoredAndServedFromMemory() {
+        // given
+        ExchangeRateSnapshot first = createSnapshot("0.92");
+        ExchangeRateSnapshot second = createSnapshot("0.95");
+
+        // when
+        exchangeRateHistoryService.record(first);
+        clock.advanceSeconds(3_600);
+        exchangeRateHistoryService.record(second);
+
+        // then
+        assertSame(first, exchangeRateHistoryService.getSnapshotAt(NOW));
+        assertSame(first, exchangeRateHistoryService.getSnapshotAt(NOW.plusSeconds(3_599)));
+        assertSame(second, exchangeRateHistoryService.getSnapshotAt(NOW.plusSeconds(3_600)));
+        assertSame(second, exchangeRateHistoryService.getSnapshotAt(NOW.plusSeconds(86_400)));
+        verify(currencyExchangeRateHistoryRepository, times(1)).findAllEffectiveAt(any(Timestamp.class));
+        verify(currencyExchangeRateHistoryRepository, times(1)).findAllEffectiveAfter(any(Timestamp.class));
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    void record_newRates_allRatesSavedWithOneEffectiveTimestamp() {
+        // given
+        ArgumentCaptor<List<CurrencyExchangeRateHistory>> captor = ArgumentCaptor.forClass(List.class);
+
+        // when
+        boolean actual = exchangeRateHistoryService.record(createSnapshot("0.92"));
+
+        // then
+        assertTrue(actual);
+        verify(currencyExchangeRateHistoryRepository).saveAll(captor.capture());
+        assertEquals(2, captor.getValue().size());
+        assertTrue(captor.getValue().stream().allMatch(rate -> rate.getEffectiveAt().equals(Timestamp.from(NOW))));
+    }
+
+    @Test
+    void record_unchangedRates_nothingStored() {
+        // given
+        exchangeRateHistoryService.record(createSnapshot("0.92"));
+        clock.advanceSeconds(3_600);
+
+        // when
+        boolean actual = exchangeRateHistoryService.record(createSnapshot("0.92"));
+
+        // then
+        assertFalse(actual);
+        verify(currencyExchangeRateHistoryRepository, times(1)).saveAll(any());
+    }
+
+    @Test
+    void record_nullSnapshot_throwsIllegalArgumentException() {
+        // when, then
+        assertThrows(IllegalArgumentException.class, () -> exchangeRateHistoryService.record(null));
+        verifyNoInteractions(currencyExchangeRateHistoryRepository);
+    }
+
+    @Test
+    void getSnapshotAt_storedVersions_loadedOnceFromDatabase() {
+        // given
+        Timestamp older = Timestamp.from(NOW.minus(Duration.ofDays(40)));
+        Timestamp newer = Timestamp.from(NOW.minus(Duration.ofDays(1)));
+        when(currencyExchangeRateHistoryRepository.findAllEffectiveAt(any(Timestamp.class)))
+                .thenReturn(List.of(createRow(older, "EUR", "0.90"), createRow(older, "XYZ", "3.00")));
+        when(currencyExchangeRateHistoryRepository.findAllEffectiveAfter(any(Timestamp.class)))
+                .thenReturn(List.of(createRow(newer, "EUR", "0.93"), createRow(newer, "USD", "1")));
+
+        // when
+        ExchangeRateSnapshot beforeNewer = exchangeRateHistoryService.getSnapshotAt(NOW.minus(Duration.ofDays(2)));
+        ExchangeRateSnapshot afterNewer = exchangeRateHistoryService.getSnapshotAt(NOW);
+
+        // then
+        assertEquals(Map.of(CurrencyCode.EUR, new BigDecimal("0.90")), beforeNewer.getRates());
+        assertEquals(Map.of(CurrencyCode.EUR, new BigDecimal("0.93"), CurrencyCode.USD, BigDecimal.ONE),
+                afterNewer.getRates());
+        verify(currencyExchangeRateHistoryRepository, times(1)).findAllEffectiveAt(any(Timestamp.class));
+        verify(currencyExchangeRateHistoryRepository, times(1)).findAllEffectiveAfter(any(Timestamp.class));
+    }
+
+    @Test
+    void getSnapshotAt_beforeRetainedVersions_readsFromDatabase() {
+        // given
+        exchangeRateHistoryService.record(createSnapshot("0.92"));
+        Instant at = NOW.minus(Duration.ofDays(90));
+        Timestamp effectiveAt = Timestamp.from(at.minusSeconds(60));
+        when(currencyExchangeRateHistoryRepository.findAllEffectiveAt(Timestamp.from(at)))
+                .thenReturn(List.of(createRow(effectiveAt, "EUR", "0.85")));
+
+        // when
+        ExchangeRateSnapshot actual = exchangeRateHistoryService.getSnapshotAt(at);
+
+        // then
+        assertEquals(Map.of(CurrencyCode.EUR, new BigDecimal("0.85")), actual.getRates());
+    }
+
+    @Test
+    void getSnapshotAt_noVersionInEffect_throwsDataNotFoundException() {
+        // given
+        Instant at = NOW.minus(Duration.ofDays(90));
+
+        // when, then
+        assertThrows(DataNotFoundException.class, () -> exchangeRateHistoryService.getSnapshotAt(at));
+    }
+
+    @Test
+    void getSnapshotAt_nullInstant_throwsIllegalArgumentException() {
+        // when, then
+        assertThrows(IllegalArgumentException.class, () -> exchangeRateHistoryService.getSnapshotAt(null));
+    }
+
+    @Test
+    void record_versionsOlderThanRetention_droppedFromMemory() {
+        // given
+        exchangeRateHistoryService.record(createSnapshot("0.90"));
+        clock.advanceSeconds(86_400);
+        ExchangeRateSnapshot inEffectAtCutoff = createSnapshot("0.91");
+        exchangeRateHistoryService.record(inEffectAtCutoff);
+        clock.advanceSeconds(40 * 86_400);
+
+        // when
+        exchangeRateHistoryService.record(createSnapshot("0.92"));
+
+        // then
+        assertSame(inEffectAtCutoff, exchangeRateHistoryService.getSnapshotAt(clock.instant().minus(Duration.ofDays(30))));
+        assertThrows(DataNotFoundException.class, () -> exchangeRateHistoryService.getSnapshotAt(NOW));
+    }
+
+    @Test
+    void findRatesAt_recordedVersion_returnsDtos() {
+        // given
+        exchangeRateHistoryService.record(ExchangeRateSnapshot.of(Map.of(CurrencyCode.EUR, new BigDecimal("0.92"))));
+
+        // when
+        List<CurrencyExchangeRateDto> actual = exchangeRateHistoryService.findRatesAt(NOW);
+
+        // then
+        assertEquals(List.of(new CurrencyExchangeRateDto("EUR", new BigDecimal("0.92"))), actual);
+    }
+
+    private ExchangeRateSnapshot createSnapshot(String eurRate) {
+        return ExchangeRateSnapshot.of(Map.of(CurrencyCode.USD, BigDecimal.ONE, CurrencyCode.EUR, new BigDecimal(eurRate)));
+    }
+
+    private CurrencyExchangeRateHistory createRow(Timestamp effectiveAt, String currencyCode, String rate) {
+        return CurrencyExchangeRateHistory.builder()
+                .effectiveAt(effectiveAt)
+                .currencyCode(currencyCode)
+                .exchangeRate(new BigDecimal(rate))
+                .build();
+    }
+
+    private static class MutableClock extends Clock {
+
+        private Instant instant;
+
+        MutableClock(Instant instant) {
+            this.instant = instant;
+        }
+
+        void advanceSeconds(long seconds) {
+            instant = instant.plusSeconds(seconds);
+        }
+
+        @Override
+        public ZoneOffset getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return instant;
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package org.crazymages.bankingspringproject.service.exchange.impl;
+
+import org.crazymages.bankingspringproject.entity.CurrencyExchangeRate;
+import org.crazymages.bankingspringproject.entity.enums.CurrencyCode;
+import org.crazymages.bankingspringproject.exception.DataNotFoundException;
+import org.crazymages.bankingspringproject.repository.CurrencyExchangeRateRepository;
+import org.crazymages.bankingspringproject.service.exchange.ExchangeRateSnapshot;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ExchangeRateSnapshotServiceImplTest {
+
+    @Mock
+    CurrencyExchangeRateRepository currencyExchangeRateRepository;
+
+    @InjectMocks
+    ExchangeRateSnapshotServiceImpl exchangeRateSnapshotService;
+
+    @Test
+    void refresh_supportedAndUnsupportedCodes_onlySupportedCodesPublished() {
+        // given
+        when(currencyExchangeRateRepository.findAllNotDeleted()).thenReturn(List.of(
+                createRate("EUR", 0.92), createRate("AUD", 1.5), createRate("XYZ", 3.0)));
+
+        // when
+        ExchangeRateSnapshot actual = exchangeRateSnapshotService.refresh();
+
+        // then
+        assertEquals(Map.of(CurrencyCode.EUR, BigDecimal.valueOf(0.92), CurrencyCode.AUD, BigDecimal.valueOf(1.5)),
+                actual.getRates());
+        assertSame(actual, exchangeRateSnapshotService.getSnapshot());
+        verify(currencyExchangeRateRepository, times(1)).findAllNotDeleted();
+    }
+
+    @Test
+    void getSnapshot_publishedSnapshot_readsWithoutDatabase() {
+        // given
+        when(currencyExchangeRateRepository.findAllNotDeleted()).thenReturn(List.of(createRate("EUR", 0.92)));
+        exchangeRateSnapshotService.refresh();
+
+        // when
+        exchangeRateSnapshotService.getSnapshot();
+        BigDecimal actual = exchangeRateSnapshotService.getSnapshot().getRate(CurrencyCode.EUR);
+
+        // then
+        assertEquals(BigDecimal.valueOf(0.92), actual);
+        verify(currencyExchangeRateRepository, times(1)).findAllNotDeleted();
+    }
+
+    @Test
+    void getSnapshot_notPublishedYet_loadsFromDatabase() {
+        // given
+        when(currencyExchangeRateRepository.findAllNotDeleted()).thenReturn(List.of(createRate("USD", 1.0)));
+
+        // when
+        ExchangeRateSnapshot actual = exchangeRateSnapshotService.getSnapshot();
+
+        // then
+        assertEquals(BigDecimal.valueOf(1.0), actual.getRate(CurrencyCode.USD));
+    }
+
+    @Test
+    void refresh_previousSnapshotHeldByReader_notModified() {
+        // given
+        when(currencyExchangeRateRepository.findAllNotDeleted())
+                .thenReturn(List.of(createRate("EUR", 0.92)))
+                .thenReturn(List.of(createRate("EUR", 0.95), createRate("GBP", 0.8)));
+        ExchangeRateSnapshot held = exchangeRateSnapshotService.refresh();
+
+        // when
+        ExchangeRateSnapshot refreshed = exchangeRateSnapshotService.refresh();
+
+        // then
+        assertEquals(BigDecimal.valueOf(0.92), held.getRate(CurrencyCode.EUR));
+        assertThrows(DataNotFoundException.class, () -> held.getRate(CurrencyCode.GBP));
+        assertEquals(BigDecimal.valueOf(0.95), refreshed.getRate(CurrencyCode.EUR));
+        assertThrows(UnsupportedOperationException.class, () -> refreshed.getRates().put(CurrencyCode.JPY, BigDecimal.ONE));
+    }
+
+    private CurrencyExchangeRate createRate(String currencyCode, double rate) {
+        CurrencyExchangeRate exchangeRate = new CurrencyExchangeRate();
+        exchangeRate.setCurrencyCode(currencyCode);
+        exchangeRate.setExchangeRate(BigDecimal.valueOf(rate));
+        return exchangeRate;
+    }
+}
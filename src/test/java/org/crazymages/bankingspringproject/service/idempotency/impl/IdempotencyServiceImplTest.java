@@ -0,0 +1,333 @@
+package org.crazymages.bankingspringproject.service.idempotency.impl;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.crazymages.bankingspringproject.dto.TransactionDto;
+import org.crazymages.bankingspringproject.dto.TransferResultDto;
+import org.crazymages.bankingspringproject.entity.IdempotencyRecord;
+import org.crazymages.bankingspringproject.exception.IdempotencyKeyConflictException;
+import org.crazymages.bankingspringproject.repository.IdempotencyRecordRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.dao.PessimisticLockingFailureException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.security.authentication.TestingAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class IdempotencyServiceImplTest {
+
+    @Autowired
+    IdempotencyRecordRepository idempotencyRecordRepository;
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    ObjectMapper objectMapper;
+    IdempotencyServiceImpl idempotencyService;
+    TransactionDto transactionDto;
+    AtomicInteger executions;
+    Supplier<ResponseEntity<TransactionDto>> action;
+
+    @BeforeEach
+    void setUp() {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        idempotencyService =
+                new IdempotencyServiceImpl(idempotencyRecordRepository, objectMapper, transactionManager, 60, 60, 100,
+                        3, 0, 0);
+        transactionDto = TransactionDto.builder().amount(BigDecimal.TEN).description("rent").build();
+        executions = new AtomicInteger();
+        action = () -> {
+            executions.incrementAndGet();
+            return ResponseEntity.status(HttpStatus.CREATED).body(transactionDto);
+        };
+    }
+
+    @AfterEach
+    void tearDown() {
+        idempotencyRecordRepository.deleteAll();
+    }
+
+    @Test
+    void execute_withoutKey_actionExecutedEveryTime() {
+        // when
+        idempotencyService.execute(null, "create", transactionDto, TransactionDto.class, action);
+        idempotencyService.execute(null, "create", transactionDto, TransactionDto.class, action);
+
+        // then
+        assertEquals(2, executions.get());
+        assertEquals(0, idempotencyRecordRepository.count());
+    }
+
+    @Test
+    void execute_sameKeyTwice_actionExecutedOnceAndResponseReplayed() {
+        // when
+        ResponseEntity<TransactionDto> first =
+                idempotencyService.execute("key", "create", transactionDto, TransactionDto.class, action);
+        ResponseEntity<TransactionDto> second =
+                idempotencyService.execute("key", "create", transactionDto, TransactionDto.class, action);
+
+        // then
+        assertEquals(1, executions.get());
+        assertEquals(HttpStatus.CREATED, second.getStatusCode());
+        assertEquals(first.getBody(), second.getBody());
+    }
+
+    @Test
+    void execute_sameKeyAfterRestart_responseReplayedFromDatabase() {
+        // given
+        idempotencyService.execute("key", "create", transactionDto, TransactionDto.class, action);
+        IdempotencyServiceImpl restarted =
+                new IdempotencyServiceImpl(idempotencyRecordRepository, objectMapper, transactionManager, 60, 60, 100,
+                        3, 0, 0);
+
+        // when
+        ResponseEntity<TransactionDto> actual =
+                restarted.execute("key", "create", transactionDto, TransactionDto.class, action);
+
+        // then
+        assertEquals(1, executions.get());
+        assertEquals(HttpStatus.CREATED, actual.getStatusCode());
+        assertEquals(transactionDto, actual.getBody());
+    }
+
+    @Test
+    void execute_arrayResponseBodyAfterRestart_replayedFromDatabase() {
+        // given
+        TransferResultDto[] results = {TransferResultDto.builder().index(0).status("COMPLETED").build()};
+        Supplier<ResponseEntity<TransferResultDto[]>> batch = () -> {
+            executions.incrementAndGet();
+            return ResponseEntity.ok(results);
+        };
+        idempotencyService.execute("key", "batch", transactionDto, TransferResultDto[].class, batch);
+        IdempotencyServiceImpl restarted =
+                new IdempotencyServiceImpl(idempotencyRecordRepository, objectMapper, transactionManager, 60, 60, 100,
+                        3, 0, 0);
+
+        // when
+        ResponseEntity<TransferResultDto[]> actual =
+                restarted.execute("key", "batch", transactionDto, TransferResultDto[].class, batch);
+
+        // then
+        assertEquals(1, executions.get());
+        assertEquals(HttpStatus.OK, actual.getStatusCode());
+        assertArrayEquals(results, actual.getBody());
+    }
+
+    @Test
+    void execute_emptyResponseBody_replayedWithoutBody() {
+        // given
+        Supplier<ResponseEntity<String>> transfer = () -> {
+            executions.incrementAndGet();
+            return ResponseEntity.ok().build();
+        };
+        idempotencyService.execute("key", "transfer", transactionDto, String.class, transfer);
+
+        // when
+        ResponseEntity<String> actual = idempotencyService.execute("key", "transfer", transactionDto, String.class, transfer);
+
+        // then
+        assertEquals(1, executions.get());
+        assertEquals(HttpStatus.OK, actual.getStatusCode());
+        assertNull(actual.getBody());
+    }
+
+    @Test
+    void execute_sameKeyDifferentRequest_throwsIdempotencyKeyConflictException() {
+        // given
+        idempotencyService.execute("key", "create", transactionDto, TransactionDto.class, action);
+        TransactionDto otherRequest = TransactionDto.builder().amount(BigDecimal.ONE).build();
+
+        // when, then
+        assertThrows(IdempotencyKeyConflictException.class,
+                () -> idempotencyService.execute("key", "create", otherRequest, TransactionDto.class, action));
+        assertEquals(1, executions.get());
+    }
+
+    @Test
+    void execute_requestStillInProgress_throwsIdempotencyKeyConflictException() {
+        // given
+        reserve(Instant.now());
+
+        // when, then
+        assertThrows(IdempotencyKeyConflictException.class,
+                () -> idempotencyService.execute("key", "create", transactionDto, TransactionDto.class, action));
+        assertEquals(0, executions.get());
+    }
+
+    @Test
+    void execute_leaseOfRequestInProgressExpired_reservationTakenOver() {
+        // given
+        UUID abandonedLease = reserve(Instant.now().minusSeconds(120));
+
+        // when
+        ResponseEntity<TransactionDto> actual =
+                idempotencyService.execute("key", "create", transactionDto, TransactionDto.class, action);
+
+        // then
+        assertEquals(1, executions.get());
+        assertEquals(HttpStatus.CREATED, actual.getStatusCode());
+        IdempotencyRecord record = idempotencyRecordRepository.findAll().get(0);
+        assertNotEquals(abandonedLease, record.getLeaseToken());
+        assertEquals(HttpStatus.CREATED.value(), record.getResponseStatus());
+    }
+
+    @Test
+    void execute_reservationTakenOverWhileRunning_actionRolledBack() {
+        // given
+        TransactionTemplate otherInstance = new TransactionTemplate(transactionManager);
+        otherInstance.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        Supplier<ResponseEntity<TransactionDto>> overtaken = () -> {
+            otherInstance.executeWithoutResult(status -> idempotencyRecordRepository
+                    .takeOver(idempotencyRecordRepository.findAll().get(0).getIdempotencyKey(), UUID.randomUUID(),
+                            Timestamp.from(Instant.now()), Timestamp.from(Instant.now().plusSeconds(1))));
+            return action.get();
+        };
+
+        // when, then
+        assertThrows(IdempotencyKeyConflictException.class,
+                () -> idempotencyService.execute("key", "create", transactionDto, TransactionDto.class, overtaken));
+        assertNull(idempotencyRecordRepository.findAll().get(0).getResponseStatus());
+    }
+
+    @Test
+    void execute_sameKeyFromDifferentPrincipals_actionExecutedForEach() {
+        // when
+        try {
+            SecurityContextHolder.getContext().setAuthentication(new TestingAuthenticationToken("alice", null));
+            idempotencyService.execute("key", "create", transactionDto, TransactionDto.class, action);
+            SecurityContextHolder.getContext().setAuthentication(new TestingAuthenticationToken("bob", null));
+            idempotencyService.execute("key", "create", transactionDto, TransactionDto.class, action);
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+
+        // then
+        assertEquals(2, executions.get());
+        assertEquals(2, idempotencyRecordRepository.count());
+    }
+
+    @Test
+    void execute_actionFails_keyReleasedForRetry() {
+        // given
+        Supplier<ResponseEntity<TransactionDto>> failing = () -> {
+            throw new IllegalStateException();
+        };
+        assertThrows(IllegalStateException.class,
+                () -> idempotencyService.execute("key", "create", transactionDto, TransactionDto.class, failing));
+
+        // when
+        idempotencyService.execute("key", "create", transactionDto, TransactionDto.class, action);
+
+        // then
+        assertEquals(1, executions.get());
+        IdempotencyRecord record = idempotencyRecordRepository.findAll().get(0);
+        assertEquals(HttpStatus.CREATED.value(), record.getResponseStatus());
+    }
+
+    @Test
+    void execute_actionFailsAfterWriting_writesRolledBackWithResponse() {
+        // given
+        Supplier<ResponseEntity<TransactionDto>> failing = () -> {
+            idempotencyRecordRepository.save(new IdempotencyRecord("other", "create", "hash"));
+            throw new IllegalStateException();
+        };
+
+        // when, then
+        assertThrows(IllegalStateException.class,
+                () -> idempotencyService.execute("key", "create", transactionDto, TransactionDto.class, failing));
+        assertEquals(0, idempotencyRecordRepository.count());
+    }
+
+    @Test
+    void execute_conflictInAction_wholeRequestRetriedInFreshTransaction() {
+        // given
+        Supplier<ResponseEntity<TransactionDto>> conflicting = () -> {
+            idempotencyRecordRepository.save(new IdempotencyRecord("other-" + executions.get(), "create", "hash"));
+            if (executions.getAndIncrement() == 0) {
+                throw new PessimisticLockingFailureException("lock timeout");
+            }
+            return ResponseEntity.status(HttpStatus.CREATED).body(transactionDto);
+        };
+
+        // when
+        ResponseEntity<TransactionDto> actual =
+                idempotencyService.execute("key", "create", transactionDto, TransactionDto.class, conflicting);
+
+        // then
+        assertEquals(HttpStatus.CREATED, actual.getStatusCode());
+        assertEquals(2, executions.get());
+        assertFalse(idempotencyRecordRepository.existsById("other-0"));
+        assertTrue(idempotencyRecordRepository.existsById("other-1"));
+        IdempotencyRecord record = idempotencyRecordRepository.findAll().stream()
+                .filter(candidate -> candidate.getIdempotencyKey().endsWith(":key"))
+                .findFirst()
+                .orElseThrow();
+        assertEquals(HttpStatus.CREATED.value(), record.getResponseStatus());
+    }
+
+    @Test
+    void execute_conflictOnEveryAttempt_throwsAfterMaxAttemptsAndKeyReleased() {
+        // given
+        Supplier<ResponseEntity<TransactionDto>> conflicting = () -> {
+            executions.incrementAndGet();
+            throw new PessimisticLockingFailureException("lock timeout");
+        };
+
+        // when, then
+        assertThrows(PessimisticLockingFailureException.class,
+                () -> idempotencyService.execute("key", "create", transactionDto, TransactionDto.class, conflicting));
+        assertEquals(3, executions.get());
+        assertEquals(0, idempotencyRecordRepository.count());
+    }
+
+    @Test
+    void execute_blankKey_throwsIllegalArgumentException() {
+        // when, then
+        assertThrows(IllegalArgumentException.class,
+                () -> idempotencyService.execute(" ", "create", transactionDto, TransactionDto.class, action));
+    }
+
+    @Test
+    void purgeExpired_deletesRecordsOlderThanTtl() {
+        // given
+        idempotencyService.execute("key", "create", transactionDto, TransactionDto.class, action);
+        IdempotencyServiceImpl noTtl =
+                new IdempotencyServiceImpl(idempotencyRecordRepository, objectMapper, transactionManager, 0, 60, 100,
+                        3, 0, 0);
+
+        // when
+        Integer actual = new TransactionTemplate(transactionManager).execute(status -> noTtl.purgeExpired());
+
+        // then
+        assertEquals(1, actual);
+        assertEquals(0, idempotencyRecordRepository.count());
+    }
+
+    private UUID reserve(Instant reservedAt) {
+        IdempotencyRecord record =
+                new IdempotencyRecord("0::key", "create", idempotencyService.hash("create", transactionDto));
+        record.setReservedAt(Timestamp.from(reservedAt));
+        record.setLeaseToken(UUID.randomUUID());
+        idempotencyRecordRepository.save(record);
+        return record.getLeaseToken();
+    }
+}
@@ -0,0 +1,61 @@
+package org.crazymages.bankingspringproject.service.job;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UuidPartitionTest {
+
+    @Test
+    void split_partitionsCoverUuidSpaceContiguously() {
+        // when
+        List<UuidPartition> partitions = UuidPartition.split(4);
+
+        // then
+        assertEquals(4, partitions.size());
+        assertEquals(new UUID(0L, 0L), partitions.get(0).after());
+        assertEquals(new UUID(0x3FFFFFFFFFFFFFFFL, -1L), partitions.get(0).upTo());
+        assertEquals(new UUID(0x7FFFFFFFFFFFFFFFL, -1L), partitions.get(1).upTo());
+        assertEquals(new UUID(0xBFFFFFFFFFFFFFFFL, -1L), partitions.get(2).upTo());
+        assertEquals(new UUID(-1L, -1L), partitions.get(3).upTo());
+        for (int i = 1; i < partitions.size(); i++) {
+            assertEquals(partitions.get(i - 1).upTo(), partitions.get(i).after());
+        }
+    }
+
+    @Test
+    void split_countNotDividingUuidSpace_lastPartitionEndsAtMaxUuid() {
+        // when
+        List<UuidPartition> partitions = UuidPartition.split(3);
+
+        // then
+        assertEquals(partitions.get(0).upTo(), partitions.get(1).after());
+        assertEquals(partitions.get(1).upTo(), partitions.get(2).after());
+        assertEquals(new UUID(-1L, -1L), partitions.get(2).upTo());
+    }
+
+    @Test
+    void singlePartition_coversWholeUuidSpace() {
+        // given
+        UuidPartition partition = new UuidPartition(0, 1);
+
+        // then
+        assertEquals(new UUID(0L, 0L), partition.after());
+        assertEquals(new UUID(-1L, -1L), partition.upTo());
+    }
+
+    @Test
+    void split_nonPositiveCount_throwsIllegalArgumentException() {
+        // when, then
+        assertThrows(IllegalArgumentException.class, () -> UuidPartition.split(0));
+    }
+
+    @Test
+    void newPartition_indexOutOfRange_throwsIllegalArgumentException() {
+        // when, then
+        assertThrows(IllegalArgumentException.class, () -> new UuidPartition(2, 2));
+    }
+}
@@ -0,0 +1,400 @@
+package org.crazymages.bankingspringproject.service.job.impl;
+
+import org.crazymages.bankingspringproject.entity.JobExecution;
+import org.crazymages.bankingspringproject.entity.enums.JobStatus;
+import org.crazymages.bankingspringproject.repository.JobExecutionRepository;
+import org.crazymages.bankingspringproject.service.job.ChunkJob;
+import org.crazymages.bankingspringproject.service.job.ChunkResult;
+import org.crazymages.bankingspringproject.service.job.PartitionedChunkJob;
+import org.crazymages.bankingspringproject.service.job.UuidPartition;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class JobRunnerImplTest {
+
+    private static final String JOB_NAME = "test-job";
+    private static final String RUN_KEY = "2023-07-01";
+
+    @Mock
+    JobExecutionRepository jobExecutionRepository;
+    @Mock
+    PlatformTransactionManager transactionManager;
+    @Mock
+    ObjectProvider<ChunkJob> jobs;
+    @Mock
+    ChunkJob job;
+    @Mock
+    PartitionedChunkJob partitionedJob;
+
+    ExecutorService executor;
+    JobRunnerImpl jobRunner;
+    Map<Long, JobExecution> stored;
+
+    @BeforeEach
+    void setUp() {
+        executor = Executors.newFixedThreadPool(8);
+        jobRunner = new JobRunnerImpl(jobExecutionRepository, new TransactionTemplate(transactionManager), jobs,
+                Clock.fixed(Instant.parse("2023-07-01T12:00:00Z"), ZoneOffset.UTC), executor, 2, 2);
+        stored = new ConcurrentHashMap<>();
+        lenient().when(job.getJobName()).thenReturn(JOB_NAME);
+        lenient().when(job.prepareChunk(any())).thenCallRealMethod();
+        lenient().when(partitionedJob.getJobName()).thenReturn(JOB_NAME);
+        lenient().when(jobExecutionRepository.save(any(JobExecution.class))).thenAnswer(invocation -> {
+            JobExecution execution = invocation.getArgument(0);
+            if (execution.getId() == null) {
+                execution.setId(execution.getPartitionIndex() + 100L);
+            }
+            stored.put(execution.getId(), execution);
+            return execution;
+        });
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void run_newRun_chunksProcessedUntilCompleted() {
+        // given
+        JobExecution execution = execution(JobStatus.STARTED, null);
+        when(jobExecutionRepository.findByJobNameAndRunKeyAndPartitionIndex(JOB_NAME, RUN_KEY, 0))
+                .thenReturn(Optional.empty());
+        when(jobExecutionRepository.save(argThat(saved -> saved.getId() == null))).thenReturn(execution);
+        when(jobExecutionRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(execution));
+        when(job.processChunk(null)).thenReturn(ChunkResult.next("a", 2));
+        when(job.processChunk("a")).thenReturn(ChunkResult.finished("b", 1));
+
+        // when
+        JobExecution actual = jobRunner.run(job, RUN_KEY);
+
+        // then
+        assertEquals(JobStatus.COMPLETED, actual.getStatus());
+        assertEquals("b", actual.getCheckpoint());
+        assertEquals(2, actual.getChunkCount());
+        assertEquals(3, actual.getProcessedCount());
+        assertNotNull(actual.getFinishedAt());
+        verify(transactionManager, times(3)).commit(any());
+    }
+
+    @Test
+    void run_interruptedRun_resumedAfterStoredCheckpoint() {
+        // given
+        JobExecution execution = execution(JobStatus.FAILED, "a");
+        execution.setChunkCount(1);
+        execution.setProcessedCount(2);
+        when(jobExecutionRepository.findByJobNameAndRunKeyAndPartitionIndex(JOB_NAME, RUN_KEY, 0))
+                .thenReturn(Optional.of(execution));
+        when(jobExecutionRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(execution));
+        when(job.processChunk("a")).thenReturn(ChunkResult.finished("b", 1));
+
+        // when
+        JobExecution actual = jobRunner.run(job, RUN_KEY);
+
+        // then
+        verify(job, never()).processChunk(null);
+        assertEquals(JobStatus.COMPLETED, actual.getStatus());
+        assertEquals(2, actual.getChunkCount());
+        assertEquals(3, actual.getProcessedCount());
+        assertNull(actual.getLastError());
+    }
+
+    @Test
+    void run_chunkConflicts_chunkRetriedInNewTransaction() {
+        // given
+        JobExecution execution = execution(JobStatus.STARTED, null);
+        when(jobExecutionRepository.findByJobNameAndRunKeyAndPartitionIndex(JOB_NAME, RUN_KEY, 0))
+                .thenReturn(Optional.of(execution));
+        when(jobExecutionRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(execution));
+        when(job.processChunk(null))
+                .thenThrow(new CannotAcquireLockException("deadlock"))
+                .thenReturn(ChunkResult.finished("a", 1));
+
+        // when
+        JobExecution actual = jobRunner.run(job, RUN_KEY);
+
+        // then
+        assertEquals(JobStatus.COMPLETED, actual.getStatus());
+        assertEquals(1, actual.getChunkCount());
+        verify(job, times(2)).processChunk(null);
+        verify(transactionManager).rollback(any());
+    }
+
+    @Test
+    void run_chunkConflicts_chunkPreparedOnceBeforeItsTransaction() {
+        // given
+        JobExecution execution = execution(JobStatus.STARTED, null);
+        when(jobExecutionRepository.findByJobNameAndRunKeyAndPartitionIndex(JOB_NAME, RUN_KEY, 0))
+                .thenReturn(Optional.of(execution));
+        when(jobExecutionRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(execution));
+        AtomicInteger attempts = new AtomicInteger();
+        when(job.prepareChunk(null)).thenReturn(() -> {
+            if (attempts.incrementAndGet() == 1) {
+                throw new CannotAcquireLockException("deadlock");
+            }
+            return ChunkResult.finished("a", 1);
+        });
+
+        // when
+        JobExecution actual = jobRunner.run(job, RUN_KEY);
+
+        // then
+        assertEquals(JobStatus.COMPLETED, actual.getStatus());
+        assertEquals(2, attempts.get());
+        InOrder inOrder = inOrder(job, transactionManager);
+        inOrder.verify(job).prepareChunk(null);
+        inOrder.verify(transactionManager, times(2)).getTransaction(any());
+        verify(job, never()).processChunk(any());
+    }
+
+    @Test
+    void run_chunkConflictsOnEveryAttempt_runFailed() {
+        // given
+        JobExecution execution = execution(JobStatus.STARTED, null);
+        when(jobExecutionRepository.findByJobNameAndRunKeyAndPartitionIndex(JOB_NAME, RUN_KEY, 0))
+                .thenReturn(Optional.of(execution));
+        when(jobExecutionRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(execution));
+        when(jobExecutionRepository.findById(1L)).thenReturn(Optional.of(execution));
+        when(job.processChunk(null)).thenThrow(new CannotAcquireLockException("deadlock"));
+
+        // when, then
+        assertThrows(CannotAcquireLockException.class, () -> jobRunner.run(job, RUN_KEY));
+        verify(job, times(2)).processChunk(null);
+        assertEquals(JobStatus.FAILED, execution.getStatus());
+    }
+
+    @Test
+    void run_completedRun_notRunAgain() {
+        // given
+        JobExecution execution = execution(JobStatus.COMPLETED, "b");
+        when(jobExecutionRepository.findByJobNameAndRunKeyAndPartitionIndex(JOB_NAME, RUN_KEY, 0))
+                .thenReturn(Optional.of(execution));
+
+        // when
+        JobExecution actual = jobRunner.run(job, RUN_KEY);
+
+        // then
+        assertSame(execution, actual);
+        verify(job, never()).processChunk(any());
+        verify(jobExecutionRepository, never()).findByIdForUpdate(any());
+    }
+
+    @Test
+    void run_chunkFails_runMarkedFailedAtLastCheckpointAndExceptionRethrown() {
+        // given
+        JobExecution execution = execution(JobStatus.STARTED, "a");
+        when(jobExecutionRepository.findByJobNameAndRunKeyAndPartitionIndex(JOB_NAME, RUN_KEY, 0))
+                .thenReturn(Optional.of(execution));
+        when(jobExecutionRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(execution));
+        when(jobExecutionRepository.findById(1L)).thenReturn(Optional.of(execution));
+        when(job.processChunk("a")).thenThrow(new IllegalStateException("provider down"));
+
+        // when, then
+        assertThrows(IllegalStateException.class, () -> jobRunner.run(job, RUN_KEY));
+        assertEquals(JobStatus.FAILED, execution.getStatus());
+        assertEquals("a", execution.getCheckpoint());
+        assertEquals("provider down", execution.getLastError());
+        verify(transactionManager).rollback(any());
+    }
+
+    @Test
+    void run_checkpointAdvancedByAnotherRunner_stops() {
+        // given
+        JobExecution started = execution(JobStatus.STARTED, "a");
+        JobExecution advanced = execution(JobStatus.STARTED, "c");
+        when(jobExecutionRepository.findByJobNameAndRunKeyAndPartitionIndex(JOB_NAME, RUN_KEY, 0))
+                .thenReturn(Optional.of(started));
+        when(jobExecutionRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(advanced));
+        when(jobExecutionRepository.findById(1L)).thenReturn(Optional.of(advanced));
+
+        // when
+        JobExecution actual = jobRunner.run(job, RUN_KEY);
+
+        // then
+        assertSame(advanced, actual);
+        verify(job, never()).processChunk(any());
+    }
+
+    @Test
+    void run_nullJob_throwsIllegalArgumentException() {
+        // when, then
+        assertThrows(IllegalArgumentException.class, () -> jobRunner.run(null, RUN_KEY));
+    }
+
+    @Test
+    void runPartitioned_newRun_eachPartitionRunAsOwnExecution() {
+        // given
+        when(partitionedJob.getPartitionCount()).thenReturn(3);
+        stubPartitionedExecutions();
+        when(partitionedJob.processChunk(any(UuidPartition.class), isNull())).thenAnswer(invocation ->
+                ChunkResult.finished(invocation.<UuidPartition>getArgument(0).upTo().toString(), 1));
+
+        // when
+        List<JobExecution> actual = jobRunner.runPartitioned(partitionedJob, RUN_KEY);
+
+        // then
+        assertEquals(3, actual.size());
+        for (int i = 0; i < 3; i++) {
+            assertEquals(i, actual.get(i).getPartitionIndex());
+            assertEquals(3, actual.get(i).getPartitionCount());
+            assertEquals(JobStatus.COMPLETED, actual.get(i).getStatus());
+            assertEquals(new UuidPartition(i, 3).upTo().toString(), actual.get(i).getCheckpoint());
+            verify(partitionedJob).processChunk(new UuidPartition(i, 3), null);
+        }
+    }
+
+    @Test
+    void runPartitioned_startedRun_continuesWithStoredPartitionCount() {
+        // given
+        JobExecution completed = execution(JobStatus.COMPLETED, "a");
+        completed.setPartitionCount(2);
+        stored.put(completed.getId(), completed);
+        lenient().when(partitionedJob.getPartitionCount()).thenReturn(4);
+        when(jobExecutionRepository.findByJobNameAndRunKeyOrderByPartitionIndexAsc(JOB_NAME, RUN_KEY))
+                .thenReturn(List.of(completed));
+        stubPartitionedExecutions();
+        when(partitionedJob.processChunk(new UuidPartition(1, 2), null)).thenReturn(ChunkResult.finished("b", 1));
+
+        // when
+        List<JobExecution> actual = jobRunner.runPartitioned(partitionedJob, RUN_KEY);
+
+        // then
+        assertEquals(2, actual.size());
+        assertSame(completed, actual.get(0));
+        assertEquals(JobStatus.COMPLETED, actual.get(1).getStatus());
+        verify(partitionedJob, never()).processChunk(eq(new UuidPartition(0, 2)), any());
+        verify(partitionedJob, never()).processChunk(argThat(partition -> partition.count() == 4), any());
+    }
+
+    @Test
+    void runPartitioned_partitionFails_otherPartitionsCompletedAndFailureRethrown() {
+        // given
+        when(partitionedJob.getPartitionCount()).thenReturn(2);
+        stubPartitionedExecutions();
+        when(partitionedJob.processChunk(new UuidPartition(0, 2), null))
+                .thenThrow(new IllegalStateException("partition down"));
+        when(partitionedJob.processChunk(new UuidPartition(1, 2), null)).thenReturn(ChunkResult.finished("b", 1));
+
+        // when, then
+        IllegalStateException actual = assertThrows(IllegalStateException.class,
+                () -> jobRunner.runPartitioned(partitionedJob, RUN_KEY));
+        assertEquals("partition down", actual.getMessage());
+        assertEquals(JobStatus.FAILED, stored.get(100L).getStatus());
+        assertEquals(JobStatus.COMPLETED, stored.get(101L).getStatus());
+    }
+
+    @Test
+    void runPartitioned_morePartitionsThanConcurrency_concurrencyCapped() {
+        // given
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        when(partitionedJob.getPartitionCount()).thenReturn(6);
+        stubPartitionedExecutions();
+        when(partitionedJob.processChunk(any(UuidPartition.class), isNull())).thenAnswer(invocation -> {
+            maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+            Thread.sleep(20);
+            running.decrementAndGet();
+            return ChunkResult.finished(null, 1);
+        });
+
+        // when
+        List<JobExecution> actual = jobRunner.runPartitioned(partitionedJob, RUN_KEY);
+
+        // then
+        assertEquals(6, actual.size());
+        assertTrue(maxRunning.get() <= 2);
+    }
+
+    @Test
+    void newPartitionExecutor_runsTasksOnPartitionThreads() throws Exception {
+        // given
+        ExecutorService partitionExecutor = JobRunnerImpl.newPartitionExecutor(2);
+
+        // when
+        String threadName = partitionExecutor.submit(() -> Thread.currentThread().getName()).get();
+        partitionExecutor.shutdownNow();
+
+        // then
+        assertTrue(threadName.startsWith("job-partition-"));
+    }
+
+    @Test
+    void partitionConcurrency_cappedBelowPoolSize() {
+        // when, then
+        assertEquals(8, JobRunnerImpl.partitionConcurrency(Integer.MAX_VALUE, 10, 2));
+        assertEquals(4, JobRunnerImpl.partitionConcurrency(4, 10, 2));
+        assertEquals(8, JobRunnerImpl.partitionConcurrency(10, 10, 2));
+        assertEquals(1, JobRunnerImpl.partitionConcurrency(Integer.MAX_VALUE, 2, 2));
+        assertThrows(IllegalArgumentException.class, () -> JobRunnerImpl.partitionConcurrency(4, 10, 0));
+    }
+
+    @Test
+    void resumeIncomplete_incompleteRunsOfKnownJobsResumed() throws InterruptedException {
+        // given
+        JobExecution execution = execution(JobStatus.FAILED, "a");
+        JobExecution orphan = execution(JobStatus.STARTED, null);
+        orphan.setJobName("removed-job");
+        when(jobs.stream()).thenReturn(Stream.of(job));
+        when(jobExecutionRepository.findByStatusInOrderByIdAsc(any())).thenReturn(List.of(orphan, execution));
+        when(jobExecutionRepository.findByJobNameAndRunKeyAndPartitionIndex(JOB_NAME, RUN_KEY, 0))
+                .thenReturn(Optional.of(execution));
+        when(jobExecutionRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(execution));
+        when(job.processChunk("a")).thenReturn(ChunkResult.finished("b", 1));
+
+        // when
+        Thread resume = jobRunner.resumeIncomplete();
+        resume.join(5_000);
+
+        // then
+        assertFalse(resume.isAlive());
+        assertEquals(JobStatus.COMPLETED, execution.getStatus());
+        verify(job).processChunk("a");
+    }
+
+    private void stubPartitionedExecutions() {
+        lenient().when(jobExecutionRepository
+                        .findByJobNameAndRunKeyAndPartitionIndex(eq(JOB_NAME), eq(RUN_KEY), anyInt()))
+                .thenAnswer(invocation -> stored.values().stream()
+                        .filter(execution -> execution.getPartitionIndex() == invocation.<Integer>getArgument(2))
+                        .findFirst());
+        lenient().when(jobExecutionRepository.findByIdForUpdate(anyLong()))
+                .thenAnswer(invocation -> Optional.ofNullable(stored.get(invocation.<Long>getArgument(0))));
+        lenient().when(jobExecutionRepository.findById(anyLong()))
+                .thenAnswer(invocation -> Optional.ofNullable(stored.get(invocation.<Long>getArgument(0))));
+    }
+
+    private static JobExecution execution(JobStatus status, String checkpoint) {
+        return JobExecution.builder()
+                .id(1L)
+                .jobName(JOB_NAME)
+                .runKey(RUN_KEY)
+                .status(status)
+                .checkpoint(checkpoint)
+                .build();
+    }
+}
@@ -0,0 +1,192 @@
+package org.crazymages.bankingspringproject.service.ledger.impl;
+
+import org.crazymages.bankingspringproject.entity.Account;
+import org.crazymages.bankingspringproject.entity.BalanceSnapshot;
+import org.crazymages.bankingspringproject.entity.enums.CurrencyCode;
+import org.crazymages.bankingspringproject.entity.enums.LedgerEntryType;
+import org.crazymages.bankingspringproject.repository.AccountRepository;
+import org.crazymages.bankingspringproject.repository.BalanceSnapshotRepository;
+import org.crazymages.bankingspringproject.repository.LedgerEntryRepository;
+import org.crazymages.bankingspringproject.repository.LedgerEntryRepository.LedgerDelta;
+import org.crazymages.bankingspringproject.service.ledger.LedgerMovement;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class LedgerServiceImplTest {
+
+    @Mock
+    LedgerEntryRepository ledgerEntryRepository;
+    @Mock
+    BalanceSnapshotRepository balanceSnapshotRepository;
+    @Mock
+    AccountRepository accountRepository;
+    @Mock
+    JdbcTemplate jdbcTemplate;
+    @Mock
+    PlatformTransactionManager transactionManager;
+
+    LedgerServiceImpl ledgerService;
+    Account sender;
+    Account recipient;
+    UUID transactionUuid;
+
+    @BeforeEach
+    void setUp() {
+        ledgerService = new LedgerServiceImpl(ledgerEntryRepository, balanceSnapshotRepository, accountRepository,
+                jdbcTemplate, transactionManager, 10);
+        sender = Account.builder().uuid(UUID.randomUUID()).currencyCode(CurrencyCode.EUR).build();
+        recipient = Account.builder().uuid(UUID.randomUUID()).currencyCode(CurrencyCode.USD).build();
+        transactionUuid = UUID.randomUUID();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void recordTransfer_writesDebitAndCreditEntriesInOneBatch() {
+        // given
+        ArgumentCaptor<List<Object[]>> captor = ArgumentCaptor.forClass(List.class);
+
+        // when
+        ledgerService.recordTransfer(transactionUuid, sender, BigDecimal.TEN, recipient, BigDecimal.valueOf(11));
+
+        // then
+        verify(jdbcTemplate).batchUpdate(eq(LedgerServiceImpl.INSERT_ENTRY_SQL), captor.capture());
+        List<Object[]> entries = captor.getValue();
+        assertEquals(2, entries.size());
+        assertArrayEquals(new Object[]{transactionUuid, sender.getUuid(), LedgerEntryType.DEBIT.name(),
+                BigDecimal.TEN, CurrencyCode.EUR.name()}, entries.get(0));
+        assertArrayEquals(new Object[]{transactionUuid, recipient.getUuid(), LedgerEntryType.CREDIT.name(),
+                BigDecimal.valueOf(11), CurrencyCode.USD.name()}, entries.get(1));
+        verifyNoInteractions(ledgerEntryRepository);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void recordTransfers_severalMovements_writesAllEntriesInOneBatch() {
+        // given
+        ArgumentCaptor<List<Object[]>> captor = ArgumentCaptor.forClass(List.class);
+        List<LedgerMovement> movements = List.of(
+                new LedgerMovement(transactionUuid, sender, BigDecimal.TEN, recipient, BigDecimal.TEN),
+                new LedgerMovement(null, recipient, BigDecimal.ONE, sender, BigDecimal.ONE));
+
+        // when
+        ledgerService.recordTransfers(movements);
+
+        // then
+        verify(jdbcTemplate).batchUpdate(eq(LedgerServiceImpl.INSERT_ENTRY_SQL), captor.capture());
+        List<Object[]> entries = captor.getValue();
+        assertEquals(4, entries.size());
+        assertEquals(recipient.getUuid(), entries.get(2)[1]);
+        assertEquals(LedgerEntryType.DEBIT.name(), entries.get(2)[2]);
+        assertNull(entries.get(3)[0]);
+    }
+
+    @Test
+    void recordTransfer_nullAccount_throwsIllegalArgumentException() {
+        // when, then
+        assertThrows(IllegalArgumentException.class,
+                () -> ledgerService.recordTransfer(transactionUuid, null, BigDecimal.TEN, recipient, BigDecimal.TEN));
+        verifyNoInteractions(jdbcTemplate);
+    }
+
+    @Test
+    void openAccount_savesOpeningSnapshot() {
+        // given
+        sender.setBalance(BigDecimal.valueOf(250));
+        ArgumentCaptor<BalanceSnapshot> captor = ArgumentCaptor.forClass(BalanceSnapshot.class);
+
+        // when
+        ledgerService.openAccount(sender);
+
+        // then
+        verify(balanceSnapshotRepository).save(captor.capture());
+        assertEquals(sender.getUuid(), captor.getValue().getAccountUuid());
+        assertEquals(BigDecimal.valueOf(250), captor.getValue().getBalance());
+        assertEquals(0L, captor.getValue().getLastEntryId());
+    }
+
+    @Test
+    void openAccount_withoutBalance_opensWithZero() {
+        // given
+        ArgumentCaptor<BalanceSnapshot> captor = ArgumentCaptor.forClass(BalanceSnapshot.class);
+
+        // when
+        ledgerService.openAccount(sender);
+
+        // then
+        verify(balanceSnapshotRepository).save(captor.capture());
+        assertEquals(BigDecimal.ZERO, captor.getValue().getBalance());
+    }
+
+    @Test
+    void openAccount_nullAccount_throwsIllegalArgumentException() {
+        // when, then
+        assertThrows(IllegalArgumentException.class, () -> ledgerService.openAccount(null));
+        verifyNoInteractions(balanceSnapshotRepository);
+    }
+
+    @Test
+    void getBalance_withSnapshot_snapshotPlusDeltasSince() {
+        // given
+        UUID uuid = sender.getUuid();
+        BalanceSnapshot snapshot = BalanceSnapshot.builder()
+                .accountUuid(uuid)
+                .balance(BigDecimal.valueOf(100))
+                .lastEntryId(42L)
+                .build();
+        when(balanceSnapshotRepository.findById(uuid)).thenReturn(Optional.of(snapshot));
+        when(ledgerEntryRepository.sumDeltaAfter(uuid, 42L)).thenReturn(BigDecimal.valueOf(-30));
+
+        // when
+        BigDecimal actual = ledgerService.getBalance(uuid);
+
+        // then
+        assertEquals(BigDecimal.valueOf(70), actual);
+    }
+
+    @Test
+    void getBalance_withoutSnapshot_seedsSnapshotFromAccountBalance() {
+        // given
+        UUID uuid = sender.getUuid();
+        sender.setBalance(BigDecimal.valueOf(100));
+        LedgerDelta delta = mock(LedgerDelta.class);
+        when(delta.getAccountUuid()).thenReturn(uuid);
+        when(delta.getLastEntryId()).thenReturn(7L);
+        when(balanceSnapshotRepository.findById(uuid)).thenReturn(Optional.empty()).thenAnswer(invocation ->
+                Optional.of(BalanceSnapshot.builder().accountUuid(uuid).balance(BigDecimal.valueOf(100))
+                        .lastEntryId(7L).build()));
+        when(accountRepository.findAccountsByUuidInForUpdate(List.of(uuid))).thenReturn(List.of(sender));
+        when(ledgerEntryRepository.findDeltasSinceSnapshot(List.of(uuid))).thenReturn(List.of(delta));
+        when(ledgerEntryRepository.sumDeltaAfter(uuid, 7L)).thenReturn(BigDecimal.ZERO);
+        ArgumentCaptor<BalanceSnapshot> captor = ArgumentCaptor.forClass(BalanceSnapshot.class);
+
+        // when
+        BigDecimal actual = ledgerService.getBalance(uuid);
+
+        // then
+        assertEquals(BigDecimal.valueOf(100), actual);
+        verify(balanceSnapshotRepository).save(captor.capture());
+        assertEquals(BigDecimal.valueOf(100), captor.getValue().getBalance());
+        assertEquals(7L, captor.getValue().getLastEntryId());
+    }
+
+    @Test
+    void getBalance_nullUuid_throwsIllegalArgumentException() {
+        // when, then
+        assertThrows(IllegalArgumentException.class, () -> ledgerService.getBalance(null));
+    }
+}
@@ -0,0 +1,307 @@
+package org.crazymages.bankingspringproject.service.limit.impl;
+
+import org.crazymages.bankingspringproject.entity.Account;
+import org.crazymages.bankingspringproject.entity.Transaction;
+import org.crazymages.bankingspringproject.entity.enums.AccountType;
+import org.crazymages.bankingspringproject.entity.enums.CurrencyCode;
+import org.crazymages.bankingspringproject.entity.enums.ProductType;
+import org.crazymages.bankingspringproject.entity.enums.TransactionType;
+import org.crazymages.bankingspringproject.exception.SpendingLimitExceededException;
+import org.crazymages.bankingspringproject.repository.TransactionRepository;
+import org.crazymages.bankingspringproject.repository.TransactionRepository.DailySpending;
+import org.crazymages.bankingspringproject.service.database.ProductDatabaseService;
+import org.crazymages.bankingspringproject.service.utils.matcher.ProductTypeMatcher;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class SlidingWindowSpendingLimitServiceTest {
+
+    private static final Instant NOW = Instant.parse("2023-06-15T12:00:00Z");
+
+    @Mock
+    ProductDatabaseService productDatabaseService;
+    @Mock
+    TransactionRepository transactionRepository;
+
+    MutableClock clock;
+    SlidingWindowSpendingLimitService spendingLimitService;
+    Account sender;
+
+    @BeforeEach
+    void setUp() {
+        clock = new MutableClock(NOW);
+        spendingLimitService = new SlidingWindowSpendingLimitService(productDatabaseService, new ProductTypeMatcher(),
+                transactionRepository, BigDecimal.valueOf(3), 1_000, clock);
+        sender = new Account();
+        sender.setUuid(UUID.randomUUID());
+        sender.setType(AccountType.CURRENT);
+        sender.setCurrencyCode(CurrencyCode.EUR);
+        lenient().when(productDatabaseService.findActiveProductLimitation(ProductType.CURRENT_ACCOUNT, CurrencyCode.EUR))
+                .thenReturn(BigDecimal.valueOf(100));
+    }
+
+    @Test
+    void checkLimit_withinDailyLimit_passes() {
+        // given
+        spendingLimitService.checkLimit(createTransaction(TransactionType.TRANSFER, 60), sender);
+
+        // when, then
+        assertDoesNotThrow(() -> spendingLimitService.checkLimit(createTransaction(TransactionType.TRANSFER, 40), sender));
+    }
+
+    @Test
+    void checkLimit_overDailyLimit_throwsSpendingLimitExceededException() {
+        // given
+        spendingLimitService.checkLimit(createTransaction(TransactionType.TRANSFER, 60), sender);
+
+        // when, then
+        assertThrows(SpendingLimitExceededException.class,
+                () -> spendingLimitService.checkLimit(createTransaction(TransactionType.TRANSFER, 41), sender));
+    }
+
+    @Test
+    void checkLimit_limitExceeded_amountNotReserved() {
+        // given
+        spendingLimitService.checkLimit(createTransaction(TransactionType.TRANSFER, 60), sender);
+        assertThrows(SpendingLimitExceededException.class,
+                () -> spendingLimitService.checkLimit(createTransaction(TransactionType.TRANSFER, 50), sender));
+
+        // when, then
+        assertDoesNotThrow(() -> spendingLimitService.checkLimit(createTransaction(TransactionType.TRANSFER, 40), sender));
+    }
+
+    @Test
+    void checkLimit_concurrentTransactions_limitNeverExceeded() throws Exception {
+        // given
+        int threads = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Boolean>> futures = new ArrayList<>();
+        for (int i = 0; i < threads * 10; i++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                try {
+                    spendingLimitService.checkLimit(createTransaction(TransactionType.TRANSFER, 7), sender);
+                    return true;
+                } catch (SpendingLimitExceededException e) {
+                    return false;
+                }
+            }));
+        }
+
+        // when
+        start.countDown();
+        int passed = 0;
+        for (Future<Boolean> future : futures) {
+            if (future.get(10, TimeUnit.SECONDS)) {
+                passed++;
+            }
+        }
+        executor.shutdown();
+
+        // then
+        assertEquals(14, passed);
+        verify(transactionRepository, atMost(threads))
+                .sumDailySpendingOfAccountSince(eq(sender.getUuid()), any(), anyCollection());
+    }
+
+    @Test
+    void checkLimit_nextDay_dailySpendingReset() {
+        // given
+        spendingLimitService.checkLimit(createTransaction(TransactionType.TRANSFER, 100), sender);
+
+        // when
+        clock.advanceDays(1);
+
+        // then
+        assertDoesNotThrow(() -> spendingLimitService.checkLimit(createTransaction(TransactionType.TRANSFER, 100), sender));
+    }
+
+    @Test
+    void checkLimit_overMonthlyLimit_throwsSpendingLimitExceededException() {
+        // given
+        for (int day = 0; day < 3; day++) {
+            spendingLimitService.checkLimit(createTransaction(TransactionType.TRANSFER, 100), sender);
+            clock.advanceDays(1);
+        }
+
+        // when, then
+        assertThrows(SpendingLimitExceededException.class,
+                () -> spendingLimitService.checkLimit(createTransaction(TransactionType.TRANSFER, 1), sender));
+    }
+
+    @Test
+    void checkLimit_monthlyWindowSlides_oldSpendingDropsOut() {
+        // given
+        for (int day = 0; day < 3; day++) {
+            spendingLimitService.checkLimit(createTransaction(TransactionType.TRANSFER, 100), sender);
+            clock.advanceDays(1);
+        }
+
+        // when
+        clock.advanceDays(SlidingWindowSpendingLimitService.WINDOW_DAYS - 3);
+
+        // then
+        assertDoesNotThrow(() -> spendingLimitService.checkLimit(createTransaction(TransactionType.TRANSFER, 100), sender));
+    }
+
+    @Test
+    void checkLimit_productWithoutLimitation_passes() {
+        // given
+        when(productDatabaseService.findActiveProductLimitation(ProductType.CURRENT_ACCOUNT, CurrencyCode.EUR))
+                .thenReturn(BigDecimal.ZERO);
+
+        // when, then
+        assertDoesNotThrow(() -> spendingLimitService.checkLimit(createTransaction(TransactionType.TRANSFER, 1_000), sender));
+    }
+
+    @Test
+    void checkLimit_depositAndBankShard_notLimited() {
+        // given
+        Account shard = new Account();
+        shard.setUuid(UUID.randomUUID());
+        shard.setType(AccountType.BANK_SHARD);
+
+        // when, then
+        assertDoesNotThrow(() -> spendingLimitService.checkLimit(createTransaction(TransactionType.DEPOSIT, 1_000), sender));
+        assertDoesNotThrow(() -> spendingLimitService.checkLimit(createTransaction(TransactionType.TRANSFER, 1_000), shard));
+        verifyNoInteractions(productDatabaseService);
+    }
+
+    @Test
+    void checkLimit_transactionRolledBack_reservationReleased() {
+        // given
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            spendingLimitService.checkLimit(createTransaction(TransactionType.TRANSFER, 100), sender);
+
+            // when
+            TransactionSynchronizationManager.getSynchronizations()
+                    .forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        // then
+        assertDoesNotThrow(() -> spendingLimitService.checkLimit(createTransaction(TransactionType.TRANSFER, 100), sender));
+    }
+
+    @Test
+    void warmUp_spendingInDatabase_countedAgainstLimit() {
+        // given
+        DailySpending today = mock(DailySpending.class);
+        when(today.getAccountUuid()).thenReturn(sender.getUuid());
+        when(today.getDay()).thenReturn(LocalDate.ofInstant(NOW, ZoneOffset.UTC));
+        when(today.getAmount()).thenReturn(BigDecimal.valueOf(90));
+        when(transactionRepository.sumDailySpendingBetween(any(), any(), anyCollection())).thenReturn(List.of(today));
+
+        // when
+        int loaded = spendingLimitService.warmUp();
+
+        // then
+        assertEquals(1, loaded);
+        assertEquals(0, spendingLimitService.warmUp());
+        assertThrows(SpendingLimitExceededException.class,
+                () -> spendingLimitService.checkLimit(createTransaction(TransactionType.TRANSFER, 11), sender));
+        verify(transactionRepository).sumDailySpendingBetween(any(), any(), anyCollection());
+    }
+
+    @Test
+    void checkLimit_windowNotCached_spendingLoadedFromDatabase() {
+        // given
+        DailySpending today = mock(DailySpending.class);
+        when(today.getDay()).thenReturn(LocalDate.ofInstant(NOW, ZoneOffset.UTC));
+        when(today.getAmount()).thenReturn(BigDecimal.valueOf(90));
+        when(transactionRepository.sumDailySpendingOfAccountSince(eq(sender.getUuid()), any(), anyCollection()))
+                .thenReturn(List.of(today));
+
+        // when, then
+        assertThrows(SpendingLimitExceededException.class,
+                () -> spendingLimitService.checkLimit(createTransaction(TransactionType.TRANSFER, 11), sender));
+        assertDoesNotThrow(() -> spendingLimitService.checkLimit(createTransaction(TransactionType.TRANSFER, 10), sender));
+        verify(transactionRepository).sumDailySpendingOfAccountSince(eq(sender.getUuid()), any(), anyCollection());
+    }
+
+    @Test
+    void checkLimit_windowIdleLongerThanWindow_windowExpiredAndReloaded() {
+        // given
+        spendingLimitService.checkLimit(createTransaction(TransactionType.TRANSFER, 100), sender);
+
+        // when
+        clock.advanceDays(SlidingWindowSpendingLimitService.WINDOW_DAYS + 1);
+
+        // then
+        assertDoesNotThrow(() -> spendingLimitService.checkLimit(createTransaction(TransactionType.TRANSFER, 100), sender));
+        verify(transactionRepository, times(2))
+                .sumDailySpendingOfAccountSince(eq(sender.getUuid()), any(), anyCollection());
+    }
+
+    @Test
+    void checkLimit_nullAccount_throwsIllegalArgumentException() {
+        // when, then
+        assertThrows(IllegalArgumentException.class,
+                () -> spendingLimitService.checkLimit(createTransaction(TransactionType.TRANSFER, 1), null));
+    }
+
+    private Transaction createTransaction(TransactionType type, long amount) {
+        Transaction transaction = new Transaction();
+        transaction.setDebitAccountUuid(sender.getUuid());
+        transaction.setType(type);
+        transaction.setAmount(BigDecimal.valueOf(amount));
+        return transaction;
+    }
+
+    private static class MutableClock extends Clock {
+
+        private Instant instant;
+
+        MutableClock(Instant instant) {
+            this.instant = instant;
+        }
+
+        void advanceDays(long days) {
+            instant = instant.plusSeconds(days * 86_400);
+        }
+
+        @Override
+        public ZoneOffset getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(java.time.ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return instant;
+        }
+    }
+}
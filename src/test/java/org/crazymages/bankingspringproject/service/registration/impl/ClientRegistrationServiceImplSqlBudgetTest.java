@@ -0,0 +1,119 @@
+package org.crazymages.bankingspringproject.service.registration.impl;
+
+import org.crazymages.bankingspringproject.dto.ClientRegistrationDto;
+import org.crazymages.bankingspringproject.dto.mapper.client.ClientCreationMapper;
+import org.crazymages.bankingspringproject.dto.mapper.client.ClientDtoMapper;
+import org.crazymages.bankingspringproject.dto.mapper.manager.ManagerDtoMapper;
+import org.crazymages.bankingspringproject.entity.Client;
+import org.crazymages.bankingspringproject.entity.Manager;
+import org.crazymages.bankingspringproject.entity.enums.ManagerStatus;
+import org.crazymages.bankingspringproject.repository.ClientRepository;
+import org.crazymages.bankingspringproject.repository.ManagerRepository;
+import org.crazymages.bankingspringproject.service.database.AccountDatabaseService;
+import org.crazymages.bankingspringproject.service.database.impl.ClientDatabaseServiceImpl;
+import org.crazymages.bankingspringproject.service.database.impl.ManagerDatabaseServiceImpl;
+import org.crazymages.bankingspringproject.service.registration.ClientRegistrationService;
+import org.crazymages.bankingspringproject.service.utils.updater.impl.ClientUpdateServiceImpl;
+import org.crazymages.bankingspringproject.service.utils.updater.impl.ManagerUpdateServiceImpl;
+import org.crazymages.bankingspringproject.support.SqlStatementCounter;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.NoOpPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.provisioning.JdbcUserDetailsManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.sql.DataSource;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Guards the number of SQL statements registering a client sends to the database.
+ */
+@DataJpaTest
+@Import({ClientRegistrationServiceImpl.class, ClientDatabaseServiceImpl.class, ClientUpdateServiceImpl.class,
+        ClientDtoMapper.class, ClientCreationMapper.class, ManagerDatabaseServiceImpl.class,
+        ManagerUpdateServiceImpl.class, ManagerDtoMapper.class, SqlStatementCounter.Config.class,
+        ClientRegistrationServiceImplSqlBudgetTest.SecurityConfig.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class ClientRegistrationServiceImplSqlBudgetTest {
+
+    private static final int REGISTRATION_BUDGET = 5;
+
+    @Autowired
+    ClientRegistrationService clientRegistrationService;
+    @Autowired
+    SqlStatementCounter sqlStatementCounter;
+    @Autowired
+    ClientRepository clientRepository;
+    @Autowired
+    ManagerRepository managerRepository;
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @MockBean
+    AccountDatabaseService accountDatabaseService;
+
+    @BeforeEach
+    void setUp() {
+        Manager manager = new Manager();
+        manager.setFirstName("Anna");
+        manager.setLastName("Smith");
+        manager.setStatus(ManagerStatus.ACTIVE);
+        manager = managerRepository.save(manager);
+        Client client = new Client();
+        client.setManagerUuid(manager.getUuid());
+        client.setEmail("existing@mail.com");
+        clientRepository.save(client);
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM authorities");
+        jdbcTemplate.update("DELETE FROM users");
+        clientRepository.deleteAll();
+        managerRepository.deleteAll();
+    }
+
+    @Test
+    void registerNewClient_newEmail_staysWithinStatementBudget() {
+        // given
+        ClientRegistrationDto registration = ClientRegistrationDto.builder()
+                .firstName("John")
+                .lastName("Doe")
+                .email("john.doe@mail.com")
+                .password("secret")
+                .build();
+
+        // when
+        sqlStatementCounter.assertStatementBudget(REGISTRATION_BUDGET,
+                () -> clientRegistrationService.registerNewClient(registration));
+
+        // then
+        assertEquals(2, clientRepository.count());
+    }
+
+    @TestConfiguration
+    static class SecurityConfig {
+
+        @Bean
+        JdbcUserDetailsManager userDetailsManager(DataSource dataSource) {
+            return new JdbcUserDetailsManager(dataSource);
+        }
+
+        @Bean
+        @SuppressWarnings("deprecation")
+        PasswordEncoder passwordEncoder() {
+            return NoOpPasswordEncoder.getInstance();
+        }
+    }
+}
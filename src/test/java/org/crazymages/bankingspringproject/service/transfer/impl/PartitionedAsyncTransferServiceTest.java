@@ -0,0 +1,288 @@
+package org.crazymages.bankingspringproject.service.transfer.impl;
+
+import org.crazymages.bankingspringproject.dto.TransferResultDto;
+import org.crazymages.bankingspringproject.dto.TransferStatusDto;
+import org.crazymages.bankingspringproject.entity.AsyncTransfer;
+import org.crazymages.bankingspringproject.entity.Transaction;
+import org.crazymages.bankingspringproject.entity.enums.TransferStatus;
+import org.crazymages.bankingspringproject.exception.DataNotFoundException;
+import org.crazymages.bankingspringproject.repository.AsyncTransferRepository;
+import org.crazymages.bankingspringproject.service.transfer.TransferExecutor;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class PartitionedAsyncTransferServiceTest {
+
+    @MockBean
+    TransferExecutor transferExecutor;
+
+    @Autowired
+    AsyncTransferRepository asyncTransferRepository;
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    PartitionedAsyncTransferService asyncTransferService;
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        asyncTransferService.shutdown();
+        asyncTransferRepository.deleteAll();
+    }
+
+    @Test
+    void submit_transferCompleted_statusStored() throws InterruptedException {
+        // given
+        asyncTransferService = createService(2, 10, 10);
+        when(transferExecutor.executeBatch(anyList())).thenAnswer(invocation -> completeAll(invocation.getArgument(0)));
+
+        // when
+        TransferStatusDto accepted = asyncTransferService.submit(createTransfer(UUID.randomUUID(), "transfer"));
+
+        // then
+        assertEquals(TransferStatus.ACCEPTED.name(), accepted.getStatus());
+        TransferStatusDto actual = awaitStatus(accepted.getTransferId(), TransferStatus.COMPLETED);
+        assertNotNull(actual.getTransactionUuid());
+        AsyncTransfer stored = asyncTransferRepository.findById(UUID.fromString(accepted.getTransferId()))
+                .orElseThrow();
+        assertEquals(TransferStatus.COMPLETED, stored.getStatus());
+        assertEquals(actual.getTransactionUuid(), stored.getTransactionUuid().toString());
+    }
+
+    @Test
+    void submit_sameDebitAccount_appliedInSubmissionOrder() throws InterruptedException {
+        // given
+        asyncTransferService = createService(4, 100, 3);
+        List<String> applied = Collections.synchronizedList(new ArrayList<>());
+        when(transferExecutor.executeBatch(anyList())).thenAnswer(invocation -> {
+            List<Transaction> transactions = invocation.getArgument(0);
+            assertTrue(transactions.size() <= 3);
+            transactions.forEach(transaction -> applied.add(transaction.getDescription()));
+            return completeAll(transactions);
+        });
+        UUID debitAccountUuid = UUID.randomUUID();
+        List<String> submitted = IntStream.range(0, 20).mapToObj(String::valueOf).toList();
+
+        // when
+        List<String> transferIds = submitted.stream()
+                .map(description -> asyncTransferService.submit(createTransfer(debitAccountUuid, description)))
+                .map(TransferStatusDto::getTransferId)
+                .toList();
+
+        // then
+        for (String transferId : transferIds) {
+            awaitStatus(transferId, TransferStatus.COMPLETED);
+        }
+        assertEquals(submitted, applied);
+    }
+
+    @Test
+    void submit_batchFails_statusFailed() throws InterruptedException {
+        // given
+        asyncTransferService = createService(1, 10, 10);
+        when(transferExecutor.executeBatch(anyList())).thenThrow(new IllegalStateException("broken"));
+
+        // when
+        TransferStatusDto accepted = asyncTransferService.submit(createTransfer(UUID.randomUUID(), "transfer"));
+
+        // then
+        TransferStatusDto actual = awaitStatus(accepted.getTransferId(), TransferStatus.FAILED);
+        assertEquals("broken", actual.getMessage());
+    }
+
+    @Test
+    void submit_conflict_batchRetried() throws InterruptedException {
+        // given
+        asyncTransferService = createService(1, 10, 10);
+        when(transferExecutor.executeBatch(anyList()))
+                .thenThrow(new CannotAcquireLockException("lock timeout"))
+                .thenAnswer(invocation -> completeAll(invocation.getArgument(0)));
+
+        // when
+        TransferStatusDto accepted = asyncTransferService.submit(createTransfer(UUID.randomUUID(), "transfer"));
+
+        // then
+        awaitStatus(accepted.getTransferId(), TransferStatus.COMPLETED);
+        verify(transferExecutor, times(2)).executeBatch(anyList());
+    }
+
+    @Test
+    void submit_enclosingTransactionRolledBack_transferNeitherStoredNorExecuted() throws InterruptedException {
+        // given
+        asyncTransferService = createService(1, 10, 10);
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+
+        // when
+        transactionTemplate.executeWithoutResult(status -> {
+            asyncTransferService.submit(createTransfer(UUID.randomUUID(), "transfer"));
+            status.setRollbackOnly();
+        });
+
+        // then
+        asyncTransferService.shutdown();
+        assertEquals(0, asyncTransferRepository.count());
+        verifyNoInteractions(transferExecutor);
+    }
+
+    @Test
+    void submit_queueFull_throwsRejectedExecutionException() throws InterruptedException {
+        // given
+        asyncTransferService = createService(1, 1, 1);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(transferExecutor.executeBatch(anyList())).thenAnswer(invocation -> {
+            started.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return completeAll(invocation.getArgument(0));
+        });
+        UUID debitAccountUuid = UUID.randomUUID();
+        asyncTransferService.submit(createTransfer(debitAccountUuid, "first"));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        asyncTransferService.submit(createTransfer(debitAccountUuid, "second"));
+
+        // when, then
+        assertThrows(RejectedExecutionException.class,
+                () -> asyncTransferService.submit(createTransfer(debitAccountUuid, "third")));
+        assertEquals(2, asyncTransferRepository.count());
+        release.countDown();
+    }
+
+    @Test
+    void shutdown_queuedTransfers_drainedAndNewTransfersRejected() throws InterruptedException {
+        // given
+        asyncTransferService = createService(1, 10, 1);
+        when(transferExecutor.executeBatch(anyList())).thenAnswer(invocation -> {
+            Thread.sleep(20);
+            return completeAll(invocation.getArgument(0));
+        });
+        UUID debitAccountUuid = UUID.randomUUID();
+        IntStream.range(0, 5).forEach(i -> asyncTransferService.submit(createTransfer(debitAccountUuid, "transfer")));
+
+        // when
+        asyncTransferService.shutdown();
+
+        // then
+        assertTrue(asyncTransferRepository.findAll().stream()
+                .allMatch(transfer -> transfer.getStatus() == TransferStatus.COMPLETED));
+        assertThrows(RejectedExecutionException.class,
+                () -> asyncTransferService.submit(createTransfer(debitAccountUuid, "late")));
+    }
+
+    @Test
+    void recoverAccepted_transferLeftBehind_executedOnce() throws InterruptedException {
+        // given
+        asyncTransferService = createService(1, 10, 10);
+        when(transferExecutor.executeBatch(anyList())).thenAnswer(invocation -> completeAll(invocation.getArgument(0)));
+        AsyncTransfer leftBehind = asyncTransferRepository.save(AsyncTransfer.builder()
+                .debitAccountUuid(UUID.randomUUID())
+                .creditAccountUuid(UUID.randomUUID())
+                .amount(BigDecimal.TEN)
+                .status(TransferStatus.ACCEPTED)
+                .build());
+        Thread.sleep(10);
+
+        // when
+        int recovered = asyncTransferService.recoverAccepted();
+
+        // then
+        assertEquals(1, recovered);
+        awaitStatus(leftBehind.getUuid().toString(), TransferStatus.COMPLETED);
+        assertEquals(0, asyncTransferService.recoverAccepted());
+        verify(transferExecutor, times(1)).executeBatch(anyList());
+    }
+
+    @Test
+    void getStatus_transferNotCached_readFromDatabase() {
+        // given
+        asyncTransferService = createService(1, 10, 10);
+        AsyncTransfer transfer = asyncTransferRepository.save(AsyncTransfer.builder()
+                .debitAccountUuid(UUID.randomUUID())
+                .status(TransferStatus.REJECTED)
+                .message("Insufficient funds")
+                .build());
+
+        // when
+        TransferStatusDto actual = asyncTransferService.getStatus(transfer.getUuid().toString());
+
+        // then
+        assertEquals(TransferStatus.REJECTED.name(), actual.getStatus());
+        assertEquals("Insufficient funds", actual.getMessage());
+    }
+
+    @Test
+    void submit_nullDebitAccount_throwsIllegalArgumentException() {
+        // given
+        asyncTransferService = createService(1, 10, 10);
+
+        // when, then
+        assertThrows(IllegalArgumentException.class, () -> asyncTransferService.submit(new Transaction()));
+    }
+
+    @Test
+    void getStatus_unknownTransfer_throwsDataNotFoundException() {
+        // given
+        asyncTransferService = createService(1, 10, 10);
+
+        // when, then
+        assertThrows(DataNotFoundException.class, () -> asyncTransferService.getStatus("unknown"));
+        assertThrows(DataNotFoundException.class, () -> asyncTransferService.getStatus(UUID.randomUUID().toString()));
+    }
+
+    private PartitionedAsyncTransferService createService(int partitions, int queueCapacity, int maxBatchSize) {
+        return new PartitionedAsyncTransferService(transferExecutor, asyncTransferRepository, transactionManager,
+                partitions, queueCapacity, maxBatchSize, 5, 100, 3, 5, 0);
+    }
+
+    private TransferStatusDto awaitStatus(String transferId, TransferStatus expected) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        TransferStatusDto status = asyncTransferService.getStatus(transferId);
+        while (!expected.name().equals(status.getStatus()) && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+            status = asyncTransferService.getStatus(transferId);
+        }
+        assertEquals(expected.name(), status.getStatus());
+        return status;
+    }
+
+    private List<TransferResultDto> completeAll(List<Transaction> transactions) {
+        return IntStream.range(0, transactions.size())
+                .mapToObj(i -> TransferResultDto.builder()
+                        .index(i)
+                        .transactionUuid(UUID.randomUUID().toString())
+                        .status(TransferStatus.COMPLETED.name())
+                        .build())
+                .toList();
+    }
+
+    private Transaction createTransfer(UUID debitAccountUuid, String description) {
+        Transaction transaction = new Transaction();
+        transaction.setDebitAccountUuid(debitAccountUuid);
+        transaction.setCreditAccountUuid(UUID.randomUUID());
+        transaction.setAmount(BigDecimal.TEN);
+        transaction.setDescription(description);
+        return transaction;
+    }
+}
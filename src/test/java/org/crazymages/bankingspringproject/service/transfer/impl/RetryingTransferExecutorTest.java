@@ -0,0 +1,232 @@
+package org.crazymages.bankingspringproject.service.transfer.impl;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.crazymages.bankingspringproject.dto.TransferResultDto;
+import org.crazymages.bankingspringproject.entity.Account;
+import org.crazymages.bankingspringproject.entity.Transaction;
+import org.crazymages.bankingspringproject.entity.enums.CurrencyCode;
+import org.crazymages.bankingspringproject.exception.InsufficientFundsException;
+import org.crazymages.bankingspringproject.service.database.TransactionDatabaseService;
+import org.crazymages.bankingspringproject.service.utils.lock.impl.StripedAccountLockManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class RetryingTransferExecutorTest {
+
+    @Mock
+    TransactionDatabaseService transactionDatabaseService;
+
+    MeterRegistry meterRegistry;
+    RetryingTransferExecutor transferExecutor;
+    Transaction transaction;
+    ObjectOptimisticLockingFailureException conflict;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        transferExecutor = new RetryingTransferExecutor(
+                transactionDatabaseService, new StripedAccountLockManager(16), meterRegistry, 3, 1, 2, 2);
+        transaction = new Transaction();
+        transaction.setDebitAccountUuid(UUID.randomUUID());
+        transaction.setCreditAccountUuid(UUID.randomUUID());
+        conflict = new ObjectOptimisticLockingFailureException(Account.class, transaction.getDebitAccountUuid());
+    }
+
+    @Test
+    void execute_noConflict_transferExecutedOnce() {
+        // when
+        transferExecutor.execute(transaction);
+
+        // then
+        verify(transactionDatabaseService).transferFunds(transaction);
+        assertEquals(0, meterRegistry.counter("transfer.conflicts").count());
+        assertEquals(0, meterRegistry.counter("transfer.retries").count());
+    }
+
+    @Test
+    void execute_conflictThenSuccess_transferRetried() {
+        // given
+        doThrow(conflict).doNothing().when(transactionDatabaseService).transferFunds(transaction);
+
+        // when
+        transferExecutor.execute(transaction);
+
+        // then
+        verify(transactionDatabaseService, times(2)).transferFunds(transaction);
+        assertEquals(1, meterRegistry.counter("transfer.conflicts").count());
+        assertEquals(1, meterRegistry.counter("transfer.retries").count());
+    }
+
+    @Test
+    void execute_conflictAfterIdGenerated_retriesWithFreshCopy() {
+        // given
+        UUID rolledBackUuid = UUID.randomUUID();
+        UUID committedUuid = UUID.randomUUID();
+        List<Transaction> attempts = new ArrayList<>();
+        doAnswer(invocation -> {
+            Transaction attempt = invocation.getArgument(0);
+            attempts.add(attempt);
+            assertNull(attempt.getUuid());
+            assertNull(attempt.getCurrencyCode());
+            attempt.setCurrencyCode(CurrencyCode.EUR);
+            if (attempts.size() == 1) {
+                attempt.setUuid(rolledBackUuid);
+                throw conflict;
+            }
+            attempt.setUuid(committedUuid);
+            return null;
+        }).when(transactionDatabaseService).transferFunds(any(Transaction.class));
+
+        // when
+        transferExecutor.execute(transaction);
+
+        // then
+        assertEquals(2, attempts.size());
+        assertNotSame(attempts.get(0), attempts.get(1));
+        assertNotSame(transaction, attempts.get(1));
+        assertEquals(committedUuid, transaction.getUuid());
+        assertEquals(CurrencyCode.EUR, transaction.getCurrencyCode());
+    }
+
+    @Test
+    void execute_conflictOnEveryAttempt_throwsAfterMaxAttempts() {
+        // given
+        doThrow(conflict).when(transactionDatabaseService).transferFunds(transaction);
+
+        // when, then
+        assertThrows(ObjectOptimisticLockingFailureException.class, () -> transferExecutor.execute(transaction));
+        verify(transactionDatabaseService, times(3)).transferFunds(transaction);
+        assertEquals(3, meterRegistry.counter("transfer.conflicts").count());
+        assertEquals(2, meterRegistry.counter("transfer.retries").count());
+        assertEquals(1, meterRegistry.counter("transfer.retries.exhausted").count());
+    }
+
+    @Test
+    void execute_conflictInEnclosingTransaction_notRetried() {
+        // given
+        doThrow(conflict).when(transactionDatabaseService).transferFunds(transaction);
+
+        // when, then
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+        try {
+            assertThrows(ObjectOptimisticLockingFailureException.class, () -> transferExecutor.execute(transaction));
+        } finally {
+            TransactionSynchronizationManager.setActualTransactionActive(false);
+        }
+        verify(transactionDatabaseService).transferFunds(transaction);
+        assertEquals(0, meterRegistry.counter("transfer.retries").count());
+    }
+
+    @Test
+    void execute_businessFailure_notRetried() {
+        // given
+        doThrow(new InsufficientFundsException("Sender balance is too low"))
+                .when(transactionDatabaseService).transferFunds(transaction);
+
+        // when, then
+        assertThrows(InsufficientFundsException.class, () -> transferExecutor.execute(transaction));
+        verify(transactionDatabaseService).transferFunds(transaction);
+        assertEquals(0, meterRegistry.counter("transfer.conflicts").count());
+    }
+
+    @Test
+    void executeBatch_conflictThenSuccess_batchRetried() {
+        // given
+        List<Transaction> transactions = List.of(transaction);
+        List<TransferResultDto> expected = List.of(TransferResultDto.builder().build());
+        when(transactionDatabaseService.transferFundsBatch(transactions)).thenThrow(conflict).thenReturn(expected);
+
+        // when
+        List<TransferResultDto> actual = transferExecutor.executeBatch(transactions);
+
+        // then
+        assertEquals(expected, actual);
+        verify(transactionDatabaseService, times(2)).transferFundsBatch(transactions);
+        assertEquals(1, meterRegistry.counter("transfer.retries").count());
+    }
+
+    @Test
+    void executeBatch_conflictAfterIdGenerated_retriesWithFreshCopies() {
+        // given
+        UUID committedUuid = UUID.randomUUID();
+        List<Transaction> transactions = List.of(transaction);
+        when(transactionDatabaseService.transferFundsBatch(anyList())).thenAnswer(invocation -> {
+            List<Transaction> attempt = invocation.getArgument(0);
+            assertNull(attempt.get(0).getUuid());
+            attempt.get(0).setUuid(UUID.randomUUID());
+            throw conflict;
+        }).thenAnswer(invocation -> {
+            List<Transaction> attempt = invocation.getArgument(0);
+            assertNull(attempt.get(0).getUuid());
+            attempt.get(0).setUuid(committedUuid);
+            return List.of(TransferResultDto.builder().transactionUuid(committedUuid.toString()).build());
+        });
+
+        // when
+        List<TransferResultDto> actual = transferExecutor.executeBatch(transactions);
+
+        // then
+        assertEquals(committedUuid.toString(), actual.get(0).getTransactionUuid());
+        assertEquals(committedUuid, transaction.getUuid());
+    }
+
+    @Test
+    void executeBatch_inEnclosingTransaction_accountsLockedUntilItCompletes() throws Exception {
+        // given
+        StripedAccountLockManager lockManager = new StripedAccountLockManager(16);
+        transferExecutor = new RetryingTransferExecutor(
+                transactionDatabaseService, lockManager, meterRegistry, 3, 1, 2, 2);
+        when(transactionDatabaseService.transferFundsBatch(anyList()))
+                .thenReturn(List.of(TransferResultDto.builder().build()));
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            // when
+            transferExecutor.executeBatch(List.of(transaction));
+            Future<Boolean> other = executor.submit(() -> lockManager.executeWithLocks(
+                    List.of(transaction.getCreditAccountUuid()), () -> true));
+
+            // then
+            assertThrows(TimeoutException.class, () -> other.get(200, TimeUnit.MILLISECONDS));
+            TransactionSynchronizationManager.getSynchronizations()
+                    .forEach(synchronization -> synchronization.afterCompletion(
+                            TransactionSynchronization.STATUS_COMMITTED));
+            assertTrue(other.get(5, TimeUnit.SECONDS));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    void executeBatch_tooManyTransfers_throwsIllegalArgumentException() {
+        // given
+        List<Transaction> transactions = List.of(transaction, new Transaction(), new Transaction());
+
+        // when, then
+        assertThrows(IllegalArgumentException.class, () -> transferExecutor.executeBatch(transactions));
+        verifyNoInteractions(transactionDatabaseService);
+    }
+}
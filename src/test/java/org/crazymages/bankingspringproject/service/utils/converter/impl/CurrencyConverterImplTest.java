@@ -1,9 +1,10 @@
 package org.crazymages.bankingspringproject.service.utils.converter.impl;
 
 import org.crazymages.bankingspringproject.entity.Account;
-import org.crazymages.bankingspringproject.entity.CurrencyExchangeRate;
 import org.crazymages.bankingspringproject.entity.enums.CurrencyCode;
-import org.crazymages.bankingspringproject.service.database.CurrencyExchangeRateDatabaseService;
+import org.crazymages.bankingspringproject.exception.DataNotFoundException;
+import org.crazymages.bankingspringproject.service.exchange.ExchangeRateSnapshot;
+import org.crazymages.bankingspringproject.service.exchange.ExchangeRateSnapshotService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -13,54 +14,48 @@ import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
+import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
 class CurrencyConverterImplTest {
 
     @Mock
-    CurrencyExchangeRateDatabaseService currencyExchangeRateDatabaseService;
+    ExchangeRateSnapshotService exchangeRateSnapshotService;
 
     @InjectMocks
     CurrencyConverterImpl currencyConverter;
 
+    BigDecimal recipientRate;
+    BigDecimal senderRate;
+
     @BeforeEach
     void setUp() {
+        recipientRate = BigDecimal.valueOf(0.89);
+        senderRate = BigDecimal.valueOf(1.46);
     }
 
     @Test
     void performCurrencyConversion_success() {
         BigDecimal amount = BigDecimal.valueOf(100);
 
-        String recipientCurrencyCode = "EUR";
-        CurrencyExchangeRate recipientToBaseCurrencyRate = new CurrencyExchangeRate();
-        recipientToBaseCurrencyRate.setCurrencyCode(recipientCurrencyCode);
-        recipientToBaseCurrencyRate.setExchangeRate(BigDecimal.valueOf(0.89));
 
         Account recipientAccount = new Account();
         recipientAccount.setBalance(BigDecimal.ZERO);
         recipientAccount.setCurrencyCode(CurrencyCode.EUR);
 
-        when(currencyExchangeRateDatabaseService
-                .findByCurrencyCode(recipientCurrencyCode)).thenReturn(recipientToBaseCurrencyRate);
-
-        String senderCurrencyCode = "AUD";
-        CurrencyExchangeRate senderToBaseCurrencyRate = new CurrencyExchangeRate();
-        senderToBaseCurrencyRate.setCurrencyCode(senderCurrencyCode);
-        senderToBaseCurrencyRate.setExchangeRate(BigDecimal.valueOf(1.46));
-
         Account senderAccount = new Account();
         senderAccount.setCurrencyCode(CurrencyCode.AUD);
         senderAccount.setBalance(BigDecimal.valueOf(200));
 
-        when(currencyExchangeRateDatabaseService
-                .findByCurrencyCode(senderCurrencyCode)).thenReturn(senderToBaseCurrencyRate);
+        when(exchangeRateSnapshotService.getSnapshot()).thenReturn(ExchangeRateSnapshot.of(
+                Map.of(CurrencyCode.EUR, recipientRate, CurrencyCode.AUD, senderRate)));
 
-        BigDecimal baseCurrencyAmount = amount.divide(senderToBaseCurrencyRate.getExchangeRate(), 2, RoundingMode.HALF_UP);
-        BigDecimal recipientAmount = baseCurrencyAmount.multiply(recipientToBaseCurrencyRate.getExchangeRate());
+        BigDecimal recipientAmount = amount.multiply(recipientRate).divide(senderRate, 2, RoundingMode.HALF_UP);
         BigDecimal recipientBalance = recipientAccount.getBalance();
         Account expected = new Account();
         expected.setBalance(recipientBalance.add(recipientAmount));
@@ -71,8 +66,7 @@ class CurrencyConverterImplTest {
         System.out.println(actual.getBalance());
 
         //then
-        verify(currencyExchangeRateDatabaseService).findByCurrencyCode(recipientCurrencyCode);
-        verify(currencyExchangeRateDatabaseService).findByCurrencyCode(senderCurrencyCode);
+        verify(exchangeRateSnapshotService).getSnapshot();
         assertEquals(expected.getBalance(), actual.getBalance());
     }
 
@@ -80,32 +74,19 @@ class CurrencyConverterImplTest {
     void performCurrencyConversion_withZEROAmount_returnsZERO() {
         BigDecimal amount = BigDecimal.ZERO;
 
-        String recipientCurrencyCode = "EUR";
-        CurrencyExchangeRate recipientToBaseCurrencyRate = new CurrencyExchangeRate();
-        recipientToBaseCurrencyRate.setCurrencyCode(recipientCurrencyCode);
-        recipientToBaseCurrencyRate.setExchangeRate(BigDecimal.valueOf(0.89));
 
         Account recipientAccount = new Account();
         recipientAccount.setBalance(BigDecimal.ZERO);
         recipientAccount.setCurrencyCode(CurrencyCode.EUR);
 
-        when(currencyExchangeRateDatabaseService
-                .findByCurrencyCode(recipientCurrencyCode)).thenReturn(recipientToBaseCurrencyRate);
-
-        String senderCurrencyCode = "AUD";
-        CurrencyExchangeRate senderToBaseCurrencyRate = new CurrencyExchangeRate();
-        senderToBaseCurrencyRate.setCurrencyCode(senderCurrencyCode);
-        senderToBaseCurrencyRate.setExchangeRate(BigDecimal.valueOf(1.46));
-
         Account senderAccount = new Account();
         senderAccount.setCurrencyCode(CurrencyCode.AUD);
         senderAccount.setBalance(BigDecimal.valueOf(200));
 
-        when(currencyExchangeRateDatabaseService
-                .findByCurrencyCode(senderCurrencyCode)).thenReturn(senderToBaseCurrencyRate);
+        when(exchangeRateSnapshotService.getSnapshot()).thenReturn(ExchangeRateSnapshot.of(
+                Map.of(CurrencyCode.EUR, recipientRate, CurrencyCode.AUD, senderRate)));
 
-        BigDecimal baseCurrencyAmount = amount.divide(senderToBaseCurrencyRate.getExchangeRate(), 2, RoundingMode.HALF_UP);
-        BigDecimal recipientAmount = baseCurrencyAmount.multiply(recipientToBaseCurrencyRate.getExchangeRate());
+        BigDecimal recipientAmount = amount.multiply(recipientRate).divide(senderRate, 2, RoundingMode.HALF_UP);
         BigDecimal recipientBalance = recipientAccount.getBalance();
         Account expected = new Account();
         expected.setBalance(recipientBalance.add(recipientAmount));
@@ -116,8 +97,7 @@ class CurrencyConverterImplTest {
         System.out.println(actual.getBalance());
 
         //then
-        verify(currencyExchangeRateDatabaseService).findByCurrencyCode(recipientCurrencyCode);
-        verify(currencyExchangeRateDatabaseService).findByCurrencyCode(senderCurrencyCode);
+        verify(exchangeRateSnapshotService).getSnapshot();
         assertEquals(expected.getBalance(), actual.getBalance());
     }
 
@@ -126,32 +106,19 @@ class CurrencyConverterImplTest {
     void performCurrencyConversion_withNegativeAmount_settsNegativeBalance() {
         BigDecimal amount = BigDecimal.valueOf(-100);
 
-        String recipientCurrencyCode = "EUR";
-        CurrencyExchangeRate recipientToBaseCurrencyRate = new CurrencyExchangeRate();
-        recipientToBaseCurrencyRate.setCurrencyCode(recipientCurrencyCode);
-        recipientToBaseCurrencyRate.setExchangeRate(BigDecimal.valueOf(0.89));
 
         Account recipientAccount = new Account();
         recipientAccount.setBalance(BigDecimal.ZERO);
         recipientAccount.setCurrencyCode(CurrencyCode.EUR);
 
-        when(currencyExchangeRateDatabaseService
-                .findByCurrencyCode(recipientCurrencyCode)).thenReturn(recipientToBaseCurrencyRate);
-
-        String senderCurrencyCode = "AUD";
-        CurrencyExchangeRate senderToBaseCurrencyRate = new CurrencyExchangeRate();
-        senderToBaseCurrencyRate.setCurrencyCode(senderCurrencyCode);
-        senderToBaseCurrencyRate.setExchangeRate(BigDecimal.valueOf(1.46));
-
         Account senderAccount = new Account();
         senderAccount.setCurrencyCode(CurrencyCode.AUD);
         senderAccount.setBalance(BigDecimal.valueOf(200));
 
-        when(currencyExchangeRateDatabaseService
-                .findByCurrencyCode(senderCurrencyCode)).thenReturn(senderToBaseCurrencyRate);
+        when(exchangeRateSnapshotService.getSnapshot()).thenReturn(ExchangeRateSnapshot.of(
+                Map.of(CurrencyCode.EUR, recipientRate, CurrencyCode.AUD, senderRate)));
 
-        BigDecimal baseCurrencyAmount = amount.divide(senderToBaseCurrencyRate.getExchangeRate(), 2, RoundingMode.HALF_UP);
-        BigDecimal recipientAmount = baseCurrencyAmount.multiply(recipientToBaseCurrencyRate.getExchangeRate());
+        BigDecimal recipientAmount = amount.multiply(recipientRate).divide(senderRate, 2, RoundingMode.HALF_UP);
         BigDecimal recipientBalance = recipientAccount.getBalance();
         Account expected = new Account();
         expected.setBalance(recipientBalance.add(recipientAmount));
@@ -162,8 +129,7 @@ class CurrencyConverterImplTest {
         System.out.println(actual.getBalance());
 
         //then
-        verify(currencyExchangeRateDatabaseService).findByCurrencyCode(recipientCurrencyCode);
-        verify(currencyExchangeRateDatabaseService).findByCurrencyCode(senderCurrencyCode);
+        verify(exchangeRateSnapshotService).getSnapshot();
         assertEquals(expected.getBalance(), actual.getBalance());
     }
 
@@ -207,4 +173,61 @@ class CurrencyConverterImplTest {
         assertThrows(NullPointerException.class, () -> currencyConverter
                 .performCurrencyConversion(amount, recipientAccount, senderAccount));
     }
+
+    @Test
+    void performCurrencyConversion_rateMissingFromSnapshot_throwsDataNotFoundException() {
+        BigDecimal amount = BigDecimal.valueOf(100);
+
+        Account recipientAccount = new Account();
+        recipientAccount.setCurrencyCode(CurrencyCode.JPY);
+        recipientAccount.setBalance(BigDecimal.ZERO);
+        Account senderAccount = new Account();
+        senderAccount.setCurrencyCode(CurrencyCode.AUD);
+        senderAccount.setBalance(BigDecimal.valueOf(200));
+
+        when(exchangeRateSnapshotService.getSnapshot())
+                .thenReturn(ExchangeRateSnapshot.of(Map.of(CurrencyCode.AUD, senderRate)));
+
+        assertThrows(DataNotFoundException.class, () -> currencyConverter
+                .performCurrencyConversion(amount, recipientAccount, senderAccount));
+    }
+
+    @Test
+    void performCurrencyConversion_withCrossRate_doesNotReadSnapshot() {
+        // given
+        BigDecimal amount = BigDecimal.valueOf(100);
+        Account recipientAccount = new Account();
+        recipientAccount.setBalance(BigDecimal.TEN);
+        recipientAccount.setCurrencyCode(CurrencyCode.EUR);
+        Account senderAccount = new Account();
+        senderAccount.setCurrencyCode(CurrencyCode.AUD);
+        long crossRate = ExchangeRateSnapshot.of(Map.of(CurrencyCode.EUR, recipientRate, CurrencyCode.AUD, senderRate))
+                .getCrossRate(CurrencyCode.AUD, CurrencyCode.EUR);
+
+        BigDecimal expected = BigDecimal.TEN
+                .add(amount.multiply(recipientRate).divide(senderRate, 2, RoundingMode.HALF_UP));
+
+        // when
+        Account actual = currencyConverter.performCurrencyConversion(amount, recipientAccount, senderAccount, crossRate);
+
+        // then
+        verifyNoInteractions(exchangeRateSnapshotService);
+        assertEquals(expected, actual.getBalance());
+    }
+
+    @Test
+    void convert_withCrossRate_returnsConvertedAmount() {
+        // given
+        BigDecimal amount = BigDecimal.valueOf(100);
+        long crossRate = ExchangeRateSnapshot.of(Map.of(CurrencyCode.EUR, recipientRate, CurrencyCode.AUD, senderRate))
+                .getCrossRate(CurrencyCode.AUD, CurrencyCode.EUR);
+        BigDecimal expected = amount.multiply(recipientRate).divide(senderRate, 2, RoundingMode.HALF_UP);
+
+        // when
+        BigDecimal actual = currencyConverter.convert(amount, CurrencyCode.AUD, CurrencyCode.EUR, crossRate);
+
+        // then
+        verifyNoInteractions(exchangeRateSnapshotService);
+        assertEquals(expected, actual);
+    }
 }
@@ -0,0 +1,132 @@
+package org.crazymages.bankingspringproject.service.utils.lock.impl;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StripedAccountLockManagerTest {
+
+    @Test
+    void constructor_stripeCountNotPowerOfTwo_roundedUp() {
+        // when, then
+        assertEquals(1, new StripedAccountLockManager(0).getStripeCount());
+        assertEquals(1, new StripedAccountLockManager(1).getStripeCount());
+        assertEquals(16, new StripedAccountLockManager(10).getStripeCount());
+        assertEquals(1024, new StripedAccountLockManager(1024).getStripeCount());
+    }
+
+    @Test
+    void executeWithLocks_returnsActionResult() {
+        // given
+        StripedAccountLockManager lockManager = new StripedAccountLockManager(16);
+
+        // when
+        String actual = lockManager.executeWithLocks(List.of(UUID.randomUUID(), UUID.randomUUID()), () -> "done");
+
+        // then
+        assertEquals("done", actual);
+    }
+
+    @Test
+    void executeWithLocks_nestedCallOnSameAccount_isReentrant() {
+        // given
+        StripedAccountLockManager lockManager = new StripedAccountLockManager(16);
+        UUID uuid = UUID.randomUUID();
+
+        // when
+        Integer actual = lockManager.executeWithLocks(List.of(uuid),
+                () -> lockManager.executeWithLocks(List.of(uuid), () -> 1));
+
+        // then
+        assertEquals(1, actual);
+    }
+
+    @Test
+    void executeWithLocks_actionThrows_locksReleased() throws Exception {
+        // given
+        StripedAccountLockManager lockManager = new StripedAccountLockManager(16);
+        List<UUID> uuids = List.of(UUID.randomUUID(), UUID.randomUUID());
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+
+        // when
+        assertThrows(IllegalStateException.class, () -> lockManager.executeWithLocks(uuids, () -> {
+            throw new IllegalStateException();
+        }));
+        Future<Boolean> other = executor.submit(() -> lockManager.executeWithLocks(uuids, () -> true));
+
+        // then
+        assertTrue(other.get(5, TimeUnit.SECONDS));
+        executor.shutdown();
+    }
+
+    @Test
+    void executeWithLocks_insideTransaction_locksHeldUntilTransactionCompletes() throws Exception {
+        // given
+        StripedAccountLockManager lockManager = new StripedAccountLockManager(16);
+        List<UUID> uuids = List.of(UUID.randomUUID(), UUID.randomUUID());
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            // when
+            lockManager.executeWithLocks(uuids, () -> null);
+            Future<Boolean> other = executor.submit(() -> lockManager.executeWithLocks(uuids, () -> true));
+
+            // then
+            assertThrows(TimeoutException.class, () -> other.get(200, TimeUnit.MILLISECONDS));
+            TransactionSynchronizationManager.getSynchronizations()
+                    .forEach(synchronization -> synchronization.afterCompletion(
+                            TransactionSynchronization.STATUS_ROLLED_BACK));
+            assertTrue(other.get(5, TimeUnit.SECONDS));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    void executeWithLocks_concurrentOppositeOrder_mutuallyExclusiveWithoutDeadlock() throws Exception {
+        // given
+        StripedAccountLockManager lockManager = new StripedAccountLockManager(1024);
+        UUID first = UUID.randomUUID();
+        UUID second = UUID.randomUUID();
+        AtomicInteger active = new AtomicInteger();
+        AtomicInteger overlaps = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        List<Future<?>> futures = new ArrayList<>();
+
+        // when
+        for (int i = 0; i < 8; i++) {
+            List<UUID> uuids = i % 2 == 0 ? List.of(first, second) : List.of(second, first);
+            futures.add(executor.submit(() -> {
+                for (int j = 0; j < 1000; j++) {
+                    lockManager.executeWithLocks(uuids, () -> {
+                        if (active.incrementAndGet() > 1) {
+                            overlaps.incrementAndGet();
+                        }
+                        active.decrementAndGet();
+                        return null;
+                    });
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get(30, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        // then
+        assertEquals(0, overlaps.get());
+    }
+}
@@ -0,0 +1,58 @@
+package org.crazymages.bankingspringproject.service.utils.parser;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.crazymages.bankingspringproject.exception.DataNotFoundException;
+import org.junit.jupiter.api.Test;
+
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConversionRatesParserTest {
+
+    ConversionRatesParser conversionRatesParser = new ConversionRatesParser(new ObjectMapper());
+
+    @Test
+    void parse_providerResponse_exactDecimalsOfAcceptedCurrencies() {
+        // given
+        byte[] body = ("{\"result\":\"success\",\"documentation\":{\"url\":\"https://example.com\",\"ids\":[1,2]}," +
+                "\"conversion_rates\":{\"USD\":1,\"EUR\":0.9187123456789012345,\"JPY\":149.73,\"XYZ\":3.5," +
+                "\"AUD\":\"n/a\",\"GBP\":1.2E-1},\"time_next_update_unix\":1688256001}")
+                .getBytes(StandardCharsets.UTF_8);
+
+        // when
+        Map<String, BigDecimal> actual = conversionRatesParser.parse(body, "conversion_rates",
+                Set.of("USD", "EUR", "JPY", "AUD", "GBP")::contains);
+
+        // then
+        assertEquals(Map.of(
+                "USD", new BigDecimal("1"),
+                "EUR", new BigDecimal("0.9187123456789012345"),
+                "JPY", new BigDecimal("149.73"),
+                "GBP", new BigDecimal("1.2E-1")), actual);
+    }
+
+    @Test
+    void parse_missingMember_throwsDataNotFoundException() {
+        // given
+        byte[] body = "{\"result\":\"error\",\"error-type\":\"invalid-key\"}".getBytes(StandardCharsets.UTF_8);
+
+        // when, then
+        assertThrows(DataNotFoundException.class,
+                () -> conversionRatesParser.parse(body, "conversion_rates", currencyCode -> true));
+    }
+
+    @Test
+    void parse_malformedBody_throwsUncheckedIOException() {
+        // given
+        byte[] body = "{\"conversion_rates\":{\"USD\":".getBytes(StandardCharsets.UTF_8);
+
+        // when, then
+        assertThrows(UncheckedIOException.class,
+                () -> conversionRatesParser.parse(body, "conversion_rates", currencyCode -> true));
+    }
+}
@@ -39,7 +39,7 @@ class AccountUpdateServiceImplTest {
     }
 
     @Test
-    void update_withValidFields_updatesAccountProperties() {
+    void update_withValidFields_updatesAccountPropertiesExceptBalance() {
         // when
         Account actual = accountUpdateService.update(account, accountUpdate);
 
@@ -48,7 +48,7 @@ class AccountUpdateServiceImplTest {
         assertEquals(accountUpdate.getName(), actual.getName());
         assertEquals(accountUpdate.getType(), actual.getType());
         assertEquals(accountUpdate.getStatus(), actual.getStatus());
-        assertEquals(accountUpdate.getBalance(), actual.getBalance());
+        assertEquals(BigDecimal.valueOf(100), actual.getBalance());
         assertEquals(accountUpdate.getCurrencyCode(), actual.getCurrencyCode());
     }
 
@@ -98,7 +98,7 @@ class AccountUpdateServiceImplTest {
         assertEquals(accountUpdate.getName(), actual.getName());
         assertEquals(accountUpdate.getType(), actual.getType());
         assertEquals(accountUpdate.getStatus(), actual.getStatus());
-        assertEquals(accountUpdate.getBalance(), actual.getBalance());
+        assertNull(actual.getBalance());
         assertEquals(accountUpdate.getCurrencyCode(), actual.getCurrencyCode());
     }
 
@@ -0,0 +1,115 @@
+package org.crazymages.bankingspringproject.support;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.fail;
+
+/**
+ * Test support that counts the SQL statements sent to the database through the application data source.
+ * It sees JPA and plain JDBC access alike, and counts every round trip, so a JDBC batch counts once.
+ * Import {@link Config} into a test to wrap the data source, then autowire the counter.
+ */
+public class SqlStatementCounter implements BeanPostProcessor {
+
+    private static final Set<String> EXECUTE_METHODS = Set.of(
+            "execute", "executeQuery", "executeUpdate", "executeLargeUpdate", "executeBatch", "executeLargeBatch");
+
+    private final List<String> statements = Collections.synchronizedList(new ArrayList<>());
+
+    /**
+     * Runs the action and fails if it sent more SQL statements than the budget allows.
+     *
+     * @param budget The maximum number of statements the action may send.
+     * @param action The action to measure.
+     * @return The number of statements the action sent.
+     */
+    public int assertStatementBudget(int budget, Runnable action) {
+        statements.clear();
+        action.run();
+        List<String> executed = List.copyOf(statements);
+        if (executed.size() > budget) {
+            fail("Expected at most " + budget + " SQL statements but " + executed.size() + " were executed:\n"
+                    + String.join("\n", executed));
+        }
+        return executed.size();
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        return bean instanceof DataSource dataSource ? wrapDataSource(dataSource) : bean;
+    }
+
+    private DataSource wrapDataSource(DataSource dataSource) {
+        return proxy(DataSource.class, dataSource, (method, args) -> {
+            Object result = invoke(dataSource, method, args);
+            return result instanceof Connection connection ? wrapConnection(connection) : result;
+        });
+    }
+
+    private Connection wrapConnection(Connection connection) {
+        return proxy(Connection.class, connection, (method, args) -> {
+            Object result = invoke(connection, method, args);
+            if (result instanceof Statement statement) {
+                String sql = args != null && args.length > 0 && args[0] instanceof String text ? text : null;
+                return wrapStatement(method.getReturnType(), statement, sql);
+            }
+            return result;
+        });
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T extends Statement> T wrapStatement(Class<?> type, Statement statement, String preparedSql) {
+        return proxy((Class<T>) type, (T) statement, (method, args) -> {
+            if (EXECUTE_METHODS.contains(method.getName())) {
+                statements.add(args != null && args.length > 0 && args[0] instanceof String sql
+                        ? sql : method.getName() + ": " + preparedSql);
+            }
+            return invoke(statement, method, args);
+        });
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<T> type, T target, CallHandler handler) {
+        return (T) Proxy.newProxyInstance(
+                SqlStatementCounter.class.getClassLoader(), new Class<?>[]{type},
+                (proxy, method, args) -> handler.handle(method, args));
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    @FunctionalInterface
+    private interface CallHandler {
+        Object handle(Method method, Object[] args) throws Throwable;
+    }
+
+    /**
+     * Test configuration that registers the counter, which wraps the application data source.
+     */
+    @TestConfiguration
+    public static class Config {
+
+        @Bean
+        public static SqlStatementCounter sqlStatementCounter() {
+            return new SqlStatementCounter();
+        }
+    }
+}